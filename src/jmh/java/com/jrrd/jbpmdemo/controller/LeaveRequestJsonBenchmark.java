@@ -0,0 +1,61 @@
+package com.jrrd.jbpmdemo.controller;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jrrd.jbpmdemo.model.LeaveRequest;
+
+/**
+ * JSON serialization of leave requests with the same ObjectMapper
+ * configuration Spring Boot gives the controllers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaveRequestJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private LeaveRequest request;
+    private List<LeaveRequest> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        request = new LeaveRequest("John Doe", 8);
+        request.setId("2f1c7a1e-4b7d-4a57-9a0e-0d3a3c0e5b1f");
+        request.setApprovalDate(LocalDateTime.now());
+        page = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            page.add(request);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeLeaveRequest() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,42 @@
+package com.jrrd.jbpmdemo.id;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+/**
+ * ID generation throughput with 4 threads sharing one generator
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private final IdGenerator timeOrdered = new TimeOrderedIdGenerator(1);
+    private final IdGenerator random = new RandomIdGenerator();
+
+    @Benchmark
+    public LeaveRequestId timeOrdered() {
+        return timeOrdered.next();
+    }
+
+    @Benchmark
+    public LeaveRequestId random() {
+        return random.next();
+    }
+}
@@ -0,0 +1,151 @@
+package com.jrrd.jbpmdemo.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.jrrd.jbpmdemo.JbpmdemoApplication;
+
+/**
+ * Closed-loop HTTP load test of {@code POST /api/leave} against the durable
+ * (write-ahead log) store, where every request blocks on an fsync. Pass
+ * {@code -Dload.store=memory} to take the disk out of the picture. Admission
+ * control is off, to measure raw capacity; pass {@code -Dload.limits=true}
+ * to see how it sheds load instead.
+ *
+ * Starts the application in the given thread mode ({@code platform},
+ * {@code virtual} or {@code reactive} for the WebFlux controller on Netty), keeps a fixed number of requests in flight for each
+ * concurrency level and records throughput, latency percentiles and errors
+ * to {@code target/load-test-<mode>.json}. Client and server share the
+ * machine, so use one with spare cores. Run each mode in its own JVM:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath com.jrrd.jbpmdemo.load.LeaveApiLoadTest virtual"
+ * </pre>
+ */
+public final class LeaveApiLoadTest {
+
+    private static final int[] CONCURRENCY = { 50, 200, 1000, 4000 };
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(10);
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private LeaveApiLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "platform";
+        Path walDirectory = Files.createTempDirectory("leave-load-wal");
+        // A devtools restart would relaunch this main method with the application arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = SpringApplication.run(JbpmdemoApplication.class,
+                "--server.port=0",
+                "--server.tomcat.max-connections=10000",
+                "--server.tomcat.accept-count=10000",
+                "--leave.store.type=" + System.getProperty("load.store", "wal"),
+                "--leave.history.directory=" + walDirectory,
+                "--leave.threads.virtual=" + mode.equals("virtual"),
+                // Each simulated employee files thousands of requests, far beyond any allowance
+                "--leave.balance.enabled=false",
+                "--leave.limits.enabled=" + System.getProperty("load.limits", "false"),
+                "--spring.profiles.active=" + (mode.equals("reactive") ? "reactive" : "default"),
+                "--logging.level.root=WARN");
+        List<Map<String, Object>> results = new ArrayList<>();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/leave");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(TIMEOUT)
+                    .build();
+            for (int concurrency : CONCURRENCY) {
+                run(client, uri, concurrency, WARMUP);
+                Map<String, Object> result = run(client, uri, concurrency, MEASUREMENT);
+                result.put("mode", mode);
+                results.add(result);
+                System.out.println(result);
+            }
+        } finally {
+            context.close();
+        }
+        Path output = Path.of("target", "load-test-" + mode + ".json");
+        Files.createDirectories(output.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+        System.out.println("Results written to " + output);
+    }
+
+    private static Map<String, Object> run(HttpClient client, URI uri, int concurrency, Duration duration)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger errors = new AtomicInteger();
+        AtomicLong counter = new AtomicLong();
+        long[] latencies = new long[1 << 22];
+        AtomicInteger recorded = new AtomicInteger();
+        long end = System.nanoTime() + duration.toNanos();
+        while (System.nanoTime() < end) {
+            if (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            long body = counter.incrementAndGet();
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"employeeName\":\"Load " + body % 1000 + "\",\"daysRequested\":" + (1 + body % 10) + "}"))
+                    .build();
+            long start = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                if (failure != null || response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                } else {
+                    int slot = recorded.getAndIncrement();
+                    if (slot < latencies.length) {
+                        latencies[slot] = System.nanoTime() - start;
+                    }
+                }
+                inFlight.release();
+            });
+        }
+        // Wait for the requests still in flight
+        inFlight.acquire(concurrency);
+
+        int count = Math.min(recorded.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("concurrency", concurrency);
+        result.put("requests", count);
+        result.put("errors", errors.get());
+        result.put("throughputPerSecond", Math.round(count / (double) duration.toSeconds()));
+        result.put("p50Millis", percentile(sorted, 0.50));
+        result.put("p99Millis", percentile(sorted, 0.99));
+        result.put("maxMillis", count == 0 ? 0 : sorted[count - 1] / 1_000_000.0);
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1_000_000.0;
+    }
+}
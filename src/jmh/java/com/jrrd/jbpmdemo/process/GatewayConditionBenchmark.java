@@ -0,0 +1,69 @@
+package com.jrrd.jbpmdemo.process;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+/**
+ * Measures evaluation of the approval gateway conditions of leave.bpmn.
+ * Run with {@code -prof gc}: gc.alloc.rate.norm should be ~0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayConditionBenchmark {
+
+    @Param({ "3", "8" })
+    int daysRequested;
+
+    private Condition autoApprove;
+    private Condition managerApproval;
+    private Condition compound;
+    private ProcessInstance instance;
+
+    @Setup
+    public void setUp() throws IOException {
+        ProcessDefinition leave;
+        try (InputStream bpmn = getClass().getClassLoader().getResourceAsStream("leave.bpmn")) {
+            leave = new BpmnProcessParser(BeanUtils::instantiateClass).parse(bpmn);
+        }
+        ProcessNode gateway = leave.node(leave.nodeIndex("approvalGateway"));
+        autoApprove = gateway.conditions[0];
+        managerApproval = gateway.conditions[1];
+        compound = new ConditionCompiler(leave.getId(), name -> new ConditionCompiler.Variable(name,
+                leave.variableSlot(name), name.equals("daysRequested") ? ConditionCompiler.ValueType.INT
+                        : name.equals("approved") ? ConditionCompiler.ValueType.BOOLEAN : ConditionCompiler.ValueType.OBJECT))
+                .compile("return employeeName != null && (daysRequested <= 5 || approved == true);");
+
+        instance = new ProcessEngine().resume(leave, "managerApprovalTask");
+        instance.setVariable(leave.variableSlot("employeeName"), "John");
+        instance.setVariable(leave.variableSlot("daysRequested"), daysRequested);
+        instance.setVariable(leave.variableSlot("approved"), Boolean.FALSE);
+    }
+
+    @Benchmark
+    public boolean approvalGateway() {
+        return autoApprove.test(instance) || managerApproval.test(instance);
+    }
+
+    @Benchmark
+    public boolean compoundCondition() {
+        return compound.test(instance);
+    }
+}
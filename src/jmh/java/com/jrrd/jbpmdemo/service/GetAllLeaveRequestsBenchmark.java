@@ -0,0 +1,48 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jrrd.jbpmdemo.model.LeaveRequest;
+
+/**
+ * Cost of listing every leave request as the store grows
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GetAllLeaveRequestsBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    int size;
+
+    private SimpleLeaveRequestService service;
+
+    @Setup
+    public void setUp() {
+        service = new SimpleLeaveRequestService();
+        for (int i = 0; i < size; i++) {
+            service.createLeaveRequest("Employee " + (i % 1_000), 1 + i % 10);
+        }
+    }
+
+    @Benchmark
+    public List<LeaveRequest> getAllLeaveRequests() {
+        return service.getAllLeaveRequests();
+    }
+}
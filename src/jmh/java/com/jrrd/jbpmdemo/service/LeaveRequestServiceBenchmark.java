@@ -0,0 +1,92 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jrrd.jbpmdemo.model.LeaveRequest;
+
+/**
+ * Throughput of the single-request service operations, with all benchmark
+ * threads sharing one service so that the store and indexes are contended.
+ * Thread count defaults to 4 and can be changed with {@code -t}.
+ *
+ * Approve and reject each get a pending request created before the
+ * invocation and outside the measured time, so every call performs a real
+ * transition instead of a no-op on an already decided request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LeaveRequestServiceBenchmark {
+
+    private static final int REQUESTS = 10_000;
+
+    private SimpleLeaveRequestService service;
+    private String[] existing;
+
+    /**
+     * A pending request created for each invocation by the calling thread
+     */
+    @State(Scope.Thread)
+    public static class PendingRequest {
+
+        private String id;
+
+        @Setup(Level.Invocation)
+        public void create(LeaveRequestServiceBenchmark benchmark) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            // More than 5 days, so the request waits for a manager decision
+            id = benchmark.service.createLeaveRequest("Employee " + random.nextInt(500), 6 + random.nextInt(10));
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        service = new SimpleLeaveRequestService();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            ids.add(service.createLeaveRequest("Employee " + (i % 500), 6 + i % 10));
+        }
+        existing = ids.toArray(String[]::new);
+    }
+
+    @Benchmark
+    public String createLeaveRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return service.createLeaveRequest("Employee " + random.nextInt(500), 1 + random.nextInt(10));
+    }
+
+    @Benchmark
+    public LeaveRequest getLeaveRequest() {
+        return service.getLeaveRequest(existing[ThreadLocalRandom.current().nextInt(existing.length)]);
+    }
+
+    @Benchmark
+    public boolean approveLeaveRequest(PendingRequest pending) {
+        return service.approveLeaveRequest(pending.id);
+    }
+
+    @Benchmark
+    public boolean rejectLeaveRequest(PendingRequest pending) {
+        return service.rejectLeaveRequest(pending.id);
+    }
+}
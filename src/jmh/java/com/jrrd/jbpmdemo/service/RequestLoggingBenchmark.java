@@ -0,0 +1,100 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilder;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFactory;
+import org.apache.logging.log4j.core.config.builder.impl.BuiltConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Create throughput under the previous and the current logging setup. Each
+ * benchmark method runs in its own JVM, since the logger context selector
+ * is fixed at startup:
+ * <ul>
+ * <li>{@code synchronousEveryRequest}: synchronous loggers, every request
+ * logged and flushed by the calling thread (the former console setup)</li>
+ * <li>{@code asyncEveryRequest}: asynchronous loggers, every request logged</li>
+ * <li>{@code asyncSampled}: asynchronous loggers, 1 in 100 requests logged
+ * (the default setup)</li>
+ * </ul>
+ * Log output goes to {@code target/jmh-logging-<method>.log}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class RequestLoggingBenchmark {
+
+    private static final String SYNC_SELECTOR = "org.apache.logging.log4j.core.selector.ClassLoaderContextSelector";
+    private static final String ASYNC_SELECTOR = "org.apache.logging.log4j.core.async.AsyncLoggerContextSelector";
+    private static final String PATTERN = "%d{DEFAULT} %5p [%15.15t] %-40.40c{1.} : %m%n";
+
+    private SimpleLeaveRequestService service;
+
+    @Setup
+    public void setUp() {
+        String mode = System.getProperty("bench.logging");
+        boolean async = !mode.startsWith("synchronous");
+        ConfigurationBuilder<BuiltConfiguration> builder = ConfigurationBuilderFactory.newConfigurationBuilder();
+        builder.add(builder.newAppender("File", async ? "RandomAccessFile" : "File")
+                .addAttribute("fileName", "target/jmh-logging-" + mode + ".log")
+                .addAttribute("append", false)
+                .addAttribute("immediateFlush", !async)
+                .add(builder.newLayout("PatternLayout").addAttribute("pattern", PATTERN)));
+        builder.add(builder.newRootLogger(org.apache.logging.log4j.Level.WARN).add(builder.newAppenderRef("File")));
+        // DEBUG logs every created request, INFO only the sampled ones
+        builder.add(builder.newLogger("com.jrrd.jbpmdemo", mode.endsWith("Sampled")
+                ? org.apache.logging.log4j.Level.INFO : org.apache.logging.log4j.Level.DEBUG));
+        Configurator.reconfigure(builder.build());
+        service = new SimpleLeaveRequestService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        LogManager.shutdown();
+    }
+
+    private String create() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return service.createLeaveRequest("Employee " + random.nextInt(500), 1 + random.nextInt(10));
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = { "-Dlog4j2.contextSelector=" + SYNC_SELECTOR,
+            "-Dbench.logging=synchronousEveryRequest" })
+    public String synchronousEveryRequest() {
+        return create();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = { "-Dlog4j2.contextSelector=" + ASYNC_SELECTOR,
+            "-Dbench.logging=asyncEveryRequest" })
+    public String asyncEveryRequest() {
+        return create();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = { "-Dlog4j2.contextSelector=" + ASYNC_SELECTOR,
+            "-Dbench.logging=asyncSampled" })
+    public String asyncSampled() {
+        return create();
+    }
+}
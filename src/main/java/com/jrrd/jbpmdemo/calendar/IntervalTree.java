@@ -0,0 +1,216 @@
+package com.jrrd.jbpmdemo.calendar;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Set of closed integer intervals, such as ranges of epoch days, that finds
+ * the intervals overlapping a query range in O(log n + k) for k matches.
+ *
+ * The intervals are kept in a treap (a binary search tree balanced by random
+ * priorities) ordered by start, then by value. Every node also holds the
+ * largest end in its subtree, so a search skips subtrees that end before the
+ * query range and stops descending right once starts pass its end. Adding
+ * and removing are O(log n) expected.
+ *
+ * Values tell apart intervals with the same start and must be unique
+ * according to the comparator given at construction. The tree is not
+ * thread-safe; callers guard it with their own lock.
+ *
+ * @param <T> Type of the value attached to each interval
+ */
+public final class IntervalTree<T> {
+
+    /**
+     * An interval and its value
+     */
+    public record Interval<T>(int start, int end, T value) {
+    }
+
+    private final Comparator<? super T> order;
+    private Node<T> root;
+    private int size;
+
+    /**
+     * Creates an empty tree
+     *
+     * @param order Order of values, used between intervals with the same start
+     */
+    public IntervalTree(Comparator<? super T> order) {
+        this.order = order;
+    }
+
+    /**
+     * Adds an interval
+     *
+     * @param start First point of the interval
+     * @param end Last point of the interval (inclusive), not before start
+     * @param value Value of the interval, unique within the tree
+     */
+    public void add(int start, int end, T value) {
+        if (end < start) {
+            throw new IllegalArgumentException("Interval ends before it starts: " + start + ".." + end);
+        }
+        root = insert(root, new Node<>(start, end, value, ThreadLocalRandom.current().nextInt()));
+        size++;
+    }
+
+    /**
+     * Removes an interval
+     *
+     * @param start First point of the interval, as added
+     * @param value Value of the interval
+     * @return true if the interval was found and removed
+     */
+    public boolean remove(int start, T value) {
+        int before = size;
+        root = delete(root, start, value);
+        return size < before;
+    }
+
+    /**
+     * Calls the consumer with every interval overlapping {@code [from, to]},
+     * in start order
+     */
+    public void forEachOverlapping(int from, int to, Consumer<? super Interval<T>> consumer) {
+        if (from <= to) {
+            search(root, from, to, consumer);
+        }
+    }
+
+    /**
+     * Gets every interval overlapping {@code [from, to]}, in start order
+     */
+    public List<Interval<T>> overlapping(int from, int to) {
+        List<Interval<T>> result = new ArrayList<>();
+        forEachOverlapping(from, to, result::add);
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int compare(int start, T value, Node<T> node) {
+        int byStart = Integer.compare(start, node.start);
+        return byStart != 0 ? byStart : order.compare(value, node.value);
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.value, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node<T> delete(Node<T> node, int start, T value) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(start, value, node);
+        if (comparison < 0) {
+            node.left = delete(node.left, start, value);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, start, value);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Joins two treaps whose keys are all smaller on the left
+     */
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private void search(Node<T> node, int from, int to, Consumer<? super Interval<T>> consumer) {
+        while (node != null && node.maxEnd >= from) {
+            search(node.left, from, to, consumer);
+            if (node.start > to) {
+                // Everything to the right starts later still
+                return;
+            }
+            if (node.end >= from) {
+                consumer.accept(new Interval<>(node.start, node.end, node.value));
+            }
+            node = node.right;
+        }
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        return left;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        return right;
+    }
+
+    private static final class Node<T> {
+        final int start;
+        final int end;
+        final T value;
+        final int priority;
+        int maxEnd;
+        Node<T> left;
+        Node<T> right;
+
+        Node(int start, int end, T value, int priority) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        void update() {
+            int max = end;
+            if (left != null && left.maxEnd > max) {
+                max = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > max) {
+                max = right.maxEnd;
+            }
+            maxEnd = max;
+        }
+    }
+}
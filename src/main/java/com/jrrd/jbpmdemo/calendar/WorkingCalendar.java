@@ -0,0 +1,201 @@
+package com.jrrd.jbpmdemo.calendar;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Working days of one region: every day except the weekend and the region's
+ * holidays.
+ *
+ * The days of the years given at construction are precomputed into a bitset,
+ * one bit per day with the years laid out back to back, so counting the
+ * working days of a range is a popcount over the words it spans and finding
+ * the end of a number of working days skips whole words at a time. Days
+ * outside those years only know about weekends and are counted by weekday.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class WorkingCalendar {
+
+    private final int weekendMask;
+    private final int workingDaysPerWeek;
+    private final int firstDay;
+    private final int lastDay;
+    private final long[] words;
+
+    /**
+     * Precomputes the working days of a span of years
+     *
+     * @param weekend Days of the week that are never worked
+     * @param holidays Days off in addition to the weekend; those outside the years are ignored
+     * @param firstYear First year to precompute
+     * @param lastYear Last year to precompute
+     */
+    public WorkingCalendar(Set<DayOfWeek> weekend, Collection<LocalDate> holidays, int firstYear, int lastYear) {
+        if (weekend.size() >= 7) {
+            throw new IllegalArgumentException("A week needs at least one working day");
+        }
+        if (lastYear < firstYear) {
+            throw new IllegalArgumentException("Last year " + lastYear + " is before first year " + firstYear);
+        }
+        int mask = 0;
+        for (DayOfWeek day : weekend) {
+            mask |= 1 << day.getValue();
+        }
+        this.weekendMask = mask;
+        this.workingDaysPerWeek = 7 - weekend.size();
+        this.firstDay = Math.toIntExact(LocalDate.of(firstYear, 1, 1).toEpochDay());
+        this.lastDay = Math.toIntExact(LocalDate.of(lastYear, 12, 31).toEpochDay());
+        this.words = new long[((lastDay - firstDay) >>> 6) + 1];
+        for (int day = firstDay; day <= lastDay; day++) {
+            if (!isWeekend(day)) {
+                int offset = day - firstDay;
+                words[offset >>> 6] |= 1L << offset;
+            }
+        }
+        for (LocalDate holiday : holidays) {
+            long day = holiday.toEpochDay();
+            if (day >= firstDay && day <= lastDay) {
+                int offset = (int) (day - firstDay);
+                words[offset >>> 6] &= ~(1L << offset);
+            }
+        }
+    }
+
+    /**
+     * Creates a calendar without holidays
+     */
+    public static WorkingCalendar weekendsOnly(Set<DayOfWeek> weekend) {
+        int year = LocalDate.now().getYear();
+        return new WorkingCalendar(weekend, Set.of(), year, year);
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        return isWorkingDay(Math.toIntExact(date.toEpochDay()));
+    }
+
+    /**
+     * Counts the working days from one date to another, both included
+     *
+     * @return The number of working days, 0 if {@code to} is before {@code from}
+     */
+    public int countWorkingDays(LocalDate from, LocalDate to) {
+        int start = Math.toIntExact(from.toEpochDay());
+        int end = Math.toIntExact(to.toEpochDay());
+        if (end < start) {
+            return 0;
+        }
+        int count = 0;
+        if (start < firstDay) {
+            count += countByWeekday(start, Math.min(end, firstDay - 1));
+        }
+        if (end > lastDay) {
+            count += countByWeekday(Math.max(start, lastDay + 1), end);
+        }
+        int inStart = Math.max(start, firstDay);
+        int inEnd = Math.min(end, lastDay);
+        if (inStart <= inEnd) {
+            count += countBits(inStart - firstDay, inEnd - firstDay);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the day on which a period of working days starting at a date ends
+     *
+     * @param start First day of the period; if it is not a working day, the period starts at the next one
+     * @param days Number of working days in the period
+     * @return The last day of the period, or {@code start} if {@code days} is not positive
+     */
+    public LocalDate endOfWorkingDays(LocalDate start, int days) {
+        if (days <= 0) {
+            return start;
+        }
+        int day = Math.toIntExact(start.toEpochDay());
+        int remaining = days;
+        while (day < firstDay) {
+            if (!isWeekend(day) && --remaining == 0) {
+                return LocalDate.ofEpochDay(day);
+            }
+            day++;
+        }
+        if (day <= lastDay) {
+            int offset = day - firstDay;
+            int index = offset >>> 6;
+            long word = words[index] & (-1L << offset);
+            while (true) {
+                int count = Long.bitCount(word);
+                if (count >= remaining) {
+                    for (int i = 1; i < remaining; i++) {
+                        word &= word - 1;
+                    }
+                    return LocalDate.ofEpochDay(firstDay + (index << 6) + Long.numberOfTrailingZeros(word));
+                }
+                remaining -= count;
+                if (++index == words.length) {
+                    break;
+                }
+                word = words[index];
+            }
+            day = lastDay + 1;
+        }
+        // Past the precomputed years: skip whole weeks, then walk the rest
+        int weeks = (remaining - 1) / workingDaysPerWeek;
+        day += weeks * 7;
+        remaining -= weeks * workingDaysPerWeek;
+        while (true) {
+            if (!isWeekend(day) && --remaining == 0) {
+                return LocalDate.ofEpochDay(day);
+            }
+            day++;
+        }
+    }
+
+    private boolean isWorkingDay(int day) {
+        if (day < firstDay || day > lastDay) {
+            return !isWeekend(day);
+        }
+        int offset = day - firstDay;
+        return (words[offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    private boolean isWeekend(int epochDay) {
+        // Epoch day 0 was a Thursday
+        int dayOfWeek = Math.floorMod(epochDay + 3, 7) + 1;
+        return (weekendMask & (1 << dayOfWeek)) != 0;
+    }
+
+    /**
+     * Counts set bits between two offsets, both included
+     */
+    private int countBits(int from, int to) {
+        int first = from >>> 6;
+        int last = to >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - (to & 63));
+        if (first == last) {
+            return Long.bitCount(words[first] & firstMask & lastMask);
+        }
+        int count = Long.bitCount(words[first] & firstMask) + Long.bitCount(words[last] & lastMask);
+        for (int i = first + 1; i < last; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the days between two epoch days, both included, that are not on a weekend
+     */
+    private int countByWeekday(int from, int to) {
+        int days = to - from + 1;
+        int count = days / 7 * workingDaysPerWeek;
+        for (int day = from + days / 7 * 7; day <= to; day++) {
+            if (!isWeekend(day)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,127 @@
+package com.jrrd.jbpmdemo.calendar;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The {@link WorkingCalendar} of every region, and the region of every
+ * employee.
+ *
+ * Calendars are read from a holiday file with one {@code region,date} line
+ * per holiday (an optional third column names it; blank lines and lines
+ * starting with {@code #} are skipped). Each region's calendar precomputes
+ * every year from the year before the current one to a few years ahead,
+ * widened to cover all of its holidays. Employees in a region without a
+ * calendar, or in none, get a calendar of weekends only.
+ */
+public final class WorkingCalendars {
+
+    // Years precomputed around the current year, so leave booked ahead is counted from the bitsets
+    private static final int YEARS_BEHIND = 1;
+    private static final int YEARS_AHEAD = 5;
+
+    private final Map<String, WorkingCalendar> byRegion;
+    private final WorkingCalendar weekendsOnly;
+    private final Function<String, String> regionOf;
+
+    /**
+     * Creates the calendars
+     *
+     * @param byRegion Calendar of each region
+     * @param weekendsOnly Calendar of employees whose region has none
+     * @param regionOf Region of an employee, null if the employee has none
+     */
+    public WorkingCalendars(Map<String, WorkingCalendar> byRegion, WorkingCalendar weekendsOnly,
+                            Function<String, String> regionOf) {
+        this.byRegion = Map.copyOf(byRegion);
+        this.weekendsOnly = weekendsOnly;
+        this.regionOf = regionOf;
+    }
+
+    /**
+     * Creates calendars with Saturday and Sunday off and no holidays
+     */
+    public static WorkingCalendars weekendsOnly() {
+        return new WorkingCalendars(Map.of(),
+                WorkingCalendar.weekendsOnly(Set.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY)), employeeName -> null);
+    }
+
+    /**
+     * Reads the calendars of a holiday file
+     *
+     * @param holidays The holiday file
+     * @param weekend Days of the week that are never worked, in every region
+     * @param regionOf Region of an employee, null if the employee has none
+     * @throws IllegalArgumentException if a line is not a region and a date
+     */
+    public static WorkingCalendars load(Reader holidays, Set<DayOfWeek> weekend,
+                                        Function<String, String> regionOf) throws IOException {
+        Map<String, List<LocalDate>> datesByRegion = new HashMap<>();
+        BufferedReader reader = new BufferedReader(holidays);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split(",", 3);
+            if (columns.length < 2 || columns[0].isBlank()) {
+                throw new IllegalArgumentException("Holiday line " + lineNumber + " is not region,date: " + line);
+            }
+            LocalDate date;
+            try {
+                date = LocalDate.parse(columns[1].strip());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Holiday line " + lineNumber + " has an invalid date: " + line, e);
+            }
+            datesByRegion.computeIfAbsent(columns[0].strip(), region -> new ArrayList<>()).add(date);
+        }
+
+        int currentYear = LocalDate.now().getYear();
+        Map<String, WorkingCalendar> byRegion = new HashMap<>();
+        datesByRegion.forEach((region, dates) -> {
+            int firstYear = currentYear - YEARS_BEHIND;
+            int lastYear = currentYear + YEARS_AHEAD;
+            for (LocalDate date : dates) {
+                firstYear = Math.min(firstYear, date.getYear());
+                lastYear = Math.max(lastYear, date.getYear());
+            }
+            byRegion.put(region, new WorkingCalendar(weekend, dates, firstYear, lastYear));
+        });
+        return new WorkingCalendars(byRegion, WorkingCalendar.weekendsOnly(weekend), regionOf);
+    }
+
+    /**
+     * Gets the calendar of the employee's region
+     */
+    public WorkingCalendar forEmployee(String employeeName) {
+        return forRegion(employeeName == null ? null : regionOf.apply(employeeName));
+    }
+
+    /**
+     * Gets the calendar of a region, or the weekends-only calendar if the region has none
+     */
+    public WorkingCalendar forRegion(String region) {
+        WorkingCalendar calendar = region == null ? null : byRegion.get(region);
+        return calendar == null ? weekendsOnly : calendar;
+    }
+
+    /**
+     * Gets the regions that have a calendar
+     */
+    public Set<String> regions() {
+        return byRegion.keySet();
+    }
+}
@@ -0,0 +1,96 @@
+package com.jrrd.jbpmdemo.cluster;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import com.jrrd.jbpmdemo.id.TimeOrderedIdGenerator;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+/**
+ * The nodes of a sharded deployment and which of them owns each request.
+ *
+ * Requests are partitioned by employee: a {@link HashRing} of the node IDs
+ * picks the node that creates and stores all requests of an employee. That
+ * node's ID is part of every {@link TimeOrderedIdGenerator} ID it creates, so
+ * the owner of an existing request is read from its ID without a lookup.
+ *
+ * Employees who belong to a team are placed by their team instead, so one
+ * node holds the requests of the whole team and can check its coverage.
+ */
+public class Cluster {
+
+    /**
+     * Header marking calls from another node, which are answered from the local shard
+     */
+    public static final String FORWARDED_HEADER = "X-Leave-Forwarded";
+
+    private final ClusterNode self;
+    private final Map<Integer, ClusterNode> nodes = new TreeMap<>();
+    private final HashRing ring;
+    private final Function<String, String> teamOf;
+
+    /**
+     * Creates the cluster
+     *
+     * @param selfId ID of this node
+     * @param urls Base URL of every node, this one included, by node ID
+     * @param virtualNodes Points per node on the hash ring
+     * @param teamOf Team of an employee, null if the employee has none
+     */
+    public Cluster(int selfId, Map<Integer, URI> urls, int virtualNodes, Function<String, String> teamOf) {
+        urls.forEach((id, url) -> nodes.put(id, new ClusterNode(id, url)));
+        this.self = nodes.get(selfId);
+        if (self == null) {
+            throw new IllegalArgumentException("Node " + selfId + " is not one of the cluster nodes " + nodes.keySet());
+        }
+        this.ring = new HashRing(nodes.keySet(), virtualNodes);
+        this.teamOf = teamOf;
+    }
+
+    public ClusterNode self() {
+        return self;
+    }
+
+    /**
+     * Gets every node, in node ID order
+     */
+    public Collection<ClusterNode> nodes() {
+        return nodes.values();
+    }
+
+    public boolean isSelf(ClusterNode node) {
+        return node.id() == self.id();
+    }
+
+    /**
+     * Gets the node that stores the requests of an employee, that of their
+     * team if they have one; this node for a null name
+     */
+    public ClusterNode ownerOfEmployee(String employeeName) {
+        if (employeeName == null) {
+            return self;
+        }
+        String team = teamOf.apply(employeeName);
+        return nodes.get(ring.ownerOf(team != null ? team : employeeName));
+    }
+
+    /**
+     * Gets the node that stores a request
+     *
+     * @param id The request ID
+     * @return The node that created it, or this node if the ID is malformed or
+     *         names no known node, so that it is answered as not found here
+     */
+    public ClusterNode ownerOfRequest(String id) {
+        LeaveRequestId requestId;
+        try {
+            requestId = LeaveRequestId.parse(id);
+        } catch (IllegalArgumentException e) {
+            return self;
+        }
+        return nodes.getOrDefault(TimeOrderedIdGenerator.nodeIdOf(requestId), self);
+    }
+}
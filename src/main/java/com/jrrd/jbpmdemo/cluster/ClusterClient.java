@@ -0,0 +1,78 @@
+package com.jrrd.jbpmdemo.cluster;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Calls the API of other nodes. Every call carries
+ * {@link Cluster#FORWARDED_HEADER}, so the receiving node answers from its
+ * own shard instead of routing the call again.
+ */
+public class ClusterClient {
+
+    private final HttpClient http;
+    private final Duration timeout;
+    private final String selfId;
+
+    /**
+     * Creates the client
+     *
+     * @param cluster The cluster, for the ID of this node
+     * @param timeout How long to wait for a node's response
+     */
+    public ClusterClient(Cluster cluster, Duration timeout) {
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        this.timeout = timeout;
+        this.selfId = Integer.toString(cluster.self().id());
+    }
+
+    /**
+     * Sends a call to a node
+     *
+     * @param node The node
+     * @param method HTTP method
+     * @param pathAndQuery Path and query string, as received (still URL-encoded)
+     * @param headers Headers to pass on, such as the content type
+     * @param body The body, or null without one
+     * @return The response, completed exceptionally if the node could not be reached
+     */
+    public CompletableFuture<HttpResponse<byte[]>> send(ClusterNode node, String method, String pathAndQuery,
+                                                        Map<String, String> headers, byte[] body) {
+        return send(node, method, pathAndQuery, headers, body, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Sends a call to a node, reading its response body with a handler. The
+     * timeout applies until the response headers arrive, so a body read as a
+     * stream may take longer.
+     *
+     * @param bodyHandler Reads the response body
+     * @return The response, completed exceptionally if the node could not be reached
+     * @see #send(ClusterNode, String, String, Map, byte[])
+     */
+    public <T> CompletableFuture<HttpResponse<T>> send(ClusterNode node, String method, String pathAndQuery,
+                                                       Map<String, String> headers, byte[] body,
+                                                       HttpResponse.BodyHandler<T> bodyHandler) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(resolve(node.url(), pathAndQuery))
+                .timeout(timeout)
+                .header(Cluster.FORWARDED_HEADER, selfId)
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        headers.forEach(request::header);
+        return http.sendAsync(request.build(), bodyHandler);
+    }
+
+    private static URI resolve(URI base, String pathAndQuery) {
+        String root = base.toString();
+        return URI.create(root.endsWith("/") ? root.substring(0, root.length() - 1) + pathAndQuery : root + pathAndQuery);
+    }
+}
@@ -0,0 +1,10 @@
+package com.jrrd.jbpmdemo.cluster;
+
+import java.net.URI;
+
+/**
+ * A node of a sharded deployment: its {@code leave.id.node-id} and the base
+ * URL its API is served from
+ */
+public record ClusterNode(int id, URI url) {
+}
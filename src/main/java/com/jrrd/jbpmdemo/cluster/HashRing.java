@@ -0,0 +1,87 @@
+package com.jrrd.jbpmdemo.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Consistent hash ring that assigns keys, such as employee names, to node IDs.
+ *
+ * Every node is placed on the ring at {@code virtualNodes} points hashed from
+ * its ID; a key belongs to the first point at or after its own hash. With
+ * enough virtual nodes each node owns close to an equal share of the keys,
+ * and adding or removing a node only moves the keys of the points it gains
+ * or loses. The points are kept in a sorted array, so a lookup is one hash
+ * and a binary search.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class HashRing {
+
+    private final long[] points;
+    private final int[] owners;
+
+    /**
+     * Builds the ring
+     *
+     * @param nodeIds IDs of the nodes, at least one
+     * @param virtualNodes Points per node on the ring
+     */
+    public HashRing(Collection<Integer> nodeIds, int virtualNodes) {
+        if (nodeIds.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Virtual nodes must be positive: " + virtualNodes);
+        }
+        long[][] entries = new long[nodeIds.size() * virtualNodes][];
+        int i = 0;
+        for (int nodeId : nodeIds) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries[i++] = new long[] { hash("node-" + nodeId + "#" + v), nodeId };
+            }
+        }
+        // Ties, however unlikely, go to the lower node ID on every node alike
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[entries.length];
+        this.owners = new int[entries.length];
+        for (i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = (int) entries[i][1];
+        }
+    }
+
+    /**
+     * Gets the node that owns a key
+     */
+    public int ownerOf(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            // Several points may share the hash; take the first
+            while (index > 0 && points[index - 1] == points[index]) {
+                index--;
+            }
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * Hashes a string to 64 bits: FNV-1a over its UTF-8 bytes, then the
+     * MurmurHash3 finalizer to spread similar strings across the ring
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,63 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.jrrd.jbpmdemo.controller.AdmissionControlFilter;
+import com.jrrd.jbpmdemo.controller.ReactiveAdmissionControlFilter;
+import com.jrrd.jbpmdemo.service.AdaptiveConcurrencyLimiter;
+import com.jrrd.jbpmdemo.service.AdmissionControl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Admission control of the leave API. Reads and writes under {@code /api}
+ * get their own adaptive limits, starting at {@code leave.limits.read.initial}
+ * and {@code leave.limits.write.initial} and kept between
+ * {@code leave.limits.min} and the {@code max} of each budget. Calls taking
+ * more than {@code leave.limits.tolerance} times the recent average shrink
+ * the limit; calls over the limit get {@code 503} with
+ * {@code leave.limits.retry-after}. Disabled with {@code leave.limits.enabled=false}.
+ * The filter enforcing the budgets is declared here rather than scanned, so
+ * it only exists alongside them.
+ */
+@Configuration
+@ConditionalOnProperty(name = "leave.limits.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfiguration {
+
+    @Bean
+    public AdmissionControl admissionControl(MeterRegistry registry,
+            @Value("${leave.limits.min:4}") int minLimit,
+            @Value("${leave.limits.tolerance:2.0}") double tolerance,
+            @Value("${leave.limits.read.initial:100}") int readInitial,
+            @Value("${leave.limits.read.max:1000}") int readMax,
+            @Value("${leave.limits.write.initial:50}") int writeInitial,
+            @Value("${leave.limits.write.max:500}") int writeMax,
+            @Value("${leave.limits.retry-after:1s}") Duration retryAfter) {
+        return new AdmissionControl(
+                new AdaptiveConcurrencyLimiter("read", readInitial, minLimit, readMax, tolerance, registry),
+                new AdaptiveConcurrencyLimiter("write", writeInitial, minLimit, writeMax, tolerance, registry),
+                retryAfter);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(AdmissionControl admissionControl) {
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionControlFilter(admissionControl));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ReactiveAdmissionControlFilter reactiveAdmissionControlFilter(AdmissionControl admissionControl) {
+        return new ReactiveAdmissionControlFilter(admissionControl);
+    }
+}
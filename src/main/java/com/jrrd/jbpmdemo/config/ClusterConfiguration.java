@@ -0,0 +1,76 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.jrrd.jbpmdemo.cluster.Cluster;
+import com.jrrd.jbpmdemo.cluster.ClusterClient;
+import com.jrrd.jbpmdemo.service.TeamCoverage;
+
+/**
+ * Sharded deployment, enabled with {@code leave.cluster.enabled=true}.
+ * {@code leave.cluster.nodes} lists every node as {@code id=url} pairs, this
+ * one included; this node is the one whose ID is {@code leave.id.node-id}.
+ * Requests are partitioned by employee over a hash ring with
+ * {@code leave.cluster.virtual-nodes} points per node; members of a team in
+ * {@code leave.teams.members} are placed by their team, so its coverage is
+ * checked on one node. The owner of a request
+ * is read from its ID, so the {@code time-ordered} ID generator is required.
+ * Calls are routed between nodes by the servlet stack only, so a sharded
+ * node refuses to start under the {@code reactive} profile rather than
+ * answer from its own shard alone.
+ */
+@Configuration
+@ConditionalOnProperty(name = "leave.cluster.enabled", havingValue = "true")
+public class ClusterConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterConfiguration.class);
+
+    @Bean
+    public Cluster cluster(
+            @Value("${leave.id.node-id:0}") int nodeId,
+            @Value("${leave.id.generator:time-ordered}") String generator,
+            @Value("${leave.cluster.nodes}") String nodes,
+            @Value("${leave.cluster.virtual-nodes:128}") int virtualNodes,
+            TeamCoverage teamCoverage,
+            ApplicationContext context) {
+        if (context instanceof ReactiveWebApplicationContext) {
+            throw new IllegalStateException("leave.cluster requires the servlet stack; the reactive profile does not"
+                    + " route calls to the nodes owning them");
+        }
+        if (!generator.equals("time-ordered")) {
+            throw new IllegalStateException("leave.cluster requires leave.id.generator=time-ordered, not " + generator);
+        }
+        Map<Integer, URI> urls = new LinkedHashMap<>();
+        for (String entry : nodes.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("leave.cluster.nodes entry is not id=url: " + entry.strip());
+            }
+            urls.put(Integer.valueOf(entry.substring(0, separator).strip()),
+                    URI.create(entry.substring(separator + 1).strip()));
+        }
+        Cluster cluster = new Cluster(nodeId, urls, virtualNodes, teamCoverage::teamOf);
+        logger.info("Node {} of a sharded cluster of {} nodes: {}", nodeId, urls.size(), urls);
+        return cluster;
+    }
+
+    @Bean
+    public ClusterClient clusterClient(Cluster cluster, @Value("${leave.cluster.timeout:5s}") Duration timeout) {
+        return new ClusterClient(cluster, timeout);
+    }
+}
@@ -0,0 +1,29 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses per-employee settings written as a comma-separated list of
+ * {@code employee:value} pairs, e.g. {@code Jane Smith:hr,Bob Brown:sales}.
+ */
+final class EmployeeMappings {
+
+    private EmployeeMappings() {
+    }
+
+    static Map<String, String> parse(String property, String mappings) {
+        Map<String, String> valueByEmployee = new HashMap<>();
+        for (String mapping : mappings.split(",")) {
+            if (mapping.isBlank()) {
+                continue;
+            }
+            int separator = mapping.lastIndexOf(':');
+            if (separator <= 0 || separator == mapping.length() - 1) {
+                throw new IllegalArgumentException("Invalid " + property + " entry, expected employee:value: " + mapping);
+            }
+            valueByEmployee.put(mapping.substring(0, separator).trim(), mapping.substring(separator + 1).trim());
+        }
+        return valueByEmployee;
+    }
+}
@@ -0,0 +1,31 @@
+package com.jrrd.jbpmdemo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.jrrd.jbpmdemo.id.IdGenerator;
+import com.jrrd.jbpmdemo.id.RandomIdGenerator;
+import com.jrrd.jbpmdemo.id.TimeOrderedIdGenerator;
+
+/**
+ * Selects the leave request ID generator with {@code leave.id.generator}:
+ * {@code time-ordered} (default) or {@code random} for UUIDs. Each instance
+ * sharing a store should get its own {@code leave.id.node-id}.
+ */
+@Configuration
+public class IdGeneratorConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "leave.id.generator", havingValue = "time-ordered", matchIfMissing = true)
+    public IdGenerator timeOrderedIdGenerator(@Value("${leave.id.node-id:0}") int nodeId) {
+        return new TimeOrderedIdGenerator(nodeId);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "leave.id.generator", havingValue = "random")
+    public IdGenerator randomIdGenerator() {
+        return new RandomIdGenerator();
+    }
+}
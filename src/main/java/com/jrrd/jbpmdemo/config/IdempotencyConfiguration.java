@@ -0,0 +1,26 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
+
+import com.jrrd.jbpmdemo.service.IdempotencyCache;
+
+/**
+ * Idempotency keys of {@code POST /api/leave}. The responses of the last
+ * {@code leave.idempotency.capacity} keys are kept for
+ * {@code leave.idempotency.ttl} and returned to retries.
+ */
+@Configuration
+public class IdempotencyConfiguration {
+
+    @Bean
+    public IdempotencyCache<ResponseEntity<String>> leaveIdempotencyCache(
+            @Value("${leave.idempotency.capacity:100000}") int capacity,
+            @Value("${leave.idempotency.ttl:24h}") Duration ttl) {
+        return new IdempotencyCache<>(capacity, ttl);
+    }
+}
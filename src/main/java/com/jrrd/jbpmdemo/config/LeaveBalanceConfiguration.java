@@ -0,0 +1,35 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.jrrd.jbpmdemo.service.LeaveBalanceLedger;
+
+/**
+ * Leave balances. Every employee may take {@code leave.balance.allowance}
+ * days per calendar year unless {@code leave.balance.allowances} gives them
+ * another allowance, as {@code employee:days} pairs. A request counts in the
+ * year its leave starts, or the year it was made if it names no dates. With
+ * {@code leave.balance.enabled=false} balances are tracked but not enforced.
+ */
+@Configuration
+public class LeaveBalanceConfiguration {
+
+    @Bean
+    public LeaveBalanceLedger leaveBalanceLedger(
+            @Value("${leave.balance.enabled:true}") boolean enabled,
+            @Value("${leave.balance.allowance:25}") int allowance,
+            @Value("${leave.balance.allowances:}") String allowances) {
+        if (!enabled) {
+            return LeaveBalanceLedger.unlimited();
+        }
+        Map<String, Integer> allowanceByEmployee = new HashMap<>();
+        EmployeeMappings.parse("leave.balance.allowances", allowances)
+                .forEach((employee, days) -> allowanceByEmployee.put(employee, Integer.valueOf(days)));
+        return new LeaveBalanceLedger(employeeName -> allowanceByEmployee.getOrDefault(employeeName, allowance));
+    }
+}
@@ -0,0 +1,31 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.jrrd.jbpmdemo.service.LeaveDeadlineScheduler;
+import com.jrrd.jbpmdemo.service.LeaveMetrics;
+import com.jrrd.jbpmdemo.service.SimpleLeaveRequestService;
+
+/**
+ * Manager approval deadlines, enabled unless {@code leave.deadline.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "leave.deadline.enabled", havingValue = "true", matchIfMissing = true)
+public class LeaveDeadlineConfiguration {
+
+    @Bean
+    public LeaveDeadlineScheduler leaveDeadlineScheduler(SimpleLeaveRequestService service, LeaveMetrics metrics,
+            @Value("${leave.deadline.remind-after:24h}") Duration remindAfter,
+            @Value("${leave.deadline.escalate-after:72h}") Duration escalateAfter,
+            @Value("${leave.deadline.escalation:escalate}") String escalation,
+            @Value("${leave.deadline.tick:1s}") Duration tick) {
+        return new LeaveDeadlineScheduler(service, metrics, remindAfter, escalateAfter,
+                LeaveDeadlineScheduler.Escalation.valueOf(escalation.toUpperCase(Locale.ROOT)), tick);
+    }
+}
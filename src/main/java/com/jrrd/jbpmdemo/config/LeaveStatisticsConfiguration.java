@@ -0,0 +1,29 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.jrrd.jbpmdemo.service.LeaveStatistics;
+import com.jrrd.jbpmdemo.service.SimpleLeaveRequestService;
+import com.jrrd.jbpmdemo.store.LeaveRequestStore;
+
+/**
+ * Reporting projections. Employees belong to the department named for them
+ * in {@code leave.stats.departments} ({@code employee:department} pairs),
+ * otherwise to {@code leave.stats.default-department}.
+ */
+@Configuration
+public class LeaveStatisticsConfiguration {
+
+    @Bean
+    public LeaveStatistics leaveStatistics(SimpleLeaveRequestService service, LeaveRequestStore leaveRequestStore,
+            @Value("${leave.stats.departments:}") String departments,
+            @Value("${leave.stats.default-department:unassigned}") String defaultDepartment) {
+        Map<String, String> departmentByEmployee = EmployeeMappings.parse("leave.stats.departments", departments);
+        return new LeaveStatistics(service, leaveRequestStore,
+                employeeName -> departmentByEmployee.getOrDefault(employeeName, defaultDepartment));
+    }
+}
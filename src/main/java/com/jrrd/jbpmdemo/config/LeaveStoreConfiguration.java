@@ -0,0 +1,114 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import com.jrrd.jbpmdemo.store.DurableLeaveEventStore;
+import com.jrrd.jbpmdemo.store.InMemoryLeaveEventStore;
+import com.jrrd.jbpmdemo.store.InMemoryLeaveRequestStore;
+import com.jrrd.jbpmdemo.store.LeaveEventStore;
+import com.jrrd.jbpmdemo.store.LeaveRequestStore;
+import com.jrrd.jbpmdemo.store.LegacyLeaveRequestLog;
+import com.jrrd.jbpmdemo.store.OffHeapLeaveArchive;
+import com.jrrd.jbpmdemo.store.TieredLeaveRequestStore;
+
+/**
+ * Selects the leave stores with {@code leave.store.type}: {@code memory}
+ * (default) or {@code wal}, which keeps the request histories in a durable
+ * write-ahead log with snapshots in {@code leave.history.directory}. The
+ * stored requests are derived from the histories. With
+ * {@code leave.store.archive.enabled} (default true) decided requests are
+ * moved to an off-heap archive, which indexes them as well, and their
+ * histories to a scratch file, in both cases.
+ */
+@Configuration
+public class LeaveStoreConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "leave.store.type", havingValue = "memory", matchIfMissing = true)
+    public LeaveRequestStore inMemoryLeaveRequestStore(
+            @Value("${leave.store.archive.enabled:true}") boolean archive) {
+        return memoryStore(archive);
+    }
+
+    /**
+     * The request histories are the durable source of truth and the stored
+     * requests are derived from them on startup, so with {@code wal} the
+     * request store itself is volatile. A request log written by an older
+     * version in {@code leave.store.wal.directory} is read into it first, so
+     * the requests it holds get a history, unless it was imported before.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "leave.store.type", havingValue = "wal")
+    public LeaveRequestStore derivedLeaveRequestStore(
+            @Value("${leave.store.wal.directory:data/wal}") String directory,
+            @Value("${leave.store.wal.segment-size:64MB}") DataSize segmentSize,
+            @Value("${leave.store.archive.enabled:true}") boolean archive) {
+        LeaveRequestStore store = memoryStore(archive);
+        Path requestLog = Path.of(directory);
+        if (isPendingImport(requestLog)) {
+            LegacyLeaveRequestLog.read(requestLog, segmentSize.toBytes(), store);
+        }
+        return store;
+    }
+
+    /**
+     * Marks an imported request log once every bean is created, i.e. once the
+     * leave request service has stored the histories of its requests, so
+     * later startups do not read it again
+     */
+    @Bean
+    @ConditionalOnProperty(name = "leave.store.type", havingValue = "wal")
+    public SmartInitializingSingleton legacyRequestLogImport(
+            @Value("${leave.store.wal.directory:data/wal}") String directory) {
+        Path requestLog = Path.of(directory);
+        return () -> {
+            if (isPendingImport(requestLog)) {
+                LegacyLeaveRequestLog.markImported(requestLog);
+            }
+        };
+    }
+
+    private static boolean isPendingImport(Path requestLog) {
+        return Files.isDirectory(requestLog) && !LegacyLeaveRequestLog.isImported(requestLog);
+    }
+
+    /**
+     * With the archive, decided histories go to a temporary file, deleted on shutdown
+     */
+    @Bean
+    @ConditionalOnProperty(name = "leave.store.type", havingValue = "memory", matchIfMissing = true)
+    public LeaveEventStore inMemoryLeaveEventStore(@Value("${leave.store.archive.enabled:true}") boolean archive) {
+        if (!archive) {
+            return new InMemoryLeaveEventStore();
+        }
+        try {
+            return new InMemoryLeaveEventStore(Files.createTempFile("decided-histories", ".tmp"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create the file of decided leave histories", e);
+        }
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "leave.store.type", havingValue = "wal")
+    public LeaveEventStore durableLeaveEventStore(
+            @Value("${leave.history.directory:data/history}") String directory,
+            @Value("${leave.store.wal.segment-size:64MB}") DataSize segmentSize,
+            @Value("${leave.history.snapshot-every:100000}") long snapshotEvery,
+            @Value("${leave.store.archive.enabled:true}") boolean archive) {
+        return new DurableLeaveEventStore(Path.of(directory), segmentSize.toBytes(), snapshotEvery, archive);
+    }
+
+    private static LeaveRequestStore memoryStore(boolean archive) {
+        return archive ? new TieredLeaveRequestStore(new OffHeapLeaveArchive()) : new InMemoryLeaveRequestStore();
+    }
+}
@@ -0,0 +1,30 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.jrrd.jbpmdemo.service.ManagerTaskInbox;
+import com.jrrd.jbpmdemo.service.SimpleLeaveRequestService;
+
+/**
+ * Manager task inbox. Requests go to {@code leave.inbox.default-group} unless
+ * {@code leave.inbox.routes} names another group for the employee, as a
+ * comma-separated list of {@code employee:group} pairs.
+ */
+@Configuration
+public class ManagerTaskConfiguration {
+
+    @Bean
+    public ManagerTaskInbox managerTaskInbox(SimpleLeaveRequestService service,
+            @Value("${leave.inbox.default-group:managers}") String defaultGroup,
+            @Value("${leave.inbox.routes:}") String routes,
+            @Value("${leave.inbox.lease:15m}") Duration lease) {
+        Map<String, String> groupByEmployee = EmployeeMappings.parse("leave.inbox.routes", routes);
+        return new ManagerTaskInbox(service,
+                request -> groupByEmployee.getOrDefault(request.employeeName(), defaultGroup), lease);
+    }
+}
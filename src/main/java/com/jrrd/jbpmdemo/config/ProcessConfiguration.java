@@ -0,0 +1,48 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import com.jrrd.jbpmdemo.process.BpmnProcessParser;
+import com.jrrd.jbpmdemo.process.ProcessDefinition;
+import com.jrrd.jbpmdemo.process.ProcessEngine;
+import com.jrrd.jbpmdemo.service.LeaveProcess;
+
+/**
+ * Compiles the leave process once at startup for the embedded process engine.
+ * Service tasks are bound to the Spring beans named in the BPMN interfaces.
+ */
+@Configuration
+public class ProcessConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessConfiguration.class);
+
+    @Bean
+    public ProcessEngine processEngine() {
+        return new ProcessEngine();
+    }
+
+    @Bean
+    public ProcessDefinition leaveProcessDefinition(
+            @Value("${leave.process.resource:classpath:leave.bpmn}") Resource resource,
+            ApplicationContext applicationContext) throws IOException {
+        try (InputStream bpmn = resource.getInputStream()) {
+            ProcessDefinition definition = new BpmnProcessParser(applicationContext::getBean).parse(bpmn);
+            logger.info("Compiled process '{}' from {}", definition.getId(), resource.getDescription());
+            return definition;
+        }
+    }
+
+    @Bean
+    public LeaveProcess leaveProcess(ProcessEngine processEngine, ProcessDefinition leaveProcessDefinition) {
+        return new LeaveProcess(processEngine, leaveProcessDefinition);
+    }
+}
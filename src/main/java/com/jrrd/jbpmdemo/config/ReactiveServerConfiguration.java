@@ -0,0 +1,38 @@
+package com.jrrd.jbpmdemo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Netty settings for the reactive variant of the API (the {@code reactive}
+ * profile).
+ *
+ * Handlers never block the event loop, so a small, fixed number of loop
+ * threads ({@code leave.reactive.event-loop-threads}, default 2) serves any
+ * number of connections instead of Netty's one-per-core default.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveServerConfiguration.class);
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources leaveEventLoop(@Value("${leave.reactive.event-loop-threads:2}") int threads) {
+        logger.info("Serving reactive requests on {} event loop threads", threads);
+        return LoopResources.create("leave-http", 1, threads, true);
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> leaveEventLoopCustomizer(LoopResources leaveEventLoop) {
+        return factory -> factory.addServerCustomizers(server -> server.runOn(leaveEventLoop));
+    }
+}
@@ -0,0 +1,28 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.jrrd.jbpmdemo.service.TeamCoverage;
+
+/**
+ * Team coverage. Employees belong to the team named for them in
+ * {@code leave.teams.members} ({@code employee:team} pairs); employees not
+ * listed belong to no team and are never held back for coverage. Requests
+ * that would leave more than {@code leave.teams.max-absent} members of a
+ * team absent on the same day go to manual approval.
+ */
+@Configuration
+public class TeamCoverageConfiguration {
+
+    @Bean
+    public TeamCoverage teamCoverage(
+            @Value("${leave.teams.members:}") String members,
+            @Value("${leave.teams.max-absent:2}") int maxAbsent) {
+        Map<String, String> teamByEmployee = EmployeeMappings.parse("leave.teams.members", members);
+        return new TeamCoverage(teamByEmployee::get, maxAbsent);
+    }
+}
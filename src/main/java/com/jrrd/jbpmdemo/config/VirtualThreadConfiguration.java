@@ -0,0 +1,63 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+/**
+ * Opt-in virtual thread mode, enabled with {@code leave.threads.virtual=true}
+ * on Java 21 or later.
+ *
+ * Tomcat then runs every request on its own virtual thread instead of the
+ * bounded worker pool, and the application task executor (used for
+ * {@code @Async} work and asynchronous MVC responses such as NDJSON
+ * streaming) hands out virtual threads too. The application compiles for
+ * Java 17, so the executor is created reflectively; on older runtimes the
+ * startup fails instead of silently using platform threads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "leave.threads.virtual", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+    private static final int MIN_JAVA_VERSION = 21;
+
+    @Bean
+    public ExecutorService virtualThreadExecutor() {
+        if (Runtime.version().feature() < MIN_JAVA_VERSION) {
+            throw new IllegalStateException("leave.threads.virtual requires Java " + MIN_JAVA_VERSION
+                    + " or later, running on " + Runtime.version());
+        }
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            logger.info("Serving requests and async tasks on virtual threads");
+            return executor;
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot create virtual thread executor", e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    @Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+}
@@ -0,0 +1,60 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import com.jrrd.jbpmdemo.calendar.WorkingCalendars;
+
+/**
+ * Working calendars, used to count leave in working days. Holidays are read
+ * once at startup from {@code leave.calendar.holidays}; employees work in the
+ * region named for them in {@code leave.calendar.regions}
+ * ({@code employee:region} pairs), or in {@code leave.calendar.default-region}.
+ * The days in {@code leave.calendar.weekend} are off in every region.
+ */
+@Configuration
+public class WorkingCalendarConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkingCalendarConfiguration.class);
+
+    @Bean
+    public WorkingCalendars workingCalendars(
+            @Value("${leave.calendar.holidays:classpath:holidays.csv}") Resource holidays,
+            @Value("${leave.calendar.weekend:SATURDAY,SUNDAY}") String weekend,
+            @Value("${leave.calendar.regions:}") String regions,
+            @Value("${leave.calendar.default-region:default}") String defaultRegion) throws IOException {
+        Set<DayOfWeek> weekendDays = EnumSet.noneOf(DayOfWeek.class);
+        for (String day : weekend.split(",")) {
+            if (!day.isBlank()) {
+                weekendDays.add(DayOfWeek.valueOf(day.strip().toUpperCase(Locale.ROOT)));
+            }
+        }
+        Map<String, String> regionByEmployee = EmployeeMappings.parse("leave.calendar.regions", regions);
+        Function<String, String> regionOf = employeeName -> regionByEmployee.getOrDefault(employeeName, defaultRegion);
+        if (!holidays.exists()) {
+            logger.warn("Holiday file {} not found; counting weekends only", holidays.getDescription());
+            return WorkingCalendars.load(Reader.nullReader(), weekendDays, regionOf);
+        }
+        WorkingCalendars calendars;
+        try (Reader reader = new InputStreamReader(holidays.getInputStream(), StandardCharsets.UTF_8)) {
+            calendars = WorkingCalendars.load(reader, weekendDays, regionOf);
+        }
+        logger.info("Loaded working calendars of regions {} from {}", calendars.regions(), holidays.getDescription());
+        return calendars;
+    }
+}
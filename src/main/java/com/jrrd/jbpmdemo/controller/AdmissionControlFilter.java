@@ -0,0 +1,55 @@
+package com.jrrd.jbpmdemo.controller;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.jrrd.jbpmdemo.service.AdaptiveConcurrencyLimiter;
+import com.jrrd.jbpmdemo.service.AdmissionControl;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sheds {@code /api} calls beyond the {@link AdmissionControl} budgets with
+ * {@code 503 Service Unavailable} and a {@code Retry-After} header, before
+ * they reach a controller or wait for a thread.
+ *
+ * A call counts as in flight until its handler returns; listings streamed
+ * after that are not counted. Registered for {@code /api/*} by
+ * {@link com.jrrd.jbpmdemo.config.AdmissionControlConfiguration}, so web
+ * slices that do not load the budgets do not get the filter either.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+   private final AdmissionControl admissionControl;
+
+   public AdmissionControlFilter(AdmissionControl admissionControl) {
+       this.admissionControl = admissionControl;
+   }
+
+   @Override
+   protected boolean shouldNotFilter(HttpServletRequest request) {
+       return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+   }
+
+   @Override
+   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+           throws ServletException, IOException {
+       AdaptiveConcurrencyLimiter limiter = admissionControl.limiterFor(request.getMethod());
+       if (!limiter.tryAcquire()) {
+           response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+           response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(admissionControl.retryAfterSeconds()));
+           return;
+       }
+       long start = System.nanoTime();
+       try {
+           chain.doFilter(request, response);
+       } finally {
+           limiter.release(start);
+       }
+   }
+}
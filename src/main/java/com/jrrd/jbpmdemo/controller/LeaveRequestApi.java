@@ -0,0 +1,158 @@
+package com.jrrd.jbpmdemo.controller;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.jrrd.jbpmdemo.dto.LeaveRequestDTO;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+import com.jrrd.jbpmdemo.service.IdempotencyCache;
+import com.jrrd.jbpmdemo.service.IdempotencyKeyReusedException;
+import com.jrrd.jbpmdemo.service.InsufficientLeaveBalanceException;
+import com.jrrd.jbpmdemo.service.LeaveTransitionConflictException;
+import com.jrrd.jbpmdemo.service.SimpleLeaveRequestService;
+
+/**
+ * The {@code /api/leave} contract shared by {@link LeaveRequestController}
+ * and {@link ReactiveLeaveRequestController}: request limits, Idempotency-Key
+ * handling and the mapping of service outcomes to responses. The controllers
+ * only adapt it to their web stack.
+ */
+final class LeaveRequestApi {
+   static final int DEFAULT_PAGE_SIZE = 100;
+   static final int MAX_PAGE_SIZE = 1000;
+   static final int MAX_BATCH_SIZE = 10_000;
+   static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+   private final SimpleLeaveRequestService leaveRequestService;
+   private final IdempotencyCache<ResponseEntity<String>> idempotencyCache;
+
+   LeaveRequestApi(SimpleLeaveRequestService leaveRequestService,
+                   IdempotencyCache<ResponseEntity<String>> idempotencyCache) {
+       this.leaveRequestService = leaveRequestService;
+       this.idempotencyCache = idempotencyCache;
+   }
+
+   /**
+    * Cache used when a controller is created outside a Spring context
+    */
+   static IdempotencyCache<ResponseEntity<String>> defaultIdempotencyCache() {
+       return new IdempotencyCache<>(10_000, Duration.ofHours(24));
+   }
+
+   /**
+    * Creates a leave request; 400 if the key or the period is invalid, 422 if
+    * the employee does not have enough days left or the key was used for a
+    * different request. A retry with the key of an earlier call gets that
+    * call's response.
+    */
+   ResponseEntity<String> requestLeave(LeaveRequestDTO dto, String idempotencyKey) {
+       if (idempotencyKey == null) {
+           return createLeaveRequest(dto);
+       }
+       if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+           return ResponseEntity.badRequest().body("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH
+                   + " characters");
+       }
+       try {
+           return idempotencyCache.execute(idempotencyKey, dto, () -> createLeaveRequest(dto));
+       } catch (IdempotencyKeyReusedException e) {
+           return ResponseEntity.unprocessableEntity().body(e.getMessage());
+       }
+   }
+
+   private ResponseEntity<String> createLeaveRequest(LeaveRequestDTO dto) {
+       String requestId;
+       try {
+           requestId = leaveRequestService.createLeaveRequest(dto.getEmployeeName(), dto.getDaysRequested(),
+                   dto.getStartDate(), dto.getEndDate());
+       } catch (IllegalArgumentException e) {
+           return ResponseEntity.badRequest().body(e.getMessage());
+       } catch (InsufficientLeaveBalanceException e) {
+           return ResponseEntity.unprocessableEntity().body(e.getMessage());
+       }
+       return ResponseEntity.ok("Leave request created with ID: " + requestId);
+   }
+
+   ResponseEntity<?> createLeaveRequests(List<LeaveRequestDTO> items) {
+       if (items.size() > MAX_BATCH_SIZE) {
+           return batchTooLarge();
+       }
+       return ResponseEntity.ok(leaveRequestService.createLeaveRequests(items));
+   }
+
+   ResponseEntity<?> approveLeaveRequests(List<String> ids, String actor) {
+       if (ids.size() > MAX_BATCH_SIZE) {
+           return batchTooLarge();
+       }
+       return ResponseEntity.ok(leaveRequestService.approveLeaveRequests(ids, actor));
+   }
+
+   ResponseEntity<?> rejectLeaveRequests(List<String> ids, String actor) {
+       if (ids.size() > MAX_BATCH_SIZE) {
+           return batchTooLarge();
+       }
+       return ResponseEntity.ok(leaveRequestService.rejectLeaveRequests(ids, actor));
+   }
+
+   private static ResponseEntity<?> batchTooLarge() {
+       return ResponseEntity.badRequest().body("Batch exceeds " + MAX_BATCH_SIZE + " items");
+   }
+
+   /**
+    * Gets one page of leave requests ordered by request date; 400 if the
+    * limit is not positive or the cursor is malformed
+    */
+   ResponseEntity<?> getLeaveRequestPage(Integer limit, String cursor) {
+       int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+       if (pageSize <= 0) {
+           return ResponseEntity.badRequest().body("limit must be positive");
+       }
+       try {
+           return ResponseEntity.ok(leaveRequestService.getLeaveRequestPage(cursor, pageSize));
+       } catch (IllegalArgumentException e) {
+           return ResponseEntity.badRequest().body("Invalid cursor");
+       }
+   }
+
+   ResponseEntity<String> approveLeaveRequest(String id, String actor) {
+       return decide(() -> leaveRequestService.approveLeaveRequest(id, actor), "Leave request approved");
+   }
+
+   ResponseEntity<String> rejectLeaveRequest(String id, String actor) {
+       return decide(() -> leaveRequestService.rejectLeaveRequest(id, actor), "Leave request rejected");
+   }
+
+   /**
+    * Applies a decision; 404 if the request is unknown, 409 if it was
+    * already decided otherwise
+    */
+   private static ResponseEntity<String> decide(BooleanSupplier decision, String message) {
+       boolean success;
+       try {
+           success = decision.getAsBoolean();
+       } catch (LeaveTransitionConflictException e) {
+           return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+       }
+       if (success) {
+           return ResponseEntity.ok(message);
+       }
+       return ResponseEntity.notFound().build();
+   }
+
+   /**
+    * Parses a status path segment in any case
+    *
+    * @return The status, or null if there is none of that name
+    */
+   static LeaveStatus parseStatus(String status) {
+       try {
+           return LeaveStatus.valueOf(status.toUpperCase(Locale.ROOT));
+       } catch (IllegalArgumentException e) {
+           return null;
+       }
+   }
+}
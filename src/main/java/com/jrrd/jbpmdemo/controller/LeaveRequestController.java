@@ -1,37 +1,84 @@
 package com.jrrd.jbpmdemo.controller;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jrrd.jbpmdemo.dto.LeaveBalance;
 import com.jrrd.jbpmdemo.dto.LeaveRequestDTO;
+import com.jrrd.jbpmdemo.model.LeaveEvent;
 import com.jrrd.jbpmdemo.model.LeaveRequest;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+import com.jrrd.jbpmdemo.service.IdempotencyCache;
 import com.jrrd.jbpmdemo.service.SimpleLeaveRequestService;
 
 @RestController
 @RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class LeaveRequestController {
    private static final Logger logger = LoggerFactory.getLogger(LeaveRequestController.class);
+   private static final String APPLICATION_NDJSON = "application/x-ndjson";
    private final SimpleLeaveRequestService leaveRequestService;
+   private final ObjectMapper objectMapper;
+   private final LeaveRequestApi api;
    
-   public LeaveRequestController(SimpleLeaveRequestService leaveRequestService) {
+   public LeaveRequestController(SimpleLeaveRequestService leaveRequestService, ObjectMapper objectMapper) {
+       this(leaveRequestService, objectMapper, LeaveRequestApi.defaultIdempotencyCache());
+   }
+   
+   @Autowired
+   public LeaveRequestController(SimpleLeaveRequestService leaveRequestService, ObjectMapper objectMapper,
+                                 IdempotencyCache<ResponseEntity<String>> idempotencyCache) {
        this.leaveRequestService = leaveRequestService;
+       this.objectMapper = objectMapper;
+       this.api = new LeaveRequestApi(leaveRequestService, idempotencyCache);
    }
    
+   /**
+    * Creates a leave request, optionally for a period; 400 if the period is
+    * invalid, 422 if the employee does not have enough days left. A retry
+    * with the {@code Idempotency-Key} of an earlier call gets that call's
+    * response without creating another request; 422 if the key was used for
+    * a different request.
+    */
    @PostMapping("/leave")
-   public ResponseEntity<String> requestLeave(@RequestBody LeaveRequestDTO dto) {
-       logger.info("Received leave request for {} with {} days", dto.getEmployeeName(), dto.getDaysRequested());
-       String requestId = leaveRequestService.createLeaveRequest(dto.getEmployeeName(), dto.getDaysRequested());
-       return ResponseEntity.ok("Leave request created with ID: " + requestId);
+   public ResponseEntity<String> requestLeave(@RequestBody LeaveRequestDTO dto,
+                                              @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+       if (logger.isDebugEnabled()) {
+           logger.debug("Received leave request for {} with {} days", dto.getEmployeeName(), dto.getDaysRequested());
+       }
+       return api.requestLeave(dto, idempotencyKey);
+   }
+   
+   /**
+    * Creates up to {@value LeaveRequestApi#MAX_BATCH_SIZE} leave requests in one call.
+    * Results are returned per item, in request order.
+    */
+   @PostMapping("/leave/batch")
+   public ResponseEntity<?> requestLeaveBatch(@RequestBody List<LeaveRequestDTO> items) {
+       logger.info("Received batch of {} leave requests", items.size());
+       return api.createLeaveRequests(items);
    }
    
    @GetMapping("/leave/{id}")
@@ -43,26 +90,105 @@ public class LeaveRequestController {
        return ResponseEntity.ok(request);
    }
    
+   /**
+    * Gets every event of a leave request, oldest first
+    */
+   @GetMapping("/leave/{id}/history")
+   public ResponseEntity<List<LeaveEvent>> getLeaveRequestHistory(@PathVariable String id) {
+       List<LeaveEvent> history = leaveRequestService.getLeaveRequestHistory(id);
+       if (history == null) {
+           return ResponseEntity.notFound().build();
+       }
+       return ResponseEntity.ok(history);
+   }
+   
+   /**
+    * Lists leave requests. Without paging parameters the full list is returned;
+    * with {@code limit} and/or {@code cursor} one page ordered by request date is returned.
+    */
    @GetMapping("/leave")
-   public ResponseEntity<List<LeaveRequest>> getAllLeaveRequests() {
-       return ResponseEntity.ok(leaveRequestService.getAllLeaveRequests());
+   public ResponseEntity<?> getAllLeaveRequests(@RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) String cursor) {
+       if (limit == null && cursor == null) {
+           return ResponseEntity.ok(leaveRequestService.getAllLeaveRequests());
+       }
+       return api.getLeaveRequestPage(limit, cursor);
    }
    
-   @PutMapping("/leave/{id}/approve")
-   public ResponseEntity<String> approveLeaveRequest(@PathVariable String id) {
-       boolean success = leaveRequestService.approveLeaveRequest(id);
-       if (success) {
-           return ResponseEntity.ok("Leave request approved");
+   /**
+    * Streams every leave request as newline-delimited JSON, ordered by request date.
+    * Records are written as they are read, so memory use does not grow with the store.
+    */
+   @GetMapping(value = "/leave", produces = APPLICATION_NDJSON)
+   public ResponseEntity<StreamingResponseBody> streamLeaveRequests() {
+       StreamingResponseBody body = (OutputStream out) -> {
+           try (Stream<LeaveRequest> requests = leaveRequestService.streamLeaveRequests()) {
+               Iterator<LeaveRequest> iterator = requests.iterator();
+               while (iterator.hasNext()) {
+                   out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                   out.write('\n');
+               }
+           }
+           out.flush();
+       };
+       return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(body);
+   }
+   
+   @GetMapping("/leave/employee/{employeeName}")
+   public ResponseEntity<List<LeaveRequest>> getLeaveRequestsByEmployee(@PathVariable String employeeName) {
+       return ResponseEntity.ok(leaveRequestService.getLeaveRequestsByEmployee(employeeName));
+   }
+   
+   @GetMapping("/leave/employee/{employeeName}/balance")
+   public ResponseEntity<LeaveBalance> getLeaveBalance(@PathVariable String employeeName,
+                                                       @RequestParam(required = false) Integer year) {
+       return ResponseEntity.ok(year == null ? leaveRequestService.getLeaveBalance(employeeName)
+               : leaveRequestService.getLeaveBalance(employeeName, year));
+   }
+   
+   @GetMapping("/leave/status/{status}")
+   public ResponseEntity<List<LeaveRequest>> getLeaveRequestsByStatus(@PathVariable String status) {
+       LeaveStatus leaveStatus = LeaveRequestApi.parseStatus(status);
+       if (leaveStatus == null) {
+           return ResponseEntity.badRequest().build();
        }
-       return ResponseEntity.notFound().build();
+       return ResponseEntity.ok(leaveRequestService.getLeaveRequestsByStatus(leaveStatus));
+   }
+   
+   @GetMapping("/leave/requested")
+   public ResponseEntity<List<LeaveRequest>> getLeaveRequestsByRequestDate(
+           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+       return ResponseEntity.ok(leaveRequestService.getLeaveRequestsByRequestDate(from, to));
+   }
+   
+   /**
+    * Approves up to {@value LeaveRequestApi#MAX_BATCH_SIZE} leave requests by ID. Unknown IDs and
+    * conflicting decisions are reported per item; the call itself succeeds.
+    * The optional {@code actor} is recorded in the requests' history, as for
+    * the single request decisions.
+    */
+   @PutMapping("/leave/batch/approve")
+   public ResponseEntity<?> approveLeaveRequests(@RequestBody List<String> ids,
+                                                 @RequestParam(required = false) String actor) {
+       return api.approveLeaveRequests(ids, actor);
+   }
+   
+   @PutMapping("/leave/batch/reject")
+   public ResponseEntity<?> rejectLeaveRequests(@RequestBody List<String> ids,
+                                                @RequestParam(required = false) String actor) {
+       return api.rejectLeaveRequests(ids, actor);
+   }
+   
+   @PutMapping("/leave/{id}/approve")
+   public ResponseEntity<String> approveLeaveRequest(@PathVariable String id,
+                                                     @RequestParam(required = false) String actor) {
+       return api.approveLeaveRequest(id, actor);
    }
    
    @PutMapping("/leave/{id}/reject")
-   public ResponseEntity<String> rejectLeaveRequest(@PathVariable String id) {
-       boolean success = leaveRequestService.rejectLeaveRequest(id);
-       if (success) {
-           return ResponseEntity.ok("Leave request rejected");
-       }
-       return ResponseEntity.notFound().build();
+   public ResponseEntity<String> rejectLeaveRequest(@PathVariable String id,
+                                                    @RequestParam(required = false) String actor) {
+       return api.rejectLeaveRequest(id, actor);
    }
 }
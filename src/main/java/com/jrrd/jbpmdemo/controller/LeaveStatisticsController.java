@@ -0,0 +1,63 @@
+package com.jrrd.jbpmdemo.controller;
+
+import java.time.Year;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.jrrd.jbpmdemo.dto.EmployeeLeaveStats;
+import com.jrrd.jbpmdemo.dto.LeaveStats;
+import com.jrrd.jbpmdemo.service.LeaveStatistics;
+
+/**
+ * Reporting endpoints served from incrementally maintained projections.
+ * Reads never touch the store, so the controller serves both the servlet
+ * and the reactive stack.
+ */
+@RestController
+@RequestMapping("/api/leave/stats")
+public class LeaveStatisticsController {
+   private final LeaveStatistics statistics;
+
+   public LeaveStatisticsController(LeaveStatistics statistics) {
+       this.statistics = statistics;
+   }
+
+   @GetMapping
+   public ResponseEntity<LeaveStats> getStats() {
+       return ResponseEntity.ok(statistics.getStats());
+   }
+
+   @GetMapping("/departments")
+   public ResponseEntity<Map<String, Long>> getPendingByDepartment() {
+       return ResponseEntity.ok(statistics.getPendingCountByDepartment());
+   }
+
+   @GetMapping("/departments/{department}")
+   public ResponseEntity<Map<String, Object>> getPendingOfDepartment(@PathVariable String department) {
+       return ResponseEntity.ok(Map.of("department", department, "pending", statistics.getPendingCount(department)));
+   }
+
+   /**
+    * Gets the leave approved for an employee in a year, the current one by default
+    */
+   @GetMapping("/employees/{employeeName}")
+   public ResponseEntity<EmployeeLeaveStats> getApprovedLeave(@PathVariable String employeeName,
+                                                              @RequestParam(required = false) Integer year) {
+       return ResponseEntity.ok(statistics.getApprovedLeave(employeeName, year == null ? Year.now().getValue() : year));
+   }
+
+   /**
+    * Recomputes the projections from the store
+    */
+   @PostMapping("/rebuild")
+   public ResponseEntity<Map<String, Long>> rebuild() {
+       return ResponseEntity.ok(Map.of("requests", statistics.rebuild()));
+   }
+}
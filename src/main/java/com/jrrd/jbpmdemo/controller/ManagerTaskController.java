@@ -0,0 +1,78 @@
+package com.jrrd.jbpmdemo.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.jrrd.jbpmdemo.dto.ManagerTask;
+import com.jrrd.jbpmdemo.service.ManagerTaskInbox;
+import com.jrrd.jbpmdemo.service.TaskLeaseConflictException;
+
+/**
+ * Manager approval task inbox. Every call works in memory without blocking,
+ * so the controller serves both the servlet and the reactive stack.
+ * Tasks are decided through the leave request approve/reject endpoints.
+ */
+@RestController
+@RequestMapping("/api/tasks")
+public class ManagerTaskController {
+   private static final int DEFAULT_LIMIT = 10;
+   private static final int MAX_LIMIT = 100;
+   private final ManagerTaskInbox inbox;
+
+   public ManagerTaskController(ManagerTaskInbox inbox) {
+       this.inbox = inbox;
+   }
+
+   /**
+    * Lists the next unclaimed tasks of a group, oldest request first
+    */
+   @GetMapping("/{group}")
+   public ResponseEntity<?> nextTasks(@PathVariable String group, @RequestParam(required = false) Integer limit) {
+       int count = limit == null ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+       if (count <= 0) {
+           return ResponseEntity.badRequest().body("limit must be positive");
+       }
+       return ResponseEntity.ok(inbox.next(group, count));
+   }
+
+   /**
+    * Claims the next unclaimed tasks of a group with a lease
+    */
+   @PostMapping("/{group}/claim")
+   public ResponseEntity<?> claimTasks(@PathVariable String group, @RequestParam String manager,
+                                       @RequestParam(required = false) Integer limit) {
+       int count = limit == null ? 1 : Math.min(limit, MAX_LIMIT);
+       if (count <= 0) {
+           return ResponseEntity.badRequest().body("limit must be positive");
+       }
+       return ResponseEntity.ok(inbox.claim(group, manager, count));
+   }
+
+   @PutMapping("/{id}/lease")
+   public ResponseEntity<?> renewLease(@PathVariable String id, @RequestParam String manager) {
+       try {
+           ManagerTask task = inbox.renew(id, manager);
+           return task == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(task);
+       } catch (TaskLeaseConflictException e) {
+           return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+       }
+   }
+
+   @DeleteMapping("/{id}/lease")
+   public ResponseEntity<?> releaseLease(@PathVariable String id, @RequestParam String manager) {
+       try {
+           ManagerTask task = inbox.release(id, manager);
+           return task == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(task);
+       } catch (TaskLeaseConflictException e) {
+           return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+       }
+   }
+}
@@ -0,0 +1,41 @@
+package com.jrrd.jbpmdemo.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.jrrd.jbpmdemo.service.AdaptiveConcurrencyLimiter;
+import com.jrrd.jbpmdemo.service.AdmissionControl;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux variant of {@link AdmissionControlFilter}. A call counts as in
+ * flight until its response completes, fails or is cancelled by the client,
+ * so streamed listings hold their slot while they stream.
+ */
+public class ReactiveAdmissionControlFilter implements WebFilter {
+   private final AdmissionControl admissionControl;
+
+   public ReactiveAdmissionControlFilter(AdmissionControl admissionControl) {
+       this.admissionControl = admissionControl;
+   }
+
+   @Override
+   public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+       if (!exchange.getRequest().getPath().pathWithinApplication().value().startsWith("/api/")) {
+           return chain.filter(exchange);
+       }
+       AdaptiveConcurrencyLimiter limiter = admissionControl.limiterFor(exchange.getRequest().getMethod().name());
+       if (!limiter.tryAcquire()) {
+           exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+           exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                   Long.toString(admissionControl.retryAfterSeconds()));
+           return exchange.getResponse().setComplete();
+       }
+       long start = System.nanoTime();
+       return chain.filter(exchange).doFinally(signal -> limiter.release(start));
+   }
+}
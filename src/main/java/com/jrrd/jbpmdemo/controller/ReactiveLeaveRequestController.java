@@ -0,0 +1,178 @@
+package com.jrrd.jbpmdemo.controller;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.jrrd.jbpmdemo.dto.LeaveBalance;
+import com.jrrd.jbpmdemo.dto.LeaveRequestDTO;
+import com.jrrd.jbpmdemo.model.LeaveEvent;
+import com.jrrd.jbpmdemo.model.LeaveRequest;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+import com.jrrd.jbpmdemo.service.IdempotencyCache;
+import com.jrrd.jbpmdemo.service.SimpleLeaveRequestService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux variant of {@link LeaveRequestController} with the same
+ * {@code /api/leave} contract, active when the application runs as a reactive
+ * web application (the {@code reactive} profile).
+ *
+ * Reads come from memory and run on the event loop; listings are emitted
+ * lazily from the request date index as the client consumes them, so a slow
+ * client holds back the stream instead of a thread or a full list. Writes may
+ * block on the write-ahead log and run on the bounded elastic scheduler.
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveLeaveRequestController {
+   private static final Logger logger = LoggerFactory.getLogger(ReactiveLeaveRequestController.class);
+   private final SimpleLeaveRequestService leaveRequestService;
+   private final LeaveRequestApi api;
+
+   public ReactiveLeaveRequestController(SimpleLeaveRequestService leaveRequestService) {
+       this(leaveRequestService, LeaveRequestApi.defaultIdempotencyCache());
+   }
+
+   @Autowired
+   public ReactiveLeaveRequestController(SimpleLeaveRequestService leaveRequestService,
+                                         IdempotencyCache<ResponseEntity<String>> idempotencyCache) {
+       this.leaveRequestService = leaveRequestService;
+       this.api = new LeaveRequestApi(leaveRequestService, idempotencyCache);
+   }
+
+   /**
+    * Creates a leave request; a retry with the {@code Idempotency-Key} of an
+    * earlier call gets that call's response without creating another request
+    */
+   @PostMapping("/leave")
+   public Mono<ResponseEntity<String>> requestLeave(@RequestBody LeaveRequestDTO dto,
+                                                    @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+       if (logger.isDebugEnabled()) {
+           logger.debug("Received leave request for {} with {} days", dto.getEmployeeName(), dto.getDaysRequested());
+       }
+       return blocking(() -> api.requestLeave(dto, idempotencyKey));
+   }
+
+   @PostMapping("/leave/batch")
+   public Mono<ResponseEntity<?>> requestLeaveBatch(@RequestBody List<LeaveRequestDTO> items) {
+       return blocking(() -> api.createLeaveRequests(items));
+   }
+
+   @GetMapping("/leave/{id}")
+   public Mono<ResponseEntity<LeaveRequest>> getLeaveRequest(@PathVariable String id) {
+       return Mono.justOrEmpty(leaveRequestService.getLeaveRequest(id))
+               .map(ResponseEntity::ok)
+               .defaultIfEmpty(ResponseEntity.notFound().build());
+   }
+
+   @GetMapping("/leave/{id}/history")
+   public Mono<ResponseEntity<List<LeaveEvent>>> getLeaveRequestHistory(@PathVariable String id) {
+       return Mono.justOrEmpty(leaveRequestService.getLeaveRequestHistory(id))
+               .map(ResponseEntity::ok)
+               .defaultIfEmpty(ResponseEntity.notFound().build());
+   }
+
+   /**
+    * Lists leave requests. Without paging parameters all requests are streamed
+    * as a JSON array ordered by request date; with {@code limit} and/or
+    * {@code cursor} one page is returned.
+    */
+   @GetMapping(value = "/leave", produces = MediaType.APPLICATION_JSON_VALUE)
+   public ResponseEntity<?> getAllLeaveRequests(@RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) String cursor) {
+       if (limit == null && cursor == null) {
+           return ResponseEntity.ok(streamLeaveRequests());
+       }
+       return api.getLeaveRequestPage(limit, cursor);
+   }
+
+   /**
+    * Streams every leave request as newline-delimited JSON, ordered by request date
+    */
+   @GetMapping(value = "/leave", produces = MediaType.APPLICATION_NDJSON_VALUE)
+   public Flux<LeaveRequest> streamLeaveRequests() {
+       // Pulled one request at a time as the client signals demand
+       return Flux.fromStream(leaveRequestService::streamLeaveRequests);
+   }
+
+   @GetMapping("/leave/employee/{employeeName}")
+   public Flux<LeaveRequest> getLeaveRequestsByEmployee(@PathVariable String employeeName) {
+       return Flux.fromIterable(leaveRequestService.getLeaveRequestsByEmployee(employeeName));
+   }
+
+   @GetMapping("/leave/employee/{employeeName}/balance")
+   public Mono<LeaveBalance> getLeaveBalance(@PathVariable String employeeName,
+                                             @RequestParam(required = false) Integer year) {
+       return Mono.just(year == null ? leaveRequestService.getLeaveBalance(employeeName)
+               : leaveRequestService.getLeaveBalance(employeeName, year));
+   }
+
+   @GetMapping("/leave/status/{status}")
+   public ResponseEntity<Flux<LeaveRequest>> getLeaveRequestsByStatus(@PathVariable String status) {
+       LeaveStatus leaveStatus = LeaveRequestApi.parseStatus(status);
+       if (leaveStatus == null) {
+           return ResponseEntity.badRequest().build();
+       }
+       return ResponseEntity.ok(Flux.fromIterable(leaveRequestService.getLeaveRequestsByStatus(leaveStatus)));
+   }
+
+   @GetMapping("/leave/requested")
+   public Flux<LeaveRequest> getLeaveRequestsByRequestDate(
+           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+       return Flux.fromIterable(leaveRequestService.getLeaveRequestsByRequestDate(from, to));
+   }
+
+   @PutMapping("/leave/batch/approve")
+   public Mono<ResponseEntity<?>> approveLeaveRequests(@RequestBody List<String> ids,
+                                                       @RequestParam(required = false) String actor) {
+       return blocking(() -> api.approveLeaveRequests(ids, actor));
+   }
+
+   @PutMapping("/leave/batch/reject")
+   public Mono<ResponseEntity<?>> rejectLeaveRequests(@RequestBody List<String> ids,
+                                                      @RequestParam(required = false) String actor) {
+       return blocking(() -> api.rejectLeaveRequests(ids, actor));
+   }
+
+   @PutMapping("/leave/{id}/approve")
+   public Mono<ResponseEntity<String>> approveLeaveRequest(@PathVariable String id,
+                                                           @RequestParam(required = false) String actor) {
+       return blocking(() -> api.approveLeaveRequest(id, actor));
+   }
+
+   @PutMapping("/leave/{id}/reject")
+   public Mono<ResponseEntity<String>> rejectLeaveRequest(@PathVariable String id,
+                                                          @RequestParam(required = false) String actor) {
+       return blocking(() -> api.rejectLeaveRequest(id, actor));
+   }
+
+   /**
+    * Runs a call that may wait for the write-ahead log off the event loop
+    */
+   private static <T> Mono<T> blocking(Callable<T> call) {
+       return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+   }
+}
@@ -0,0 +1,549 @@
+package com.jrrd.jbpmdemo.controller;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jrrd.jbpmdemo.cluster.Cluster;
+import com.jrrd.jbpmdemo.cluster.ClusterClient;
+import com.jrrd.jbpmdemo.cluster.ClusterNode;
+import com.jrrd.jbpmdemo.dto.BatchItemResult;
+import com.jrrd.jbpmdemo.dto.LeaveRequestDTO;
+import com.jrrd.jbpmdemo.dto.LeaveRequestPage;
+import com.jrrd.jbpmdemo.model.LeaveRequest;
+import com.jrrd.jbpmdemo.service.SimpleLeaveRequestService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Routes {@code /api/leave} calls of a sharded deployment to the nodes that
+ * own their data, so a client may call any node.
+ *
+ * <ul>
+ * <li>Creating a request, and reading an employee's requests, balance or
+ * approved leave statistics, go to the node that owns the employee.</li>
+ * <li>Reading, deciding or reading the history of a request go to the node
+ * named in its ID.</li>
+ * <li>Batches are split by owner, sent to the owners in parallel and their
+ * results put back in item order; the items of an owner that fails are
+ * reported {@code UNAVAILABLE} while the other owners' items stand.</li>
+ * <li>Listings are scatter-gather: every node answers from its shard in
+ * parallel and the results are streamed to the client merged by request
+ * date, without collecting them first. Pages are merged the same way, and
+ * their cursor is valid on every node.</li>
+ * </ul>
+ *
+ * Calls for this node pass through to its controller; calls from other nodes
+ * ({@link Cluster#FORWARDED_HEADER}) are always answered locally. Forwarded
+ * creates keep their {@code Idempotency-Key}, so retries sent to any node are
+ * deduplicated by the owner. Other statistics and the manager inbox report
+ * this node's shard.
+ */
+@Component
+@ConditionalOnProperty(name = "leave.cluster.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ShardRoutingFilter extends OncePerRequestFilter {
+   private static final Logger logger = LoggerFactory.getLogger(ShardRoutingFilter.class);
+   private static final Pattern EMPLOYEE_PATH =
+           Pattern.compile("/api/leave/(?:employee/([^/]+)(?:/balance)?|stats/employees/([^/]+))");
+   private static final Pattern REQUEST_PATH = Pattern.compile("/api/leave/([^/]+)(/history|/approve|/reject)?");
+   private static final Pattern STATUS_PATH = Pattern.compile("/api/leave/status/[^/]+");
+   private static final String APPLICATION_NDJSON = "application/x-ndjson";
+   private static final List<String> PASSED_HEADERS = List.of(HttpHeaders.ACCEPT, "Idempotency-Key");
+   private static final Comparator<LeaveRequest> BY_REQUEST_DATE = Comparator
+           .comparing(LeaveRequest::getRequestDate)
+           .thenComparing(LeaveRequest::getRequestId);
+   private static final TypeReference<List<BatchItemResult>> RESULT_LIST = new TypeReference<>() {
+   };
+   private final Cluster cluster;
+   private final ClusterClient client;
+   private final ObjectMapper objectMapper;
+
+   public ShardRoutingFilter(Cluster cluster, ClusterClient client, ObjectMapper objectMapper) {
+       this.cluster = cluster;
+       this.client = client;
+       this.objectMapper = objectMapper;
+   }
+
+   @Override
+   protected boolean shouldNotFilter(HttpServletRequest request) {
+       return request.getHeader(Cluster.FORWARDED_HEADER) != null
+               || !path(request).startsWith("/api/leave");
+   }
+
+   @Override
+   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+           throws ServletException, IOException {
+       String path = path(request);
+       String method = request.getMethod();
+       try {
+           if (path.equals("/api/leave") && method.equals("POST")) {
+               byte[] body = request.getInputStream().readAllBytes();
+               LeaveRequestDTO dto = readOrNull(body, LeaveRequestDTO.class);
+               route(dto == null ? cluster.self() : cluster.ownerOfEmployee(dto.getEmployeeName()),
+                       new BufferedBodyRequest(request, body), response, chain);
+           } else if (path.equals("/api/leave/batch") && method.equals("POST")) {
+               createBatch(request, response, chain);
+           } else if ((path.equals("/api/leave/batch/approve") || path.equals("/api/leave/batch/reject"))
+                   && method.equals("PUT")) {
+               decideBatch(request, response, chain);
+           } else if (path.equals("/api/leave") && method.equals("GET")) {
+               if (request.getParameter("limit") == null && request.getParameter("cursor") == null) {
+                   gatherList(request, response, true);
+               } else {
+                   gatherPage(request, response, chain);
+               }
+           } else if ((STATUS_PATH.matcher(path).matches() || path.equals("/api/leave/requested"))
+                   && method.equals("GET")) {
+               gatherList(request, response, path.equals("/api/leave/requested"));
+           } else {
+               Matcher employee = EMPLOYEE_PATH.matcher(path);
+               Matcher leave = REQUEST_PATH.matcher(path);
+               if (employee.matches()) {
+                   String employeeName = URLDecoder.decode(
+                           employee.group(1) != null ? employee.group(1) : employee.group(2), StandardCharsets.UTF_8);
+                   route(cluster.ownerOfEmployee(employeeName), request, response, chain);
+               } else if (leave.matches()) {
+                   route(cluster.ownerOfRequest(leave.group(1)), request, response, chain);
+               } else {
+                   chain.doFilter(request, response);
+               }
+           }
+       } catch (NodeUnavailableException e) {
+           logger.warn("Could not route {} {}: {}", method, path, e.getMessage());
+           if (response.isCommitted()) {
+               // A listing failed while it was streamed; its client sees it cut short
+               throw e;
+           }
+           response.sendError(HttpStatus.BAD_GATEWAY.value(), e.getMessage());
+       }
+   }
+
+   /**
+    * Serves a call here if this node owns it, otherwise relays the owner's response
+    */
+   private void route(ClusterNode owner, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+           throws ServletException, IOException {
+       if (cluster.isSelf(owner)) {
+           chain.doFilter(request, response);
+           return;
+       }
+       byte[] body = request.getInputStream().readAllBytes();
+       relay(await(owner, send(owner, request, body.length == 0 ? null : body)), response);
+   }
+
+   private void createBatch(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+           throws ServletException, IOException {
+       byte[] body = request.getInputStream().readAllBytes();
+       List<LeaveRequestDTO> items = readOrNull(body, new TypeReference<List<LeaveRequestDTO>>() {
+       });
+       if (items == null || items.size() > LeaveRequestApi.MAX_BATCH_SIZE) {
+           // Refused the same way locally
+           chain.doFilter(new BufferedBodyRequest(request, body), response);
+           return;
+       }
+       Map<ClusterNode, List<Integer>> positions = new LinkedHashMap<>();
+       for (int i = 0; i < items.size(); i++) {
+           LeaveRequestDTO item = items.get(i);
+           positions.computeIfAbsent(item == null ? cluster.self() : cluster.ownerOfEmployee(item.getEmployeeName()),
+                   node -> new ArrayList<>()).add(i);
+       }
+       scatterBatch(request, response, positions, indexes -> indexes.stream().map(items::get).toList(),
+               index -> null, items.size());
+   }
+
+   private void decideBatch(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+           throws ServletException, IOException {
+       byte[] body = request.getInputStream().readAllBytes();
+       List<String> ids = readOrNull(body, new TypeReference<List<String>>() {
+       });
+       if (ids == null || ids.size() > LeaveRequestApi.MAX_BATCH_SIZE) {
+           chain.doFilter(new BufferedBodyRequest(request, body), response);
+           return;
+       }
+       Map<ClusterNode, List<Integer>> positions = new LinkedHashMap<>();
+       for (int i = 0; i < ids.size(); i++) {
+           String id = ids.get(i);
+           positions.computeIfAbsent(id == null ? cluster.self() : cluster.ownerOfRequest(id),
+                   node -> new ArrayList<>()).add(i);
+       }
+       scatterBatch(request, response, positions, indexes -> indexes.stream().map(ids::get).toList(),
+               ids::get, ids.size());
+   }
+
+   /**
+    * Sends each node its share of a batch and puts the results back in item
+    * order. The shares of the other nodes are applied whatever happens to one
+    * of them, so the items of a node that failed or could not be reached are
+    * reported {@code UNAVAILABLE} one by one rather than failing the batch.
+    */
+   private void scatterBatch(HttpServletRequest request, HttpServletResponse response,
+                             Map<ClusterNode, List<Integer>> positions,
+                             Function<List<Integer>, List<?>> share, IntFunction<String> idOf, int size)
+           throws IOException {
+       Map<ClusterNode, CompletableFuture<HttpResponse<byte[]>>> calls = new LinkedHashMap<>();
+       positions.forEach((node, indexes) -> calls.put(node,
+               send(node, request, writeBytes(share.apply(indexes)))));
+       BatchItemResult[] results = new BatchItemResult[size];
+       for (Map.Entry<ClusterNode, CompletableFuture<HttpResponse<byte[]>>> call : calls.entrySet()) {
+           ClusterNode node = call.getKey();
+           List<Integer> indexes = positions.get(node);
+           List<BatchItemResult> shareResults = null;
+           String error;
+           try {
+               HttpResponse<byte[]> answer = await(node, call.getValue());
+               if (answer.statusCode() == HttpStatus.OK.value()) {
+                   shareResults = objectMapper.readValue(answer.body(), RESULT_LIST);
+                   error = null;
+               } else {
+                   error = "Node " + node.id() + " answered " + answer.statusCode() + ": "
+                           + new String(answer.body(), StandardCharsets.UTF_8);
+               }
+           } catch (NodeUnavailableException e) {
+               error = e.getMessage();
+           }
+           if (shareResults == null || shareResults.size() != indexes.size()) {
+               logger.warn("Batch share of {} items failed on node {}: {}", indexes.size(), node.id(),
+                       error != null ? error : "unexpected number of results");
+           }
+           for (int i = 0; i < indexes.size(); i++) {
+               int index = indexes.get(i);
+               results[index] = shareResults != null && i < shareResults.size() ? shareResults.get(i)
+                       : BatchItemResult.failed(idOf.apply(index), BatchItemResult.Outcome.UNAVAILABLE, null,
+                               error != null ? error : "Node " + node.id() + " returned no result for the item");
+           }
+       }
+       writeJson(response, Arrays.asList(results));
+   }
+
+   /**
+    * Streams a listing from every node, merged by request date if asked.
+    * Every node's listing is read as it arrives and at most one request per
+    * node is held at a time: a k-way merge for ordered listings, one node
+    * after the other otherwise.
+    */
+   private void gatherList(HttpServletRequest request, HttpServletResponse response, boolean ordered)
+           throws IOException {
+       // Every node streams its shard in order as NDJSON where it can; other listings come as JSON arrays
+       String nodeAccept = path(request).equals("/api/leave") ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON_VALUE;
+       Map<ClusterNode, CompletableFuture<HttpResponse<InputStream>>> calls = new LinkedHashMap<>();
+       for (ClusterNode node : cluster.nodes()) {
+           calls.put(node, client.send(node, request.getMethod(), pathAndQuery(request),
+                   Map.of(HttpHeaders.ACCEPT, nodeAccept), null, HttpResponse.BodyHandlers.ofInputStream()));
+       }
+       PriorityQueue<ShardStream> heads = new PriorityQueue<>(ordered
+               ? Comparator.comparing(ShardStream::head, BY_REQUEST_DATE)
+               : Comparator.comparingInt(ShardStream::position));
+       try {
+           int position = 0;
+           for (Map.Entry<ClusterNode, CompletableFuture<HttpResponse<InputStream>>> call : calls.entrySet()) {
+               HttpResponse<InputStream> answer = await(call.getKey(), call.getValue());
+               if (answer.statusCode() != HttpStatus.OK.value()) {
+                   relay(answer, answer.body().readAllBytes(), response);
+                   return;
+               }
+               ShardStream shard = new ShardStream(call.getKey(), position++,
+                       objectMapper.readerFor(LeaveRequest.class).readValues(answer.body()));
+               if (shard.advance()) {
+                   heads.add(shard);
+               }
+           }
+           String accept = request.getHeader(HttpHeaders.ACCEPT);
+           boolean ndjson = accept != null && accept.contains(APPLICATION_NDJSON)
+                   && !accept.contains(MediaType.APPLICATION_JSON_VALUE);
+           response.setStatus(HttpStatus.OK.value());
+           response.setContentType(ndjson ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON_VALUE);
+           try (JsonGenerator json = objectMapper.createGenerator(response.getOutputStream())) {
+               json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+               json.setRootValueSeparator(null);
+               if (!ndjson) {
+                   json.writeStartArray();
+               }
+               while (!heads.isEmpty()) {
+                   ShardStream shard = heads.poll();
+                   json.writeObject(shard.head());
+                   if (ndjson) {
+                       json.writeRaw('\n');
+                   }
+                   if (shard.advance()) {
+                       heads.add(shard);
+                   }
+               }
+               if (!ndjson) {
+                   json.writeEndArray();
+               }
+           }
+       } finally {
+           // Stop every node still sending, so none is left waiting to write its listing
+           for (CompletableFuture<HttpResponse<InputStream>> call : calls.values()) {
+               if (!call.cancel(true) && !call.isCompletedExceptionally()) {
+                   call.join().body().close();
+               }
+           }
+       }
+   }
+
+   /**
+    * Merges the same page from every node: the first {@code limit} requests
+    * after the cursor across all shards
+    */
+   private void gatherPage(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+           throws ServletException, IOException {
+       int pageSize;
+       try {
+           String limit = request.getParameter("limit");
+           pageSize = limit == null ? LeaveRequestApi.DEFAULT_PAGE_SIZE
+                   : Math.min(Integer.parseInt(limit), LeaveRequestApi.MAX_PAGE_SIZE);
+       } catch (NumberFormatException e) {
+           pageSize = 0;
+       }
+       if (pageSize <= 0) {
+           // Refused the same way locally
+           chain.doFilter(request, response);
+           return;
+       }
+       List<LeaveRequest> merged = new ArrayList<>();
+       boolean more = false;
+       for (HttpResponse<byte[]> answer : scatter(request, MediaType.APPLICATION_JSON_VALUE)) {
+           if (answer.statusCode() != HttpStatus.OK.value()) {
+               relay(answer, response);
+               return;
+           }
+           LeaveRequestPage page = objectMapper.readValue(answer.body(), LeaveRequestPage.class);
+           merged.addAll(page.getItems());
+           more |= page.getNextCursor() != null;
+       }
+       merged.sort(BY_REQUEST_DATE);
+       List<LeaveRequest> items = merged.subList(0, Math.min(pageSize, merged.size()));
+       more |= merged.size() > items.size();
+       String nextCursor = more && !items.isEmpty()
+               ? SimpleLeaveRequestService.cursorOf(items.get(items.size() - 1))
+               : null;
+       writeJson(response, new LeaveRequestPage(new ArrayList<>(items), nextCursor));
+   }
+
+   private List<HttpResponse<byte[]>> scatter(HttpServletRequest request, String accept) {
+       Map<ClusterNode, CompletableFuture<HttpResponse<byte[]>>> calls = new LinkedHashMap<>();
+       for (ClusterNode node : cluster.nodes()) {
+           calls.put(node, client.send(node, request.getMethod(), pathAndQuery(request),
+                   Map.of(HttpHeaders.ACCEPT, accept), null));
+       }
+       List<HttpResponse<byte[]>> answers = new ArrayList<>(calls.size());
+       calls.forEach((node, call) -> answers.add(await(node, call)));
+       return answers;
+   }
+
+   /**
+    * Passes a call on to a node with its body, content negotiation and idempotency key
+    */
+   private CompletableFuture<HttpResponse<byte[]>> send(ClusterNode node, HttpServletRequest request, byte[] body) {
+       Map<String, String> headers = new LinkedHashMap<>();
+       if (body != null) {
+           headers.put(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+       }
+       for (String name : PASSED_HEADERS) {
+           String value = request.getHeader(name);
+           if (value != null) {
+               headers.put(name, value);
+           }
+       }
+       return client.send(node, request.getMethod(), pathAndQuery(request), headers, body);
+   }
+
+   private static <T> HttpResponse<T> await(ClusterNode node, CompletableFuture<HttpResponse<T>> call) {
+       try {
+           return call.join();
+       } catch (CompletionException e) {
+           throw new NodeUnavailableException(node, e.getCause());
+       }
+   }
+
+   private static void relay(HttpResponse<byte[]> answer, HttpServletResponse response) throws IOException {
+       relay(answer, answer.body(), response);
+   }
+
+   private static void relay(HttpResponse<?> answer, byte[] body, HttpServletResponse response) throws IOException {
+       response.setStatus(answer.statusCode());
+       answer.headers().firstValue(HttpHeaders.CONTENT_TYPE).ifPresent(response::setContentType);
+       answer.headers().firstValue(HttpHeaders.RETRY_AFTER).ifPresent(value -> response.setHeader(HttpHeaders.RETRY_AFTER, value));
+       response.getOutputStream().write(body);
+   }
+
+   private void writeJson(HttpServletResponse response, Object value) throws IOException {
+       response.setStatus(HttpStatus.OK.value());
+       response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+       response.getOutputStream().write(objectMapper.writeValueAsBytes(value));
+   }
+
+   private byte[] writeBytes(Object value) {
+       try {
+           return objectMapper.writeValueAsBytes(value);
+       } catch (JsonProcessingException e) {
+           throw new IllegalStateException("Could not serialize batch share", e);
+       }
+   }
+
+   /**
+    * Reads a body, or returns null if it is not valid, leaving the local controller to refuse it
+    */
+   private <T> T readOrNull(byte[] body, Class<T> type) {
+       try {
+           return objectMapper.readValue(body, type);
+       } catch (IOException e) {
+           return null;
+       }
+   }
+
+   private <T> T readOrNull(byte[] body, TypeReference<T> type) {
+       try {
+           return objectMapper.readValue(body, type);
+       } catch (IOException e) {
+           return null;
+       }
+   }
+
+   private static String path(HttpServletRequest request) {
+       return request.getRequestURI().substring(request.getContextPath().length());
+   }
+
+   private static String pathAndQuery(HttpServletRequest request) {
+       String query = request.getQueryString();
+       return request.getRequestURI() + (query == null ? "" : "?" + query);
+   }
+
+   /**
+    * The listing of one node, read one request at a time
+    */
+   private static final class ShardStream {
+       private final ClusterNode node;
+       private final int position;
+       private final MappingIterator<LeaveRequest> requests;
+       private LeaveRequest head;
+
+       ShardStream(ClusterNode node, int position, MappingIterator<LeaveRequest> requests) {
+           this.node = node;
+           this.position = position;
+           this.requests = requests;
+       }
+
+       int position() {
+           return position;
+       }
+
+       LeaveRequest head() {
+           return head;
+       }
+
+       /**
+        * Reads the next request into the head
+        *
+        * @return Whether there was one
+        */
+       boolean advance() {
+           try {
+               head = requests.hasNextValue() ? requests.nextValue() : null;
+           } catch (IOException e) {
+               throw new NodeUnavailableException(node, e);
+           }
+           return head != null;
+       }
+   }
+
+   /**
+    * A node of the cluster could not be reached or did not answer in time
+    */
+   private static final class NodeUnavailableException extends RuntimeException {
+       private static final long serialVersionUID = 1L;
+
+       NodeUnavailableException(ClusterNode node, Throwable cause) {
+           super("Node " + node.id() + " at " + node.url() + " is unavailable: " + cause, cause);
+       }
+   }
+
+   /**
+    * Request whose body was already read, served again from memory
+    */
+   private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+       private final byte[] body;
+
+       BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+           super(request);
+           this.body = body;
+       }
+
+       @Override
+       public ServletInputStream getInputStream() {
+           ByteArrayInputStream in = new ByteArrayInputStream(body);
+           return new ServletInputStream() {
+               @Override
+               public int read() {
+                   return in.read();
+               }
+
+               @Override
+               public int read(byte[] b, int off, int len) {
+                   return in.read(b, off, len);
+               }
+
+               @Override
+               public boolean isFinished() {
+                   return in.available() == 0;
+               }
+
+               @Override
+               public boolean isReady() {
+                   return true;
+               }
+
+               @Override
+               public void setReadListener(ReadListener listener) {
+                   throw new UnsupportedOperationException("Body is already buffered");
+               }
+           };
+       }
+
+       @Override
+       public BufferedReader getReader() {
+           return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+       }
+   }
+}
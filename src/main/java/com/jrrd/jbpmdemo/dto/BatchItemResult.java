@@ -0,0 +1,76 @@
+package com.jrrd.jbpmdemo.dto;
+
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+/**
+ * Result of one item of a batch request, in the same position as the item.
+ * {@code status} is the request's status after the batch, when it exists.
+ * {@code UNAVAILABLE} items belong to a node of a sharded deployment that
+ * refused its share of the batch or did not answer in time.
+ */
+public class BatchItemResult {
+
+    public enum Outcome {
+        OK,
+        NOT_FOUND,
+        CONFLICT,
+        INVALID,
+        INSUFFICIENT_BALANCE,
+        UNAVAILABLE
+    }
+
+    private String id;
+    private Outcome outcome;
+    private LeaveStatus status;
+    private String error;
+
+    public BatchItemResult() {
+    }
+
+    public BatchItemResult(String id, Outcome outcome, LeaveStatus status, String error) {
+        this.id = id;
+        this.outcome = outcome;
+        this.status = status;
+        this.error = error;
+    }
+
+    public static BatchItemResult ok(String id, LeaveStatus status) {
+        return new BatchItemResult(id, Outcome.OK, status, null);
+    }
+
+    public static BatchItemResult failed(String id, Outcome outcome, LeaveStatus status, String error) {
+        return new BatchItemResult(id, outcome, status, error);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public LeaveStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(LeaveStatus status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
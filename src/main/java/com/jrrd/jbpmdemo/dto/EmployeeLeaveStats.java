@@ -0,0 +1,53 @@
+package com.jrrd.jbpmdemo.dto;
+
+/**
+ * Leave approved for an employee in one year, counted by approval date
+ */
+public class EmployeeLeaveStats {
+    private String employeeName;
+    private int year;
+    private long approvedRequests;
+    private long approvedDays;
+
+    public EmployeeLeaveStats() {
+    }
+
+    public EmployeeLeaveStats(String employeeName, int year, long approvedRequests, long approvedDays) {
+        this.employeeName = employeeName;
+        this.year = year;
+        this.approvedRequests = approvedRequests;
+        this.approvedDays = approvedDays;
+    }
+
+    public String getEmployeeName() {
+        return employeeName;
+    }
+
+    public void setEmployeeName(String employeeName) {
+        this.employeeName = employeeName;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public long getApprovedRequests() {
+        return approvedRequests;
+    }
+
+    public void setApprovedRequests(long approvedRequests) {
+        this.approvedRequests = approvedRequests;
+    }
+
+    public long getApprovedDays() {
+        return approvedDays;
+    }
+
+    public void setApprovedDays(long approvedDays) {
+        this.approvedDays = approvedDays;
+    }
+}
@@ -0,0 +1,75 @@
+package com.jrrd.jbpmdemo.dto;
+
+/**
+ * Leave balance of an employee in a leave year. Reserved days belong to
+ * pending requests, used days to approved ones. {@code allowance} and
+ * {@code available} are null when the allowance is unlimited.
+ */
+public class LeaveBalance {
+    private String employeeName;
+    private int year;
+    private Integer allowance;
+    private long reserved;
+    private long used;
+    private Long available;
+
+    public LeaveBalance() {
+    }
+
+    public LeaveBalance(String employeeName, int year, Integer allowance, long reserved, long used) {
+        this.employeeName = employeeName;
+        this.year = year;
+        this.allowance = allowance;
+        this.reserved = reserved;
+        this.used = used;
+        this.available = allowance == null ? null : allowance - reserved - used;
+    }
+
+    public String getEmployeeName() {
+        return employeeName;
+    }
+
+    public void setEmployeeName(String employeeName) {
+        this.employeeName = employeeName;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public Integer getAllowance() {
+        return allowance;
+    }
+
+    public void setAllowance(Integer allowance) {
+        this.allowance = allowance;
+    }
+
+    public long getReserved() {
+        return reserved;
+    }
+
+    public void setReserved(long reserved) {
+        this.reserved = reserved;
+    }
+
+    public long getUsed() {
+        return used;
+    }
+
+    public void setUsed(long used) {
+        this.used = used;
+    }
+
+    public Long getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Long available) {
+        this.available = available;
+    }
+}
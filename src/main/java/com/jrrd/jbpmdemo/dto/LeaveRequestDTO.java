@@ -1,11 +1,19 @@
 package com.jrrd.jbpmdemo.dto;
 
+import java.time.LocalDate;
+import java.util.Objects;
+
 /**
- * Data Transfer Object for Leave Request.
+ * Data Transfer Object for Leave Request. The period is optional; without
+ * an end date it covers {@code daysRequested} working days from the start
+ * date. Equal DTOs describe the same request, which is how retries sent with
+ * an idempotency key are recognised.
  */
 public class LeaveRequestDTO {
     private String employeeName;
     private int daysRequested;
+    private LocalDate startDate;
+    private LocalDate endDate;
 
     
     public LeaveRequestDTO() {
@@ -31,4 +39,39 @@ public class LeaveRequestDTO {
     public void setDaysRequested(int daysRequested) {
         this.daysRequested = daysRequested;
     }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LeaveRequestDTO other)) {
+            return false;
+        }
+        return daysRequested == other.daysRequested
+                && Objects.equals(employeeName, other.employeeName)
+                && Objects.equals(startDate, other.startDate)
+                && Objects.equals(endDate, other.endDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(employeeName, daysRequested, startDate, endDate);
+    }
 }
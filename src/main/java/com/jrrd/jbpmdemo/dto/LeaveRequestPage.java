@@ -0,0 +1,38 @@
+package com.jrrd.jbpmdemo.dto;
+
+import java.util.List;
+
+import com.jrrd.jbpmdemo.model.LeaveRequest;
+
+/**
+ * One page of leave requests ordered by request date.
+ * Pass {@code nextCursor} back to fetch the following page; it is null on the last page.
+ */
+public class LeaveRequestPage {
+    private List<LeaveRequest> items;
+    private String nextCursor;
+
+    public LeaveRequestPage() {
+    }
+
+    public LeaveRequestPage(List<LeaveRequest> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<LeaveRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<LeaveRequest> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
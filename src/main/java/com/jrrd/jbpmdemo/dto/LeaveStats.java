@@ -0,0 +1,47 @@
+package com.jrrd.jbpmdemo.dto;
+
+/**
+ * Number of leave requests per status
+ */
+public class LeaveStats {
+    private long pending;
+    private long approved;
+    private long rejected;
+
+    public LeaveStats() {
+    }
+
+    public LeaveStats(long pending, long approved, long rejected) {
+        this.pending = pending;
+        this.approved = approved;
+        this.rejected = rejected;
+    }
+
+    public long getPending() {
+        return pending;
+    }
+
+    public void setPending(long pending) {
+        this.pending = pending;
+    }
+
+    public long getApproved() {
+        return approved;
+    }
+
+    public void setApproved(long approved) {
+        this.approved = approved;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getTotal() {
+        return pending + approved + rejected;
+    }
+}
@@ -0,0 +1,87 @@
+package com.jrrd.jbpmdemo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pending manager approval task of a leave request as seen in a group's inbox.
+ * {@code claimedBy} and {@code leaseExpires} are null while the task is unclaimed.
+ */
+public class ManagerTask {
+    private String id;
+    private String employeeName;
+    private Integer daysRequested;
+    private LocalDateTime requestDate;
+    private String group;
+    private String claimedBy;
+    private LocalDateTime leaseExpires;
+
+    public ManagerTask() {
+    }
+
+    public ManagerTask(String id, String employeeName, Integer daysRequested,
+                       LocalDateTime requestDate, String group, String claimedBy, LocalDateTime leaseExpires) {
+        this.id = id;
+        this.employeeName = employeeName;
+        this.daysRequested = daysRequested;
+        this.requestDate = requestDate;
+        this.group = group;
+        this.claimedBy = claimedBy;
+        this.leaseExpires = leaseExpires;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getEmployeeName() {
+        return employeeName;
+    }
+
+    public void setEmployeeName(String employeeName) {
+        this.employeeName = employeeName;
+    }
+
+    public Integer getDaysRequested() {
+        return daysRequested;
+    }
+
+    public void setDaysRequested(Integer daysRequested) {
+        this.daysRequested = daysRequested;
+    }
+
+    public LocalDateTime getRequestDate() {
+        return requestDate;
+    }
+
+    public void setRequestDate(LocalDateTime requestDate) {
+        this.requestDate = requestDate;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public LocalDateTime getLeaseExpires() {
+        return leaseExpires;
+    }
+
+    public void setLeaseExpires(LocalDateTime leaseExpires) {
+        this.leaseExpires = leaseExpires;
+    }
+}
@@ -0,0 +1,18 @@
+package com.jrrd.jbpmdemo.id;
+
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+/**
+ * Source of leave request IDs. Implementations must be thread-safe and
+ * never return the same ID twice.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    /**
+     * Generates a new unique ID
+     *
+     * @return The new ID
+     */
+    LeaveRequestId next();
+}
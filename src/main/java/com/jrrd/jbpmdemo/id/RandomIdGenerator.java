@@ -0,0 +1,19 @@
+package com.jrrd.jbpmdemo.id;
+
+import java.util.UUID;
+
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+/**
+ * Generates random (version 4 UUID) IDs, as earlier versions did.
+ * Draws from a shared SecureRandom, so prefer {@link TimeOrderedIdGenerator}
+ * under load.
+ */
+public final class RandomIdGenerator implements IdGenerator {
+
+    @Override
+    public LeaveRequestId next() {
+        UUID uuid = UUID.randomUUID();
+        return new LeaveRequestId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+}
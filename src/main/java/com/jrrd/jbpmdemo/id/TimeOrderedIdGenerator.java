@@ -0,0 +1,78 @@
+package com.jrrd.jbpmdemo.id;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+/**
+ * Lock-free generator of time-ordered IDs.
+ *
+ * The high word holds the milliseconds since 2020-01-01 in its upper 44 bits
+ * and a sequence number in the lower 20 bits; it is advanced with a single
+ * CAS and is strictly increasing, even if the clock goes backwards or more
+ * than a million IDs are requested within one millisecond (the sequence
+ * then borrows from the next millisecond). The low word holds the 16-bit
+ * node ID and 48 random bits chosen once per generator, which keeps IDs
+ * unique across nodes and restarts.
+ */
+public final class TimeOrderedIdGenerator implements IdGenerator {
+
+    public static final int MAX_NODE_ID = 0xFFFF;
+
+    private static final long EPOCH = 1_577_836_800_000L; // 2020-01-01T00:00:00Z
+    private static final int SEQUENCE_BITS = 20;
+    private static final int NODE_SHIFT = 48;
+
+    private final AtomicLong last = new AtomicLong();
+    private final long low;
+    private final LongSupplier clock;
+
+    /**
+     * @param nodeId ID of this node, 0 to {@value #MAX_NODE_ID}
+     */
+    public TimeOrderedIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    TimeOrderedIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.low = (long) nodeId << NODE_SHIFT | new SecureRandom().nextLong() >>> (64 - NODE_SHIFT);
+        this.clock = clock;
+    }
+
+    @Override
+    public LeaveRequestId next() {
+        long now = (clock.getAsLong() - EPOCH) << SEQUENCE_BITS;
+        while (true) {
+            long previous = last.get();
+            long high = Math.max(now, previous + 1);
+            if (last.compareAndSet(previous, high)) {
+                return new LeaveRequestId(high, low);
+            }
+        }
+    }
+
+    /**
+     * Gets the creation time of an ID generated by this class
+     *
+     * @param id The ID
+     * @return Milliseconds since the Unix epoch
+     */
+    public static long timestampOf(LeaveRequestId id) {
+        return (id.high() >>> SEQUENCE_BITS) + EPOCH;
+    }
+
+    /**
+     * Gets the node that generated an ID
+     *
+     * @param id The ID
+     * @return The node ID
+     */
+    public static int nodeIdOf(LeaveRequestId id) {
+        return (int) (id.low() >>> NODE_SHIFT);
+    }
+}
@@ -0,0 +1,49 @@
+package com.jrrd.jbpmdemo.model;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Dictionary of employee names shared by stored leave requests.
+ *
+ * An employee typically files many requests over the years; keeping one
+ * String per distinct name instead of one per request removes the largest
+ * variable-size part of a stored request.
+ *
+ * The dictionary is a fixed table of {@value #CAPACITY} slots indexed by the
+ * name's hash, each holding the last name that hashed to it. A name whose
+ * slot was taken over by another is simply not shared with earlier records,
+ * so memory stays bounded however many distinct names pass through, at the
+ * cost of some duplicate Strings once there are more active employees than
+ * slots. Names of employees who no longer file requests are evicted by newer
+ * ones instead of being kept for the life of the process.
+ */
+public final class EmployeeNames {
+
+    static final int CAPACITY = 1 << 16;
+
+    private static final AtomicReferenceArray<String> NAMES = new AtomicReferenceArray<>(CAPACITY);
+
+    private EmployeeNames() {
+    }
+
+    /**
+     * Gets the shared instance of a name
+     *
+     * @param name The employee name, may be null
+     * @return An equal String, shared with earlier callers unless another
+     *         name has since taken its slot, or null
+     */
+    public static String canonical(String name) {
+        if (name == null) {
+            return null;
+        }
+        int hash = name.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (CAPACITY - 1);
+        String existing = NAMES.get(slot);
+        if (name.equals(existing)) {
+            return existing;
+        }
+        NAMES.lazySet(slot, name);
+        return name;
+    }
+}
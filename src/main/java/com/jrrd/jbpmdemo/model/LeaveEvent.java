@@ -0,0 +1,280 @@
+package com.jrrd.jbpmdemo.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Immutable record of one thing that happened to a leave request.
+ *
+ * The events of a request form its append-only history, numbered from 0 by
+ * {@link #getSequence()}. Folding them in order with {@link #applyTo(LeaveRecord)}
+ * yields the request's current state. Times are epoch milliseconds of the
+ * local date-time read as UTC, as in {@link LeaveRecord}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class LeaveEvent {
+
+    /**
+     * Kinds of events. The code is persisted, so existing values must never
+     * be renumbered.
+     */
+    public enum Type {
+        CREATED((byte) 1),
+        AUTO_APPROVED((byte) 2),
+        APPROVED((byte) 3),
+        REJECTED((byte) 4),
+        ESCALATED((byte) 5);
+
+        private final byte code;
+
+        Type(byte code) {
+            this.code = code;
+        }
+
+        public byte getCode() {
+            return code;
+        }
+
+        public static Type fromCode(byte code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown leave event code: " + code);
+        }
+    }
+
+    /** Sequence of an event not yet appended to a history */
+    public static final int UNSEQUENCED = -1;
+
+    private final LeaveRequestId requestId;
+    private final int sequence;
+    private final Type type;
+    private final long at;
+    private final String actor;
+    private final String employeeName;
+    private final int daysRequested;
+    private final int startDay;
+    private final int endDay;
+
+    /**
+     * Creates an event from its stored form
+     *
+     * @param employeeName Employee of a {@link Type#CREATED} event, null otherwise
+     * @param daysRequested Days of a {@link Type#CREATED} event, or {@link LeaveRecord#NO_DAYS}
+     */
+    public LeaveEvent(LeaveRequestId requestId, int sequence, Type type, long at, String actor,
+                      String employeeName, int daysRequested) {
+        this(requestId, sequence, type, at, actor, employeeName, daysRequested, LeaveRecord.NO_DAY, LeaveRecord.NO_DAY);
+    }
+
+    /**
+     * Creates an event from its stored form, with the leave period of a
+     * {@link Type#CREATED} event as epoch days or {@link LeaveRecord#NO_DAY}
+     */
+    public LeaveEvent(LeaveRequestId requestId, int sequence, Type type, long at, String actor,
+                      String employeeName, int daysRequested, int startDay, int endDay) {
+        this.requestId = Objects.requireNonNull(requestId);
+        this.sequence = sequence;
+        this.type = Objects.requireNonNull(type);
+        this.at = at;
+        this.actor = EmployeeNames.canonical(actor);
+        this.employeeName = EmployeeNames.canonical(employeeName);
+        this.daysRequested = daysRequested;
+        this.startDay = startDay;
+        this.endDay = endDay;
+    }
+
+    /**
+     * Creates the {@link Type#CREATED} event of a new request
+     */
+    public static LeaveEvent created(LeaveRecord request, String actor) {
+        return new LeaveEvent(request.id(), UNSEQUENCED, Type.CREATED, request.requestDateMillis(), actor,
+                request.employeeName(), request.daysRequestedValue(), request.startDay(), request.endDay());
+    }
+
+    /**
+     * Creates an event that carries no request data
+     */
+    public static LeaveEvent of(LeaveRequestId requestId, Type type, long at, String actor) {
+        return new LeaveEvent(requestId, UNSEQUENCED, type, at, actor, null, LeaveRecord.NO_DAYS);
+    }
+
+    /**
+     * Gets the events that record a new request: creation, then the
+     * automatic approval if the process granted one
+     */
+    public static List<LeaveEvent> forCreated(LeaveRecord request, String actor) {
+        LeaveEvent created = created(request, actor);
+        if (request.status() != LeaveStatus.APPROVED) {
+            return List.of(created);
+        }
+        return List.of(created, of(request.id(), Type.AUTO_APPROVED, request.approvalDateMillis(), null));
+    }
+
+    /**
+     * Gets the event that records a decision producing the given status
+     */
+    public static LeaveEvent forDecision(LeaveRequestId requestId, LeaveStatus status, long at, String actor) {
+        return of(requestId, status == LeaveStatus.APPROVED ? Type.APPROVED : Type.REJECTED, at, actor);
+    }
+
+    /**
+     * Gets events that rebuild a request stored without a history: its
+     * creation, then the decision it holds. When the request was decided is
+     * only known for approvals; rejections are dated at the request.
+     */
+    public static List<LeaveEvent> forState(LeaveRecord request) {
+        LeaveEvent created = created(request, request.employeeName());
+        return switch (request.status()) {
+            case PENDING -> List.of(created);
+            case APPROVED -> List.of(created, of(request.id(), Type.APPROVED, request.approvalDateMillis(), null));
+            case REJECTED -> List.of(created, of(request.id(), Type.REJECTED, request.requestDateMillis(), null));
+        };
+    }
+
+    /**
+     * Copies this event with its position in the request's history
+     */
+    public LeaveEvent withSequence(int sequence) {
+        return new LeaveEvent(requestId, sequence, type, at, actor, employeeName, daysRequested, startDay, endDay);
+    }
+
+    /**
+     * Applies this event to the state it follows
+     *
+     * @param state The state before the event, null before {@link Type#CREATED}
+     * @return The state after the event
+     * @throws IllegalStateException if the event cannot follow the state
+     */
+    public LeaveRecord applyTo(LeaveRecord state) {
+        if (type == Type.CREATED) {
+            if (state != null) {
+                throw new IllegalStateException("Leave request " + requestId + " was already created");
+            }
+            return new LeaveRecord(requestId, employeeName, daysRequested, LeaveStatus.PENDING, at, LeaveRecord.NO_DATE,
+                    startDay, endDay);
+        }
+        if (state == null) {
+            throw new IllegalStateException(type + " event before leave request " + requestId + " was created");
+        }
+        return switch (type) {
+            case AUTO_APPROVED, APPROVED -> state.withStatus(LeaveStatus.APPROVED, at);
+            case REJECTED -> state.withStatus(LeaveStatus.REJECTED, LeaveRecord.NO_DATE);
+            default -> state;
+        };
+    }
+
+    /**
+     * Folds events, oldest first, onto a state
+     *
+     * @param state The state before the first event, null to start from nothing
+     * @param events The events to apply
+     * @return The resulting state, null if there were no events and no state
+     */
+    public static LeaveRecord fold(LeaveRecord state, List<LeaveEvent> events) {
+        for (LeaveEvent event : events) {
+            state = event.applyTo(state);
+        }
+        return state;
+    }
+
+    @JsonIgnore
+    public LeaveRequestId requestId() {
+        return requestId;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public LocalDateTime getAt() {
+        return LeaveRecord.toDateTime(at);
+    }
+
+    /**
+     * Gets the time of the event in epoch milliseconds
+     */
+    @JsonIgnore
+    public long atMillis() {
+        return at;
+    }
+
+    public String getActor() {
+        return actor;
+    }
+
+    public String getEmployeeName() {
+        return employeeName;
+    }
+
+    public Integer getDaysRequested() {
+        return daysRequested == LeaveRecord.NO_DAYS ? null : daysRequested;
+    }
+
+    /**
+     * Gets the number of days, or {@link LeaveRecord#NO_DAYS}
+     */
+    @JsonIgnore
+    public int daysRequestedValue() {
+        return daysRequested;
+    }
+
+    public LocalDate getStartDate() {
+        return LeaveRecord.toDate(startDay);
+    }
+
+    public LocalDate getEndDate() {
+        return LeaveRecord.toDate(endDay);
+    }
+
+    /**
+     * Gets the first day of leave as an epoch day, or {@link LeaveRecord#NO_DAY}
+     */
+    @JsonIgnore
+    public int startDay() {
+        return startDay;
+    }
+
+    /**
+     * Gets the last day of leave as an epoch day, or {@link LeaveRecord#NO_DAY}
+     */
+    @JsonIgnore
+    public int endDay() {
+        return endDay;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LeaveEvent other)) {
+            return false;
+        }
+        return sequence == other.sequence && at == other.at && daysRequested == other.daysRequested
+                && startDay == other.startDay && endDay == other.endDay && type == other.type && requestId.equals(other.requestId) && Objects.equals(actor, other.actor)
+                && Objects.equals(employeeName, other.employeeName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(requestId, sequence, type);
+    }
+
+    @Override
+    public String toString() {
+        return "LeaveEvent{" + requestId + "#" + sequence + " " + type + " at " + getAt()
+                + (actor == null ? "" : " by " + actor) + "}";
+    }
+}
@@ -0,0 +1,247 @@
+package com.jrrd.jbpmdemo.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of a leave request as kept by the stores.
+ *
+ * Every change produces a new snapshot that replaces the previous one
+ * atomically, so readers always see a status and approval date that belong
+ * together. {@link LeaveRequest} is the mutable view handed out by the API.
+ *
+ * Snapshots are kept for every request ever filed, so they are stored
+ * compactly in a single object: the ID instance is shared with the store and
+ * index keys, names come from {@link EmployeeNames}, the status is a byte and
+ * dates are epoch milliseconds (the local date-time read as UTC, millisecond
+ * precision) and the leave period is a pair of epoch days. Object accessors such as {@link #requestDate()} build their
+ * result on each call; hot paths use the primitive ones.
+ */
+public final class LeaveRecord implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    /** Marks a missing date */
+    public static final long NO_DATE = Long.MIN_VALUE;
+    /** Marks a missing number of days */
+    public static final int NO_DAYS = Integer.MIN_VALUE;
+    /** Marks a missing leave period day */
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    private static final LeaveStatus[] STATUSES = LeaveStatus.values();
+    private static final byte NO_STATUS = -1;
+
+    private final LeaveRequestId id;
+    private final String employeeName;
+    private final int daysRequested;
+    private final byte status;
+    private final long requestDate;
+    private final long approvalDate;
+    private final int startDay;
+    private final int endDay;
+
+    public LeaveRecord(LeaveRequestId id, String employeeName, Integer daysRequested, LeaveStatus status,
+                       LocalDateTime requestDate, LocalDateTime approvalDate) {
+        this(id, employeeName, daysRequested == null ? NO_DAYS : daysRequested, status,
+                toEpochMilli(requestDate), toEpochMilli(approvalDate));
+    }
+
+    /**
+     * Creates a snapshot from its compact form
+     *
+     * @param daysRequested Number of days, or {@link #NO_DAYS}
+     * @param requestDate Request date in epoch milliseconds, or {@link #NO_DATE}
+     * @param approvalDate Approval date in epoch milliseconds, or {@link #NO_DATE}
+     */
+    public LeaveRecord(LeaveRequestId id, String employeeName, int daysRequested, LeaveStatus status,
+                       long requestDate, long approvalDate) {
+        this(id, employeeName, daysRequested, status, requestDate, approvalDate, NO_DAY, NO_DAY);
+    }
+
+    /**
+     * Creates a snapshot from its compact form, with the leave period
+     *
+     * @param startDay First day of leave as an epoch day, or {@link #NO_DAY}
+     * @param endDay Last day of leave (inclusive) as an epoch day, or {@link #NO_DAY}
+     */
+    public LeaveRecord(LeaveRequestId id, String employeeName, int daysRequested, LeaveStatus status,
+                       long requestDate, long approvalDate, int startDay, int endDay) {
+        this.id = id;
+        this.employeeName = EmployeeNames.canonical(employeeName);
+        this.daysRequested = daysRequested;
+        this.status = status == null ? NO_STATUS : (byte) status.ordinal();
+        this.requestDate = requestDate;
+        this.approvalDate = approvalDate;
+        this.startDay = startDay;
+        this.endDay = endDay;
+    }
+
+    public LeaveRequestId id() {
+        return id;
+    }
+
+    public String employeeName() {
+        return employeeName;
+    }
+
+    public Integer daysRequested() {
+        return daysRequested == NO_DAYS ? null : daysRequested;
+    }
+
+    /**
+     * Gets the number of days requested, or {@link #NO_DAYS}
+     */
+    public int daysRequestedValue() {
+        return daysRequested;
+    }
+
+    public LeaveStatus status() {
+        return status == NO_STATUS ? null : STATUSES[status];
+    }
+
+    public boolean approved() {
+        return status == LeaveStatus.APPROVED.ordinal();
+    }
+
+    public LocalDateTime requestDate() {
+        return toDateTime(requestDate);
+    }
+
+    /**
+     * Gets the request date in epoch milliseconds, or {@link #NO_DATE}
+     */
+    public long requestDateMillis() {
+        return requestDate;
+    }
+
+    public LocalDateTime approvalDate() {
+        return toDateTime(approvalDate);
+    }
+
+    /**
+     * Gets the approval date in epoch milliseconds, or {@link #NO_DATE}
+     */
+    public long approvalDateMillis() {
+        return approvalDate;
+    }
+
+    public LocalDate startDate() {
+        return toDate(startDay);
+    }
+
+    /**
+     * Gets the first day of leave as an epoch day, or {@link #NO_DAY}
+     */
+    public int startDay() {
+        return startDay;
+    }
+
+    public LocalDate endDate() {
+        return toDate(endDay);
+    }
+
+    /**
+     * Gets the last day of leave (inclusive) as an epoch day, or {@link #NO_DAY}
+     */
+    public int endDay() {
+        return endDay;
+    }
+
+    /**
+     * Tells whether the request names the days it covers
+     */
+    public boolean hasPeriod() {
+        return startDay != NO_DAY && endDay != NO_DAY;
+    }
+
+    /**
+     * Creates the snapshot after a decision; approved requests get the given
+     * approval date, anything else has none
+     *
+     * @param newStatus The status after the decision
+     * @param decidedAt Time of the decision
+     * @return The new snapshot
+     */
+    public LeaveRecord withStatus(LeaveStatus newStatus, LocalDateTime decidedAt) {
+        return withStatus(newStatus, newStatus == LeaveStatus.APPROVED ? toEpochMilli(decidedAt) : NO_DATE);
+    }
+
+    /**
+     * Creates the snapshot with another status and approval date, in epoch
+     * milliseconds or {@link #NO_DATE}
+     */
+    public LeaveRecord withStatus(LeaveStatus newStatus, long newApprovalDate) {
+        return new LeaveRecord(id, employeeName, daysRequested, newStatus, requestDate, newApprovalDate,
+                startDay, endDay);
+    }
+
+    /**
+     * Copies this snapshot into a new API representation
+     */
+    public LeaveRequest toLeaveRequest() {
+        return new LeaveRequest(this);
+    }
+
+    /**
+     * Converts a local date-time to the stored form, truncating to milliseconds
+     */
+    public static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime == null ? NO_DATE : dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Converts a stored date back to a local date-time
+     */
+    public static LocalDateTime toDateTime(long epochMilli) {
+        return epochMilli == NO_DATE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts a date to its epoch day, or {@link #NO_DAY} for null
+     */
+    public static int toEpochDay(LocalDate date) {
+        return date == null ? NO_DAY : Math.toIntExact(date.toEpochDay());
+    }
+
+    /**
+     * Converts an epoch day back to a date
+     */
+    public static LocalDate toDate(int epochDay) {
+        return epochDay == NO_DAY ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    // Deserialized names go through the dictionary as well
+    private Object readResolve() {
+        return new LeaveRecord(id, employeeName, daysRequested, status(), requestDate, approvalDate, startDay, endDay);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LeaveRecord other)) {
+            return false;
+        }
+        return daysRequested == other.daysRequested && status == other.status && requestDate == other.requestDate
+                && approvalDate == other.approvalDate && startDay == other.startDay && endDay == other.endDay
+                && Objects.equals(id, other.id)
+                && Objects.equals(employeeName, other.employeeName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, employeeName, daysRequested, status, requestDate, approvalDate, startDay, endDay);
+    }
+
+    @Override
+    public String toString() {
+        return "LeaveRecord[id=" + id + ", employeeName=" + employeeName + ", daysRequested=" + daysRequested()
+                + ", status=" + status() + ", requestDate=" + requestDate() + ", approvalDate=" + approvalDate()
+                + (hasPeriod() ? ", period=" + startDate() + ".." + endDate() : "") + "]";
+    }
+}
@@ -1,22 +1,31 @@
 package com.jrrd.jbpmdemo.model;
 
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.jrrd.jbpmdemo.id.IdGenerator;
+import com.jrrd.jbpmdemo.id.TimeOrderedIdGenerator;
 
 public class LeaveRequest implements Serializable {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 3L;
+    
+    private static final IdGenerator DEFAULT_IDS = new TimeOrderedIdGenerator(0);
     
-    private String id;
+    private LeaveRequestId id;
     private String employeeName;
     private Integer daysRequested;
     private Boolean approved;
+    private LeaveStatus status;
     private LocalDateTime requestDate;
     private LocalDateTime approvalDate;
+    private LocalDate startDate;
+    private LocalDate endDate;
     
     public LeaveRequest() {
-        this.id = UUID.randomUUID().toString();
+        this.id = DEFAULT_IDS.next();
         this.requestDate = LocalDateTime.now();
     }
     
@@ -26,11 +35,24 @@ public class LeaveRequest implements Serializable {
         this.daysRequested = daysRequested;
         // Auto-approve if days requested are <= 5
         this.approved = daysRequested <= 5;
+        this.status = approved ? LeaveStatus.APPROVED : LeaveStatus.PENDING;
         if (approved) {
             this.approvalDate = LocalDateTime.now();
         }
     }
 
+    LeaveRequest(LeaveRecord record) {
+        this.id = record.id();
+        this.employeeName = record.employeeName();
+        this.daysRequested = record.daysRequested();
+        this.approved = record.approved();
+        this.status = record.status();
+        this.requestDate = record.requestDate();
+        this.approvalDate = record.approvalDate();
+        this.startDate = record.startDate();
+        this.endDate = record.endDate();
+    }
+
     public String getEmployeeName() {
         return employeeName;
     }
@@ -47,11 +69,26 @@ public class LeaveRequest implements Serializable {
         this.daysRequested = daysRequested;
     }
 
+    /**
+     * Gets the ID in its string form, as exposed by the API
+     */
     public String getId() {
-        return id;
+        return id == null ? null : id.toString();
     }
 
+    /**
+     * @throws IllegalArgumentException if the ID is malformed
+     */
     public void setId(String id) {
+        this.id = id == null ? null : LeaveRequestId.parse(id);
+    }
+
+    @JsonIgnore
+    public LeaveRequestId getRequestId() {
+        return id;
+    }
+
+    public void setRequestId(LeaveRequestId id) {
         this.id = id;
     }
 
@@ -66,6 +103,14 @@ public class LeaveRequest implements Serializable {
         }
     }
     
+    public LeaveStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(LeaveStatus status) {
+        this.status = status;
+    }
+    
     public LocalDateTime getRequestDate() {
         return requestDate;
     }
@@ -81,10 +126,33 @@ public class LeaveRequest implements Serializable {
     public void setApprovalDate(LocalDateTime approvalDate) {
         this.approvalDate = approvalDate;
     }
+
+    /**
+     * Gets the first day of leave, null if the request names no period
+     */
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    /**
+     * Gets the last day of leave (inclusive), null if the request names no period
+     */
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
     
     @Override
     public String toString() {
         return "LeaveRequest [id=" + id + ", employeeName=" + employeeName + ", daysRequested=" + daysRequested 
-               + ", approved=" + approved + ", requestDate=" + requestDate + ", approvalDate=" + approvalDate + "]";
+               + ", approved=" + approved + ", status=" + status + ", requestDate=" + requestDate + ", approvalDate=" + approvalDate 
+               + ", startDate=" + startDate + ", endDate=" + endDate + "]";
     }
 }
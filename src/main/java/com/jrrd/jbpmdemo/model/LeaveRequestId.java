@@ -0,0 +1,81 @@
+package com.jrrd.jbpmdemo.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * 128-bit leave request ID kept as two longs.
+ *
+ * IDs are rendered as 26 character Crockford base32 strings (the ULID text
+ * format), which sort lexicographically in the same order as the IDs
+ * themselves. {@link #parse(String)} also accepts the UUID form used by
+ * earlier versions.
+ */
+public record LeaveRequestId(long high, long low) implements Comparable<LeaveRequestId>, Serializable {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+    private static final int LENGTH = 26;
+    private static final int UUID_LENGTH = 36;
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = (byte) i;
+            VALUES[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+        // Crockford aliases for commonly confused letters
+        VALUES['O'] = VALUES['o'] = 0;
+        VALUES['I'] = VALUES['i'] = VALUES['L'] = VALUES['l'] = 1;
+    }
+
+    /**
+     * Parses an ID rendered by {@link #toString()} or a UUID string
+     *
+     * @param text The ID text
+     * @return The parsed ID
+     * @throws IllegalArgumentException if the text is not a valid ID
+     */
+    public static LeaveRequestId parse(String text) {
+        if (text.length() == UUID_LENGTH) {
+            UUID uuid = UUID.fromString(text);
+            return new LeaveRequestId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        }
+        if (text.length() != LENGTH) {
+            throw new IllegalArgumentException("Invalid leave request ID: " + text);
+        }
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            char c = text.charAt(i);
+            int value = c < VALUES.length ? VALUES[c] : -1;
+            // 26 characters carry 130 bits, so the first one may only use 3 of its 5
+            if (value < 0 || i == 0 && value > 7) {
+                throw new IllegalArgumentException("Invalid leave request ID: " + text);
+            }
+            high = high << 5 | low >>> 59;
+            low = low << 5 | value;
+        }
+        return new LeaveRequestId(high, low);
+    }
+
+    @Override
+    public int compareTo(LeaveRequestId other) {
+        int byHigh = Long.compareUnsigned(high, other.high);
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(low, other.low);
+    }
+
+    @Override
+    public String toString() {
+        char[] text = new char[LENGTH];
+        long h = high;
+        long l = low;
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            text[i] = ALPHABET[(int) (l & 31)];
+            l = l >>> 5 | h << 59;
+            h >>>= 5;
+        }
+        return new String(text);
+    }
+}
@@ -0,0 +1,31 @@
+package com.jrrd.jbpmdemo.model;
+
+/**
+ * Lifecycle status of a leave request.
+ *
+ * A pending request can be approved or rejected once; both decisions are
+ * final. Repeating the decision a request already has is allowed and
+ * changes nothing.
+ */
+public enum LeaveStatus {
+    PENDING,
+    APPROVED,
+    REJECTED;
+
+    /**
+     * Checks whether a request in this status may move to the given status
+     *
+     * @param next The requested status
+     * @return true if the transition is allowed, including staying in this status
+     */
+    public boolean canTransitionTo(LeaveStatus next) {
+        return this == next || this == PENDING && next != PENDING;
+    }
+
+    /**
+     * Checks whether this status is the outcome of a decision and can no longer change
+     */
+    public boolean isFinal() {
+        return this != PENDING;
+    }
+}
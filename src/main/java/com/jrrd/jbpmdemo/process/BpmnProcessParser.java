@@ -0,0 +1,304 @@
+package com.jrrd.jbpmdemo.process;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+/**
+ * Parses a BPMN 2.0 file and compiles its executable process into a
+ * {@link ProcessDefinition}.
+ *
+ * Only the subset used by our processes is supported: start/end events,
+ * user tasks, Java service tasks and exclusive gateways with condition
+ * expressions. Unsupported constructs fail at startup.
+ */
+public final class BpmnProcessParser {
+
+    static final String BPMN_NS = "http://www.omg.org/spec/BPMN/20100524/MODEL";
+
+    private final Function<Class<?>, Object> beanLookup;
+
+    /**
+     * @param beanLookup Resolves the bean implementing a service task interface
+     */
+    public BpmnProcessParser(Function<Class<?>, Object> beanLookup) {
+        this.beanLookup = beanLookup;
+    }
+
+    /**
+     * Parses and compiles the first executable process of a BPMN document
+     *
+     * @param bpmn BPMN XML stream, closed by the caller
+     * @return The compiled process definition
+     * @throws IllegalArgumentException if the document cannot be compiled
+     */
+    public ProcessDefinition parse(InputStream bpmn) throws IOException {
+        Document document = read(bpmn);
+        Element process = findExecutableProcess(document);
+        String processId = process.getAttribute("id");
+
+        Map<String, String> itemTypes = itemTypes(document);
+        Map<String, Integer> variableSlots = new LinkedHashMap<>();
+        Map<String, ConditionCompiler.ValueType> variableTypes = new HashMap<>();
+        Map<String, Element> flowNodes = new LinkedHashMap<>();
+        List<Element> sequenceFlows = new ArrayList<>();
+        for (Element child : children(process)) {
+            switch (child.getLocalName()) {
+                case "property" -> {
+                    variableSlots.put(child.getAttribute("id"), variableSlots.size());
+                    variableTypes.put(child.getAttribute("id"), valueType(itemTypes.get(child.getAttribute("itemSubjectRef"))));
+                }
+                case "sequenceFlow" -> sequenceFlows.add(child);
+                case "startEvent", "endEvent", "userTask", "serviceTask", "exclusiveGateway" ->
+                        flowNodes.put(child.getAttribute("id"), child);
+                case "extensionElements", "documentation", "laneSet" -> {
+                    // Not relevant for execution
+                }
+                default -> throw new IllegalArgumentException("Unsupported BPMN element " + child.getLocalName()
+                        + " in process " + processId);
+            }
+        }
+
+        Map<String, Integer> nodeIndexes = new HashMap<>();
+        for (String nodeId : flowNodes.keySet()) {
+            nodeIndexes.put(nodeId, nodeIndexes.size());
+        }
+        Map<String, Element[]> operations = operations(document);
+        Function<String, Integer> slotOf = name -> {
+            Integer slot = variableSlots.get(name);
+            if (slot == null) {
+                throw new IllegalArgumentException("Process " + processId + " has no variable " + name);
+            }
+            return slot;
+        };
+        ConditionCompiler conditionCompiler = new ConditionCompiler(processId,
+                name -> new ConditionCompiler.Variable(name, slotOf.apply(name), variableTypes.get(name)));
+
+        ProcessNode[] nodes = new ProcessNode[flowNodes.size()];
+        int startNode = -1;
+        for (Element element : flowNodes.values()) {
+            String id = element.getAttribute("id");
+            ProcessNode.Type type = typeOf(element);
+            List<Element> outgoing = sequenceFlows.stream()
+                    .filter(flow -> flow.getAttribute("sourceRef").equals(id))
+                    .toList();
+            int[] targets = new int[outgoing.size()];
+            Condition[] conditions = new Condition[outgoing.size()];
+            for (int i = 0; i < outgoing.size(); i++) {
+                Element flow = outgoing.get(i);
+                Integer target = nodeIndexes.get(flow.getAttribute("targetRef"));
+                if (target == null) {
+                    throw new IllegalArgumentException("Sequence flow " + flow.getAttribute("id") + " targets unknown node");
+                }
+                targets[i] = target;
+                Element expression = child(flow, "conditionExpression");
+                if (expression != null) {
+                    conditions[i] = conditionCompiler.compile(expression.getTextContent());
+                }
+            }
+            validate(processId, id, type, targets, conditions);
+
+            ServiceTaskInvoker service = type == ProcessNode.Type.SERVICE_TASK
+                    ? bindService(element, operations, slotOf)
+                    : null;
+            Map<String, Integer> outputSlots = type == ProcessNode.Type.USER_TASK
+                    ? outputSlots(element, slotOf)
+                    : Map.of();
+            if (type == ProcessNode.Type.START_EVENT) {
+                if (startNode >= 0) {
+                    throw new IllegalArgumentException("Process " + processId + " has more than one start event");
+                }
+                startNode = nodeIndexes.get(id);
+            }
+            nodes[nodeIndexes.get(id)] = new ProcessNode(id, element.getAttribute("name"), type, targets, conditions,
+                    service, outputSlots);
+        }
+        if (startNode < 0) {
+            throw new IllegalArgumentException("Process " + processId + " has no start event");
+        }
+        return new ProcessDefinition(processId, process.getAttribute("name"), nodes, startNode, nodeIndexes, variableSlots);
+    }
+
+    private static void validate(String processId, String nodeId, ProcessNode.Type type, int[] targets, Condition[] conditions) {
+        if (type == ProcessNode.Type.END_EVENT) {
+            if (targets.length > 0) {
+                throw new IllegalArgumentException("End event " + nodeId + " of process " + processId + " has outgoing flows");
+            }
+            return;
+        }
+        if (type == ProcessNode.Type.EXCLUSIVE_GATEWAY) {
+            if (targets.length == 0) {
+                throw new IllegalArgumentException("Gateway " + nodeId + " of process " + processId + " has no outgoing flows");
+            }
+            return;
+        }
+        if (targets.length != 1 || conditions[0] != null) {
+            throw new IllegalArgumentException("Node " + nodeId + " of process " + processId
+                    + " must have exactly one unconditional outgoing flow");
+        }
+    }
+
+    private ServiceTaskInvoker bindService(Element task, Map<String, Element[]> operations, Function<String, Integer> slotOf) {
+        String taskId = task.getAttribute("id");
+        Element[] operation = operations.get(task.getAttribute("operationRef"));
+        if (operation == null) {
+            throw new IllegalArgumentException("Service task " + taskId + " references unknown operation");
+        }
+        String typeName = operation[0].getAttribute("implementationRef");
+        Class<?> beanType;
+        try {
+            beanType = Class.forName(typeName, true, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Service task " + taskId + " references unknown class " + typeName, e);
+        }
+        Object bean = beanLookup.apply(beanType);
+
+        Map<String, Integer> inputSources = new HashMap<>();
+        for (Element association : children(task, "dataInputAssociation")) {
+            Element source = child(association, "sourceRef");
+            if (source != null) {
+                inputSources.put(child(association, "targetRef").getTextContent().trim(),
+                        slotOf.apply(source.getTextContent().trim()));
+            }
+        }
+        Element io = child(task, "ioSpecification");
+        List<Element> inputs = io == null ? List.of() : children(io, "dataInput");
+        int[] inputSlots = new int[inputs.size()];
+        for (int i = 0; i < inputs.size(); i++) {
+            Integer slot = inputSources.get(inputs.get(i).getAttribute("id"));
+            if (slot == null) {
+                throw new IllegalArgumentException("Service task " + taskId + " input "
+                        + inputs.get(i).getAttribute("name") + " is not mapped from a process variable");
+            }
+            inputSlots[i] = slot;
+        }
+        int outputSlot = -1;
+        for (Element association : children(task, "dataOutputAssociation")) {
+            outputSlot = slotOf.apply(child(association, "targetRef").getTextContent().trim());
+        }
+        return ServiceTaskInvoker.bind(bean, beanType, operation[1].getAttribute("implementationRef"), inputSlots, outputSlot);
+    }
+
+    private static Map<String, Integer> outputSlots(Element task, Function<String, Integer> slotOf) {
+        Map<String, String> outputNames = new HashMap<>();
+        Element io = child(task, "ioSpecification");
+        if (io != null) {
+            for (Element output : children(io, "dataOutput")) {
+                outputNames.put(output.getAttribute("id"), output.getAttribute("name"));
+            }
+        }
+        Map<String, Integer> slots = new HashMap<>();
+        for (Element association : children(task, "dataOutputAssociation")) {
+            String outputName = outputNames.get(child(association, "sourceRef").getTextContent().trim());
+            if (outputName != null) {
+                slots.put(outputName, slotOf.apply(child(association, "targetRef").getTextContent().trim()));
+            }
+        }
+        return Map.copyOf(slots);
+    }
+
+    private static Map<String, Element[]> operations(Document document) {
+        Map<String, Element[]> operations = new HashMap<>();
+        for (Element root : children(document.getDocumentElement(), "interface")) {
+            for (Element operation : children(root, "operation")) {
+                operations.put(operation.getAttribute("id"), new Element[] { root, operation });
+            }
+        }
+        return operations;
+    }
+
+    private static Map<String, String> itemTypes(Document document) {
+        Map<String, String> itemTypes = new HashMap<>();
+        for (Element item : children(document.getDocumentElement(), "itemDefinition")) {
+            itemTypes.put(item.getAttribute("id"), item.getAttribute("structureRef"));
+        }
+        return itemTypes;
+    }
+
+    /**
+     * Maps an item definition's structureRef to the type conditions see;
+     * anything other than integers and booleans is compared by equality only
+     */
+    private static ConditionCompiler.ValueType valueType(String structureRef) {
+        if (structureRef == null) {
+            return ConditionCompiler.ValueType.OBJECT;
+        }
+        return switch (structureRef) {
+            case "Integer", "java.lang.Integer", "int" -> ConditionCompiler.ValueType.INT;
+            case "Boolean", "java.lang.Boolean", "boolean" -> ConditionCompiler.ValueType.BOOLEAN;
+            default -> ConditionCompiler.ValueType.OBJECT;
+        };
+    }
+
+    private static ProcessNode.Type typeOf(Element element) {
+        return switch (element.getLocalName()) {
+            case "startEvent" -> ProcessNode.Type.START_EVENT;
+            case "endEvent" -> ProcessNode.Type.END_EVENT;
+            case "userTask" -> ProcessNode.Type.USER_TASK;
+            case "serviceTask" -> ProcessNode.Type.SERVICE_TASK;
+            default -> ProcessNode.Type.EXCLUSIVE_GATEWAY;
+        };
+    }
+
+    private static Element findExecutableProcess(Document document) {
+        for (Element process : children(document.getDocumentElement(), "process")) {
+            if (!"false".equals(process.getAttribute("isExecutable"))) {
+                return process;
+            }
+        }
+        throw new IllegalArgumentException("BPMN document has no executable process");
+    }
+
+    private static Document read(InputStream bpmn) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            return builder.parse(bpmn);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IllegalArgumentException("Invalid BPMN document", e);
+        }
+    }
+
+    private static Element child(Element parent, String localName) {
+        List<Element> matches = children(parent, localName);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    private static List<Element> children(Element parent, String localName) {
+        List<Element> result = new ArrayList<>();
+        for (Element child : children(parent)) {
+            if (localName.equals(child.getLocalName())) {
+                result.add(child);
+            }
+        }
+        return result;
+    }
+
+    private static List<Element> children(Element parent) {
+        List<Element> result = new ArrayList<>();
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element element && BPMN_NS.equals(element.getNamespaceURI())) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,11 @@
+package com.jrrd.jbpmdemo.process;
+
+/**
+ * Compiled sequence flow condition, evaluated against the variables of a
+ * process instance.
+ */
+@FunctionalInterface
+public interface Condition {
+
+    boolean test(ProcessInstance instance);
+}
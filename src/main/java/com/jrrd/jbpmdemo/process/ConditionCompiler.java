@@ -0,0 +1,434 @@
+package com.jrrd.jbpmdemo.process;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+/**
+ * Compiles the Java-dialect condition expressions found on BPMN sequence
+ * flows into bytecode at parse time.
+ *
+ * Each expression becomes a hidden class implementing {@link Condition}
+ * whose {@code test} method reads the instance's variable slots directly
+ * and compares primitives, so evaluating a gateway allocates nothing and
+ * is inlined by the JIT like hand-written code. Compiled conditions are
+ * cached per process definition, so identical expressions share a class.
+ *
+ * Supported: an optional {@code return} and trailing {@code ;}, variables,
+ * integer and boolean literals, {@code null}, comparison operators,
+ * {@code !}, {@code &&}, {@code ||} and parentheses. Expressions are type
+ * checked against the declared variable types; anything else is rejected
+ * at startup rather than failing per instance.
+ */
+final class ConditionCompiler {
+
+    /**
+     * Type of an operand, derived from the BPMN item definition of a variable
+     */
+    enum ValueType {
+        INT,
+        BOOLEAN,
+        OBJECT,
+        NULL
+    }
+
+    /**
+     * Process variable visible to conditions
+     */
+    record Variable(String name, int slot, ValueType type) {
+    }
+
+    private sealed interface Expression permits Or, And, Not, Comparison, Truth {
+    }
+
+    private record Or(Expression left, Expression right) implements Expression {
+    }
+
+    private record And(Expression left, Expression right) implements Expression {
+    }
+
+    private record Not(Expression operand) implements Expression {
+    }
+
+    private record Comparison(String operator, Operand left, Operand right) implements Expression {
+    }
+
+    private record Truth(Operand operand) implements Expression {
+    }
+
+    private record Operand(ValueType type, Variable variable, int literal) {
+
+        boolean isVariable() {
+            return variable != null;
+        }
+    }
+
+    private static final String CONDITION = Type.getInternalName(Condition.class);
+    private static final String INSTANCE = Type.getInternalName(ProcessInstance.class);
+    private static final String SUPPORT = Type.getInternalName(ConditionSupport.class);
+    private static final String GENERATED_NAME = ConditionCompiler.class.getPackageName().replace('.', '/') + "/GeneratedCondition";
+
+    private final String processId;
+    private final Function<String, Variable> variables;
+    private final Map<String, Condition> compiled = new HashMap<>();
+
+    /**
+     * @param processId Process the conditions belong to, for error messages
+     * @param variables Resolves variable names; throws IllegalArgumentException for unknown names
+     */
+    ConditionCompiler(String processId, Function<String, Variable> variables) {
+        this.processId = processId;
+        this.variables = variables;
+    }
+
+    /**
+     * Compiles one condition expression, reusing the class of an identical
+     * expression compiled earlier for the same process
+     *
+     * @param source Expression text, e.g. {@code return daysRequested <= 5;}
+     * @return The compiled condition
+     * @throws IllegalArgumentException if the expression is not supported
+     */
+    Condition compile(String source) {
+        String key = source.trim();
+        Condition condition = compiled.get(key);
+        if (condition == null) {
+            condition = define(generate(new Parser(key).parse()));
+            compiled.put(key, condition);
+        }
+        return condition;
+    }
+
+    private byte[] generate(Expression expression) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, GENERATED_NAME, null, "java/lang/Object",
+                new String[] { CONDITION });
+
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        // boolean test(ProcessInstance instance) { Object[] variables = instance.variables(); ... }
+        MethodVisitor test = writer.visitMethod(Opcodes.ACC_PUBLIC, "test", "(L" + INSTANCE + ";)Z", null, null);
+        test.visitCode();
+        test.visitVarInsn(Opcodes.ALOAD, 1);
+        test.visitMethodInsn(Opcodes.INVOKEVIRTUAL, INSTANCE, "variables", "()[Ljava/lang/Object;", false);
+        test.visitVarInsn(Opcodes.ASTORE, 2);
+        Label isFalse = new Label();
+        jumpIfFalse(test, expression, isFalse);
+        test.visitInsn(Opcodes.ICONST_1);
+        test.visitInsn(Opcodes.IRETURN);
+        test.visitLabel(isFalse);
+        test.visitInsn(Opcodes.ICONST_0);
+        test.visitInsn(Opcodes.IRETURN);
+        test.visitMaxs(0, 0);
+        test.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static Condition define(byte[] bytecode) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytecode, true);
+            return (Condition) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot define compiled condition", e);
+        }
+    }
+
+    private static void jumpIfFalse(MethodVisitor code, Expression expression, Label target) {
+        if (expression instanceof And and) {
+            jumpIfFalse(code, and.left(), target);
+            jumpIfFalse(code, and.right(), target);
+        } else if (expression instanceof Or or) {
+            Label isTrue = new Label();
+            jumpIfTrue(code, or.left(), isTrue);
+            jumpIfFalse(code, or.right(), target);
+            code.visitLabel(isTrue);
+        } else if (expression instanceof Not not) {
+            jumpIfTrue(code, not.operand(), target);
+        } else {
+            jumpOnTest(code, expression, false, target);
+        }
+    }
+
+    private static void jumpIfTrue(MethodVisitor code, Expression expression, Label target) {
+        if (expression instanceof Or or) {
+            jumpIfTrue(code, or.left(), target);
+            jumpIfTrue(code, or.right(), target);
+        } else if (expression instanceof And and) {
+            Label isFalse = new Label();
+            jumpIfFalse(code, and.left(), isFalse);
+            jumpIfTrue(code, and.right(), target);
+            code.visitLabel(isFalse);
+        } else if (expression instanceof Not not) {
+            jumpIfFalse(code, not.operand(), target);
+        } else {
+            jumpOnTest(code, expression, true, target);
+        }
+    }
+
+    /**
+     * Emits a leaf test that jumps to the target when its outcome equals {@code when}
+     */
+    private static void jumpOnTest(MethodVisitor code, Expression expression, boolean when, Label target) {
+        if (expression instanceof Truth truth) {
+            loadPrimitive(code, truth.operand());
+            code.visitJumpInsn(when ? Opcodes.IFNE : Opcodes.IFEQ, target);
+            return;
+        }
+        Comparison comparison = (Comparison) expression;
+        String operator = when ? comparison.operator() : negate(comparison.operator());
+        if (isPrimitiveComparison(comparison)) {
+            loadPrimitive(code, comparison.left());
+            loadPrimitive(code, comparison.right());
+            code.visitJumpInsn(switch (operator) {
+                case "==" -> Opcodes.IF_ICMPEQ;
+                case "!=" -> Opcodes.IF_ICMPNE;
+                case "<" -> Opcodes.IF_ICMPLT;
+                case "<=" -> Opcodes.IF_ICMPLE;
+                case ">" -> Opcodes.IF_ICMPGT;
+                default -> Opcodes.IF_ICMPGE;
+            }, target);
+        } else {
+            loadReference(code, comparison.left());
+            loadReference(code, comparison.right());
+            code.visitMethodInsn(Opcodes.INVOKESTATIC, "java/util/Objects", "equals",
+                    "(Ljava/lang/Object;Ljava/lang/Object;)Z", false);
+            code.visitJumpInsn(operator.equals("==") ? Opcodes.IFNE : Opcodes.IFEQ, target);
+        }
+    }
+
+    private static boolean isPrimitiveComparison(Comparison comparison) {
+        ValueType left = comparison.left().type();
+        return left == comparison.right().type() && (left == ValueType.INT || left == ValueType.BOOLEAN);
+    }
+
+    private static void loadPrimitive(MethodVisitor code, Operand operand) {
+        if (!operand.isVariable()) {
+            pushInt(code, operand.literal());
+            return;
+        }
+        loadReference(code, operand);
+        code.visitLdcInsn(operand.variable().name());
+        String helper = operand.type() == ValueType.INT ? "intValue" : "booleanValue";
+        String descriptor = operand.type() == ValueType.INT ? "(Ljava/lang/Object;Ljava/lang/String;)I" : "(Ljava/lang/Object;Ljava/lang/String;)Z";
+        code.visitMethodInsn(Opcodes.INVOKESTATIC, SUPPORT, helper, descriptor, false);
+    }
+
+    private static void loadReference(MethodVisitor code, Operand operand) {
+        if (operand.type() == ValueType.NULL) {
+            code.visitInsn(Opcodes.ACONST_NULL);
+            return;
+        }
+        code.visitVarInsn(Opcodes.ALOAD, 2);
+        pushInt(code, operand.variable().slot());
+        code.visitInsn(Opcodes.AALOAD);
+    }
+
+    private static void pushInt(MethodVisitor code, int value) {
+        if (value >= -1 && value <= 5) {
+            code.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            code.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            code.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            code.visitLdcInsn(value);
+        }
+    }
+
+    private static String negate(String operator) {
+        return switch (operator) {
+            case "==" -> "!=";
+            case "!=" -> "==";
+            case "<" -> ">=";
+            case "<=" -> ">";
+            case ">" -> "<=";
+            default -> "<";
+        };
+    }
+
+    /**
+     * Recursive descent parser producing a type checked expression tree
+     */
+    private final class Parser {
+
+        private final String source;
+        private final List<String> tokens;
+        private int position;
+
+        Parser(String source) {
+            this.source = source;
+            this.tokens = tokenize(source);
+        }
+
+        Expression parse() {
+            accept("return");
+            Expression expression = parseOr();
+            accept(";");
+            if (position != tokens.size()) {
+                throw error("unexpected '" + tokens.get(position) + "'");
+            }
+            return expression;
+        }
+
+        private Expression parseOr() {
+            Expression left = parseAnd();
+            while (accept("||")) {
+                left = new Or(left, parseAnd());
+            }
+            return left;
+        }
+
+        private Expression parseAnd() {
+            Expression left = parseUnary();
+            while (accept("&&")) {
+                left = new And(left, parseUnary());
+            }
+            return left;
+        }
+
+        private Expression parseUnary() {
+            if (accept("!")) {
+                return new Not(parseUnary());
+            }
+            if (accept("(")) {
+                Expression inner = parseOr();
+                expect(")");
+                return inner;
+            }
+            Operand left = parseOperand();
+            String operator = peek();
+            if (operator == null || !List.of("<", "<=", ">", ">=", "==", "!=").contains(operator)) {
+                if (left.type() != ValueType.BOOLEAN) {
+                    throw error("'" + describe(left) + "' is not a boolean");
+                }
+                return new Truth(left);
+            }
+            position++;
+            Operand right = parseOperand();
+            return check(new Comparison(operator, left, right));
+        }
+
+        private Comparison check(Comparison comparison) {
+            ValueType left = comparison.left().type();
+            ValueType right = comparison.right().type();
+            boolean equality = comparison.operator().equals("==") || comparison.operator().equals("!=");
+            if (left == ValueType.INT && right == ValueType.INT) {
+                return comparison;
+            }
+            if (equality && left == right && left == ValueType.BOOLEAN) {
+                return comparison;
+            }
+            boolean referenceTypes = left != ValueType.INT && left != ValueType.BOOLEAN
+                    || right != ValueType.INT && right != ValueType.BOOLEAN;
+            if (equality && referenceTypes && (comparison.left().isVariable() || comparison.right().isVariable())
+                    && (left == right || left == ValueType.NULL || right == ValueType.NULL)) {
+                return comparison;
+            }
+            throw error("cannot apply " + comparison.operator() + " to " + left + " and " + right);
+        }
+
+        private Operand parseOperand() {
+            String token = next();
+            if (token.equals("true") || token.equals("false")) {
+                return new Operand(ValueType.BOOLEAN, null, token.equals("true") ? 1 : 0);
+            }
+            if (token.equals("null")) {
+                return new Operand(ValueType.NULL, null, 0);
+            }
+            if (token.equals("-") || Character.isDigit(token.charAt(0))) {
+                String digits = token.equals("-") ? "-" + next() : token;
+                try {
+                    return new Operand(ValueType.INT, null, Integer.parseInt(digits));
+                } catch (NumberFormatException e) {
+                    throw error("invalid number " + digits);
+                }
+            }
+            if (Character.isJavaIdentifierStart(token.charAt(0))) {
+                Variable variable = variables.apply(token);
+                return new Operand(variable.type(), variable, 0);
+            }
+            throw error("unexpected '" + token + "'");
+        }
+
+        private String describe(Operand operand) {
+            return operand.isVariable() ? operand.variable().name() : operand.type().name().toLowerCase();
+        }
+
+        private String peek() {
+            return position < tokens.size() ? tokens.get(position) : null;
+        }
+
+        private String next() {
+            if (position >= tokens.size()) {
+                throw error("unexpected end of expression");
+            }
+            return tokens.get(position++);
+        }
+
+        private boolean accept(String token) {
+            if (token.equals(peek())) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) {
+            if (!accept(token)) {
+                throw error("expected '" + token + "'");
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Unsupported condition '" + source + "' in process " + processId + ": " + message);
+        }
+    }
+
+    private static List<String> tokenize(String source) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < source.length() && Character.isJavaIdentifierPart(source.charAt(i))) {
+                    i++;
+                }
+                tokens.add(source.substring(start, i));
+            } else if (Character.isDigit(c)) {
+                int start = i;
+                while (i < source.length() && Character.isDigit(source.charAt(i))) {
+                    i++;
+                }
+                tokens.add(source.substring(start, i));
+            } else if (i + 1 < source.length() && List.of("<=", ">=", "==", "!=", "&&", "||").contains(source.substring(i, i + 2))) {
+                tokens.add(source.substring(i, i + 2));
+                i += 2;
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,25 @@
+package com.jrrd.jbpmdemo.process;
+
+/**
+ * Runtime helpers called from compiled conditions. They unbox variables
+ * the way Java would, but report which variable was missing.
+ */
+final class ConditionSupport {
+
+    private ConditionSupport() {
+    }
+
+    static int intValue(Object value, String variable) {
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        throw new IllegalStateException("Variable " + variable + " is " + (value == null ? "not set" : "not a number"));
+    }
+
+    static boolean booleanValue(Object value, String variable) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        throw new IllegalStateException("Variable " + variable + " is " + (value == null ? "not set" : "not a boolean"));
+    }
+}
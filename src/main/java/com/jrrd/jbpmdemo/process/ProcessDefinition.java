@@ -0,0 +1,71 @@
+package com.jrrd.jbpmdemo.process;
+
+import java.util.Map;
+
+/**
+ * Immutable, compiled form of a BPMN process: flow nodes in an array with
+ * resolved transitions, and process variables mapped to slots.
+ * Built once by {@link BpmnProcessParser} and shared by all instances.
+ */
+public final class ProcessDefinition {
+
+    private final String id;
+    private final String name;
+    private final ProcessNode[] nodes;
+    private final int startNode;
+    private final Map<String, Integer> nodeIndexes;
+    private final Map<String, Integer> variableSlots;
+
+    ProcessDefinition(String id, String name, ProcessNode[] nodes, int startNode,
+                      Map<String, Integer> nodeIndexes, Map<String, Integer> variableSlots) {
+        this.id = id;
+        this.name = name;
+        this.nodes = nodes;
+        this.startNode = startNode;
+        this.nodeIndexes = Map.copyOf(nodeIndexes);
+        this.variableSlots = Map.copyOf(variableSlots);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the slot of a process variable, to be resolved once and reused
+     *
+     * @param name The variable name as declared in the BPMN file
+     * @return The slot index
+     * @throws IllegalArgumentException if the process has no such variable
+     */
+    public int variableSlot(String name) {
+        Integer slot = variableSlots.get(name);
+        if (slot == null) {
+            throw new IllegalArgumentException("Process " + id + " has no variable " + name);
+        }
+        return slot;
+    }
+
+    public int variableCount() {
+        return variableSlots.size();
+    }
+
+    int nodeIndex(String nodeId) {
+        Integer index = nodeIndexes.get(nodeId);
+        if (index == null) {
+            throw new IllegalArgumentException("Process " + id + " has no node " + nodeId);
+        }
+        return index;
+    }
+
+    ProcessNode node(int index) {
+        return nodes[index];
+    }
+
+    int startNode() {
+        return startNode;
+    }
+}
@@ -0,0 +1,99 @@
+package com.jrrd.jbpmdemo.process;
+
+import java.util.Map;
+
+/**
+ * Executes compiled {@link ProcessDefinition}s.
+ *
+ * The engine is stateless: an instance runs synchronously from one wait
+ * state (user task) to the next, and callers keep the instance or enough
+ * of its state to {@link #resume} it later.
+ */
+public class ProcessEngine {
+
+    /**
+     * Starts a new instance and runs it up to the first wait state
+     *
+     * @param definition The process to start
+     * @return The instance, waiting in a user task or completed
+     */
+    public ProcessInstance start(ProcessDefinition definition) {
+        ProcessInstance instance = new ProcessInstance(definition, definition.startNode());
+        advance(instance);
+        return instance;
+    }
+
+    /**
+     * Recreates an instance that is waiting in the given user task
+     *
+     * @param definition The process definition
+     * @param taskId ID of the user task the instance waits in
+     * @return The instance; set its variables before completing the task
+     */
+    public ProcessInstance resume(ProcessDefinition definition, String taskId) {
+        int node = definition.nodeIndex(taskId);
+        if (definition.node(node).type != ProcessNode.Type.USER_TASK) {
+            throw new IllegalArgumentException(taskId + " is not a user task of process " + definition.getId());
+        }
+        return new ProcessInstance(definition, node);
+    }
+
+    /**
+     * Completes the user task the instance is waiting in and runs it up to
+     * the next wait state
+     *
+     * @param instance The waiting instance
+     * @param taskId ID of the task being completed
+     * @param outputs Task outputs by data output name, copied to the mapped variables
+     * @throws IllegalStateException if the instance is not waiting in that task
+     */
+    public void completeTask(ProcessInstance instance, String taskId, Map<String, ?> outputs) {
+        ProcessNode task = instance.getDefinition().node(instance.currentNode());
+        if (task.type != ProcessNode.Type.USER_TASK || !task.id.equals(taskId)) {
+            throw new IllegalStateException("Process instance is waiting in " + task.id + ", not " + taskId);
+        }
+        for (Map.Entry<String, ?> output : outputs.entrySet()) {
+            Integer slot = task.outputSlots.get(output.getKey());
+            if (slot == null) {
+                throw new IllegalArgumentException("Task " + taskId + " has no output " + output.getKey());
+            }
+            instance.setVariable(slot, output.getValue());
+        }
+        instance.moveTo(task.targets[0]);
+        advance(instance);
+    }
+
+    private void advance(ProcessInstance instance) {
+        ProcessDefinition definition = instance.getDefinition();
+        while (true) {
+            ProcessNode node = definition.node(instance.currentNode());
+            switch (node.type) {
+                case USER_TASK, END_EVENT -> {
+                    return;
+                }
+                case START_EVENT -> instance.moveTo(node.targets[0]);
+                case SERVICE_TASK -> {
+                    node.service.invoke(instance);
+                    instance.moveTo(node.targets[0]);
+                }
+                case EXCLUSIVE_GATEWAY -> instance.moveTo(choose(node, instance));
+            }
+        }
+    }
+
+    private static int choose(ProcessNode gateway, ProcessInstance instance) {
+        int fallback = -1;
+        for (int i = 0; i < gateway.targets.length; i++) {
+            Condition condition = gateway.conditions[i];
+            if (condition == null) {
+                fallback = gateway.targets[i];
+            } else if (condition.test(instance)) {
+                return gateway.targets[i];
+            }
+        }
+        if (fallback >= 0) {
+            return fallback;
+        }
+        throw new IllegalStateException("No outgoing flow of gateway " + gateway.id + " matched");
+    }
+}
@@ -0,0 +1,55 @@
+package com.jrrd.jbpmdemo.process;
+
+/**
+ * Running (or completed) instance of a {@link ProcessDefinition}: the node
+ * it is waiting in and its variables. Instances are not thread-safe; each
+ * one is driven by a single request at a time.
+ */
+public final class ProcessInstance {
+
+    private final ProcessDefinition definition;
+    private final Object[] variables;
+    private int currentNode;
+
+    ProcessInstance(ProcessDefinition definition, int currentNode) {
+        this.definition = definition;
+        this.variables = new Object[definition.variableCount()];
+        this.currentNode = currentNode;
+    }
+
+    public ProcessDefinition getDefinition() {
+        return definition;
+    }
+
+    /**
+     * Gets the ID of the node the instance is waiting in, or the end event
+     * it finished in
+     */
+    public String getCurrentNodeId() {
+        return definition.node(currentNode).id;
+    }
+
+    public boolean isCompleted() {
+        return definition.node(currentNode).type == ProcessNode.Type.END_EVENT;
+    }
+
+    public Object getVariable(int slot) {
+        return variables[slot];
+    }
+
+    public void setVariable(int slot, Object value) {
+        variables[slot] = value;
+    }
+
+    int currentNode() {
+        return currentNode;
+    }
+
+    void moveTo(int node) {
+        this.currentNode = node;
+    }
+
+    Object[] variables() {
+        return variables;
+    }
+}
@@ -0,0 +1,38 @@
+package com.jrrd.jbpmdemo.process;
+
+import java.util.Map;
+
+/**
+ * One compiled flow node of a {@link ProcessDefinition}. Outgoing sequence
+ * flows are resolved to node indexes, so advancing an instance is a plain
+ * array lookup.
+ */
+final class ProcessNode {
+
+    enum Type {
+        START_EVENT,
+        USER_TASK,
+        SERVICE_TASK,
+        EXCLUSIVE_GATEWAY,
+        END_EVENT
+    }
+
+    final String id;
+    final String name;
+    final Type type;
+    final int[] targets;
+    final Condition[] conditions;
+    final ServiceTaskInvoker service;
+    final Map<String, Integer> outputSlots;
+
+    ProcessNode(String id, String name, Type type, int[] targets, Condition[] conditions,
+                ServiceTaskInvoker service, Map<String, Integer> outputSlots) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.targets = targets;
+        this.conditions = conditions;
+        this.service = service;
+        this.outputSlots = outputSlots;
+    }
+}
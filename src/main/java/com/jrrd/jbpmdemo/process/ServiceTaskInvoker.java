@@ -0,0 +1,77 @@
+package com.jrrd.jbpmdemo.process;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Service task bound to a bean method at parse time. The method is looked up
+ * once and turned into a {@link MethodHandle} bound to the bean, so invoking
+ * the task involves no reflection.
+ */
+final class ServiceTaskInvoker {
+
+    private final String description;
+    private final MethodHandle handle;
+    private final int[] inputSlots;
+    private final int outputSlot;
+
+    private ServiceTaskInvoker(String description, MethodHandle handle, int[] inputSlots, int outputSlot) {
+        this.description = description;
+        this.handle = handle;
+        this.inputSlots = inputSlots;
+        this.outputSlot = outputSlot;
+    }
+
+    /**
+     * Binds a public method of a bean
+     *
+     * @param bean Target bean
+     * @param beanType Type declaring the operation
+     * @param operation Method name
+     * @param inputSlots Variable slots passed as arguments, in parameter order
+     * @param outputSlot Variable slot receiving the return value, or -1
+     */
+    static ServiceTaskInvoker bind(Object bean, Class<?> beanType, String operation, int[] inputSlots, int outputSlot) {
+        Method method = null;
+        for (Method candidate : beanType.getMethods()) {
+            if (candidate.getName().equals(operation) && candidate.getParameterCount() == inputSlots.length) {
+                method = candidate;
+                break;
+            }
+        }
+        if (method == null) {
+            throw new IllegalArgumentException("No public method " + operation + " with " + inputSlots.length
+                    + " parameters on " + beanType.getName());
+        }
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method)
+                    .bindTo(bean)
+                    .asSpreader(Object[].class, inputSlots.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return new ServiceTaskInvoker(beanType.getSimpleName() + "." + operation, handle, inputSlots, outputSlot);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access " + beanType.getName() + "." + operation, e);
+        }
+    }
+
+    void invoke(ProcessInstance instance) {
+        Object[] variables = instance.variables();
+        Object[] arguments = new Object[inputSlots.length];
+        for (int i = 0; i < inputSlots.length; i++) {
+            arguments[i] = variables[inputSlots[i]];
+        }
+        Object result;
+        try {
+            result = (Object) handle.invokeExact(arguments);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Service task " + description + " failed", e);
+        }
+        if (outputSlot >= 0) {
+            variables[outputSlot] = result;
+        }
+    }
+}
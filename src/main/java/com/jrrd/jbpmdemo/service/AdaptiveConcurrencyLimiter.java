@@ -0,0 +1,149 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounds the calls in flight with a limit that adapts to their latency
+ * (additive increase, multiplicative decrease).
+ *
+ * Calls beyond the limit are refused at once instead of queueing. Every
+ * completed call is compared with a baseline latency, a slowly moving average
+ * of the calls that were not degraded: if it took more than {@code tolerance}
+ * times the baseline, the limit shrinks by 10%; otherwise, if the limit was
+ * at least half used, it grows by one. The limit so settles near the
+ * concurrency the backend serves without its latency degrading.
+ *
+ * The limit shrinks at most once per latency window: only a slow call that
+ * was admitted after the last decrease shrinks it again, so a burst of slow
+ * calls that were in flight together counts once. Degraded calls do not move
+ * the baseline, so while latency stays degraded every window shrinks the
+ * limit further down to {@code minLimit}, where it stays until calls are fast
+ * again.
+ *
+ * Publishes the {@code leave.limiter.limit} and {@code leave.limiter.in.flight}
+ * gauges and the {@code leave.limiter.rejected} counter, tagged with the
+ * {@code budget} name.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF = 0.9;
+    // Weight of each call in the baseline latency: it follows gradual shifts, not single calls
+    private static final double SMOOTHING = 0.01;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+    // Guarded by this
+    private double baselineNanos = Double.NaN;
+    private long lastDecreaseNanos;
+
+    /**
+     * Creates the limiter
+     *
+     * @param budget Name of the calls limited, used as the meters' {@code budget} tag
+     * @param initialLimit Calls allowed in flight at first
+     * @param minLimit Fewest calls allowed in flight however slow they get
+     * @param maxLimit Most calls allowed in flight however fast they are
+     * @param tolerance How many times the baseline latency a call may take before the limit shrinks
+     * @param registry Registry of the meters
+     */
+    public AdaptiveConcurrencyLimiter(String budget, int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      MeterRegistry registry) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 0 < min <= initial <= max: "
+                    + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        if (tolerance <= 1.0) {
+            throw new IllegalArgumentException("Tolerance must be above 1: " + tolerance);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = initialLimit;
+        Gauge.builder("leave.limiter.limit", this, AdaptiveConcurrencyLimiter::limit)
+                .description("Calls the adaptive concurrency limiter lets in flight")
+                .tag("budget", budget)
+                .register(registry);
+        Gauge.builder("leave.limiter.in.flight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Calls in flight through the adaptive concurrency limiter")
+                .tag("budget", budget)
+                .register(registry);
+        FunctionCounter.builder("leave.limiter.rejected", rejected, LongAdder::sum)
+                .description("Calls refused by the adaptive concurrency limiter")
+                .tag("budget", budget)
+                .register(registry);
+    }
+
+    /**
+     * Admits a call if the limit allows; an admitted call must be
+     * {@linkplain #release(long) released} once it completes
+     *
+     * @return true if the call may proceed, false if it is refused
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted call and adapts the limit to its latency
+     *
+     * @param startNanos {@link System#nanoTime()} when the call was admitted
+     */
+    public void release(long startNanos) {
+        completed(startNanos, System.nanoTime());
+    }
+
+    void completed(long startNanos, long endNanos) {
+        long latency = endNanos - startNanos;
+        int wasInFlight = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (Double.isNaN(baselineNanos)) {
+                baselineNanos = latency;
+                // nanoTime values only compare by difference, so the window starts at the first call
+                lastDecreaseNanos = startNanos - 1;
+                return;
+            }
+            if (latency > baselineNanos * tolerance) {
+                // Calls admitted before the last decrease already saw it
+                if (startNanos - lastDecreaseNanos > 0) {
+                    limit = Math.max(minLimit, (int) (limit * BACKOFF));
+                    lastDecreaseNanos = endNanos;
+                }
+                return;
+            }
+            if (wasInFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            baselineNanos += (latency - baselineNanos) * SMOOTHING;
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+}
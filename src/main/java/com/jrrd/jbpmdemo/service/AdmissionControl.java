@@ -0,0 +1,48 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.time.Duration;
+
+/**
+ * Admission budgets of the leave API: reads and writes each pass their own
+ * {@link AdaptiveConcurrencyLimiter}, so a spike of one kind of call sheds
+ * that kind first instead of starving the other.
+ */
+public class AdmissionControl {
+
+    private final AdaptiveConcurrencyLimiter reads;
+    private final AdaptiveConcurrencyLimiter writes;
+    private final long retryAfterSeconds;
+
+    /**
+     * Creates the budgets
+     *
+     * @param reads Limiter of GET, HEAD and OPTIONS calls
+     * @param writes Limiter of all other calls
+     * @param retryAfter How long refused clients are told to wait, rounded up to whole seconds
+     */
+    public AdmissionControl(AdaptiveConcurrencyLimiter reads, AdaptiveConcurrencyLimiter writes, Duration retryAfter) {
+        if (retryAfter.isNegative()) {
+            throw new IllegalArgumentException("Retry-After must not be negative: " + retryAfter);
+        }
+        this.reads = reads;
+        this.writes = writes;
+        this.retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+
+    /**
+     * Gets the limiter of calls with an HTTP method
+     */
+    public AdaptiveConcurrencyLimiter limiterFor(String method) {
+        return switch (method) {
+            case "GET", "HEAD", "OPTIONS" -> reads;
+            default -> writes;
+        };
+    }
+
+    /**
+     * Gets the {@code Retry-After} value of refused calls, in seconds
+     */
+    public long retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,210 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+
+/**
+ * Results of recent calls by idempotency key, so a client retrying a call
+ * gets the original result instead of repeating it.
+ *
+ * The first call with a key runs and its result is kept for {@code ttl};
+ * calls with the same key and the same request get that result, waiting for
+ * it if the first call is still running. Reusing a key for a different
+ * request fails with {@link IdempotencyKeyReusedException}. Calls that throw
+ * are not kept, so they can be retried.
+ *
+ * Memory is capped at {@code capacity} keys. Keys are spread over segments,
+ * each a segmented LRU with its own lock: new keys enter a probation segment
+ * and move to a protected segment (80% of the space) when retried, so a storm
+ * of one-off keys evicts other one-off keys before the keys that clients are
+ * actually retrying. Expired keys are dropped when looked up or evicted.
+ *
+ * @param <V> Type of the kept results
+ */
+public class IdempotencyCache<V> {
+
+    private static final int MAX_SEGMENTS = 16;
+    // Fewer segments for small caches, so each keeps a useful number of keys
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
+    private final Segment<V>[] segments;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    /**
+     * Creates an empty cache
+     *
+     * @param capacity Most keys kept at once
+     * @param ttl How long a result is kept after its call
+     */
+    public IdempotencyCache(int capacity, Duration ttl) {
+        this(capacity, ttl, () -> LeaveRecord.toEpochMilli(LocalDateTime.now()));
+    }
+
+    @SuppressWarnings("unchecked")
+    IdempotencyCache(int capacity, Duration ttl, LongSupplier clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        if (ttl.isZero() || ttl.isNegative()) {
+            throw new IllegalArgumentException("Time to live must be positive: " + ttl);
+        }
+        int count = Math.max(1, Integer.highestOneBit(Math.min(MAX_SEGMENTS, capacity / MIN_SEGMENT_CAPACITY)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Spread the remainder so the segments add up to the capacity
+            segments[i] = new Segment<>(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Runs a call once per key
+     *
+     * @param key The idempotency key
+     * @param request What the call is for, compared with {@code equals} on retries
+     * @param call The call, run if the key is new or expired
+     * @return The result of the call, or of the earlier call with the key
+     * @throws IdempotencyKeyReusedException if the key was used for a different request
+     */
+    public V execute(String key, Object request, Supplier<V> call) {
+        Segment<V> segment = segments[(key.hashCode() & Integer.MAX_VALUE) % segments.length];
+        long now = clock.getAsLong();
+        Entry<V> entry;
+        boolean first = false;
+        synchronized (segment) {
+            entry = segment.get(key, now);
+            if (entry == null) {
+                entry = new Entry<>(request, now + ttlMillis);
+                segment.add(key, entry);
+                first = true;
+            }
+        }
+        if (first) {
+            // Run outside the lock, so calls with other keys of the segment are not held up
+            V value;
+            try {
+                value = call.get();
+            } catch (RuntimeException e) {
+                synchronized (segment) {
+                    segment.remove(key, entry);
+                }
+                entry.result.completeExceptionally(e);
+                throw e;
+            }
+            entry.result.complete(value);
+            return value;
+        }
+        if (!Objects.equals(entry.request, request)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            // The first call failed while this one waited; report the same failure
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of keys kept, including expired keys not yet dropped
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private static final class Entry<V> {
+        final Object request;
+        final long expires;
+        final CompletableFuture<V> result = new CompletableFuture<>();
+
+        Entry(Object request, long expires) {
+            this.request = request;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * Segmented LRU of one share of the keys; guarded by its own monitor
+     */
+    private static final class Segment<V> {
+        private final int capacity;
+        private final int protectedCapacity;
+        // Insertion order: entries move to the end by being removed and added again
+        private final LinkedHashMap<String, Entry<V>> probation = new LinkedHashMap<>();
+        private final LinkedHashMap<String, Entry<V>> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+
+        Segment(int capacity) {
+            this.capacity = Math.max(1, capacity);
+            this.protectedCapacity = this.capacity * 4 / 5;
+        }
+
+        Entry<V> get(String key, long now) {
+            Entry<V> entry = protectedEntries.get(key);
+            if (entry != null) {
+                if (entry.expires <= now) {
+                    protectedEntries.remove(key);
+                    return null;
+                }
+                return entry;
+            }
+            entry = probation.remove(key);
+            if (entry == null || entry.expires <= now) {
+                return null;
+            }
+            if (protectedCapacity == 0) {
+                probation.put(key, entry);
+                return entry;
+            }
+            // Retried: promote, demoting the least recently used protected key to probation
+            protectedEntries.put(key, entry);
+            if (protectedEntries.size() > protectedCapacity) {
+                Iterator<Map.Entry<String, Entry<V>>> eldest = protectedEntries.entrySet().iterator();
+                Map.Entry<String, Entry<V>> demoted = eldest.next();
+                eldest.remove();
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+            return entry;
+        }
+
+        void add(String key, Entry<V> entry) {
+            probation.put(key, entry);
+            while (size() > capacity) {
+                Map<String, Entry<V>> victims = probation.isEmpty() ? protectedEntries : probation;
+                Iterator<Entry<V>> eldest = victims.values().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+
+        void remove(String key, Entry<V> entry) {
+            if (!probation.remove(key, entry)) {
+                protectedEntries.remove(key, entry);
+            }
+        }
+
+        int size() {
+            return probation.size() + protectedEntries.size();
+        }
+    }
+}
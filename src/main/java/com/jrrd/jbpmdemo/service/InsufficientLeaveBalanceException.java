@@ -0,0 +1,33 @@
+package com.jrrd.jbpmdemo.service;
+
+/**
+ * Thrown when an employee requests more days than are left of their allowance,
+ * counting days already reserved by pending requests.
+ */
+public class InsufficientLeaveBalanceException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String employeeName;
+    private final int daysRequested;
+    private final long daysAvailable;
+
+    public InsufficientLeaveBalanceException(String employeeName, int daysRequested, long daysAvailable) {
+        super(employeeName + " requested " + daysRequested + " days but only " + daysAvailable + " are available");
+        this.employeeName = employeeName;
+        this.daysRequested = daysRequested;
+        this.daysAvailable = daysAvailable;
+    }
+
+    public String getEmployeeName() {
+        return employeeName;
+    }
+
+    public int getDaysRequested() {
+        return daysRequested;
+    }
+
+    public long getDaysAvailable() {
+        return daysAvailable;
+    }
+}
@@ -17,7 +17,7 @@ public class LeaveApprovalService {
      * @return true for auto-approval
      */
     public boolean autoApprove(String employeeName, Integer daysRequested) {
-        logger.info("Auto approving leave request for {} for {} days", employeeName, daysRequested);
+        logger.debug("Auto approving leave request for {} for {} days", employeeName, daysRequested);
         return true;
     }
 }
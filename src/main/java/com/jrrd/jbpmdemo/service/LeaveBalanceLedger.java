@@ -0,0 +1,158 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+import com.jrrd.jbpmdemo.dto.LeaveBalance;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+/**
+ * Leave balance of each employee per leave year: days reserved by pending
+ * requests and days used by approved ones, checked against the employee's
+ * yearly allowance.
+ *
+ * The leave year is the calendar year; a request counts in the year its
+ * leave starts, or in the year it was made if it names no dates. Every year
+ * starts with the full allowance, nothing carries over.
+ *
+ * Creating a request reserves its days, approving commits them and rejecting
+ * releases them. Each change replaces the account of the employee's year in
+ * one {@link ConcurrentHashMap#compute} call, which locks only the map bin of
+ * that account: requests of one employee submitted concurrently are checked
+ * one after the other and cannot overdraw the allowance together, while
+ * requests of different employees do not contend.
+ */
+public class LeaveBalanceLedger {
+
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final ToIntFunction<String> allowanceOf;
+    private final ConcurrentHashMap<AccountKey, Account> accounts = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a ledger
+     *
+     * @param allowanceOf Days of leave an employee may take per leave year
+     */
+    public LeaveBalanceLedger(ToIntFunction<String> allowanceOf) {
+        this.allowanceOf = allowanceOf;
+    }
+
+    /**
+     * Creates a ledger that tracks balances but accepts any number of days
+     */
+    public static LeaveBalanceLedger unlimited() {
+        return new LeaveBalanceLedger(employeeName -> UNLIMITED);
+    }
+
+    /**
+     * Gets the leave year a request counts in: the year its leave starts, or
+     * the year it was made if it names no dates
+     */
+    public static int leaveYear(LeaveRecord request) {
+        return request.hasPeriod() ? request.startDate().getYear() : request.requestDate().getYear();
+    }
+
+    /**
+     * Reserves days for a new request
+     *
+     * @param employeeName The employee requesting leave
+     * @param year Leave year the request counts in
+     * @param days Number of days requested
+     * @throws InsufficientLeaveBalanceException if fewer days are available in that year
+     */
+    public void reserve(String employeeName, int year, int days) {
+        if (days <= 0) {
+            return;
+        }
+        int allowance = allowanceOf.applyAsInt(employeeName);
+        // Throwing from compute leaves the account unchanged
+        accounts.compute(new AccountKey(employeeName, year), (key, account) -> {
+            Account current = account == null ? Account.EMPTY : account;
+            long available = allowance - current.reserved - current.used;
+            if (allowance != UNLIMITED && days > available) {
+                throw new InsufficientLeaveBalanceException(employeeName, days, available);
+            }
+            return new Account(current.reserved + days, current.used);
+        });
+    }
+
+    /**
+     * Turns reserved days into used days when their request is approved
+     */
+    public void commit(String employeeName, int year, int days) {
+        if (days > 0) {
+            accounts.compute(new AccountKey(employeeName, year), (key, account) -> {
+                Account current = account == null ? Account.EMPTY : account;
+                return new Account(Math.max(0, current.reserved - days), current.used + days);
+            });
+        }
+    }
+
+    /**
+     * Returns reserved days when their request is rejected or could not be stored
+     */
+    public void release(String employeeName, int year, int days) {
+        if (days > 0) {
+            accounts.computeIfPresent(new AccountKey(employeeName, year),
+                    (key, account) -> new Account(Math.max(0, account.reserved - days), account.used));
+        }
+    }
+
+    /**
+     * Counts a stored request in its leave year, without checking the
+     * allowance, when the ledger is rebuilt at startup. Requests without
+     * days, such as some imported from an older version, count nothing.
+     */
+    public void restore(LeaveRecord request) {
+        int days = request.daysRequestedValue();
+        if (days == LeaveRecord.NO_DAYS || days <= 0 || request.status() == LeaveStatus.REJECTED) {
+            return;
+        }
+        boolean approved = request.status() == LeaveStatus.APPROVED;
+        accounts.merge(new AccountKey(request.employeeName(), leaveYear(request)),
+                approved ? new Account(0, days) : new Account(days, 0),
+                (current, added) -> new Account(current.reserved + added.reserved, current.used + added.used));
+    }
+
+    /**
+     * Gets the balance of an employee in the current leave year
+     *
+     * @param employeeName The employee name
+     * @return The balance; employees without requests have nothing reserved or used
+     */
+    public LeaveBalance balance(String employeeName) {
+        return balance(employeeName, LocalDate.now().getYear());
+    }
+
+    /**
+     * Gets the balance of an employee in a leave year
+     *
+     * @param employeeName The employee name
+     * @param year The leave year
+     * @return The balance; years without requests have nothing reserved or used
+     */
+    public LeaveBalance balance(String employeeName, int year) {
+        Account account = accounts.getOrDefault(new AccountKey(employeeName, year), Account.EMPTY);
+        int allowance = allowanceOf.applyAsInt(employeeName);
+        return new LeaveBalance(employeeName, year, allowance == UNLIMITED ? null : allowance,
+                account.reserved, account.used);
+    }
+
+    private record AccountKey(String employeeName, int year) {
+    }
+
+    private static final class Account {
+        static final Account EMPTY = new Account(0, 0);
+
+        final long reserved;
+        final long used;
+
+        Account(long reserved, long used) {
+            this.reserved = reserved;
+            this.used = used;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequest;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+import com.jrrd.jbpmdemo.timer.HierarchicalTimingWheel;
+
+/**
+ * Manager approval deadlines for pending leave requests.
+ *
+ * Every pending request has one timer in a {@link HierarchicalTimingWheel}:
+ * first a reminder after {@code remindAfter}, then the escalation after
+ * {@code escalateAfter}, both counted from the request date. Escalation
+ * either rejects the request or reports it as overdue. Decisions cancel the
+ * request's timer. On startup the timers are rebuilt from the pending
+ * requests that were not escalated yet, so a restart neither reminds nor
+ * escalates a request twice; deadlines that passed while the application was
+ * down fire within the first ticks after startup.
+ *
+ * Times are milliseconds of the local date-time read as UTC, the
+ * representation used by {@link LeaveRecord}.
+ */
+public class LeaveDeadlineScheduler implements LeaveLifecycleListener, AutoCloseable {
+
+    /**
+     * What happens when a request is still pending at its escalation deadline
+     */
+    public enum Escalation {
+        /** Reject the request */
+        REJECT,
+        /** Log and count the overdue request and leave it pending */
+        ESCALATE
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveDeadlineScheduler.class);
+    private static final int WHEEL_SIZE = 512;
+    private static final int LEVELS = 3;
+    /** Actor recorded in the history of escalated and rejected requests */
+    static final String ACTOR = "approval-deadline";
+
+    private final SimpleLeaveRequestService service;
+    private final LeaveMetrics metrics;
+    private final long remindAfter;
+    private final long escalateAfter;
+    private final Escalation escalation;
+    private final LongSupplier clock;
+    private final HierarchicalTimingWheel wheel;
+    private final Map<LeaveRequestId, HierarchicalTimingWheel.Timeout> timers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService driver;
+
+    /**
+     * Creates the scheduler, rebuilds the timers of pending requests and
+     * starts advancing the wheel once per tick on a background thread
+     */
+    public LeaveDeadlineScheduler(SimpleLeaveRequestService service, LeaveMetrics metrics, Duration remindAfter,
+                                  Duration escalateAfter, Escalation escalation, Duration tick) {
+        this(service, metrics, remindAfter, escalateAfter, escalation, tick,
+                () -> LeaveRecord.toEpochMilli(LocalDateTime.now()), true);
+    }
+
+    LeaveDeadlineScheduler(SimpleLeaveRequestService service, LeaveMetrics metrics, Duration remindAfter,
+                           Duration escalateAfter, Escalation escalation, Duration tick, LongSupplier clock,
+                           boolean startDriver) {
+        if (remindAfter.isZero() || remindAfter.isNegative() || escalateAfter.compareTo(remindAfter) < 0) {
+            throw new IllegalArgumentException("Reminder must be positive and not after escalation: "
+                    + remindAfter + ", " + escalateAfter);
+        }
+        this.service = service;
+        this.metrics = metrics;
+        this.remindAfter = remindAfter.toMillis();
+        this.escalateAfter = escalateAfter.toMillis();
+        this.escalation = escalation;
+        this.clock = clock;
+        this.wheel = new HierarchicalTimingWheel(tick.toMillis(), WHEEL_SIZE, LEVELS, clock);
+        // Listen first, so requests created while rebuilding are not missed
+        service.addListener(this);
+        int rebuilt = 0;
+        for (LeaveRequest request : service.getLeaveRequestsByStatus(LeaveStatus.PENDING)) {
+            LeaveRequestId id = request.getRequestId();
+            if (!service.isEscalated(id)) {
+                schedule(id, LeaveRecord.toEpochMilli(request.getRequestDate()));
+                rebuilt++;
+            }
+        }
+        metrics.bindDeadlineTimers(wheel::size);
+        logger.info("Scheduled approval deadlines for {} pending leave requests (remind after {}, {} after {})",
+                rebuilt, remindAfter, escalation.name().toLowerCase(Locale.ROOT), escalateAfter);
+        if (startDriver) {
+            driver = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "leave-deadlines");
+                thread.setDaemon(true);
+                return thread;
+            });
+            driver.scheduleAtFixedRate(this::tick, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            driver = null;
+        }
+    }
+
+    @Override
+    public void created(LeaveRecord request) {
+        if (request.status() == LeaveStatus.PENDING) {
+            schedule(request.id(), request.requestDateMillis());
+        }
+    }
+
+    @Override
+    public void decided(LeaveRecord request) {
+        HierarchicalTimingWheel.Timeout timeout = timers.remove(request.id());
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Runs the deadlines that are due
+     *
+     * @return Number of deadlines run
+     */
+    int tick() {
+        return wheel.advanceTo(clock.getAsLong());
+    }
+
+    /**
+     * Gets the number of pending deadline timers
+     */
+    int pendingTimers() {
+        return wheel.size();
+    }
+
+    private void schedule(LeaveRequestId id, long requestDate) {
+        HierarchicalTimingWheel.Timeout timeout = remindAfter < escalateAfter
+                ? wheel.schedule(requestDate + remindAfter, () -> remind(id, requestDate))
+                : wheel.schedule(requestDate + escalateAfter, () -> escalate(id));
+        HierarchicalTimingWheel.Timeout previous = timers.put(id, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    private void remind(LeaveRequestId id, long requestDate) {
+        // Only re-arm if no decision removed the timer in the meantime
+        if (timers.computeIfPresent(id,
+                (key, fired) -> wheel.schedule(requestDate + escalateAfter, () -> escalate(id))) == null) {
+            return;
+        }
+        metrics.deadlineReminder();
+        logger.info("Leave request {} is waiting for manager approval since {}", id, LeaveRecord.toDateTime(requestDate));
+    }
+
+    private void escalate(LeaveRequestId id) {
+        if (timers.remove(id) == null) {
+            return;
+        }
+        metrics.deadlineEscalation(escalation);
+        if (escalation == Escalation.REJECT) {
+            try {
+                service.rejectLeaveRequest(id.toString(), ACTOR);
+                logger.info("Leave request {} rejected after approval deadline", id);
+            } catch (LeaveTransitionConflictException e) {
+                logger.debug("Leave request {} was approved before its deadline", id);
+            }
+        } else {
+            logger.warn("Leave request {} missed its approval deadline, escalating", id);
+            service.escalateLeaveRequest(id.toString(), ACTOR);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (driver != null) {
+            driver.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.jrrd.jbpmdemo.service;
+
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+
+/**
+ * Callback for leave request lifecycle events of {@link SimpleLeaveRequestService}.
+ * Listeners run on the calling thread after the change is stored and
+ * should return quickly.
+ */
+public interface LeaveLifecycleListener {
+
+    /**
+     * Called after a leave request has been created
+     */
+    default void created(LeaveRecord request) {
+    }
+
+    /**
+     * Called after a decision changed the status of a leave request
+     */
+    default void decided(LeaveRecord request) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Micrometer meters of the leave request lifecycle:
+ * <ul>
+ * <li>{@code leave.operation} timer per service operation ({@code operation} tag)</li>
+ * <li>{@code leave.decisions} counter per outcome: {@code auto_approved},
+ * {@code approved} and {@code rejected} (manual decisions)</li>
+ * <li>{@code leave.pending} gauge of requests waiting for a decision</li>
+ * <li>{@code leave.time.to.decision} histogram from request to manual decision</li>
+ * <li>{@code leave.deadline.reminders} and {@code leave.deadline.escalations}
+ * ({@code action} tag) counters and the {@code leave.deadline.timers} gauge of
+ * {@link LeaveDeadlineScheduler}</li>
+ * </ul>
+ *
+ * All meters are registered up front, so recording is a plain update of an
+ * existing meter without a registry lookup or tag allocation.
+ */
+@Component
+public class LeaveMetrics {
+
+    /**
+     * Timed operations of {@link SimpleLeaveRequestService}
+     */
+    public enum Operation {
+        CREATE, CREATE_BATCH, GET, LIST, PAGE, BY_EMPLOYEE, BY_STATUS, BY_REQUEST_DATE,
+        APPROVE, REJECT, APPROVE_BATCH, REJECT_BATCH, ESCALATE, HISTORY;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Operation, Timer> operations = new EnumMap<>(Operation.class);
+    private final Counter autoApproved;
+    private final Counter approved;
+    private final Counter rejected;
+    private final Timer timeToDecision;
+    private final Counter deadlineReminders;
+    private final Map<LeaveDeadlineScheduler.Escalation, Counter> deadlineEscalations =
+            new EnumMap<>(LeaveDeadlineScheduler.Escalation.class);
+
+    public LeaveMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Operation operation : Operation.values()) {
+            operations.put(operation, Timer.builder("leave.operation")
+                    .description("Time spent in leave request service operations")
+                    .tag("operation", operation.tag())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(1_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry));
+        }
+        autoApproved = decisions("auto_approved");
+        approved = decisions("approved");
+        rejected = decisions("rejected");
+        timeToDecision = Timer.builder("leave.time.to.decision")
+                .description("Time from a leave request to its manual approval or rejection")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofSeconds(1))
+                .maximumExpectedValue(Duration.ofDays(90))
+                .register(registry);
+        deadlineReminders = Counter.builder("leave.deadline.reminders")
+                .description("Reminders for leave requests waiting for manager approval")
+                .register(registry);
+        for (LeaveDeadlineScheduler.Escalation action : LeaveDeadlineScheduler.Escalation.values()) {
+            deadlineEscalations.put(action, Counter.builder("leave.deadline.escalations")
+                    .description("Leave requests still pending at their approval deadline")
+                    .tag("action", action.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Creates metrics kept in a private registry, for services created outside Spring
+     */
+    public static LeaveMetrics standalone() {
+        return new LeaveMetrics(new SimpleMeterRegistry());
+    }
+
+    private Counter decisions(String outcome) {
+        return Counter.builder("leave.decisions")
+                .description("Leave request decisions by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Publishes the number of pending requests
+     */
+    void bindPending(Supplier<Number> pending) {
+        Gauge.builder("leave.pending", pending)
+                .description("Leave requests waiting for a decision")
+                .register(registry);
+    }
+
+    /**
+     * Publishes the number of approval deadline timers
+     */
+    void bindDeadlineTimers(Supplier<Number> timers) {
+        Gauge.builder("leave.deadline.timers", timers)
+                .description("Approval deadline timers waiting to fire")
+                .register(registry);
+    }
+
+    void deadlineReminder() {
+        deadlineReminders.increment();
+    }
+
+    void deadlineEscalation(LeaveDeadlineScheduler.Escalation action) {
+        deadlineEscalations.get(action).increment();
+    }
+
+    /**
+     * Records an operation started at the given {@link System#nanoTime()}
+     */
+    void record(Operation operation, long startNanos) {
+        operations.get(operation).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void created(LeaveStatus status) {
+        if (status == LeaveStatus.APPROVED) {
+            autoApproved.increment();
+        }
+    }
+
+    /**
+     * Records a manual decision that changed the request's status
+     */
+    void decided(LeaveRecord decided, long decidedAtMillis) {
+        (decided.status() == LeaveStatus.APPROVED ? approved : rejected).increment();
+        if (decided.requestDateMillis() != LeaveRecord.NO_DATE) {
+            timeToDecision.record(Math.max(0, decidedAtMillis - decided.requestDateMillis()), TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.beans.BeanUtils;
+
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+import com.jrrd.jbpmdemo.process.BpmnProcessParser;
+import com.jrrd.jbpmdemo.process.ProcessDefinition;
+import com.jrrd.jbpmdemo.process.ProcessEngine;
+import com.jrrd.jbpmdemo.process.ProcessInstance;
+
+/**
+ * Runs leave requests through the {@code leave.bpmn} process: submission
+ * goes through the approval gateway to either the auto-approve service task
+ * or the manager approval user task. Short requests are auto-approved unless
+ * they would leave the employee's team short-handed.
+ */
+public class LeaveProcess {
+
+    public static final String DEFAULT_RESOURCE = "leave.bpmn";
+    public static final String SUBMIT_TASK = "submitLeaveRequestTask";
+    public static final String MANAGER_APPROVAL_TASK = "managerApprovalTask";
+
+    private final ProcessEngine engine;
+    private final ProcessDefinition definition;
+    private final int employeeNameSlot;
+    private final int daysRequestedSlot;
+    private final int approvedSlot;
+
+    public LeaveProcess(ProcessEngine engine, ProcessDefinition definition) {
+        this.engine = engine;
+        this.definition = definition;
+        this.employeeNameSlot = definition.variableSlot("employeeName");
+        this.daysRequestedSlot = definition.variableSlot("daysRequested");
+        this.approvedSlot = definition.variableSlot("approved");
+    }
+
+    /**
+     * Loads the process from the classpath, creating service task beans with
+     * their no-arg constructor. Used when running outside a Spring context.
+     *
+     * @return The leave process
+     */
+    public static LeaveProcess createDefault() {
+        return load(DEFAULT_RESOURCE, BeanUtils::instantiateClass);
+    }
+
+    static LeaveProcess load(String resource, Function<Class<?>, Object> beanLookup) {
+        try (InputStream bpmn = LeaveProcess.class.getClassLoader().getResourceAsStream(resource)) {
+            if (bpmn == null) {
+                throw new IllegalArgumentException("Process resource not found: " + resource);
+            }
+            return new LeaveProcess(new ProcessEngine(), new BpmnProcessParser(beanLookup).parse(bpmn));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read process resource " + resource, e);
+        }
+    }
+
+    /**
+     * Starts a process instance and completes the submission task
+     *
+     * @param employeeName The employee requesting leave
+     * @param daysRequested Number of days requested
+     * @return APPROVED if the process auto-approved the request, PENDING if it waits for a manager
+     */
+    public LeaveStatus submit(String employeeName, int daysRequested) {
+        return submit(employeeName, daysRequested, false);
+    }
+
+    /**
+     * Starts a process instance and completes the submission task
+     *
+     * @param employeeName The employee requesting leave
+     * @param daysRequested Number of days requested
+     * @param coverageExceeded Whether too many of the employee's team would be absent
+     * @return APPROVED if the process auto-approved the request, PENDING if it waits for a manager
+     */
+    public LeaveStatus submit(String employeeName, int daysRequested, boolean coverageExceeded) {
+        ProcessInstance instance = engine.start(definition);
+        engine.completeTask(instance, SUBMIT_TASK, variables(employeeName, daysRequested, coverageExceeded));
+        if (!instance.isCompleted()) {
+            return LeaveStatus.PENDING;
+        }
+        return Boolean.TRUE.equals(instance.getVariable(approvedSlot)) ? LeaveStatus.APPROVED : LeaveStatus.REJECTED;
+    }
+
+    /**
+     * Completes the manager approval task of a pending request
+     *
+     * @param employeeName The employee requesting leave
+     * @param daysRequested Number of days requested
+     * @param approved The manager's decision
+     * @return The resulting status
+     */
+    public LeaveStatus decide(String employeeName, Integer daysRequested, boolean approved) {
+        ProcessInstance instance = engine.resume(definition, MANAGER_APPROVAL_TASK);
+        instance.setVariable(employeeNameSlot, employeeName);
+        instance.setVariable(daysRequestedSlot, daysRequested);
+        engine.completeTask(instance, MANAGER_APPROVAL_TASK, Map.of("approved", approved));
+        return Boolean.TRUE.equals(instance.getVariable(approvedSlot)) ? LeaveStatus.APPROVED : LeaveStatus.REJECTED;
+    }
+
+    public ProcessDefinition getDefinition() {
+        return definition;
+    }
+
+    private static Map<String, Object> variables(String employeeName, int daysRequested, boolean coverageExceeded) {
+        // Map.of rejects null values, and a missing name is still a valid submission
+        return employeeName == null
+                ? Map.of("daysRequested", daysRequested, "coverageExceeded", coverageExceeded)
+                : Map.of("employeeName", employeeName, "daysRequested", daysRequested,
+                        "coverageExceeded", coverageExceeded);
+    }
+}
@@ -0,0 +1,194 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+/**
+ * Secondary indexes over leave request IDs: a hash index on employee name,
+ * one set per status and a sorted index on request date.
+ *
+ * Indexes hold IDs only; callers resolve them through the store and should
+ * re-check the status, since a concurrent transition may briefly leave an ID
+ * in two status sets.
+ *
+ * Requests the store indexes itself are left out, so that their entries do
+ * not stay on the heap; callers {@linkplain #merge merge} them in from the
+ * store, and {@linkplain #remove remove} a request once the store indexes it.
+ */
+final class LeaveRequestIndex {
+
+    /**
+     * Entry of the request date index, ordered by date and then by ID so that
+     * requests created within the same instant stay distinct. The date is kept
+     * in epoch milliseconds like in {@link LeaveRecord}, and the ID instance is
+     * the one held by the store.
+     */
+    record DateKey(long requestDate, LeaveRequestId id) implements Comparable<DateKey> {
+
+        static final LeaveRequestId LOWEST_ID = new LeaveRequestId(0, 0);
+        static final DateKey FIRST = new DateKey(Long.MIN_VALUE, LOWEST_ID);
+
+        DateKey(LocalDateTime requestDate, LeaveRequestId id) {
+            this(LeaveRecord.toEpochMilli(requestDate), id);
+        }
+
+        @Override
+        public int compareTo(DateKey other) {
+            int byDate = Long.compare(requestDate, other.requestDate);
+            return byDate != 0 ? byDate : id.compareTo(other.id);
+        }
+
+        /**
+         * Encodes this key as an opaque, URL-safe pagination cursor
+         */
+        String toCursor() {
+            String raw = LeaveRecord.toDateTime(requestDate) + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static DateKey fromCursor(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Invalid cursor: " + cursor);
+                }
+                return new DateKey(LocalDateTime.parse(raw.substring(0, separator)), LeaveRequestId.parse(raw.substring(separator + 1)));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+        }
+    }
+
+    private final Map<String, Set<LeaveRequestId>> byEmployee = new ConcurrentHashMap<>();
+    private final Map<LeaveStatus, Set<LeaveRequestId>> byStatus = new EnumMap<>(LeaveStatus.class);
+    private final NavigableSet<DateKey> byRequestDate = new ConcurrentSkipListSet<>();
+
+    LeaveRequestIndex() {
+        for (LeaveStatus status : LeaveStatus.values()) {
+            byStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    void add(LeaveRecord request) {
+        LeaveRequestId id = request.id();
+        if (request.employeeName() != null) {
+            byEmployee.computeIfAbsent(request.employeeName(), name -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        if (request.status() != null) {
+            byStatus.get(request.status()).add(id);
+        }
+        if (request.requestDateMillis() != LeaveRecord.NO_DATE) {
+            byRequestDate.add(new DateKey(request.requestDateMillis(), id));
+        }
+    }
+
+    /**
+     * Removes a request from every index
+     */
+    void remove(LeaveRecord request) {
+        LeaveRequestId id = request.id();
+        if (request.employeeName() != null) {
+            byEmployee(request.employeeName()).remove(id);
+        }
+        for (Set<LeaveRequestId> ids : byStatus.values()) {
+            ids.remove(id);
+        }
+        byRequestDate.remove(new DateKey(request.requestDateMillis(), id));
+    }
+
+    void updateStatus(LeaveRequestId id, LeaveStatus status) {
+        byStatus.get(status).add(id);
+        for (Map.Entry<LeaveStatus, Set<LeaveRequestId>> entry : byStatus.entrySet()) {
+            if (entry.getKey() != status) {
+                entry.getValue().remove(id);
+            }
+        }
+    }
+
+    Set<LeaveRequestId> byEmployee(String employeeName) {
+        return byEmployee.getOrDefault(employeeName, Collections.emptySet());
+    }
+
+    Set<LeaveRequestId> byStatus(LeaveStatus status) {
+        return byStatus.get(status);
+    }
+
+    /**
+     * Gets the requests from a key up to a request date, in (request date, ID) order
+     *
+     * @param from The first key
+     * @param inclusive Whether the first key itself is included
+     * @param toDate Request date in epoch milliseconds before which the range ends
+     */
+    NavigableSet<DateKey> range(DateKey from, boolean inclusive, long toDate) {
+        return byRequestDate.subSet(from, inclusive, new DateKey(toDate, DateKey.LOWEST_ID), false);
+    }
+
+    /**
+     * Merges two sequences of requests in (request date, ID) order into one,
+     * keeping a request found in both once
+     */
+    static Iterator<LeaveRecord> merge(Iterator<LeaveRecord> first, Iterator<LeaveRecord> second) {
+        return new Iterator<>() {
+            private LeaveRecord nextOfFirst;
+            private LeaveRecord nextOfSecond;
+
+            @Override
+            public boolean hasNext() {
+                if (nextOfFirst == null && first.hasNext()) {
+                    nextOfFirst = first.next();
+                }
+                if (nextOfSecond == null && second.hasNext()) {
+                    nextOfSecond = second.next();
+                }
+                return nextOfFirst != null || nextOfSecond != null;
+            }
+
+            @Override
+            public LeaveRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int order = nextOfFirst == null ? 1 : nextOfSecond == null ? -1 : compare(nextOfFirst, nextOfSecond);
+                LeaveRecord next = order <= 0 ? nextOfFirst : nextOfSecond;
+                if (order <= 0) {
+                    nextOfFirst = null;
+                }
+                if (order >= 0) {
+                    // A request moving to the store may briefly be in both
+                    nextOfSecond = null;
+                }
+                return next;
+            }
+        };
+    }
+
+    private static int compare(LeaveRecord first, LeaveRecord second) {
+        int byDate = Long.compare(first.requestDateMillis(), second.requestDateMillis());
+        return byDate != 0 ? byDate : first.id().compareTo(second.id());
+    }
+
+    /**
+     * Rounds a bound up to the millisecond precision of the stored dates
+     */
+    static long ceilingMillis(LocalDateTime dateTime) {
+        long millis = LeaveRecord.toEpochMilli(dateTime);
+        return dateTime.getNano() % 1_000_000 == 0 ? millis : millis + 1;
+    }
+}
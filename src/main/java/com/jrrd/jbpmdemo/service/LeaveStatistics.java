@@ -0,0 +1,180 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jrrd.jbpmdemo.dto.EmployeeLeaveStats;
+import com.jrrd.jbpmdemo.dto.LeaveStats;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+import com.jrrd.jbpmdemo.store.LeaveRequestStore;
+
+/**
+ * Read projections for reporting, maintained incrementally from the
+ * service's lifecycle events instead of scanning the store per query.
+ *
+ * Counters are {@link LongAdder}s, so concurrent writers update separate
+ * cells instead of contending on one value, and every query is a map lookup
+ * plus a sum over the adder's cells. Decisions always start from
+ * {@code PENDING}, so a decided event moves one request out of the pending
+ * counters and into the decided ones.
+ *
+ * {@link #rebuild()} recomputes the projections from the store. It replaces
+ * them at once at the end of a scan; requests created or decided during the
+ * scan may be counted against the old projections only, so it is meant for
+ * startup and repair rather than as a routine task.
+ */
+public class LeaveStatistics implements LeaveLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveStatistics.class);
+    private static final LeaveStatus[] STATUSES = LeaveStatus.values();
+
+    private final LeaveRequestStore leaveRequests;
+    private final Function<String, String> departmentOf;
+    private volatile Projections projections;
+
+    /**
+     * Creates the projections and builds them from the store
+     *
+     * @param service The service whose lifecycle events update the projections
+     * @param leaveRequests The store the projections are rebuilt from
+     * @param departmentOf Department of an employee
+     */
+    public LeaveStatistics(SimpleLeaveRequestService service, LeaveRequestStore leaveRequests,
+                           Function<String, String> departmentOf) {
+        this.leaveRequests = leaveRequests;
+        this.departmentOf = departmentOf;
+        this.projections = new Projections();
+        service.addListener(this);
+        rebuild();
+    }
+
+    @Override
+    public void created(LeaveRecord request) {
+        projections.add(request);
+    }
+
+    @Override
+    public void decided(LeaveRecord request) {
+        Projections current = projections;
+        current.byStatus[LeaveStatus.PENDING.ordinal()].decrement();
+        current.pendingByDepartment(departmentOf.apply(request.employeeName())).decrement();
+        current.add(request);
+    }
+
+    /**
+     * Recomputes the projections from the store
+     *
+     * @return Number of requests counted
+     */
+    public long rebuild() {
+        long start = System.nanoTime();
+        Projections rebuilt = new Projections();
+        long count = 0;
+        for (LeaveRecord request : leaveRequests.findAll()) {
+            rebuilt.add(request);
+            count++;
+        }
+        projections = rebuilt;
+        logger.info("Rebuilt leave statistics from {} requests in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+
+    /**
+     * Gets the number of requests per status
+     */
+    public LeaveStats getStats() {
+        Projections current = projections;
+        return new LeaveStats(current.count(LeaveStatus.PENDING), current.count(LeaveStatus.APPROVED),
+                current.count(LeaveStatus.REJECTED));
+    }
+
+    /**
+     * Gets the number of pending requests of a department
+     */
+    public long getPendingCount(String department) {
+        LongAdder pending = projections.pendingByDepartment.get(department);
+        return pending == null ? 0 : pending.sum();
+    }
+
+    /**
+     * Gets the number of pending requests of every department with pending requests
+     *
+     * @return Counts by department name, in name order
+     */
+    public Map<String, Long> getPendingCountByDepartment() {
+        Map<String, Long> counts = new TreeMap<>();
+        projections.pendingByDepartment.forEach((department, pending) -> {
+            long sum = pending.sum();
+            if (sum > 0) {
+                counts.put(department, sum);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Gets the approved leave of an employee in a year, by approval date
+     */
+    public EmployeeLeaveStats getApprovedLeave(String employeeName, int year) {
+        Approved approved = projections.approvedByEmployeeYear.get(new EmployeeYear(employeeName, year));
+        return approved == null
+                ? new EmployeeLeaveStats(employeeName, year, 0, 0)
+                : new EmployeeLeaveStats(employeeName, year, approved.requests.sum(), approved.days.sum());
+    }
+
+    private record EmployeeYear(String employeeName, int year) {
+    }
+
+    private static final class Approved {
+        final LongAdder requests = new LongAdder();
+        final LongAdder days = new LongAdder();
+    }
+
+    /**
+     * One generation of the projections, replaced as a whole by a rebuild
+     */
+    private final class Projections {
+        final LongAdder[] byStatus = new LongAdder[STATUSES.length];
+        final Map<String, LongAdder> pendingByDepartment = new ConcurrentHashMap<>();
+        final Map<EmployeeYear, Approved> approvedByEmployeeYear = new ConcurrentHashMap<>();
+
+        Projections() {
+            for (int i = 0; i < byStatus.length; i++) {
+                byStatus[i] = new LongAdder();
+            }
+        }
+
+        void add(LeaveRecord request) {
+            LeaveStatus status = request.status();
+            if (status == null) {
+                return;
+            }
+            byStatus[status.ordinal()].increment();
+            if (status == LeaveStatus.PENDING) {
+                pendingByDepartment(departmentOf.apply(request.employeeName())).increment();
+            } else if (status == LeaveStatus.APPROVED && request.approvalDateMillis() != LeaveRecord.NO_DATE
+                    && request.daysRequestedValue() != LeaveRecord.NO_DAYS) {
+                Approved approved = approvedByEmployeeYear.computeIfAbsent(
+                        new EmployeeYear(request.employeeName(), request.approvalDate().getYear()),
+                        key -> new Approved());
+                approved.requests.increment();
+                approved.days.add(request.daysRequestedValue());
+            }
+        }
+
+        LongAdder pendingByDepartment(String department) {
+            return pendingByDepartment.computeIfAbsent(department, key -> new LongAdder());
+        }
+
+        long count(LeaveStatus status) {
+            return byStatus[status.ordinal()].sum();
+        }
+    }
+}
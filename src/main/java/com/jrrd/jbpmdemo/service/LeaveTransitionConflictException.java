@@ -0,0 +1,29 @@
+package com.jrrd.jbpmdemo.service;
+
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+/**
+ * Thrown when a decision contradicts the one a leave request already has,
+ * e.g. rejecting an approved request.
+ */
+public class LeaveTransitionConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final LeaveStatus currentStatus;
+    private final LeaveStatus requestedStatus;
+
+    public LeaveTransitionConflictException(String id, LeaveStatus currentStatus, LeaveStatus requestedStatus) {
+        super("Leave request " + id + " is already " + currentStatus + " and cannot become " + requestedStatus);
+        this.currentStatus = currentStatus;
+        this.requestedStatus = requestedStatus;
+    }
+
+    public LeaveStatus getCurrentStatus() {
+        return currentStatus;
+    }
+
+    public LeaveStatus getRequestedStatus() {
+        return requestedStatus;
+    }
+}
@@ -0,0 +1,33 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks a random sample of events to log at a higher level, so per-request
+ * log lines stay representative without costing I/O on every request.
+ *
+ * Sampling uses the thread-local random generator: no shared counter, no
+ * contention and no allocation.
+ */
+final class LogSampler {
+
+    private final int rate;
+
+    /**
+     * @param rate On average one in {@code rate} events is sampled
+     */
+    LogSampler(int rate) {
+        if (rate < 1) {
+            throw new IllegalArgumentException("Sample rate must be positive: " + rate);
+        }
+        this.rate = rate;
+    }
+
+    boolean sample() {
+        return rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0;
+    }
+
+    int rate() {
+        return rate;
+    }
+}
@@ -0,0 +1,294 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jrrd.jbpmdemo.dto.ManagerTask;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequest;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+/**
+ * Inboxes of open {@value LeaveProcess#MANAGER_APPROVAL_TASK} tasks, one per
+ * manager group.
+ *
+ * Each group keeps its unclaimed tasks in a concurrent skip list ordered
+ * oldest request first, then most days requested, so the next tasks are
+ * found in O(log n) of the group's open tasks however many requests are
+ * stored. A manager claims tasks with a time-bounded lease; claimed tasks
+ * leave the queue until they are decided, released, or their lease expires.
+ * Expired leases are reclaimed, in expiry order, whenever the group's inbox
+ * is read or claimed from.
+ *
+ * Tasks follow the service's lifecycle events and are rebuilt from the
+ * pending requests on startup. Times are milliseconds of the local date-time
+ * read as UTC, the representation used by {@link LeaveRecord}.
+ */
+public class ManagerTaskInbox implements LeaveLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ManagerTaskInbox.class);
+
+    private static final Comparator<Task> PRIORITY = Comparator
+            .comparingLong((Task task) -> task.request.requestDateMillis())
+            .thenComparing(Comparator.comparingInt((Task task) -> task.request.daysRequestedValue()).reversed())
+            .thenComparing(task -> task.request.id());
+
+    private static final Comparator<Lease> EXPIRY = Comparator
+            .comparingLong((Lease lease) -> lease.expires)
+            .thenComparing(lease -> lease.task.request.id());
+
+    private final Function<LeaveRecord, String> router;
+    private final long leaseMillis;
+    private final LongSupplier clock;
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+    private final Map<LeaveRequestId, Task> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the inbox and fills it with the pending requests of the service
+     *
+     * @param service The service whose pending requests become tasks
+     * @param router Picks the manager group of a request
+     * @param lease How long a claim lasts unless renewed
+     */
+    public ManagerTaskInbox(SimpleLeaveRequestService service, Function<LeaveRecord, String> router, Duration lease) {
+        this(service, router, lease, () -> LeaveRecord.toEpochMilli(LocalDateTime.now()));
+    }
+
+    ManagerTaskInbox(SimpleLeaveRequestService service, Function<LeaveRecord, String> router, Duration lease,
+                     LongSupplier clock) {
+        if (lease.isZero() || lease.isNegative()) {
+            throw new IllegalArgumentException("Lease must be positive: " + lease);
+        }
+        this.router = router;
+        this.leaseMillis = lease.toMillis();
+        this.clock = clock;
+        // Listen first, so requests created while rebuilding are not missed
+        service.addListener(this);
+        for (LeaveRequest request : service.getLeaveRequestsByStatus(LeaveStatus.PENDING)) {
+            created(new LeaveRecord(request.getRequestId(), request.getEmployeeName(), request.getDaysRequested(),
+                    request.getStatus(), request.getRequestDate(), request.getApprovalDate()));
+        }
+        logger.info("Manager task inbox holds {} open tasks in {} groups", tasks.size(), groups.size());
+    }
+
+    @Override
+    public void created(LeaveRecord request) {
+        if (request.status() != LeaveStatus.PENDING) {
+            return;
+        }
+        Task task = new Task(request, router.apply(request));
+        // Create the group before publishing the task, so a concurrent decision always finds it
+        Group group = groups.computeIfAbsent(task.group, name -> new Group());
+        if (tasks.putIfAbsent(request.id(), task) == null) {
+            synchronized (task) {
+                // A decision may already have taken the task back out
+                if (!task.closed) {
+                    group.available.add(task);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void decided(LeaveRecord request) {
+        Task task = tasks.remove(request.id());
+        if (task == null) {
+            return;
+        }
+        Group group = groups.get(task.group);
+        synchronized (task) {
+            task.closed = true;
+            group.available.remove(task);
+            if (task.lease != null) {
+                group.leased.remove(task.lease);
+                task.lease = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the next unclaimed tasks of a group without claiming them
+     *
+     * @param group The manager group
+     * @param limit Maximum number of tasks
+     * @return Tasks in priority order
+     */
+    public List<ManagerTask> next(String group, int limit) {
+        Group inbox = groups.get(group);
+        if (inbox == null) {
+            return List.of();
+        }
+        reclaimExpired(inbox);
+        List<ManagerTask> next = new ArrayList<>(Math.min(limit, 64));
+        Iterator<Task> iterator = inbox.available.iterator();
+        while (next.size() < limit && iterator.hasNext()) {
+            next.add(iterator.next().view());
+        }
+        return next;
+    }
+
+    /**
+     * Claims the next unclaimed tasks of a group for a manager
+     *
+     * @param group The manager group
+     * @param manager The manager claiming the tasks
+     * @param limit Maximum number of tasks
+     * @return The claimed tasks in priority order, with their lease
+     */
+    public List<ManagerTask> claim(String group, String manager, int limit) {
+        Group inbox = groups.get(group);
+        if (inbox == null) {
+            return List.of();
+        }
+        reclaimExpired(inbox);
+        List<ManagerTask> claimed = new ArrayList<>(Math.min(limit, 64));
+        long expires = clock.getAsLong() + leaseMillis;
+        Task task;
+        while (claimed.size() < limit && (task = inbox.available.pollFirst()) != null) {
+            synchronized (task) {
+                // Decided after it was polled
+                if (task.closed) {
+                    continue;
+                }
+                task.lease = new Lease(task, manager, expires);
+                inbox.leased.put(task.lease, Boolean.TRUE);
+                claimed.add(task.view());
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} claimed {} tasks of {}", manager, claimed.size(), group);
+        }
+        return claimed;
+    }
+
+    /**
+     * Extends the lease of a claimed task by the lease duration from now
+     *
+     * @return The task with its new lease, or null if there is no open task with the ID
+     * @throws TaskLeaseConflictException if the manager does not hold the task's lease
+     */
+    public ManagerTask renew(String id, String manager) {
+        Task task = task(id);
+        if (task == null) {
+            return null;
+        }
+        Group group = groups.get(task.group);
+        synchronized (task) {
+            Lease lease = heldLease(task, id, manager);
+            group.leased.remove(lease);
+            task.lease = new Lease(task, manager, clock.getAsLong() + leaseMillis);
+            group.leased.put(task.lease, Boolean.TRUE);
+            return task.view();
+        }
+    }
+
+    /**
+     * Returns a claimed task to its group's queue
+     *
+     * @return The unclaimed task, or null if there is no open task with the ID
+     * @throws TaskLeaseConflictException if the manager does not hold the task's lease
+     */
+    public ManagerTask release(String id, String manager) {
+        Task task = task(id);
+        if (task == null) {
+            return null;
+        }
+        Group group = groups.get(task.group);
+        synchronized (task) {
+            group.leased.remove(heldLease(task, id, manager));
+            task.lease = null;
+            group.available.add(task);
+            return task.view();
+        }
+    }
+
+    /**
+     * Gets the number of open tasks, claimed or not
+     */
+    public int size() {
+        return tasks.size();
+    }
+
+    private Task task(String id) {
+        try {
+            return tasks.get(LeaveRequestId.parse(id));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Lease heldLease(Task task, String id, String manager) {
+        Lease lease = task.lease;
+        if (lease == null || !lease.manager.equals(manager) || lease.expires <= clock.getAsLong()) {
+            throw new TaskLeaseConflictException(id, manager);
+        }
+        return lease;
+    }
+
+    private void reclaimExpired(Group group) {
+        long now = clock.getAsLong();
+        Map.Entry<Lease, Boolean> first;
+        while ((first = group.leased.firstEntry()) != null && first.getKey().expires <= now) {
+            Lease lease = first.getKey();
+            if (group.leased.remove(lease) == null) {
+                continue;
+            }
+            Task task = lease.task;
+            synchronized (task) {
+                if (task.lease == lease && !task.closed) {
+                    task.lease = null;
+                    group.available.add(task);
+                    logger.debug("Lease of {} on task {} expired", lease.manager, task.request.id());
+                }
+            }
+        }
+    }
+
+    /**
+     * Inbox of one manager group
+     */
+    private static final class Group {
+        final ConcurrentSkipListSet<Task> available = new ConcurrentSkipListSet<>(PRIORITY);
+        final ConcurrentSkipListMap<Lease, Boolean> leased = new ConcurrentSkipListMap<>(EXPIRY);
+    }
+
+    /**
+     * Open approval task; lease and closed are guarded by the task's monitor
+     */
+    private static final class Task {
+        final LeaveRecord request;
+        final String group;
+        Lease lease;
+        boolean closed;
+
+        Task(LeaveRecord request, String group) {
+            this.request = request;
+            this.group = group;
+        }
+
+        ManagerTask view() {
+            Lease current = lease;
+            return new ManagerTask(request.id().toString(), request.employeeName(), request.daysRequested(),
+                    request.requestDate(), group,
+                    current == null ? null : current.manager,
+                    current == null ? null : LeaveRecord.toDateTime(current.expires));
+        }
+    }
+
+    private record Lease(Task task, String manager, long expires) {
+    }
+}
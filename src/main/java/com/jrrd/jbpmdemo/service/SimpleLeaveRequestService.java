@@ -1,26 +1,236 @@
 package com.jrrd.jbpmdemo.service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.jrrd.jbpmdemo.calendar.WorkingCalendar;
+import com.jrrd.jbpmdemo.calendar.WorkingCalendars;
+import com.jrrd.jbpmdemo.dto.BatchItemResult;
+import com.jrrd.jbpmdemo.dto.LeaveBalance;
+import com.jrrd.jbpmdemo.dto.LeaveRequestDTO;
+import com.jrrd.jbpmdemo.dto.LeaveRequestPage;
+import com.jrrd.jbpmdemo.id.IdGenerator;
+import com.jrrd.jbpmdemo.id.TimeOrderedIdGenerator;
+import com.jrrd.jbpmdemo.model.LeaveEvent;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
 import com.jrrd.jbpmdemo.model.LeaveRequest;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+import com.jrrd.jbpmdemo.store.InMemoryLeaveEventStore;
+import com.jrrd.jbpmdemo.store.InMemoryLeaveRequestStore;
+import com.jrrd.jbpmdemo.store.LeaveEventStore;
+import com.jrrd.jbpmdemo.store.LeaveMutation;
+import com.jrrd.jbpmdemo.store.LeaveRequestStore;
 
 /**
- * Simple service for managing leave requests without Kogito dependencies
+ * Simple service for managing leave requests without Kogito dependencies.
+ * Approval routing is driven by the leave process on the embedded engine.
+ *
+ * Every change is recorded as a {@link LeaveEvent} in the request's
+ * append-only history, which is the source of truth. A decision is checked
+ * against the state folded from the history inside the event store's atomic
+ * append for that request, so concurrent approve/reject calls on one request
+ * cannot both win and no lock is shared between requests. Only once its
+ * events are stored is a change applied to the request store, whose
+ * snapshots are derived from the history; on startup they are brought in
+ * line with it, so a failure between the two writes loses nothing.
+ *
+ * Requests draw on the employee's {@link LeaveBalanceLedger} for their leave
+ * year: their days are reserved before the request is stored and committed or
+ * released when it is decided. Requests naming their days are checked against
+ * the employee's {@link TeamCoverage} on submission, and go to a manager when
+ * the team would be short-handed, however short they are. Requests naming their days count
+ * them in working days of the employee's {@link WorkingCalendar}, so weekends
+ * and holidays inside a period are neither requested nor taken from the
+ * balance.
  */
 @Service
 public class SimpleLeaveRequestService {
 
     private static final Logger logger = LoggerFactory.getLogger(SimpleLeaveRequestService.class);
+    // Created requests are logged at DEBUG; one in 100 is also logged at INFO
+    private static final LogSampler CREATE_LOG = new LogSampler(100);
     
-    // In-memory storage for leave requests
-    private final Map<String, LeaveRequest> leaveRequests = new ConcurrentHashMap<>();
+    private final LeaveRequestStore leaveRequests;
+    private final LeaveEventStore leaveEvents;
+    private final LeaveProcess leaveProcess;
+    private final IdGenerator idGenerator;
+    private final LeaveMetrics metrics;
+    private final LeaveBalanceLedger balances;
+    private final TeamCoverage teamCoverage;
+    private final WorkingCalendars calendars;
+    private final LeaveRequestIndex index = new LeaveRequestIndex();
+    private final List<LeaveLifecycleListener> listeners = new CopyOnWriteArrayList<>();
+    
+    /**
+     * Creates a service backed by volatile in-memory stores, with the default
+     * process and no balance, team or holiday rules; see {@link #builder()}
+     */
+    public SimpleLeaveRequestService() {
+        this(new InMemoryLeaveRequestStore(), new InMemoryLeaveEventStore(), LeaveProcess.createDefault(),
+                new TimeOrderedIdGenerator(0), LeaveMetrics.standalone(), LeaveBalanceLedger.unlimited(),
+                TeamCoverage.disabled(), WorkingCalendars.weekendsOnly());
+    }
+    
+    @Autowired
+    public SimpleLeaveRequestService(LeaveRequestStore leaveRequests, LeaveEventStore leaveEvents,
+                                     LeaveProcess leaveProcess, IdGenerator idGenerator, LeaveMetrics metrics,
+                                     LeaveBalanceLedger balances, TeamCoverage teamCoverage,
+                                     WorkingCalendars calendars) {
+        this.leaveRequests = leaveRequests;
+        this.leaveEvents = leaveEvents;
+        this.leaveProcess = leaveProcess;
+        this.idGenerator = idGenerator;
+        this.metrics = metrics;
+        this.balances = balances;
+        this.teamCoverage = teamCoverage;
+        this.calendars = calendars;
+        restoreFromHistory();
+        // Rebuild secondary indexes, balances and team absences for requests restored by the store
+        for (LeaveRecord request : leaveRequests.findAll()) {
+            addToIndex(request);
+            balances.restore(request);
+            teamCoverage.restore(request);
+        }
+        metrics.bindPending(() -> index.byStatus(LeaveStatus.PENDING).size());
+    }
+
+    /**
+     * Starts a service built from the given parts; parts not set are those
+     * of {@link #SimpleLeaveRequestService()}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    /**
+     * Builder of a service, for wiring it outside of Spring
+     */
+    public static final class Builder {
+        private LeaveRequestStore leaveRequests = new InMemoryLeaveRequestStore();
+        private LeaveEventStore leaveEvents = new InMemoryLeaveEventStore();
+        private LeaveProcess leaveProcess;
+        private IdGenerator idGenerator = new TimeOrderedIdGenerator(0);
+        private LeaveMetrics metrics = LeaveMetrics.standalone();
+        private LeaveBalanceLedger balances = LeaveBalanceLedger.unlimited();
+        private TeamCoverage teamCoverage = TeamCoverage.disabled();
+        private WorkingCalendars calendars = WorkingCalendars.weekendsOnly();
+        
+        private Builder() {
+        }
+        
+        public Builder leaveRequests(LeaveRequestStore leaveRequests) {
+            this.leaveRequests = leaveRequests;
+            return this;
+        }
+        
+        public Builder leaveEvents(LeaveEventStore leaveEvents) {
+            this.leaveEvents = leaveEvents;
+            return this;
+        }
+        
+        public Builder leaveProcess(LeaveProcess leaveProcess) {
+            this.leaveProcess = leaveProcess;
+            return this;
+        }
+        
+        public Builder idGenerator(IdGenerator idGenerator) {
+            this.idGenerator = idGenerator;
+            return this;
+        }
+        
+        public Builder metrics(LeaveMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+        
+        public Builder balances(LeaveBalanceLedger balances) {
+            this.balances = balances;
+            return this;
+        }
+        
+        public Builder teamCoverage(TeamCoverage teamCoverage) {
+            this.teamCoverage = teamCoverage;
+            return this;
+        }
+        
+        public Builder calendars(WorkingCalendars calendars) {
+            this.calendars = calendars;
+            return this;
+        }
+        
+        public SimpleLeaveRequestService build() {
+            // The default process is only parsed if none was given
+            return new SimpleLeaveRequestService(leaveRequests, leaveEvents,
+                    leaveProcess != null ? leaveProcess : LeaveProcess.createDefault(), idGenerator, metrics,
+                    balances, teamCoverage, calendars);
+        }
+    }
+    
+    /**
+     * Brings the stored states in line with the histories they are derived
+     * from. States a history has moved past are replaced; requests stored
+     * without a history, such as ones imported from an older store, get one,
+     * as do decisions an older store holds but its history does not.
+     */
+    private void restoreFromHistory() {
+        int[] replaced = { 0 };
+        List<LeaveEvent> missing = new ArrayList<>();
+        leaveEvents.forEachState(state -> {
+            LeaveRecord stored = leaveRequests.findById(state.id());
+            if (stored != null && stored.status() == state.status()) {
+                return;
+            }
+            if (stored != null && stored.status().isFinal() && !state.status().isFinal()) {
+                missing.add(LeaveEvent.forState(stored).get(1));
+            } else {
+                leaveRequests.save(state, LeaveMutation.forStatus(state.status()));
+                replaced[0]++;
+            }
+        });
+        int recorded = 0;
+        for (LeaveRecord request : leaveRequests.findAll()) {
+            if (!leaveEvents.hasHistory(request.id())) {
+                missing.addAll(LeaveEvent.forState(request));
+                recorded++;
+            }
+        }
+        if (!missing.isEmpty()) {
+            leaveEvents.appendAll(missing);
+        }
+        if (replaced[0] > 0 || !missing.isEmpty()) {
+            logger.info("Restored {} leave requests from their history and recorded {} events for {} stored without one",
+                    replaced[0], missing.size(), recorded);
+        }
+    }
+    
+    /**
+     * Registers a listener for requests created and decided from now on
+     * 
+     * @param listener The listener
+     */
+    public void addListener(LeaveLifecycleListener listener) {
+        listeners.add(listener);
+    }
     
     /**
      * Creates and processes a new leave request
@@ -28,21 +238,212 @@ public class SimpleLeaveRequestService {
      * @param employeeName The employee requesting leave
      * @param daysRequested Number of days requested
      * @return ID of the created leave request
+     * @throws InsufficientLeaveBalanceException if the employee has fewer days left
      */
     public String createLeaveRequest(String employeeName, int daysRequested) {
-        logger.info("Creating leave request for {} with {} days", employeeName, daysRequested);
-        
-        // Create new request with auto-approval logic
-        LeaveRequest request = new LeaveRequest(employeeName, daysRequested);
-        String id = request.getId();
+        return createLeaveRequest(employeeName, daysRequested, null, null);
+    }
+    
+    /**
+     * Creates and processes a new leave request for a period
+     * 
+     * @param employeeName The employee requesting leave
+     * @param daysRequested Number of days requested; replaced by the working days between the dates when both are given
+     * @param startDate First day of leave, or null if not known
+     * @param endDate Last day of leave, or null to count {@code daysRequested} working days from the start
+     * @return ID of the created leave request
+     * @throws IllegalArgumentException if the period is incomplete or ends before it starts
+     * @throws InsufficientLeaveBalanceException if the employee has fewer days left
+     */
+    public String createLeaveRequest(String employeeName, int daysRequested, LocalDate startDate, LocalDate endDate) {
+        long start = System.nanoTime();
+        Period period = period(employeeName, daysRequested, startDate, endDate);
+        int startDay = period.startDay();
+        int endDay = period.endDay();
+        int days = period.days();
+        LocalDateTime now = LocalDateTime.now();
+        LeaveRequestId requestId = idGenerator.next();
         
-        // Store the request
-        leaveRequests.put(id, request);
+        // The leave process decides between auto-approval and manager approval,
+        // sending short requests to a manager as well when the team would be short-handed
+        boolean coverageExceeded = teamCoverage.admit(requestId, employeeName, startDay, endDay);
+        LeaveStatus status;
+        LeaveRecord request;
+        List<LeaveEvent> events;
+        LeaveRecord reserved = null;
+        try {
+            status = leaveProcess.submit(employeeName, days, coverageExceeded);
+            long requestDate = LeaveRecord.toEpochMilli(now);
+            events = LeaveEvent.forCreated(new LeaveRecord(requestId, employeeName, days, status, requestDate,
+                    status == LeaveStatus.APPROVED ? requestDate : LeaveRecord.NO_DATE, startDay, endDay), employeeName);
+            request = LeaveEvent.fold(null, events);
+            
+            // Record the request once its days are reserved
+            reserve(request);
+            reserved = request;
+            leaveEvents.appendAll(events);
+        } catch (RuntimeException e) {
+            if (reserved != null) {
+                release(reserved);
+            }
+            teamCoverage.remove(requestId, employeeName, startDay, endDay);
+            throw e;
+        }
+        // The history holds the request now; store the state derived from it
+        leaveRequests.save(request, LeaveMutation.CREATE);
+        String id = requestId.toString();
+        settle(request);
+        addToIndex(request);
+        metrics.created(status);
+        for (LeaveLifecycleListener listener : listeners) {
+            listener.created(request);
+        }
         
-        logger.info("Leave request created with ID: {} (approved: {})", id, request.getApproved());
+        if (CREATE_LOG.sample()) {
+            logger.info("Leave request created with ID: {} for {} ({} days, {}) [sampled 1/{}]",
+                    id, employeeName, days, status, CREATE_LOG.rate());
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("Leave request created with ID: {} for {} ({} days, {})", id, employeeName, days, status);
+        }
+        metrics.record(LeaveMetrics.Operation.CREATE, start);
         return id;
     }
     
+    /**
+     * Creates and processes several leave requests in one pass, persisting
+     * them with a single store flush
+     * 
+     * @param items The requests to create
+     * @return One result per item, in item order, carrying the new ID; items
+     *         exceeding the employee's balance fail with {@code INSUFFICIENT_BALANCE}
+     */
+    public List<BatchItemResult> createLeaveRequests(List<LeaveRequestDTO> items) {
+        long start = System.nanoTime();
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        List<LeaveRecord> created = new ArrayList<>(items.size());
+        List<LeaveEvent> events = new ArrayList<>(items.size());
+        long now = LeaveRecord.toEpochMilli(LocalDateTime.now());
+        for (LeaveRequestDTO item : items) {
+            String error = validate(item);
+            if (error != null) {
+                results.add(BatchItemResult.failed(null, BatchItemResult.Outcome.INVALID, null, error));
+                continue;
+            }
+            String employeeName = item.getEmployeeName();
+            Period period = null;
+            LeaveRequestId admitted = null;
+            LeaveRecord request;
+            List<LeaveEvent> requestEvents;
+            try {
+                period = period(employeeName, item.getDaysRequested(), item.getStartDate(), item.getEndDate());
+                LeaveRequestId requestId = idGenerator.next();
+                boolean coverageExceeded = teamCoverage.admit(requestId, employeeName, period.startDay(),
+                        period.endDay());
+                admitted = requestId;
+                LeaveStatus status = leaveProcess.submit(employeeName, period.days(), coverageExceeded);
+                requestEvents = LeaveEvent.forCreated(new LeaveRecord(requestId, employeeName, period.days(),
+                        status, now, status == LeaveStatus.APPROVED ? now : LeaveRecord.NO_DATE, period.startDay(),
+                        period.endDay()), employeeName);
+                request = LeaveEvent.fold(null, requestEvents);
+                reserve(request);
+            } catch (InsufficientLeaveBalanceException e) {
+                teamCoverage.remove(admitted, employeeName, period.startDay(), period.endDay());
+                results.add(BatchItemResult.failed(null, BatchItemResult.Outcome.INSUFFICIENT_BALANCE, null,
+                        e.getMessage()));
+                continue;
+            } catch (RuntimeException e) {
+                // Nothing of the batch is stored yet; give back what it holds
+                if (admitted != null) {
+                    teamCoverage.remove(admitted, employeeName, period.startDay(), period.endDay());
+                }
+                discard(created);
+                throw e;
+            }
+            created.add(request);
+            events.addAll(requestEvents);
+            results.add(BatchItemResult.ok(request.id().toString(), request.status()));
+        }
+        try {
+            leaveEvents.appendAll(events);
+        } catch (RuntimeException e) {
+            discard(created);
+            throw e;
+        }
+        leaveRequests.saveAll(created, LeaveMutation.CREATE);
+        for (LeaveRecord request : created) {
+            settle(request);
+            addToIndex(request);
+            metrics.created(request.status());
+            for (LeaveLifecycleListener listener : listeners) {
+                listener.created(request);
+            }
+        }
+        logger.info("Created {} of {} leave requests in batch", created.size(), items.size());
+        metrics.record(LeaveMetrics.Operation.CREATE_BATCH, start);
+        return results;
+    }
+    
+    /**
+     * Releases the balance reservations and coverage admissions of requests
+     * created in a batch that could not be stored
+     */
+    private void discard(List<LeaveRecord> created) {
+        for (LeaveRecord request : created) {
+            release(request);
+            teamCoverage.remove(request.id(), request.employeeName(), request.startDay(), request.endDay());
+        }
+    }
+    
+    private static String validate(LeaveRequestDTO item) {
+        if (item == null) {
+            return "Item is empty";
+        }
+        if (item.getEmployeeName() == null || item.getEmployeeName().isBlank()) {
+            return "employeeName is required";
+        }
+        if (item.getDaysRequested() < 0) {
+            return "daysRequested must not be negative";
+        }
+        if (item.getStartDate() == null && item.getEndDate() != null) {
+            return "endDate requires startDate";
+        }
+        if (item.getEndDate() != null && item.getEndDate().isBefore(item.getStartDate())) {
+            return "endDate must not be before startDate";
+        }
+        return null;
+    }
+    
+    /**
+     * Resolves the days of a request against the employee's working calendar:
+     * with both dates, the working days between them; with a start date only,
+     * the day on which {@code daysRequested} working days from it end; without
+     * dates, the days as requested and no period
+     */
+    private Period period(String employeeName, int daysRequested, LocalDate startDate, LocalDate endDate) {
+        if (startDate == null) {
+            if (endDate != null) {
+                throw new IllegalArgumentException("endDate requires startDate");
+            }
+            return new Period(LeaveRecord.NO_DAY, LeaveRecord.NO_DAY, daysRequested);
+        }
+        WorkingCalendar calendar = calendars.forEmployee(employeeName);
+        if (endDate == null) {
+            LocalDate end = calendar.endOfWorkingDays(startDate, Math.max(daysRequested, 1));
+            return new Period(LeaveRecord.toEpochDay(startDate), LeaveRecord.toEpochDay(end), daysRequested);
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        return new Period(LeaveRecord.toEpochDay(startDate), LeaveRecord.toEpochDay(endDate),
+                calendar.countWorkingDays(startDate, endDate));
+    }
+    
+    /**
+     * Days of leave as epoch days, and the working days they count for
+     */
+    private record Period(int startDay, int endDay, int days) {
+    }
+    
     /**
      * Gets a leave request by ID
      * 
@@ -50,10 +451,11 @@ public class SimpleLeaveRequestService {
      * @return The LeaveRequest or null if not found
      */
     public LeaveRequest getLeaveRequest(String id) {
-        if (id == null) {
-            return null;
-        }
-        return leaveRequests.get(id);
+        long start = System.nanoTime();
+        LeaveRequestId requestId = parseId(id);
+        LeaveRecord request = requestId == null ? null : leaveRequests.findById(requestId);
+        metrics.record(LeaveMetrics.Operation.GET, start);
+        return request == null ? null : request.toLeaveRequest();
     }
     
     /**
@@ -62,44 +464,482 @@ public class SimpleLeaveRequestService {
      * @return List of all leave requests
      */
     public List<LeaveRequest> getAllLeaveRequests() {
-        return new ArrayList<>(leaveRequests.values());
+        long start = System.nanoTime();
+        Collection<LeaveRecord> all = leaveRequests.findAll();
+        List<LeaveRequest> result = new ArrayList<>(all.size());
+        for (LeaveRecord request : all) {
+            result.add(request.toLeaveRequest());
+        }
+        metrics.record(LeaveMetrics.Operation.LIST, start);
+        return result;
+    }
+    
+    /**
+     * Gets the cursor of the page that continues after a request, as returned
+     * by {@link #getLeaveRequestPage(String, int)}; used to page through
+     * requests merged from several services
+     */
+    public static String cursorOf(LeaveRequest request) {
+        return new LeaveRequestIndex.DateKey(request.getRequestDate(), request.getRequestId()).toCursor();
+    }
+    
+    /**
+     * Gets one page of leave requests ordered by request date, then ID.
+     * The order is stable, so paging through with the returned cursor visits
+     * every request that existed when paging started exactly once.
+     * 
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit Maximum number of requests in the page
+     * @return The page and the cursor for the next one
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public LeaveRequestPage getLeaveRequestPage(String cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        long start = System.nanoTime();
+        Iterator<LeaveRecord> requests = cursor == null
+                ? byRequestDate(LeaveRequestIndex.DateKey.FIRST, true, Long.MAX_VALUE)
+                : byRequestDate(LeaveRequestIndex.DateKey.fromCursor(cursor), false, Long.MAX_VALUE);
+        List<LeaveRequest> items = new ArrayList<>(Math.min(limit, 256));
+        LeaveRecord last = null;
+        while (items.size() < limit && requests.hasNext()) {
+            last = requests.next();
+            items.add(last.toLeaveRequest());
+        }
+        String nextCursor = last != null && requests.hasNext()
+                ? new LeaveRequestIndex.DateKey(last.requestDateMillis(), last.id()).toCursor() : null;
+        metrics.record(LeaveMetrics.Operation.PAGE, start);
+        return new LeaveRequestPage(items, nextCursor);
+    }
+    
+    /**
+     * Streams all leave requests ordered by request date without copying them.
+     * Requests created while the stream is consumed may or may not be included.
+     * 
+     * @return Lazily resolved stream of leave requests
+     */
+    public Stream<LeaveRequest> streamLeaveRequests() {
+        Iterator<LeaveRecord> requests = byRequestDate(LeaveRequestIndex.DateKey.FIRST, true, Long.MAX_VALUE);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(requests,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .map(LeaveRecord::toLeaveRequest);
     }
     
     /**
-     * Approves a leave request
+     * Gets all leave requests of an employee
+     * 
+     * @param employeeName The employee name
+     * @return List of the employee's leave requests
+     */
+    public List<LeaveRequest> getLeaveRequestsByEmployee(String employeeName) {
+        if (employeeName == null) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        List<LeaveRequest> result = resolve(index.byEmployee(employeeName), null,
+                leaveRequests.findIndexedByEmployee(employeeName));
+        metrics.record(LeaveMetrics.Operation.BY_EMPLOYEE, start);
+        return result;
+    }
+    
+    /**
+     * Gets all leave requests with the given status
+     * 
+     * @param status The status to look for
+     * @return List of matching leave requests
+     */
+    public List<LeaveRequest> getLeaveRequestsByStatus(LeaveStatus status) {
+        long start = System.nanoTime();
+        List<LeaveRequest> result = resolve(index.byStatus(status), status, leaveRequests.findIndexedByStatus(status));
+        metrics.record(LeaveMetrics.Operation.BY_STATUS, start);
+        return result;
+    }
+    
+    /**
+     * Gets leave requests created in a time range, oldest first
+     * 
+     * @param from Start of the range (inclusive)
+     * @param to End of the range (exclusive)
+     * @return List of matching leave requests
+     */
+    public List<LeaveRequest> getLeaveRequestsByRequestDate(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        List<LeaveRequest> result = new ArrayList<>();
+        Iterator<LeaveRecord> requests = byRequestDate(new LeaveRequestIndex.DateKey(
+                LeaveRequestIndex.ceilingMillis(from), LeaveRequestIndex.DateKey.LOWEST_ID), true,
+                LeaveRequestIndex.ceilingMillis(to));
+        while (requests.hasNext()) {
+            result.add(requests.next().toLeaveRequest());
+        }
+        metrics.record(LeaveMetrics.Operation.BY_REQUEST_DATE, start);
+        return result;
+    }
+    
+    /**
+     * Approves a leave request. Approving an approved request changes nothing.
      * 
      * @param id The leave request ID
-     * @return true if the request was found and approved, false otherwise
+     * @return true if the request was found and is approved, false otherwise
+     * @throws LeaveTransitionConflictException if the request was already rejected
      */
     public boolean approveLeaveRequest(String id) {
-        if (id == null) {
+        return approveLeaveRequest(id, null);
+    }
+    
+    /**
+     * Approves a leave request on behalf of a manager
+     * 
+     * @param id The leave request ID
+     * @param actor Who approves, recorded in the history; null if unknown
+     * @return true if the request was found and is approved, false otherwise
+     * @throws LeaveTransitionConflictException if the request was already rejected
+     */
+    public boolean approveLeaveRequest(String id, String actor) {
+        return decide(id, LeaveStatus.APPROVED, LeaveMutation.APPROVE, LeaveMetrics.Operation.APPROVE, actor);
+    }
+    
+    /**
+     * Rejects a leave request. Rejecting a rejected request changes nothing.
+     * 
+     * @param id The leave request ID
+     * @return true if the request was found and is rejected, false otherwise
+     * @throws LeaveTransitionConflictException if the request was already approved
+     */
+    public boolean rejectLeaveRequest(String id) {
+        return rejectLeaveRequest(id, null);
+    }
+    
+    /**
+     * Rejects a leave request on behalf of a manager
+     * 
+     * @param id The leave request ID
+     * @param actor Who rejects, recorded in the history; null if unknown
+     * @return true if the request was found and is rejected, false otherwise
+     * @throws LeaveTransitionConflictException if the request was already approved
+     */
+    public boolean rejectLeaveRequest(String id, String actor) {
+        return decide(id, LeaveStatus.REJECTED, LeaveMutation.REJECT, LeaveMetrics.Operation.REJECT, actor);
+    }
+    
+    /**
+     * Records that a pending leave request was escalated. The request stays
+     * pending; a request is escalated once.
+     * 
+     * @param id The leave request ID
+     * @param actor Who escalated, recorded in the history
+     * @return true if the request was found pending and not yet escalated, and
+     *         the escalation recorded
+     */
+    public boolean escalateLeaveRequest(String id, String actor) {
+        long start = System.nanoTime();
+        try {
+            LeaveRequestId requestId = parseId(id);
+            if (requestId == null || isEscalated(requestId)) {
+                return false;
+            }
+            long at = LeaveRecord.toEpochMilli(LocalDateTime.now());
+            LeaveEvent escalated = leaveEvents.appendTransition(requestId, current ->
+                    current != null && current.status() == LeaveStatus.PENDING
+                            ? LeaveEvent.of(requestId, LeaveEvent.Type.ESCALATED, at, actor) : null);
+            return escalated != null;
+        } finally {
+            metrics.record(LeaveMetrics.Operation.ESCALATE, start);
+        }
+    }
+    
+    /**
+     * Checks whether the last event of a request's history is its escalation,
+     * i.e. it was escalated and is still waiting for a decision
+     */
+    boolean isEscalated(LeaveRequestId requestId) {
+        List<LeaveEvent> history = leaveEvents.history(requestId);
+        return !history.isEmpty() && history.get(history.size() - 1).getType() == LeaveEvent.Type.ESCALATED;
+    }
+    
+    /**
+     * Gets the history of a leave request
+     * 
+     * @param id The leave request ID
+     * @return Every event of the request, oldest first, or null if not found
+     */
+    public List<LeaveEvent> getLeaveRequestHistory(String id) {
+        long start = System.nanoTime();
+        LeaveRequestId requestId = parseId(id);
+        List<LeaveEvent> history = requestId == null ? List.of() : leaveEvents.history(requestId);
+        metrics.record(LeaveMetrics.Operation.HISTORY, start);
+        return history.isEmpty() ? null : history;
+    }
+    
+    /**
+     * Approves several leave requests in one pass, persisting the decisions
+     * with a single store flush. Unlike {@link #approveLeaveRequest(String)},
+     * conflicts are reported per item instead of thrown.
+     * 
+     * @param ids The leave request IDs
+     * @return One result per ID, in ID order
+     */
+    public List<BatchItemResult> approveLeaveRequests(List<String> ids) {
+        return approveLeaveRequests(ids, null);
+    }
+    
+    /**
+     * Approves several leave requests on behalf of a manager
+     * 
+     * @param ids The leave request IDs
+     * @param actor Who approves, recorded in the history; null if unknown
+     * @return One result per ID, in ID order
+     */
+    public List<BatchItemResult> approveLeaveRequests(List<String> ids, String actor) {
+        return decideAll(ids, LeaveStatus.APPROVED, LeaveMutation.APPROVE, LeaveMetrics.Operation.APPROVE_BATCH, actor);
+    }
+    
+    /**
+     * Rejects several leave requests in one pass, persisting the decisions
+     * with a single store flush. Conflicts are reported per item.
+     * 
+     * @param ids The leave request IDs
+     * @return One result per ID, in ID order
+     */
+    public List<BatchItemResult> rejectLeaveRequests(List<String> ids) {
+        return rejectLeaveRequests(ids, null);
+    }
+    
+    /**
+     * Rejects several leave requests on behalf of a manager
+     * 
+     * @param ids The leave request IDs
+     * @param actor Who rejects, recorded in the history; null if unknown
+     * @return One result per ID, in ID order
+     */
+    public List<BatchItemResult> rejectLeaveRequests(List<String> ids, String actor) {
+        return decideAll(ids, LeaveStatus.REJECTED, LeaveMutation.REJECT, LeaveMetrics.Operation.REJECT_BATCH, actor);
+    }
+    
+    private List<BatchItemResult> decideAll(List<String> ids, LeaveStatus decision, LeaveMutation mutation,
+                                            LeaveMetrics.Operation operation, String actor) {
+        long start = System.nanoTime();
+        List<LeaveRequestId> requestIds = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            requestIds.add(parseId(id));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // The transition sees every ID in order; conflicting requests get no event
+        List<LeaveRecord> current = new ArrayList<>(ids.size());
+        List<LeaveEvent> appended = leaveEvents.appendTransitions(requestIds, state -> {
+            current.add(state);
+            return state != null && state.status().canTransitionTo(decision)
+                    ? transition(state, decision, now, actor) : null;
+        });
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        Map<LeaveRequestId, LeaveEvent> events = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            LeaveRecord state = current.get(i);
+            LeaveEvent event = appended.get(i);
+            if (state == null) {
+                results.add(BatchItemResult.failed(ids.get(i), BatchItemResult.Outcome.NOT_FOUND, null,
+                        "Leave request not found"));
+            } else if (event != null) {
+                events.put(event.requestId(), event);
+                results.add(BatchItemResult.ok(ids.get(i), event.applyTo(state).status()));
+            } else if (state.status() == decision) {
+                results.add(BatchItemResult.ok(ids.get(i), state.status()));
+            } else {
+                results.add(BatchItemResult.failed(ids.get(i), BatchItemResult.Outcome.CONFLICT, state.status(),
+                        "Leave request is already " + state.status()));
+            }
+        }
+        // The history holds the decisions now; store the states derived from them
+        List<LeaveRecord> decided = events.isEmpty() ? List.of() : leaveRequests.updateAll(
+                new ArrayList<>(events.keySet()), mutation, request -> events.get(request.id()).applyTo(request));
+        long decidedAt = LeaveRecord.toEpochMilli(now);
+        for (LeaveRecord request : decided) {
+            if (request == null) {
+                continue;
+            }
+            // Decisions are final, so index updates of one request cannot be reordered
+            updateIndex(request);
+            settle(request);
+            metrics.decided(request, decidedAt);
+            for (LeaveLifecycleListener listener : listeners) {
+                listener.decided(request);
+            }
+        }
+        metrics.record(operation, start);
+        return results;
+    }
+    
+    private boolean decide(String id, LeaveStatus decision, LeaveMutation mutation, LeaveMetrics.Operation operation,
+                           String actor) {
+        long start = System.nanoTime();
+        LeaveRequestId requestId = parseId(id);
+        if (requestId == null) {
+            metrics.record(operation, start);
             return false;
         }
-        LeaveRequest request = leaveRequests.get(id);
-        if (request != null) {
-            request.setApproved(true);
-            request.setApprovalDate(java.time.LocalDateTime.now());
-            return true;
+        LocalDateTime now = LocalDateTime.now();
+        boolean[] found = { false };
+        LeaveRecord updated;
+        try {
+            LeaveEvent event = leaveEvents.appendTransition(requestId, current -> {
+                if (current == null) {
+                    return null;
+                }
+                found[0] = true;
+                if (!current.status().canTransitionTo(decision)) {
+                    throw new LeaveTransitionConflictException(id, current.status(), decision);
+                }
+                return transition(current, decision, now, actor);
+            });
+            if (event == null) {
+                // Unknown, or already decided this way
+                return found[0];
+            }
+            // The history holds the decision now; store the state derived from it
+            updated = leaveRequests.update(requestId, mutation, event::applyTo);
+        } finally {
+            metrics.record(operation, start);
+        }
+        if (updated == null) {
+            return false;
         }
-        return false;
+        // Decisions are final, so index updates of one request cannot be reordered
+        updateIndex(updated);
+        settle(updated);
+        metrics.decided(updated, LeaveRecord.toEpochMilli(now));
+        for (LeaveLifecycleListener listener : listeners) {
+            listener.decided(updated);
+        }
+        return true;
     }
     
     /**
-     * Rejects a leave request
+     * Gets the leave balance of an employee in the current leave year
      * 
-     * @param id The leave request ID
-     * @return true if the request was found and rejected, false otherwise
+     * @param employeeName The employee name
+     * @return Days reserved, used and left of the employee's allowance
      */
-    public boolean rejectLeaveRequest(String id) {
+    public LeaveBalance getLeaveBalance(String employeeName) {
+        return balances.balance(employeeName);
+    }
+    
+    /**
+     * Gets the leave balance of an employee in a leave year
+     * 
+     * @param employeeName The employee name
+     * @param year The leave year: requests count in the year their leave starts,
+     *             or the year they were made if they name no dates
+     * @return Days reserved, used and left of the employee's allowance for that year
+     */
+    public LeaveBalance getLeaveBalance(String employeeName, int year) {
+        return balances.balance(employeeName, year);
+    }
+    
+    private void reserve(LeaveRecord request) {
+        balances.reserve(request.employeeName(), LeaveBalanceLedger.leaveYear(request), request.daysRequestedValue());
+    }
+    
+    private void release(LeaveRecord request) {
+        balances.release(request.employeeName(), LeaveBalanceLedger.leaveYear(request), request.daysRequestedValue());
+    }
+    
+    /**
+     * Commits or releases the days reserved for a request once it is approved
+     * or rejected; rejected requests also free their days in the team
+     */
+    private void settle(LeaveRecord request) {
+        if (request.status() == LeaveStatus.APPROVED) {
+            balances.commit(request.employeeName(), LeaveBalanceLedger.leaveYear(request), request.daysRequestedValue());
+        } else if (request.status() == LeaveStatus.REJECTED) {
+            release(request);
+            teamCoverage.remove(request.id(), request.employeeName(), request.startDay(), request.endDay());
+        }
+    }
+    
+    /**
+     * Gets the event of an allowed decision, or null if repeating the current
+     * decision changes nothing
+     */
+    private LeaveEvent transition(LeaveRecord current, LeaveStatus decision, LocalDateTime now, String actor) {
+        if (current.status() == decision) {
+            return null;
+        }
+        // Pending requests wait in the manager approval task of the process
+        LeaveStatus status = leaveProcess.decide(current.employeeName(), current.daysRequested(),
+                decision == LeaveStatus.APPROVED);
+        return LeaveEvent.forDecision(current.id(), status, LeaveRecord.toEpochMilli(now), actor);
+    }
+    
+    /**
+     * Parses an ID received from a client; malformed IDs cannot match any request
+     */
+    private static LeaveRequestId parseId(String id) {
         if (id == null) {
-            return false;
+            return null;
+        }
+        try {
+            return LeaveRequestId.parse(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Resolves the IDs of an index and adds the matching requests the store
+     * indexes itself
+     */
+    private List<LeaveRequest> resolve(Collection<LeaveRequestId> ids, LeaveStatus expectedStatus,
+                                       Iterator<LeaveRecord> indexed) {
+        List<LeaveRequest> result = new ArrayList<>(ids.size());
+        Set<LeaveRequestId> resolved = new HashSet<>();
+        for (LeaveRequestId id : ids) {
+            LeaveRecord request = leaveRequests.findById(id);
+            // Skip IDs whose status moved on while we were iterating
+            if (request != null && (expectedStatus == null || request.status() == expectedStatus)) {
+                result.add(request.toLeaveRequest());
+                resolved.add(id);
+            }
+        }
+        while (indexed.hasNext()) {
+            LeaveRecord request = indexed.next();
+            // A request moving to the store may briefly be in both
+            if (!resolved.contains(request.id())) {
+                result.add(request.toLeaveRequest());
+            }
         }
-        LeaveRequest request = leaveRequests.get(id);
-        if (request != null) {
-            request.setApproved(false);
-            request.setApprovalDate(null); // Clear approval date for rejected requests
-            return true;
+        return result;
+    }
+
+    /**
+     * Gets the requests from a date index key up to a request date, those of
+     * the index merged with those the store indexes itself
+     */
+    private Iterator<LeaveRecord> byRequestDate(LeaveRequestIndex.DateKey from, boolean inclusive, long toDate) {
+        Iterator<LeaveRecord> indexed = index.range(from, inclusive, toDate).stream()
+                .map(key -> leaveRequests.findById(key.id()))
+                .filter(Objects::nonNull)
+                .iterator();
+        return LeaveRequestIndex.merge(indexed,
+                leaveRequests.findIndexedByRequestDate(from.requestDate(), from.id(), inclusive, toDate));
+    }
+
+    private void addToIndex(LeaveRecord request) {
+        if (!leaveRequests.isIndexed(request)) {
+            index.add(request);
+        }
+    }
+
+    /**
+     * Updates the index after a decision, leaving the request to the store if it indexes it now
+     */
+    private void updateIndex(LeaveRecord request) {
+        if (leaveRequests.isIndexed(request)) {
+            index.remove(request);
+        } else {
+            index.updateStatus(request.id(), request.status());
         }
-        return false;
     }
 }
@@ -0,0 +1,13 @@
+package com.jrrd.jbpmdemo.service;
+
+/**
+ * Thrown when a manager renews or releases a task they do not hold a lease on.
+ */
+public class TaskLeaseConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TaskLeaseConflictException(String id, String manager) {
+        super("Task " + id + " is not claimed by " + manager);
+    }
+}
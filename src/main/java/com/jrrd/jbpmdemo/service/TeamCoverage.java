@@ -0,0 +1,194 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.jrrd.jbpmdemo.calendar.IntervalTree;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+/**
+ * Leave periods of pending and approved requests per team, used to keep
+ * enough of a team at work.
+ *
+ * Each team keeps its periods in an {@link IntervalTree} of epoch days. When
+ * a request is submitted, the periods overlapping it are found in
+ * O(log n + k) and swept to find the most colleagues absent on any one of its
+ * days. A colleague counts once however many of their periods overlap, e.g. a
+ * pending request filed next to an approved one. If the request would take
+ * that above {@code maxAbsent}, it is
+ * reported as exceeding the team's coverage. The check and the insertion of
+ * the new period happen under the team's lock, so concurrent requests of one
+ * team see each other. Rejected requests give their days back.
+ *
+ * Employees without a team and requests without a period are not checked.
+ * The check sees the requests of this node only; a sharded cluster places
+ * every member of a team on the same node for it.
+ */
+public class TeamCoverage {
+
+    private final Function<String, String> teamOf;
+    private final int maxAbsent;
+    private final ConcurrentHashMap<String, IntervalTree<Absence>> teams = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the coverage check
+     *
+     * @param teamOf Team of an employee, null if the employee has none
+     * @param maxAbsent Most members of one team that may be absent on the same day
+     */
+    public TeamCoverage(Function<String, String> teamOf, int maxAbsent) {
+        if (maxAbsent < 0) {
+            throw new IllegalArgumentException("Maximum absent team members must not be negative");
+        }
+        this.teamOf = teamOf;
+        this.maxAbsent = maxAbsent;
+    }
+
+    /**
+     * Creates a coverage check for which no employee belongs to a team
+     */
+    public static TeamCoverage disabled() {
+        return new TeamCoverage(employeeName -> null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds the period of a new request to its team
+     *
+     * @param id The request ID
+     * @param employeeName The employee requesting leave
+     * @param startDay First day of leave, or {@link LeaveRecord#NO_DAY}
+     * @param endDay Last day of leave, or {@link LeaveRecord#NO_DAY}
+     * @return true if more than the allowed number of team members would be absent on one of the days
+     */
+    public boolean admit(LeaveRequestId id, String employeeName, int startDay, int endDay) {
+        IntervalTree<Absence> team = team(employeeName, startDay, endDay);
+        if (team == null) {
+            return false;
+        }
+        synchronized (team) {
+            boolean exceeded = peakAbsent(team, employeeName, startDay, endDay) + 1 > maxAbsent;
+            team.add(startDay, endDay, new Absence(id, employeeName));
+            return exceeded;
+        }
+    }
+
+    /**
+     * Removes the period of a request that was rejected or could not be stored
+     */
+    public void remove(LeaveRequestId id, String employeeName, int startDay, int endDay) {
+        IntervalTree<Absence> team = team(employeeName, startDay, endDay);
+        if (team != null) {
+            synchronized (team) {
+                team.remove(startDay, new Absence(id, employeeName));
+            }
+        }
+    }
+
+    /**
+     * Adds the period of a stored request when rebuilding at startup
+     */
+    public void restore(LeaveRecord request) {
+        if (request.status() == LeaveStatus.REJECTED) {
+            return;
+        }
+        IntervalTree<Absence> team = team(request.employeeName(), request.startDay(), request.endDay());
+        if (team != null) {
+            synchronized (team) {
+                team.add(request.startDay(), request.endDay(), new Absence(request.id(), request.employeeName()));
+            }
+        }
+    }
+
+    /**
+     * Gets the most members of the employee's team, other than the employee,
+     * absent on any one day of a period
+     *
+     * @return The number of absent colleagues, 0 if the employee has no team
+     */
+    public int peakAbsent(String employeeName, int startDay, int endDay) {
+        IntervalTree<Absence> team = team(employeeName, startDay, endDay);
+        if (team == null) {
+            return 0;
+        }
+        synchronized (team) {
+            return peakAbsent(team, employeeName, startDay, endDay);
+        }
+    }
+
+    /**
+     * Gets the team of an employee
+     *
+     * @return The team, null if the employee has none
+     */
+    public String teamOf(String employeeName) {
+        return teamOf.apply(employeeName);
+    }
+
+    private IntervalTree<Absence> team(String employeeName, int startDay, int endDay) {
+        if (startDay == LeaveRecord.NO_DAY || endDay == LeaveRecord.NO_DAY || employeeName == null) {
+            return null;
+        }
+        String team = teamOf.apply(employeeName);
+        return team == null ? null : teams.computeIfAbsent(team, name -> new IntervalTree<>(Absence.ORDER));
+    }
+
+    /**
+     * Sweeps the overlapping periods, clipped to the requested days and
+     * merged per colleague, for the most that are open on the same day
+     */
+    private static int peakAbsent(IntervalTree<Absence> team, String employeeName, int startDay, int endDay) {
+        List<IntervalTree.Interval<Absence>> overlapping = team.overlapping(startDay, endDay);
+        Map<String, List<int[]>> byColleague = new HashMap<>();
+        for (IntervalTree.Interval<Absence> absence : overlapping) {
+            if (!absence.value().employeeName().equals(employeeName)) {
+                // Exclusive end, so a period ending the day before another starts does not overlap it
+                byColleague.computeIfAbsent(absence.value().employeeName(), name -> new ArrayList<>())
+                        .add(new int[] { Math.max(absence.start(), startDay), Math.min(absence.end(), endDay) + 1 });
+            }
+        }
+        int[] starts = new int[overlapping.size()];
+        int[] ends = new int[overlapping.size()];
+        int count = 0;
+        for (List<int[]> periods : byColleague.values()) {
+            periods.sort(Comparator.comparingInt(period -> period[0]));
+            int start = periods.get(0)[0];
+            int end = periods.get(0)[1];
+            for (int[] period : periods) {
+                if (period[0] > end) {
+                    starts[count] = start;
+                    ends[count++] = end;
+                    start = period[0];
+                }
+                end = Math.max(end, period[1]);
+            }
+            starts[count] = start;
+            ends[count++] = end;
+        }
+        Arrays.sort(starts, 0, count);
+        Arrays.sort(ends, 0, count);
+        int open = 0;
+        int peak = 0;
+        for (int i = 0, j = 0; i < count;) {
+            if (starts[i] < ends[j]) {
+                peak = Math.max(peak, ++open);
+                i++;
+            } else {
+                open--;
+                j++;
+            }
+        }
+        return peak;
+    }
+
+    private record Absence(LeaveRequestId id, String employeeName) {
+        static final Comparator<Absence> ORDER = Comparator.comparing(Absence::id);
+    }
+}
@@ -0,0 +1,309 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jrrd.jbpmdemo.model.LeaveEvent;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+/**
+ * Event store that makes every event durable in a {@link WriteAheadLog}
+ * before acknowledging it, with periodic snapshots.
+ *
+ * After every {@code snapshotEvery} events a background thread rolls the log
+ * to a new segment and writes all histories to a snapshot file, folding each
+ * into its in-memory snapshot state on the way. Once the snapshot is on disk
+ * the log segments before it are deleted, so a restart reads one snapshot and
+ * the log written since, however long the application has been running.
+ * Events appended while the snapshot is written may end up in both; they are
+ * restored once by their sequence.
+ *
+ * Events are appended to the log inside the history's atomic update and
+ * acknowledged after the fsync. If the fsync fails, the in-memory histories
+ * may hold events that never reach the log; the store then fails every
+ * further call until a restart restores it from what the log holds.
+ *
+ * Optionally the histories of decided requests are moved off the heap to a
+ * scratch file in the directory, as by {@link InMemoryLeaveEventStore}; the
+ * log and snapshots stay the durable copy, and the file is rebuilt from them
+ * on every start.
+ */
+public class DurableLeaveEventStore implements LeaveEventStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DurableLeaveEventStore.class);
+
+    static final int SNAPSHOT_MAGIC = 0x4C455653; // "LEVS"
+    static final int SNAPSHOT_VERSION = 1;
+    static final String DECIDED_HISTORIES = "decided-histories.tmp";
+
+    private final InMemoryLeaveEventStore events;
+    private final WriteAheadLog log;
+    private final SnapshotFiles snapshots;
+    private final long snapshotEvery;
+    // Appends hold the read lock, rolling the log for a snapshot the write lock
+    private final ReentrantReadWriteLock rollLock = new ReentrantReadWriteLock();
+    private final AtomicLong sinceSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "leave-history-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile RuntimeException failure;
+
+    /**
+     * Opens (or creates) the history in the given directory and restores it
+     *
+     * @param directory Directory holding log segments and snapshots
+     * @param segmentSize Size in bytes after which a new log segment is started
+     * @param snapshotEvery Number of events after which a snapshot is taken
+     */
+    public DurableLeaveEventStore(Path directory, long segmentSize, long snapshotEvery) {
+        this(directory, segmentSize, snapshotEvery, false);
+    }
+
+    /**
+     * Opens (or creates) the history in the given directory and restores it
+     *
+     * @param directory Directory holding log segments and snapshots
+     * @param segmentSize Size in bytes after which a new log segment is started
+     * @param snapshotEvery Number of events after which a snapshot is taken
+     * @param archiveDecided Whether the histories of decided requests are moved off the heap
+     */
+    public DurableLeaveEventStore(Path directory, long segmentSize, long snapshotEvery, boolean archiveDecided) {
+        if (snapshotEvery <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive: " + snapshotEvery);
+        }
+        this.log = new WriteAheadLog(directory, segmentSize);
+        this.events = archiveDecided ? new InMemoryLeaveEventStore(directory.resolve(DECIDED_HISTORIES))
+                : new InMemoryLeaveEventStore();
+        this.snapshotEvery = snapshotEvery;
+        this.snapshots = new SnapshotFiles(directory, SNAPSHOT_MAGIC, SNAPSHOT_VERSION, "leave history");
+        Path snapshot = snapshots.latest();
+        long fromSegment = 0;
+        long restored = 0;
+        if (snapshot != null) {
+            fromSegment = SnapshotFiles.segmentOf(snapshot);
+            restored = snapshots.read(snapshot, payload -> restore(LeaveEventCodec.decode(payload)));
+        }
+        long replayed = log.replay(fromSegment, payload -> restore(LeaveEventCodec.decode(payload)));
+        logger.info("Restored leave history of {} requests: {} events from snapshot, {} from log",
+                events.size(), restored, replayed);
+    }
+
+    @Override
+    public LeaveEvent append(LeaveEvent event) {
+        checkAvailable();
+        long[] sequence = { -1 };
+        LeaveEvent appended;
+        rollLock.readLock().lock();
+        try {
+            appended = events.append(event, logged(sequence));
+        } finally {
+            rollLock.readLock().unlock();
+        }
+        sync(sequence[0]);
+        appended(1);
+        return appended;
+    }
+
+    @Override
+    public List<LeaveEvent> appendAll(List<LeaveEvent> batch) {
+        checkAvailable();
+        long[] sequence = { -1 };
+        List<LeaveEvent> appended = new ArrayList<>(batch.size());
+        rollLock.readLock().lock();
+        try {
+            for (LeaveEvent event : batch) {
+                appended.add(events.append(event, logged(sequence)));
+            }
+        } finally {
+            rollLock.readLock().unlock();
+            // Sequences grow, so syncing the last append covers the whole batch, even one cut short
+            if (sequence[0] >= 0) {
+                sync(sequence[0]);
+            }
+        }
+        appended(batch.size());
+        return appended;
+    }
+
+    @Override
+    public LeaveEvent appendTransition(LeaveRequestId id, Function<LeaveRecord, LeaveEvent> transition) {
+        checkAvailable();
+        long[] sequence = { -1 };
+        LeaveEvent appended;
+        rollLock.readLock().lock();
+        try {
+            appended = events.appendTransition(id, transition, logged(sequence));
+        } finally {
+            rollLock.readLock().unlock();
+        }
+        if (appended != null) {
+            sync(sequence[0]);
+            appended(1);
+        }
+        return appended;
+    }
+
+    @Override
+    public List<LeaveEvent> appendTransitions(List<LeaveRequestId> ids, Function<LeaveRecord, LeaveEvent> transition) {
+        checkAvailable();
+        long[] sequence = { -1 };
+        List<LeaveEvent> appended = new ArrayList<>(ids.size());
+        rollLock.readLock().lock();
+        try {
+            for (LeaveRequestId id : ids) {
+                if (id == null) {
+                    // Unknown request: the transition still sees it, but nothing can be appended
+                    if (transition.apply(null) != null) {
+                        throw new IllegalArgumentException("Cannot append an event without a leave request ID");
+                    }
+                    appended.add(null);
+                } else {
+                    appended.add(events.appendTransition(id, transition, logged(sequence)));
+                }
+            }
+        } finally {
+            rollLock.readLock().unlock();
+            if (sequence[0] >= 0) {
+                sync(sequence[0]);
+            }
+        }
+        appended(ids.size());
+        return appended;
+    }
+
+    @Override
+    public void forEachState(Consumer<LeaveRecord> consumer) {
+        checkAvailable();
+        events.forEachState(consumer);
+    }
+
+    @Override
+    public List<LeaveEvent> history(LeaveRequestId id) {
+        checkAvailable();
+        return events.history(id);
+    }
+
+    @Override
+    public LeaveRecord replay(LeaveRequestId id) {
+        checkAvailable();
+        return events.replay(id);
+    }
+
+    @Override
+    public boolean hasHistory(LeaveRequestId id) {
+        checkAvailable();
+        return events.hasHistory(id);
+    }
+
+    @Override
+    public int size() {
+        checkAvailable();
+        return events.size();
+    }
+
+    /**
+     * Gets the number of histories kept on the heap
+     */
+    int heldCount() {
+        return events.heldCount();
+    }
+
+    /**
+     * Writes a snapshot of all histories and deletes the log segments it covers
+     *
+     * @return Number of events in the snapshot
+     */
+    long snapshot() {
+        long fromSegment;
+        rollLock.writeLock().lock();
+        try {
+            fromSegment = log.roll();
+        } finally {
+            rollLock.writeLock().unlock();
+        }
+        long[] written = { 0 };
+        Path target = snapshots.write(fromSegment, records -> events.checkpoint(event -> {
+            records.accept(LeaveEventCodec.encode(event));
+            written[0]++;
+        }));
+        int deleted = log.deleteSegmentsBefore(fromSegment);
+        logger.info("Wrote leave history snapshot {} with {} events, deleted {} log segments",
+                target.getFileName(), written[0], deleted);
+        return written[0];
+    }
+
+    private void appended(int count) {
+        if (sinceSnapshot.addAndGet(count) >= snapshotEvery && snapshotScheduled.compareAndSet(false, true)) {
+            sinceSnapshot.set(0);
+            snapshotter.execute(() -> {
+                try {
+                    snapshot();
+                } catch (RuntimeException e) {
+                    logger.error("Leave history snapshot failed, the log is kept", e);
+                } finally {
+                    snapshotScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Gets a callback that writes appended events to the log, keeping the sequence of the last one
+     */
+    private Consumer<LeaveEvent> logged(long[] sequence) {
+        return event -> sequence[0] = log.append(LeaveEventCodec.encode(event));
+    }
+
+    private void sync(long sequence) {
+        try {
+            log.sync(sequence);
+        } catch (RuntimeException e) {
+            failure = e;
+            logger.error("Leave history failed: events may not be durable, restart to restore it from the log", e);
+            throw e;
+        }
+    }
+
+    private void checkAvailable() {
+        RuntimeException cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("Leave history failed to write its log; restart to restore it", cause);
+        }
+    }
+
+    private void restore(LeaveEvent event) {
+        if (!events.restore(event)) {
+            throw new IllegalStateException("Leave history is missing events before " + event);
+        }
+    }
+
+    @Override
+    public void close() {
+        snapshotter.shutdown();
+        try {
+            if (!snapshotter.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Leave history snapshot still running at shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+        events.close();
+    }
+}
@@ -0,0 +1,253 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.jrrd.jbpmdemo.model.LeaveEvent;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+/**
+ * Volatile event store keeping each request's history in a concurrent map.
+ *
+ * A history is an immutable array of events plus a snapshot: the state
+ * folded from its first events, so {@link #replay(LeaveRequestId)} only
+ * applies the events appended after the last {@link #checkpoint(Consumer)}.
+ * Appends replace the history with {@link ConcurrentHashMap#compute}, which
+ * orders the appends of one request without blocking other requests; a
+ * transition sees the state folded from the history it extends.
+ *
+ * Optionally, the histories of decided requests are moved to a
+ * {@link LeaveHistoryArchive} file, so that the long tail of approved and
+ * rejected requests holds no heap. Like the off-heap request archive, a
+ * history is archived inside its atomic update before it leaves the map, so
+ * readers find it in one of the two at all times; appends to an archived
+ * history archive it again.
+ */
+public class InMemoryLeaveEventStore implements LeaveEventStore {
+
+    private final Map<LeaveRequestId, History> histories = new ConcurrentHashMap<>();
+    private final LeaveHistoryArchive decided;
+
+    /**
+     * Creates a store that keeps every history on the heap
+     */
+    public InMemoryLeaveEventStore() {
+        this.decided = null;
+    }
+
+    /**
+     * Creates a store that moves the histories of decided requests to a file
+     *
+     * @param decidedHistories Scratch file for the decided histories; it is
+     *        replaced, and deleted when the store is closed
+     */
+    public InMemoryLeaveEventStore(Path decidedHistories) {
+        this.decided = new LeaveHistoryArchive(decidedHistories);
+    }
+
+    @Override
+    public LeaveEvent append(LeaveEvent event) {
+        return append(event, appended -> {
+        });
+    }
+
+    /**
+     * Appends an event, passing it with its sequence to a callback that runs
+     * before the event becomes visible and before later appends of the request
+     */
+    LeaveEvent append(LeaveEvent event, Consumer<LeaveEvent> onAppend) {
+        LeaveEvent[] appended = new LeaveEvent[1];
+        histories.compute(event.requestId(), (id, history) -> {
+            History current = history == null ? archived(id) : history;
+            appended[0] = event.withSequence(current.events.length);
+            onAppend.accept(appended[0]);
+            return keep(id, current.plus(appended[0]));
+        });
+        return appended[0];
+    }
+
+    @Override
+    public LeaveEvent appendTransition(LeaveRequestId id, Function<LeaveRecord, LeaveEvent> transition) {
+        return appendTransition(id, transition, appended -> {
+        });
+    }
+
+    /**
+     * Appends the event of a transition, passing it with its sequence to a
+     * callback that runs before the event becomes visible and before later
+     * appends of the request
+     */
+    LeaveEvent appendTransition(LeaveRequestId id, Function<LeaveRecord, LeaveEvent> transition,
+                                Consumer<LeaveEvent> onAppend) {
+        LeaveEvent[] appended = new LeaveEvent[1];
+        histories.compute(id, (key, history) -> {
+            History current = history == null ? archived(id) : history;
+            LeaveEvent event = transition.apply(current.events.length == 0 ? null : current.state());
+            if (event == null) {
+                return history;
+            }
+            if (!event.requestId().equals(id)) {
+                throw new IllegalArgumentException("Event " + event + " does not belong to leave request " + id);
+            }
+            appended[0] = event.withSequence(current.events.length);
+            onAppend.accept(appended[0]);
+            return keep(id, current.plus(appended[0]));
+        });
+        return appended[0];
+    }
+
+    /**
+     * Restores a persisted event. Events the history already holds are
+     * ignored, so overlapping snapshots and logs can be restored in order.
+     *
+     * @return false if the event does not follow the history, i.e. events are missing
+     */
+    boolean restore(LeaveEvent event) {
+        boolean[] follows = { true };
+        histories.compute(event.requestId(), (id, history) -> {
+            History current = history == null ? archived(id) : history;
+            if (event.getSequence() < current.events.length) {
+                return history;
+            }
+            if (event.getSequence() > current.events.length) {
+                follows[0] = false;
+                return history;
+            }
+            return keep(id, current.plus(event));
+        });
+        return follows[0];
+    }
+
+    /**
+     * Passes every stored event to the consumer, one history at a time, and
+     * folds each history into its snapshot. A history archived meanwhile may
+     * be passed twice.
+     */
+    void checkpoint(Consumer<LeaveEvent> consumer) {
+        for (LeaveRequestId id : histories.keySet()) {
+            histories.computeIfPresent(id, (key, history) -> {
+                for (LeaveEvent event : history.events) {
+                    consumer.accept(event);
+                }
+                return history.folded();
+            });
+        }
+        if (decided != null) {
+            decided.forEach(events -> {
+                for (LeaveEvent event : events) {
+                    consumer.accept(event);
+                }
+            });
+        }
+    }
+
+    /**
+     * Passes the current state of every request to a consumer; a request
+     * decided meanwhile may be passed twice
+     */
+    @Override
+    public void forEachState(Consumer<LeaveRecord> consumer) {
+        for (History history : histories.values()) {
+            consumer.accept(history.state());
+        }
+        if (decided != null) {
+            decided.forEach(events -> consumer.accept(LeaveEvent.fold(null, Arrays.asList(events))));
+        }
+    }
+
+    @Override
+    public List<LeaveEvent> history(LeaveRequestId id) {
+        History history = histories.get(id);
+        if (history != null) {
+            return List.of(history.events);
+        }
+        LeaveEvent[] archived = decided == null ? null : decided.get(id);
+        return archived == null ? List.of() : List.of(archived);
+    }
+
+    @Override
+    public LeaveRecord replay(LeaveRequestId id) {
+        History history = histories.get(id);
+        if (history != null) {
+            return history.state();
+        }
+        LeaveEvent[] archived = decided == null ? null : decided.get(id);
+        return archived == null ? null : LeaveEvent.fold(null, Arrays.asList(archived));
+    }
+
+    @Override
+    public boolean hasHistory(LeaveRequestId id) {
+        return histories.containsKey(id) || (decided != null && decided.contains(id));
+    }
+
+    @Override
+    public int size() {
+        return histories.size() + (decided == null ? 0 : decided.size());
+    }
+
+    /**
+     * Gets the number of histories kept on the heap
+     */
+    int heldCount() {
+        return histories.size();
+    }
+
+    @Override
+    public void close() {
+        if (decided != null) {
+            decided.close();
+        }
+    }
+
+    /**
+     * Gets the archived history of a request that has none on the heap
+     */
+    private History archived(LeaveRequestId id) {
+        LeaveEvent[] events = decided == null ? null : decided.get(id);
+        return events == null ? History.EMPTY : new History(events, null, 0);
+    }
+
+    /**
+     * Gets the history to keep on the heap: none once the request is decided
+     * and its history archived
+     */
+    private History keep(LeaveRequestId id, History history) {
+        if (decided == null) {
+            return history;
+        }
+        LeaveRecord state = history.state();
+        if (state == null || state.status() == null || !state.status().isFinal()) {
+            return history;
+        }
+        decided.put(id, history.events);
+        return null;
+    }
+
+    /**
+     * Events of one request and the state folded from the first {@code snapshotLength} of them
+     */
+    private record History(LeaveEvent[] events, LeaveRecord snapshot, int snapshotLength) {
+
+        static final History EMPTY = new History(new LeaveEvent[0], null, 0);
+
+        History plus(LeaveEvent event) {
+            LeaveEvent[] grown = Arrays.copyOf(events, events.length + 1);
+            grown[events.length] = event;
+            return new History(grown, snapshot, snapshotLength);
+        }
+
+        History folded() {
+            return snapshotLength == events.length ? this : new History(events, state(), events.length);
+        }
+
+        LeaveRecord state() {
+            return LeaveEvent.fold(snapshot, Arrays.asList(events).subList(snapshotLength, events.length));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+/**
+ * Volatile store keeping leave requests in a concurrent map.
+ * Everything is lost on restart.
+ *
+ * Updates use {@link ConcurrentHashMap#computeIfPresent}, which runs each
+ * transition exactly once while holding only the lock of the request's bin,
+ * so updates of different requests proceed in parallel.
+ */
+public class InMemoryLeaveRequestStore implements LeaveRequestStore {
+
+    private final Map<LeaveRequestId, LeaveRecord> leaveRequests = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(LeaveRecord request, LeaveMutation mutation) {
+        leaveRequests.put(request.id(), request);
+    }
+
+    @Override
+    public LeaveRecord update(LeaveRequestId id, LeaveMutation mutation, UnaryOperator<LeaveRecord> transition) {
+        return leaveRequests.computeIfPresent(id, (key, current) -> transition.apply(current));
+    }
+
+    @Override
+    public LeaveRecord findById(LeaveRequestId id) {
+        return leaveRequests.get(id);
+    }
+
+    @Override
+    public Collection<LeaveRecord> findAll() {
+        return leaveRequests.values();
+    }
+
+    @Override
+    public int size() {
+        return leaveRequests.size();
+    }
+}
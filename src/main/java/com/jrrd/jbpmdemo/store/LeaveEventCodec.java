@@ -0,0 +1,82 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.jrrd.jbpmdemo.model.LeaveEvent;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+/**
+ * Binary encoding of leave events for the history log and its snapshots:
+ * type code, ID as two longs, sequence, time in epoch milliseconds and the
+ * optional actor; {@code CREATED} events also carry employee and days, then
+ * the leave period as two epoch days. Events written before requests had a
+ * period end after the days.
+ */
+final class LeaveEventCodec {
+
+    private LeaveEventCodec() {
+    }
+
+    static byte[] encode(LeaveEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(event.getType().getCode());
+            out.writeLong(event.requestId().high());
+            out.writeLong(event.requestId().low());
+            out.writeInt(event.getSequence());
+            out.writeLong(event.atMillis());
+            writeString(out, event.getActor());
+            if (event.getType() == LeaveEvent.Type.CREATED) {
+                writeString(out, event.getEmployeeName());
+                out.writeInt(event.daysRequestedValue());
+                out.writeInt(event.startDay());
+                out.writeInt(event.endDay());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot encode leave event " + event, e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static LeaveEvent decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            LeaveEvent.Type type = LeaveEvent.Type.fromCode(in.readByte());
+            LeaveRequestId id = new LeaveRequestId(in.readLong(), in.readLong());
+            int sequence = in.readInt();
+            long at = in.readLong();
+            String actor = readString(in);
+            String employeeName = null;
+            int daysRequested = LeaveRecord.NO_DAYS;
+            int startDay = LeaveRecord.NO_DAY;
+            int endDay = LeaveRecord.NO_DAY;
+            if (type == LeaveEvent.Type.CREATED) {
+                employeeName = readString(in);
+                daysRequested = in.readInt();
+                if (in.available() > 0) {
+                    startDay = in.readInt();
+                    endDay = in.readInt();
+                }
+            }
+            return new LeaveEvent(id, sequence, type, at, actor, employeeName, daysRequested, startDay, endDay);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot decode leave event", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,129 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.jrrd.jbpmdemo.model.LeaveEvent;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+/**
+ * Append-only store of leave request histories.
+ *
+ * Each request has its own history of {@link LeaveEvent}s that are never
+ * changed or removed. The store numbers the events of a request as they are
+ * appended; appends of one request are applied in the order they are made.
+ *
+ * The histories are the source of truth for the requests' state: a
+ * transition is appended only if it follows the state folded from the
+ * history, so concurrent decisions on one request are ordered here, and
+ * stored states are derived from the appended events.
+ */
+public interface LeaveEventStore extends AutoCloseable {
+
+    /**
+     * Appends an event to the history of its request
+     *
+     * @param event The event, its sequence is ignored
+     * @return The stored event with its sequence
+     */
+    LeaveEvent append(LeaveEvent event);
+
+    /**
+     * Appends several events as one batch. Durable implementations persist
+     * the whole batch with a single flush.
+     *
+     * @param events The events, in order
+     * @return The stored events with their sequences
+     */
+    default List<LeaveEvent> appendAll(List<LeaveEvent> events) {
+        List<LeaveEvent> appended = new ArrayList<>(events.size());
+        for (LeaveEvent event : events) {
+            appended.add(append(event));
+        }
+        return appended;
+    }
+
+    /**
+     * Appends the event a transition derives from the request's current
+     * state, atomically with respect to every other append of the request
+     *
+     * @param id The leave request ID
+     * @param transition Gets the state folded from the history, null if the
+     *        request is unknown, and returns the event to append or null to
+     *        append nothing; an exception it throws appends nothing
+     * @return The stored event with its sequence, or null if none was appended
+     */
+    LeaveEvent appendTransition(LeaveRequestId id, Function<LeaveRecord, LeaveEvent> transition);
+
+    /**
+     * Appends the transitions of several requests as one batch. Durable
+     * implementations persist the whole batch with a single flush.
+     *
+     * @param ids The leave request IDs; a null ID is an unknown request
+     * @param transition Called once per ID, in order, as for {@link #appendTransition}
+     * @return The stored event of each ID, in order, null where none was appended
+     */
+    default List<LeaveEvent> appendTransitions(List<LeaveRequestId> ids, Function<LeaveRecord, LeaveEvent> transition) {
+        List<LeaveEvent> appended = new ArrayList<>(ids.size());
+        for (LeaveRequestId id : ids) {
+            appended.add(id == null ? nothing(transition) : appendTransition(id, transition));
+        }
+        return appended;
+    }
+
+    /**
+     * Passes the current state of every request with a history to a consumer
+     */
+    void forEachState(Consumer<LeaveRecord> consumer);
+
+    /**
+     * Gets the history of a request
+     *
+     * @param id The leave request ID
+     * @return The events oldest first, empty if the request is unknown
+     */
+    List<LeaveEvent> history(LeaveRequestId id);
+
+    /**
+     * Rebuilds the current state of a request by folding its history
+     *
+     * @param id The leave request ID
+     * @return The state or null if the request is unknown
+     */
+    default LeaveRecord replay(LeaveRequestId id) {
+        return LeaveEvent.fold(null, history(id));
+    }
+
+    /**
+     * Checks whether a request has a history, without reading it
+     *
+     * @param id The leave request ID
+     * @return true if the request has a history
+     */
+    default boolean hasHistory(LeaveRequestId id) {
+        return !history(id).isEmpty();
+    }
+
+    /**
+     * Gets the number of requests with a history
+     */
+    int size();
+
+    /**
+     * Calls a transition for an unknown request, whose event cannot be appended
+     */
+    private static LeaveEvent nothing(Function<LeaveRecord, LeaveEvent> transition) {
+        if (transition.apply(null) != null) {
+            throw new IllegalArgumentException("Cannot append an event without a leave request ID");
+        }
+        return null;
+    }
+
+    @Override
+    default void close() {
+        // Nothing to release by default
+    }
+}
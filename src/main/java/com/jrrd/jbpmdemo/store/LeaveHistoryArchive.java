@@ -0,0 +1,233 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import com.jrrd.jbpmdemo.model.LeaveEvent;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+/**
+ * Histories of decided leave requests, spilled to a file so that they hold
+ * no heap.
+ *
+ * Each history is appended to the file as one record: its length, the
+ * request ID, the number of events and the events encoded by
+ * {@link LeaveEventCodec}, each preceded by its length. An
+ * {@link OffHeapIdTable} finds the latest record of a request; a history
+ * archived again gets a new record and its earlier one is skipped.
+ *
+ * The file is scratch space, not durable storage: it is emptied when the
+ * archive is opened and deleted when it is closed, or as soon as it is
+ * opened where the platform allows. Appends hold the write lock; reads use
+ * positional I/O under the read lock.
+ */
+final class LeaveHistoryArchive implements AutoCloseable {
+
+    // Record header: length of the rest, ID high, ID low, number of events
+    private static final int HEADER_BYTES = 4 + 8 + 8 + 4;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final OffHeapIdTable records = new OffHeapIdTable();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private long end;
+
+    LeaveHistoryArchive(Path file) {
+        this.file = file;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open leave history archive " + file, e);
+        }
+    }
+
+    /**
+     * Stores the history of a request, replacing the one it has
+     */
+    void put(LeaveRequestId id, LeaveEvent[] events) {
+        byte[][] encoded = new byte[events.length][];
+        int length = HEADER_BYTES - 4;
+        for (int i = 0; i < events.length; i++) {
+            encoded[i] = LeaveEventCodec.encode(events[i]);
+            length += 4 + encoded[i].length;
+        }
+        ByteBuffer record = ByteBuffer.allocate(4 + length);
+        record.putInt(length).putLong(id.high()).putLong(id.low()).putInt(events.length);
+        for (byte[] event : encoded) {
+            record.putInt(event.length).put(event);
+        }
+        record.flip();
+        lock.writeLock().lock();
+        try {
+            long offset = end;
+            while (record.hasRemaining()) {
+                channel.write(record, offset + record.position());
+            }
+            end += record.limit();
+            records.put(id.high(), id.low(), OffHeapIdTable.hash(id), offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write leave history archive " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the history of a request
+     *
+     * @return The events oldest first, or null if the request is not archived
+     */
+    LeaveEvent[] get(LeaveRequestId id) {
+        lock.readLock().lock();
+        try {
+            long offset = records.get(id.high(), id.low(), OffHeapIdTable.hash(id));
+            if (offset == OffHeapIdTable.ABSENT) {
+                return null;
+            }
+            ByteBuffer length = read(offset, 4);
+            return decode(read(offset + 4, length.getInt()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean contains(LeaveRequestId id) {
+        lock.readLock().lock();
+        try {
+            return records.get(id.high(), id.low(), OffHeapIdTable.hash(id)) != OffHeapIdTable.ABSENT;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of archived histories
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return records.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes every archived history to a consumer, reading the file in order.
+     * Histories archived after reading started are not included.
+     */
+    void forEach(Consumer<LeaveEvent[]> consumer) {
+        long last;
+        lock.readLock().lock();
+        try {
+            last = end;
+        } finally {
+            lock.readLock().unlock();
+        }
+        // The file may already be unlinked, so it is read through the open channel
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream(last), 1 << 16))) {
+            long offset = 0;
+            while (offset < last) {
+                int length = in.readInt();
+                byte[] record = new byte[length];
+                in.readFully(record);
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                if (isLatest(buffer.getLong(0), buffer.getLong(8), offset)) {
+                    consumer.accept(decode(buffer));
+                }
+                offset += 4 + length;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read leave history archive " + file, e);
+        }
+    }
+
+    /**
+     * Reads the file from its start to an offset with positional reads, which
+     * do not move the channel's position
+     */
+    private InputStream inputStream(long to) {
+        return new InputStream() {
+            private long position;
+
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] target, int offset, int length) throws IOException {
+                if (position >= to) {
+                    return -1;
+                }
+                int read = channel.read(ByteBuffer.wrap(target, offset, (int) Math.min(length, to - position)), position);
+                if (read > 0) {
+                    position += read;
+                }
+                return read;
+            }
+        };
+    }
+
+    private boolean isLatest(long high, long low, long offset) {
+        lock.readLock().lock();
+        try {
+            return records.get(high, low, OffHeapIdTable.hash(high, low)) == offset;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private ByteBuffer read(long offset, int length) {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of file at " + (offset + buffer.position()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read leave history archive " + file, e);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes the events of a record, read past its length
+     */
+    private static LeaveEvent[] decode(ByteBuffer record) {
+        record.position(16);
+        LeaveEvent[] events = new LeaveEvent[record.getInt()];
+        for (int i = 0; i < events.length; i++) {
+            byte[] event = new byte[record.getInt()];
+            record.get(event);
+            events[i] = LeaveEventCodec.decode(event);
+        }
+        return events;
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            channel.close();
+            records.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close leave history archive " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.jrrd.jbpmdemo.store;
+
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+/**
+ * Kinds of changes applied to a leave request.
+ *
+ * The code is written to the write-ahead log, so existing values must never
+ * be renumbered.
+ */
+public enum LeaveMutation {
+    CREATE((byte) 1),
+    APPROVE((byte) 2),
+    REJECT((byte) 3);
+
+    private final byte code;
+
+    LeaveMutation(byte code) {
+        this.code = code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the mutation that leaves a request in the given status
+     */
+    public static LeaveMutation forStatus(LeaveStatus status) {
+        return switch (status) {
+            case PENDING -> CREATE;
+            case APPROVED -> APPROVE;
+            case REJECTED -> REJECT;
+        };
+    }
+
+    public static LeaveMutation fromCode(byte code) {
+        for (LeaveMutation mutation : values()) {
+            if (mutation.code == code) {
+                return mutation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown leave mutation code: " + code);
+    }
+}
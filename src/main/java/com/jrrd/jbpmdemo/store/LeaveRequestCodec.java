@@ -0,0 +1,128 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+/**
+ * Binary encoding of leave request mutations in the request log of older
+ * versions, read by {@link LegacyLeaveRequestLog}.
+ * Each entry carries the full request state after the mutation, so replay
+ * is a plain "last write wins" per request ID.
+ *
+ * The first byte holds the mutation code; {@link #BINARY_ID} is set when the
+ * ID follows as two longs. Entries written before IDs were binary carry the
+ * UUID string instead and are still readable. The leave period comes last,
+ * as two epoch days; entries written before requests had a period end after
+ * the approval date.
+ */
+final class LeaveRequestCodec {
+
+    // Older entries may also contain 0 (approval unknown), which reads as not approved
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final int BINARY_ID = 0x40;
+
+    private LeaveRequestCodec() {
+    }
+
+    record Entry(LeaveMutation mutation, LeaveRecord request) {
+    }
+
+    static byte[] encode(LeaveMutation mutation, LeaveRecord request) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(mutation.getCode() | BINARY_ID);
+            out.writeLong(request.id().high());
+            out.writeLong(request.id().low());
+            writeString(out, request.employeeName());
+            if (request.daysRequestedValue() == LeaveRecord.NO_DAYS) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                out.writeInt(request.daysRequestedValue());
+            }
+            out.writeByte(request.approved() ? TRUE : FALSE);
+            writeDateTime(out, request.requestDateMillis());
+            writeDateTime(out, request.approvalDateMillis());
+            out.writeInt(request.startDay());
+            out.writeInt(request.endDay());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot encode leave request " + request.id(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Entry decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte header = in.readByte();
+            LeaveMutation mutation = LeaveMutation.fromCode((byte) (header & ~BINARY_ID));
+            LeaveRequestId id = (header & BINARY_ID) != 0
+                    ? new LeaveRequestId(in.readLong(), in.readLong())
+                    : LeaveRequestId.parse(in.readUTF());
+            String employeeName = readString(in);
+            int daysRequested = in.readBoolean() ? in.readInt() : LeaveRecord.NO_DAYS;
+            byte approved = in.readByte();
+            long requestDate = readDateTime(in);
+            long approvalDate = readDateTime(in);
+            boolean period = in.available() > 0;
+            int startDay = period ? in.readInt() : LeaveRecord.NO_DAY;
+            int endDay = period ? in.readInt() : LeaveRecord.NO_DAY;
+            LeaveRecord request = new LeaveRecord(id, employeeName, daysRequested, statusOf(mutation, approved),
+                    requestDate, approvalDate, startDay, endDay);
+            return new Entry(mutation, request);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot decode leave request log entry", e);
+        }
+    }
+
+    /**
+     * Status is not encoded: a REJECT entry always leaves the request
+     * rejected, and otherwise the approval flag tells pending from approved.
+     */
+    private static LeaveStatus statusOf(LeaveMutation mutation, byte approved) {
+        if (mutation == LeaveMutation.REJECT) {
+            return LeaveStatus.REJECTED;
+        }
+        return approved == TRUE ? LeaveStatus.APPROVED : LeaveStatus.PENDING;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Dates are written as UTC epoch seconds and nanoseconds, as before dates
+     * were kept in milliseconds; older entries lose their sub-millisecond part
+     */
+    private static void writeDateTime(DataOutputStream out, long epochMilli) throws IOException {
+        out.writeBoolean(epochMilli != LeaveRecord.NO_DATE);
+        if (epochMilli != LeaveRecord.NO_DATE) {
+            out.writeLong(Math.floorDiv(epochMilli, 1000L));
+            out.writeInt((int) Math.floorMod(epochMilli, 1000L) * 1_000_000);
+        }
+    }
+
+    private static long readDateTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return LeaveRecord.NO_DATE;
+        }
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return seconds * 1000L + nanos / 1_000_000;
+    }
+}
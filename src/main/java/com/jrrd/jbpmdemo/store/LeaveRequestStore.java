@@ -0,0 +1,156 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+/**
+ * Storage abstraction for leave requests.
+ *
+ * Implementations decide where requests live (memory, disk, ...). Requests
+ * are stored as immutable {@link LeaveRecord} snapshots, and every change goes
+ * through {@link #save(LeaveRecord, LeaveMutation)} or
+ * {@link #update(LeaveRequestId, LeaveMutation, UnaryOperator)} so that durable
+ * implementations can record what happened to the request.
+ *
+ * A store may index some requests itself, typically ones it keeps off the
+ * heap, so that callers need not hold them in indexes of their own; see
+ * {@link #isIndexed(LeaveRecord)}.
+ */
+public interface LeaveRequestStore extends AutoCloseable {
+
+    /**
+     * Stores the current state of a leave request
+     *
+     * @param request The leave request to store
+     * @param mutation The change that produced this state
+     */
+    void save(LeaveRecord request, LeaveMutation mutation);
+
+    /**
+     * Atomically replaces a leave request with the result of a transition.
+     * The transition sees the latest snapshot and may run more than once per
+     * call only if the implementation says so; it must not have side effects
+     * beyond computing the new snapshot. Returning the current snapshot
+     * unchanged records nothing, and exceptions leave the request untouched.
+     *
+     * @param id The leave request ID
+     * @param mutation The change the transition applies
+     * @param transition Computes the new snapshot from the current one
+     * @return The resulting snapshot or null if the request does not exist
+     */
+    LeaveRecord update(LeaveRequestId id, LeaveMutation mutation, UnaryOperator<LeaveRecord> transition);
+
+    /**
+     * Stores several new leave request states as one batch. Durable
+     * implementations persist the whole batch with a single flush.
+     *
+     * @param requests The leave requests to store
+     * @param mutation The change that produced these states
+     */
+    default void saveAll(List<LeaveRecord> requests, LeaveMutation mutation) {
+        for (LeaveRecord request : requests) {
+            save(request, mutation);
+        }
+    }
+
+    /**
+     * Applies the same transition to several leave requests as one batch,
+     * each request atomically as in {@link #update}. Durable implementations
+     * persist the whole batch with a single flush. The transition should not
+     * throw: an exception aborts the remaining requests of the batch.
+     *
+     * @param ids The leave request IDs
+     * @param mutation The change the transition applies
+     * @param transition Computes the new snapshot from the current one
+     * @return The resulting snapshots in the order of the IDs, null for unknown IDs
+     */
+    default List<LeaveRecord> updateAll(List<LeaveRequestId> ids, LeaveMutation mutation, UnaryOperator<LeaveRecord> transition) {
+        List<LeaveRecord> updated = new ArrayList<>(ids.size());
+        for (LeaveRequestId id : ids) {
+            updated.add(id == null ? null : update(id, mutation, transition));
+        }
+        return updated;
+    }
+
+    /**
+     * Finds a leave request by ID
+     *
+     * @param id The leave request ID
+     * @return The snapshot or null if not found
+     */
+    LeaveRecord findById(LeaveRequestId id);
+
+    /**
+     * Gets all stored leave requests
+     *
+     * @return Live view of all leave requests
+     */
+    Collection<LeaveRecord> findAll();
+
+    /**
+     * Gets the number of stored leave requests
+     *
+     * @return Number of leave requests
+     */
+    int size();
+
+    /**
+     * Checks whether the store indexes a request itself. Such requests are
+     * found by the {@code findIndexed} methods, and callers that index
+     * requests on their own leave them out.
+     *
+     * @param request A state of the request returned by the store
+     * @return true if the store indexes the request
+     */
+    default boolean isIndexed(LeaveRecord request) {
+        return false;
+    }
+
+    /**
+     * Gets the requests of an employee among those the store indexes
+     *
+     * @param employeeName The employee name
+     * @return The employee's indexed requests, in no particular order
+     */
+    default Iterator<LeaveRecord> findIndexedByEmployee(String employeeName) {
+        return Collections.emptyIterator();
+    }
+
+    /**
+     * Gets the requests with a status among those the store indexes
+     *
+     * @param status The status
+     * @return The indexed requests with the status, in no particular order
+     */
+    default Iterator<LeaveRecord> findIndexedByStatus(LeaveStatus status) {
+        return Collections.emptyIterator();
+    }
+
+    /**
+     * Gets a range of the requests the store indexes, ordered by request
+     * date and then by ID
+     *
+     * @param fromDate Request date in epoch milliseconds where the range starts
+     * @param fromId ID where the range starts within {@code fromDate}
+     * @param inclusive Whether a request with exactly that date and ID is included
+     * @param toDate Request date in epoch milliseconds before which the range ends
+     * @return The indexed requests in the range, in order
+     */
+    default Iterator<LeaveRecord> findIndexedByRequestDate(long fromDate, LeaveRequestId fromId, boolean inclusive,
+                                                           long toDate) {
+        return Collections.emptyIterator();
+    }
+
+    @Override
+    default void close() {
+        // Nothing to release by default
+    }
+}
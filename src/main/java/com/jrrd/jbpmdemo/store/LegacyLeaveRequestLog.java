@@ -0,0 +1,96 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+
+/**
+ * Reader of the request log written by versions that stored leave request
+ * snapshots rather than their histories: a {@link WriteAheadLog} of
+ * {@link LeaveRequestCodec} entries, each the full request after a mutation,
+ * with {@link SnapshotFiles} of every request next to it.
+ *
+ * The log is only read, to import its requests once so that they get a
+ * history; nothing is written to it any more. Once their histories are
+ * stored, {@link #markImported(Path)} leaves a marker file in the directory,
+ * and a directory with the marker is not read again.
+ */
+public final class LegacyLeaveRequestLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyLeaveRequestLog.class);
+
+    static final int SNAPSHOT_MAGIC = 0x4C525153; // "LRQS"
+    static final int SNAPSHOT_VERSION = 1;
+    static final String IMPORTED_MARKER = "IMPORTED";
+
+    private LegacyLeaveRequestLog() {
+    }
+
+    /**
+     * Reads the requests of a log directory into a store: the latest snapshot,
+     * then the log written since
+     *
+     * @param directory Directory of the log and its snapshots
+     * @param segmentSize Size in bytes after which the log started a new segment
+     * @param into Store to restore the requests into
+     * @return Number of requests in the store afterwards
+     */
+    public static int read(Path directory, long segmentSize, LeaveRequestStore into) {
+        SnapshotFiles snapshots = snapshotFiles(directory);
+        try (WriteAheadLog log = new WriteAheadLog(directory, segmentSize)) {
+            Path snapshot = snapshots.latest();
+            long fromSegment = 0;
+            long restored = 0;
+            if (snapshot != null) {
+                fromSegment = SnapshotFiles.segmentOf(snapshot);
+                restored = snapshots.read(snapshot, payload -> restore(into, LeaveRequestCodec.decode(payload)));
+            }
+            long replayed = log.replay(fromSegment, payload -> restore(into, LeaveRequestCodec.decode(payload)));
+            logger.info("Read {} leave requests from request log {}: {} from snapshot, {} mutations from the log",
+                    into.size(), directory, restored, replayed);
+        }
+        return into.size();
+    }
+
+    /**
+     * Checks whether the requests of a log directory were imported already
+     */
+    public static boolean isImported(Path directory) {
+        return Files.exists(directory.resolve(IMPORTED_MARKER));
+    }
+
+    /**
+     * Marks the requests of a log directory as imported, so it is not read
+     * again; call once every request read from it has a durable history
+     */
+    public static void markImported(Path directory) {
+        Path marker = directory.resolve(IMPORTED_MARKER);
+        try {
+            Files.writeString(marker, "Imported into the leave request histories at " + Instant.now()
+                    + "; this directory is no longer read and can be removed\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot mark request log " + directory + " as imported", e);
+        }
+        logger.info("Marked request log {} as imported; it can be removed", directory);
+    }
+
+    static SnapshotFiles snapshotFiles(Path directory) {
+        return new SnapshotFiles(directory, SNAPSHOT_MAGIC, SNAPSHOT_VERSION, "leave request");
+    }
+
+    private static void restore(LeaveRequestStore into, LeaveRequestCodec.Entry entry) {
+        LeaveRecord existing = into.findById(entry.request().id());
+        // Decisions are final, and a snapshot may hold a decision made while the log rolled,
+        // newer than the entries of the request that follow it in the log
+        if (existing == null || !existing.status().isFinal()) {
+            into.save(entry.request(), entry.mutation());
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+/**
+ * Index of leave request IDs by request date, ordered by date and then by ID
+ * like the service's own date index, kept in direct buffers.
+ *
+ * New keys go to a small sorted buffer on the heap. A full buffer is written
+ * to an immutable sorted run in a direct buffer, and runs of equal size are
+ * merged, so there are about log2(n / buffer size) runs. A range is read by
+ * merging the runs and a copy of the buffer taken when reading starts; the
+ * reader needs no lock and does not see keys added later.
+ */
+final class OffHeapDateIndex {
+
+    static final int DEFAULT_BUFFER_KEYS = 1024;
+
+    // Key: request date, ID high, ID low
+    private static final int KEY_BYTES = 24;
+    private static final ByteBuffer[] NO_RUNS = new ByteBuffer[0];
+
+    private final int bufferKeys;
+    // Guarded by this: buffered keys, three longs each, in order
+    private final long[] buffer;
+    private int buffered;
+    // Guarded by this, replaced rather than changed; largest first
+    private ByteBuffer[] runs = NO_RUNS;
+
+    OffHeapDateIndex() {
+        this(DEFAULT_BUFFER_KEYS);
+    }
+
+    OffHeapDateIndex(int bufferKeys) {
+        if (bufferKeys <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferKeys);
+        }
+        this.bufferKeys = bufferKeys;
+        this.buffer = new long[bufferKeys * 3];
+    }
+
+    /**
+     * Adds the key of a request; each request must be added only once
+     */
+    synchronized void add(long requestDate, long high, long low) {
+        int at = buffered;
+        while (at > 0 && compare(buffer[(at - 1) * 3], buffer[(at - 1) * 3 + 1], buffer[(at - 1) * 3 + 2],
+                requestDate, high, low) > 0) {
+            at--;
+        }
+        System.arraycopy(buffer, at * 3, buffer, at * 3 + 3, (buffered - at) * 3);
+        buffer[at * 3] = requestDate;
+        buffer[at * 3 + 1] = high;
+        buffer[at * 3 + 2] = low;
+        if (++buffered == bufferKeys) {
+            flush();
+        }
+    }
+
+    /**
+     * Gets the IDs of the requests from a key up to a date, in order
+     *
+     * @param fromDate Request date of the first key
+     * @param fromId ID of the first key
+     * @param inclusive Whether the first key itself is included
+     * @param toDate Request date before which the range ends
+     */
+    Iterator<LeaveRequestId> range(long fromDate, LeaveRequestId fromId, boolean inclusive, long toDate) {
+        ByteBuffer[] sources;
+        synchronized (this) {
+            sources = Arrays.copyOf(runs, runs.length + 1);
+            ByteBuffer copy = ByteBuffer.allocate(buffered * KEY_BYTES);
+            for (int i = 0; i < buffered * 3; i++) {
+                copy.putLong(buffer[i]);
+            }
+            sources[runs.length] = copy;
+        }
+        int[] positions = new int[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            positions[i] = search(sources[i], fromDate, fromId.high(), fromId.low(), inclusive);
+        }
+        return new Iterator<>() {
+            private int next = -1;
+
+            @Override
+            public boolean hasNext() {
+                if (next >= 0) {
+                    return true;
+                }
+                for (int i = 0; i < sources.length; i++) {
+                    if (positions[i] < keys(sources[i]) && (next < 0 || compare(sources[i], positions[i],
+                            sources[next], positions[next]) < 0)) {
+                        next = i;
+                    }
+                }
+                if (next >= 0 && sources[next].getLong(positions[next] * KEY_BYTES) >= toDate) {
+                    // Every source is ordered, so the smallest key past the range ends it
+                    Arrays.fill(positions, Integer.MAX_VALUE);
+                    next = -1;
+                }
+                return next >= 0;
+            }
+
+            @Override
+            public LeaveRequestId next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ByteBuffer source = sources[next];
+                int offset = positions[next]++ * KEY_BYTES;
+                next = -1;
+                return new LeaveRequestId(source.getLong(offset + 8), source.getLong(offset + 16));
+            }
+        };
+    }
+
+    /**
+     * Gets the direct memory held by the runs
+     */
+    synchronized long offHeapBytes() {
+        long bytes = 0;
+        for (ByteBuffer run : runs) {
+            bytes += run.capacity();
+        }
+        return bytes;
+    }
+
+    synchronized void clear() {
+        runs = NO_RUNS;
+        buffered = 0;
+    }
+
+    private void flush() {
+        ByteBuffer run = ByteBuffer.allocateDirect(buffered * KEY_BYTES);
+        for (int i = 0; i < buffered * 3; i++) {
+            run.putLong(buffer[i]);
+        }
+        buffered = 0;
+        ByteBuffer[] grown = Arrays.copyOf(runs, runs.length + 1);
+        grown[runs.length] = run;
+        int count = grown.length;
+        // A buffer holds at most 2 GB, so the largest runs stop merging there
+        while (count >= 2 && keys(grown[count - 2]) <= keys(grown[count - 1])
+                && (long) grown[count - 2].capacity() + grown[count - 1].capacity() <= Integer.MAX_VALUE) {
+            grown[count - 2] = merge(grown[count - 2], grown[count - 1]);
+            count--;
+        }
+        runs = Arrays.copyOf(grown, count);
+    }
+
+    private static ByteBuffer merge(ByteBuffer first, ByteBuffer second) {
+        ByteBuffer merged = ByteBuffer.allocateDirect(first.capacity() + second.capacity());
+        int i = 0;
+        int j = 0;
+        while (i < keys(first) || j < keys(second)) {
+            boolean fromFirst = j >= keys(second) || (i < keys(first) && compare(first, i, second, j) <= 0);
+            ByteBuffer source = fromFirst ? first : second;
+            int offset = (fromFirst ? i++ : j++) * KEY_BYTES;
+            merged.putLong(source.getLong(offset));
+            merged.putLong(source.getLong(offset + 8));
+            merged.putLong(source.getLong(offset + 16));
+        }
+        return merged;
+    }
+
+    /**
+     * Finds the first key of a run after (or at, if inclusive) the given one
+     */
+    private static int search(ByteBuffer run, long date, long high, long low, boolean inclusive) {
+        int from = 0;
+        int to = keys(run);
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            int offset = middle * KEY_BYTES;
+            int order = compare(run.getLong(offset), run.getLong(offset + 8), run.getLong(offset + 16), date, high, low);
+            if (order < 0 || (order == 0 && !inclusive)) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    private static int keys(ByteBuffer run) {
+        return run.capacity() / KEY_BYTES;
+    }
+
+    private static int compare(ByteBuffer first, int i, ByteBuffer second, int j) {
+        int a = i * KEY_BYTES;
+        int b = j * KEY_BYTES;
+        return compare(first.getLong(a), first.getLong(a + 8), first.getLong(a + 16),
+                second.getLong(b), second.getLong(b + 8), second.getLong(b + 16));
+    }
+
+    /**
+     * Orders keys like {@link LeaveRequestId#compareTo} within a date
+     */
+    private static int compare(long date, long high, long low, long otherDate, long otherHigh, long otherLow) {
+        int byDate = Long.compare(date, otherDate);
+        if (byDate != 0) {
+            return byDate;
+        }
+        int byHigh = Long.compareUnsigned(high, otherHigh);
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(low, otherLow);
+    }
+}
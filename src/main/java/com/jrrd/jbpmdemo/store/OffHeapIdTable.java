@@ -0,0 +1,126 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.nio.ByteBuffer;
+
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+/**
+ * Open-addressing hash table from leave request ID to a non-negative long,
+ * kept in a direct buffer so that it holds no per-entry heap objects.
+ *
+ * Entries can be replaced but not removed. Not thread-safe: callers guard
+ * the table with their own lock.
+ */
+final class OffHeapIdTable {
+
+    static final long ABSENT = -1;
+
+    // Slot: ID high, ID low, value + 1 (0 marks an empty slot)
+    private static final int SLOT_BYTES = 24;
+    private static final int INITIAL_SLOTS = 1 << 10;
+
+    private ByteBuffer table = ByteBuffer.allocateDirect(INITIAL_SLOTS * SLOT_BYTES);
+    private int size;
+
+    static long hash(LeaveRequestId id) {
+        return hash(id.high(), id.low());
+    }
+
+    static long hash(long high, long low) {
+        long h = high * 0x9E3779B97F4A7C15L ^ low;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Gets the value of an ID
+     *
+     * @param hash {@link #hash(long, long)} of the ID
+     * @return The value, or {@link #ABSENT}
+     */
+    long get(long high, long low, long hash) {
+        int mask = table.capacity() / SLOT_BYTES - 1;
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int offset = slot * SLOT_BYTES;
+            long valueRef = table.getLong(offset + 16);
+            if (valueRef == 0) {
+                return ABSENT;
+            }
+            if (table.getLong(offset) == high && table.getLong(offset + 8) == low) {
+                return valueRef - 1;
+            }
+        }
+    }
+
+    /**
+     * Sets the value of an ID, replacing the one it has
+     *
+     * @param hash {@link #hash(long, long)} of the ID
+     * @param value A value from 0 to {@code Long.MAX_VALUE - 1}
+     */
+    void put(long high, long low, long hash, long value) {
+        int mask = table.capacity() / SLOT_BYTES - 1;
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int offset = slot * SLOT_BYTES;
+            if (table.getLong(offset + 16) == 0) {
+                break;
+            }
+            if (table.getLong(offset) == high && table.getLong(offset + 8) == low) {
+                table.putLong(offset + 16, value + 1);
+                return;
+            }
+        }
+        if ((long) (size + 1) * 3 > (long) (table.capacity() / SLOT_BYTES) * 2) {
+            resize();
+        }
+        insert(table, high, low, hash, value);
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the direct memory held by the table
+     */
+    long offHeapBytes() {
+        return table.capacity();
+    }
+
+    void clear() {
+        table = ByteBuffer.allocateDirect(INITIAL_SLOTS * SLOT_BYTES);
+        size = 0;
+    }
+
+    private void resize() {
+        int slots = table.capacity() / SLOT_BYTES;
+        if ((long) slots * 2 * SLOT_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap ID table is full");
+        }
+        ByteBuffer resized = ByteBuffer.allocateDirect(slots * 2 * SLOT_BYTES);
+        for (int slot = 0; slot < slots; slot++) {
+            int offset = slot * SLOT_BYTES;
+            long valueRef = table.getLong(offset + 16);
+            if (valueRef != 0) {
+                long high = table.getLong(offset);
+                long low = table.getLong(offset + 8);
+                insert(resized, high, low, hash(high, low), valueRef - 1);
+            }
+        }
+        table = resized;
+    }
+
+    private static void insert(ByteBuffer target, long high, long low, long hash, long value) {
+        int mask = target.capacity() / SLOT_BYTES - 1;
+        int slot = (int) hash & mask;
+        while (target.getLong(slot * SLOT_BYTES + 16) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        int offset = slot * SLOT_BYTES;
+        target.putLong(offset, high);
+        target.putLong(offset + 8, low);
+        target.putLong(offset + 16, value + 1);
+    }
+}
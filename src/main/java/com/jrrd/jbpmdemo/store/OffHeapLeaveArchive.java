@@ -0,0 +1,514 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+/**
+ * Off-heap, columnar storage for leave request snapshots.
+ *
+ * Requests are spread over stripes by ID hash. Each stripe appends rows to
+ * fixed-size segments in direct buffers, one column region per field, and
+ * finds rows through an {@link OffHeapIdTable} (ID to row) that lives in a
+ * direct buffer as well. The only per-request heap objects are the ones
+ * created when a row is read, so the heap and GC work stay flat no matter
+ * how many requests are archived. Employee names are dictionary-encoded.
+ *
+ * The archive indexes its requests itself, off the heap as well: each row
+ * links to the row archived before it for the same employee, the dictionary
+ * keeping only the latest row of each employee; requests by status are found
+ * by scanning the status column; and an {@link OffHeapDateIndex} orders them
+ * by request date.
+ *
+ * Each stripe has its own read-write lock; rows can be overwritten in place
+ * but never removed. Direct memory is limited by
+ * {@code -XX:MaxDirectMemorySize} (defaults to the maximum heap size) and
+ * released when the archive becomes unreachable.
+ */
+public class OffHeapLeaveArchive implements AutoCloseable {
+
+    static final int DEFAULT_STRIPES = 16;
+    static final int DEFAULT_SEGMENT_ROWS = 1 << 16;
+
+    // Column widths in bytes, one region per column within a segment
+    private static final int ROW_BYTES = 8 + 8 + 8 + 8 + 4 + 4 + 4 + 4 + 8 + 1;
+    private static final int NO_NAME = -1;
+    // Reference of no row in the employee links; a reference is the stripe index and the row
+    private static final long NO_ROW = -1;
+    private static final byte NO_STATUS = -1;
+    private static final LeaveStatus[] STATUSES = LeaveStatus.values();
+
+    private final Stripe[] stripes;
+    private final int segmentRows;
+    private final int segmentShift;
+    private final NameDictionary names = new NameDictionary();
+    private final OffHeapDateIndex dates = new OffHeapDateIndex();
+
+    public OffHeapLeaveArchive() {
+        this(DEFAULT_STRIPES, DEFAULT_SEGMENT_ROWS);
+    }
+
+    /**
+     * Creates an empty archive
+     *
+     * @param stripes Number of independently locked stripes, a power of two
+     * @param segmentRows Rows per segment, a power of two
+     */
+    public OffHeapLeaveArchive(int stripes, int segmentRows) {
+        if (Integer.bitCount(stripes) != 1 || stripes > 64
+                || Integer.bitCount(segmentRows) != 1 || segmentRows > 1 << 24) {
+            throw new IllegalArgumentException("Stripes (up to 64) and segment rows (up to 2^24) must be powers of two");
+        }
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(i);
+        }
+        this.segmentRows = segmentRows;
+        this.segmentShift = Integer.numberOfTrailingZeros(segmentRows);
+    }
+
+    /**
+     * Stores a snapshot, replacing the row of the same ID if there is one
+     */
+    public void put(LeaveRecord request) {
+        LeaveRequestId id = request.id();
+        long hash = hash(id);
+        Stripe stripe = stripe(hash);
+        stripe.lock.writeLock().lock();
+        try {
+            int row = stripe.find(id.high(), id.low(), hash);
+            if (row >= 0) {
+                stripe.write(row, request);
+                return;
+            }
+            row = stripe.append(id.high(), id.low(), hash);
+            stripe.write(row, request);
+            // Linked while the stripe is locked, so readers of the new head wait for the link
+            stripe.link(row, names.link(request.employeeName(), stripe.reference(row)));
+            if (request.requestDateMillis() != LeaveRecord.NO_DATE) {
+                dates.add(request.requestDateMillis(), id.high(), id.low());
+            }
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the snapshot of a request
+     *
+     * @return A new snapshot read from the archive, or null if not archived
+     */
+    public LeaveRecord get(LeaveRequestId id) {
+        long hash = hash(id);
+        Stripe stripe = stripe(hash);
+        stripe.lock.readLock().lock();
+        try {
+            int row = stripe.find(id.high(), id.low(), hash);
+            return row < 0 ? null : stripe.read(row, id);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(LeaveRequestId id) {
+        long hash = hash(id);
+        Stripe stripe = stripe(hash);
+        stripe.lock.readLock().lock();
+        try {
+            return stripe.find(id.high(), id.low(), hash) >= 0;
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Atomically replaces an archived snapshot with the result of a transition
+     *
+     * @return The resulting snapshot, or null if the request is not archived
+     */
+    public LeaveRecord update(LeaveRequestId id, UnaryOperator<LeaveRecord> transition) {
+        long hash = hash(id);
+        Stripe stripe = stripe(hash);
+        stripe.lock.writeLock().lock();
+        try {
+            int row = stripe.find(id.high(), id.low(), hash);
+            if (row < 0) {
+                return null;
+            }
+            LeaveRecord current = stripe.read(row, id);
+            LeaveRecord next = transition.apply(current);
+            if (next != current) {
+                stripe.write(row, next);
+            }
+            return next;
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of archived requests
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                size += stripe.rows;
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets the direct memory held by segments and hash tables
+     */
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                bytes += (long) stripe.segments.size() * segmentRows * ROW_BYTES + stripe.table.offHeapBytes();
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return bytes + dates.offHeapBytes();
+    }
+
+    /**
+     * Iterates over the archived requests stripe by stripe. Rows appended
+     * after a stripe has been visited are not included.
+     */
+    public Iterator<LeaveRecord> iterator() {
+        return scan(null);
+    }
+
+    /**
+     * Iterates over the archived requests with a status, stripe by stripe,
+     * reading only the status of the other rows
+     */
+    public Iterator<LeaveRecord> withStatus(LeaveStatus status) {
+        return scan(status);
+    }
+
+    /**
+     * Iterates over the archived requests of an employee, latest archived first
+     */
+    public Iterator<LeaveRecord> byEmployee(String employeeName) {
+        return new Iterator<>() {
+            private long reference = names.head(employeeName);
+
+            @Override
+            public boolean hasNext() {
+                return reference != NO_ROW;
+            }
+
+            @Override
+            public LeaveRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Stripe stripe = stripes[(int) (reference >>> 32)];
+                int row = (int) reference;
+                stripe.lock.readLock().lock();
+                try {
+                    reference = stripe.linked(row);
+                    return stripe.read(row, null);
+                } finally {
+                    stripe.lock.readLock().unlock();
+                }
+            }
+        };
+    }
+
+    /**
+     * Iterates over the archived requests from a request date and ID up to a
+     * request date, ordered by date and then by ID. Requests archived after
+     * the iteration started are not included.
+     *
+     * @param fromDate Request date in epoch milliseconds where the range starts
+     * @param fromId ID where the range starts within {@code fromDate}
+     * @param inclusive Whether a request with exactly that date and ID is included
+     * @param toDate Request date in epoch milliseconds before which the range ends
+     */
+    public Iterator<LeaveRecord> byRequestDate(long fromDate, LeaveRequestId fromId, boolean inclusive, long toDate) {
+        Iterator<LeaveRequestId> ids = dates.range(fromDate, fromId, inclusive, toDate);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public LeaveRecord next() {
+                // Rows are never removed, so every indexed ID has one
+                return get(ids.next());
+            }
+        };
+    }
+
+    /**
+     * Iterates over the rows stripe by stripe, those with a status only unless it is null
+     */
+    private Iterator<LeaveRecord> scan(LeaveStatus status) {
+        return new Iterator<>() {
+            private int stripeIndex;
+            private int row;
+            private int rows = rowsOf(0);
+            private LeaveRecord next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    while (row >= rows && stripeIndex < stripes.length - 1) {
+                        stripeIndex++;
+                        row = 0;
+                        rows = rowsOf(stripeIndex);
+                    }
+                    if (row >= rows) {
+                        return false;
+                    }
+                    Stripe stripe = stripes[stripeIndex];
+                    stripe.lock.readLock().lock();
+                    try {
+                        for (; row < rows && next == null; row++) {
+                            if (status == null || stripe.status(row) == status) {
+                                next = stripe.read(row, null);
+                            }
+                        }
+                    } finally {
+                        stripe.lock.readLock().unlock();
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public LeaveRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                LeaveRecord current = next;
+                next = null;
+                return current;
+            }
+        };
+    }
+
+    private int rowsOf(int stripeIndex) {
+        Stripe stripe = stripes[stripeIndex];
+        stripe.lock.readLock().lock();
+        try {
+            return stripe.rows;
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.writeLock().lock();
+            try {
+                stripe.clear();
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+        names.unlink();
+        dates.clear();
+    }
+
+    private Stripe stripe(long hash) {
+        return stripes[(int) (hash >>> 58) & (stripes.length - 1)];
+    }
+
+    private static long hash(LeaveRequestId id) {
+        return OffHeapIdTable.hash(id);
+    }
+
+    /**
+     * Rows and hash table of one stripe, guarded by its lock
+     */
+    private final class Stripe {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final List<ByteBuffer> segments = new ArrayList<>();
+        final OffHeapIdTable table = new OffHeapIdTable();
+        final int index;
+        int rows;
+
+        Stripe(int index) {
+            this.index = index;
+        }
+
+        int find(long high, long low, long hash) {
+            return (int) table.get(high, low, hash);
+        }
+
+        int append(long high, long low, long hash) {
+            if (rows == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Archive stripe is full");
+            }
+            int row = rows;
+            if ((row & (segmentRows - 1)) == 0) {
+                segments.add(ByteBuffer.allocateDirect(segmentRows * ROW_BYTES));
+            }
+            table.put(high, low, hash, row);
+            rows++;
+            return row;
+        }
+
+        long reference(int row) {
+            return (long) index << 32 | row;
+        }
+
+        /**
+         * Sets the row archived before a row for the same employee
+         */
+        void link(int row, long previous) {
+            segments.get(row >>> segmentShift).putLong(column(48) + (row & (segmentRows - 1)) * 8, previous);
+        }
+
+        long linked(int row) {
+            return segments.get(row >>> segmentShift).getLong(column(48) + (row & (segmentRows - 1)) * 8);
+        }
+
+        LeaveStatus status(int row) {
+            byte status = segments.get(row >>> segmentShift).get(column(56) + (row & (segmentRows - 1)));
+            return status == NO_STATUS ? null : STATUSES[status];
+        }
+
+        void write(int row, LeaveRecord request) {
+            ByteBuffer segment = segments.get(row >>> segmentShift);
+            int index = row & (segmentRows - 1);
+            LeaveStatus status = request.status();
+            segment.putLong(column(0) + index * 8, request.id().high());
+            segment.putLong(column(8) + index * 8, request.id().low());
+            segment.putLong(column(16) + index * 8, request.requestDateMillis());
+            segment.putLong(column(24) + index * 8, request.approvalDateMillis());
+            segment.putInt(column(32) + index * 4, names.code(request.employeeName()));
+            segment.putInt(column(36) + index * 4, request.daysRequestedValue());
+            segment.putInt(column(40) + index * 4, request.startDay());
+            segment.putInt(column(44) + index * 4, request.endDay());
+            segment.put(column(56) + index, status == null ? NO_STATUS : (byte) status.ordinal());
+        }
+
+        /**
+         * Reads a row; the ID is reused when the caller already has it
+         */
+        LeaveRecord read(int row, LeaveRequestId id) {
+            ByteBuffer segment = segments.get(row >>> segmentShift);
+            int index = row & (segmentRows - 1);
+            if (id == null) {
+                id = new LeaveRequestId(segment.getLong(column(0) + index * 8), segment.getLong(column(8) + index * 8));
+            }
+            byte status = segment.get(column(56) + index);
+            return new LeaveRecord(id,
+                    names.name(segment.getInt(column(32) + index * 4)),
+                    segment.getInt(column(36) + index * 4),
+                    status == NO_STATUS ? null : STATUSES[status],
+                    segment.getLong(column(16) + index * 8),
+                    segment.getLong(column(24) + index * 8),
+                    segment.getInt(column(40) + index * 4),
+                    segment.getInt(column(44) + index * 4));
+        }
+
+        /**
+         * Start of a column region; offsets are the column's position in a row
+         */
+        private int column(int rowOffset) {
+            return rowOffset * segmentRows;
+        }
+
+        void clear() {
+            segments.clear();
+            table.clear();
+            rows = 0;
+        }
+    }
+
+    /**
+     * Assigns a stable code to every distinct employee name, and keeps the
+     * latest row archived for each
+     */
+    private static final class NameDictionary {
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private volatile String[] names = new String[64];
+        private int size;
+        // Guarded by this
+        private long[] heads = new long[0];
+
+        int code(String name) {
+            if (name == null) {
+                return NO_NAME;
+            }
+            Integer code = codes.get(name);
+            return code != null ? code : add(name);
+        }
+
+        private synchronized int add(String name) {
+            Integer existing = codes.get(name);
+            if (existing != null) {
+                return existing;
+            }
+            String[] current = names;
+            if (size == current.length) {
+                String[] grown = Arrays.copyOf(current, size * 2);
+                grown[size] = name;
+                names = grown;
+            } else {
+                current[size] = name;
+                names = current;
+            }
+            codes.put(name, size);
+            return size++;
+        }
+
+        String name(int code) {
+            return code == NO_NAME ? null : names[code];
+        }
+
+        /**
+         * Makes a row the latest of its employee
+         *
+         * @return The row that was the latest before, or {@link #NO_ROW}
+         */
+        synchronized long link(String name, long reference) {
+            if (name == null) {
+                return NO_ROW;
+            }
+            int code = code(name);
+            if (code >= heads.length) {
+                int length = heads.length;
+                heads = Arrays.copyOf(heads, Math.max(64, Math.max(length * 2, code + 1)));
+                Arrays.fill(heads, length, heads.length, NO_ROW);
+            }
+            long previous = heads[code];
+            heads[code] = reference;
+            return previous;
+        }
+
+        synchronized long head(String name) {
+            Integer code = name == null ? null : codes.get(name);
+            return code == null || code >= heads.length ? NO_ROW : heads[code];
+        }
+
+        synchronized void unlink() {
+            Arrays.fill(heads, NO_ROW);
+        }
+    }
+}
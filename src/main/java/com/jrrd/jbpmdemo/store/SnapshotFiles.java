@@ -0,0 +1,158 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Snapshot files kept next to a {@link WriteAheadLog}, each covering every
+ * log record before a segment.
+ *
+ * A snapshot is named after the first segment it does not cover, as returned
+ * by {@link WriteAheadLog#roll()}, so a restart reads the latest snapshot and
+ * replays the log from that segment on. Layout: a magic number and format
+ * version, records framed as {@code [length][payload]}, then {@code -1} and
+ * the record count; a snapshot without that end marker is incomplete.
+ * Snapshots are written to a temporary file, fsynced and renamed into place,
+ * so a crash leaves the previous snapshot intact.
+ */
+final class SnapshotFiles {
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    private final Path directory;
+    private final int magic;
+    private final int version;
+    private final String description;
+
+    /**
+     * @param directory Directory of the log and its snapshots
+     * @param magic Magic number identifying the kind of snapshot
+     * @param version Format version of the records
+     * @param description What the snapshots hold, for error messages
+     */
+    SnapshotFiles(Path directory, int magic, int version, String description) {
+        this.directory = directory;
+        this.magic = magic;
+        this.version = version;
+        this.description = description;
+    }
+
+    /**
+     * Gets the latest snapshot, or null if there is none
+     */
+    Path latest() {
+        List<Path> existing = snapshots();
+        return existing.isEmpty() ? null : existing.get(existing.size() - 1);
+    }
+
+    /**
+     * Reads every record of a snapshot
+     *
+     * @return Number of records read
+     */
+    long read(Path snapshot, Consumer<byte[]> consumer) {
+        long restored = 0;
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16);
+                DataInputStream in = new DataInputStream(stream)) {
+            if (in.readInt() != magic || in.readInt() != version) {
+                throw new IllegalStateException("Not a " + description + " snapshot: " + snapshot);
+            }
+            int length;
+            while ((length = in.readInt()) >= 0) {
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                consumer.accept(payload);
+                restored++;
+            }
+            if (in.readLong() != restored) {
+                throw new IllegalStateException(description + " snapshot " + snapshot + " is incomplete");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + description + " snapshot " + snapshot, e);
+        }
+        return restored;
+    }
+
+    /**
+     * Writes a snapshot and deletes the older ones
+     *
+     * @param segment Index of the first log segment the snapshot does not cover
+     * @param records Passes every record to write to the given consumer
+     * @return The snapshot file
+     */
+    Path write(long segment, Consumer<Consumer<byte[]>> records) {
+        Path target = directory.resolve(name(segment));
+        Path temporary = directory.resolve(name(segment) + ".tmp");
+        long[] written = { 0 };
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16);
+                DataOutputStream out = new DataOutputStream(stream)) {
+            out.writeInt(magic);
+            out.writeInt(version);
+            records.accept(payload -> {
+                try {
+                    out.writeInt(payload.length);
+                    out.write(payload);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                written[0]++;
+            });
+            out.writeInt(-1);
+            out.writeLong(written[0]);
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalStateException("Cannot write " + description + " snapshot " + temporary, e);
+        }
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            for (Path older : snapshots()) {
+                if (segmentOf(older) < segment) {
+                    Files.delete(older);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot store " + description + " snapshot " + target, e);
+        }
+        return target;
+    }
+
+    /**
+     * Gets the index of the first log segment a snapshot does not cover
+     */
+    static long segmentOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private List<Path> snapshots() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(PREFIX)
+                            && path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted((a, b) -> Long.compare(segmentOf(a), segmentOf(b)))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list " + description + " directory " + directory, e);
+        }
+    }
+
+    private static String name(long segment) {
+        return String.format("%s%016d%s", PREFIX, segment, SUFFIX);
+    }
+}
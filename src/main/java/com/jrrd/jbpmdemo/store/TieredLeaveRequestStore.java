@@ -0,0 +1,157 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+/**
+ * Volatile store that keeps open (pending) requests in a concurrent map and
+ * moves requests to an {@link OffHeapLeaveArchive} once they are decided.
+ *
+ * Decided requests are final, so the records of the long history of
+ * approved and rejected requests stay off the heap and only the few open
+ * ones are GC-managed. Decided requests are {@linkplain #isIndexed indexed}
+ * by the archive, so the service does not keep them in its heap indexes
+ * either. A request moved by an update is written to the archive before it
+ * leaves the map, so readers find it in one of the two at all times. Requests
+ * are never moved back; saving an open state for an archived request fails.
+ */
+public class TieredLeaveRequestStore implements LeaveRequestStore {
+
+    private final Map<LeaveRequestId, LeaveRecord> open = new ConcurrentHashMap<>();
+    private final OffHeapLeaveArchive archive;
+    private final Collection<LeaveRecord> all = new AbstractCollection<>() {
+        @Override
+        public Iterator<LeaveRecord> iterator() {
+            return concat(open.values().iterator(), archive.iterator());
+        }
+
+        @Override
+        public int size() {
+            return TieredLeaveRequestStore.this.size();
+        }
+    };
+
+    public TieredLeaveRequestStore(OffHeapLeaveArchive archive) {
+        this.archive = archive;
+    }
+
+    @Override
+    public void save(LeaveRecord request, LeaveMutation mutation) {
+        if (isFinal(request)) {
+            archive.put(request);
+            open.remove(request.id());
+        } else if (archive.contains(request.id())) {
+            throw new IllegalStateException("Leave request " + request.id() + " is already decided");
+        } else {
+            open.put(request.id(), request);
+        }
+    }
+
+    @Override
+    public LeaveRecord update(LeaveRequestId id, LeaveMutation mutation, UnaryOperator<LeaveRecord> transition) {
+        LeaveRecord[] archived = { null };
+        LeaveRecord updated = open.computeIfPresent(id, (key, current) -> {
+            LeaveRecord next = transition.apply(current);
+            if (!isFinal(next)) {
+                return next;
+            }
+            // Archive first, then drop from the map by returning null
+            archive.put(next);
+            archived[0] = next;
+            return null;
+        });
+        if (archived[0] != null) {
+            return archived[0];
+        }
+        return updated != null ? updated : archive.update(id, transition);
+    }
+
+    @Override
+    public LeaveRecord findById(LeaveRequestId id) {
+        LeaveRecord request = open.get(id);
+        return request != null ? request : archive.get(id);
+    }
+
+    /**
+     * Gets open requests first, then archived ones. A request decided during
+     * the iteration may be returned twice or not at all.
+     */
+    @Override
+    public Collection<LeaveRecord> findAll() {
+        return all;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, open.size() + archive.size());
+    }
+
+    /**
+     * Indexes the decided requests, which are archived
+     */
+    @Override
+    public boolean isIndexed(LeaveRecord request) {
+        return isFinal(request);
+    }
+
+    @Override
+    public Iterator<LeaveRecord> findIndexedByEmployee(String employeeName) {
+        return archive.byEmployee(employeeName);
+    }
+
+    @Override
+    public Iterator<LeaveRecord> findIndexedByStatus(LeaveStatus status) {
+        return archive.withStatus(status);
+    }
+
+    @Override
+    public Iterator<LeaveRecord> findIndexedByRequestDate(long fromDate, LeaveRequestId fromId, boolean inclusive,
+                                                          long toDate) {
+        return archive.byRequestDate(fromDate, fromId, inclusive, toDate);
+    }
+
+    /**
+     * Gets the number of requests kept on the heap
+     */
+    int openCount() {
+        return open.size();
+    }
+
+    @Override
+    public void close() {
+        archive.close();
+    }
+
+    private static boolean isFinal(LeaveRecord request) {
+        return request.status() != null && request.status().isFinal();
+    }
+
+    private static <T> Iterator<T> concat(Iterator<T> first, Iterator<T> second) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return first.hasNext() || second.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (first.hasNext()) {
+                    return first.next();
+                }
+                if (second.hasNext()) {
+                    return second.next();
+                }
+                throw new NoSuchElementException();
+            }
+        };
+    }
+}
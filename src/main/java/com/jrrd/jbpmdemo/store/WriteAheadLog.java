@@ -0,0 +1,439 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only, segmented log of opaque records with group commit.
+ *
+ * Writers call {@link #append(byte[])} to buffer a record and then
+ * {@link #sync(long)} to wait until it is on disk. Whichever waiting thread
+ * finds no flush in progress becomes the leader: it writes everything
+ * buffered so far with one {@code write} + {@code fsync} while other threads
+ * keep appending to a second buffer. Concurrent writers therefore share one
+ * fsync instead of paying one each.
+ *
+ * Segment layout: an 8 byte header (magic, format version) followed by
+ * records framed as {@code [length][crc32][payload]}. Segments are rolled
+ * once they exceed the configured size, so appends never touch old files
+ * and cost the same no matter how long the log grows.
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    static final int SEGMENT_MAGIC = 0x4C57414C; // "LWAL"
+    static final int FORMAT_VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final long segmentSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+
+    // Guarded by lock
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private long appendedSequence;
+    private long durableSequence;
+    private boolean flushing;
+    private boolean closed;
+    private IOException failure;
+
+    // Only touched by the flush leader
+    private FileChannel channel;
+    private long segmentIndex;
+    private long segmentPosition;
+
+    /**
+     * Opens (or creates) a log in the given directory
+     *
+     * @param directory Directory holding the segment files
+     * @param segmentSize Size in bytes after which a new segment is started
+     */
+    public WriteAheadLog(Path directory, long segmentSize) {
+        if (segmentSize <= SEGMENT_HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size must be larger than " + SEGMENT_HEADER_SIZE + " bytes");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create write-ahead log directory " + directory, e);
+        }
+        List<Path> existing = segments();
+        this.segmentIndex = existing.isEmpty() ? 0 : indexOf(existing.get(existing.size() - 1));
+    }
+
+    /**
+     * Reads every record from the existing segments, oldest first.
+     * A torn record at the end of the last segment (crash during write) is
+     * truncated away; corruption anywhere else is fatal.
+     *
+     * @param consumer Receives each record payload
+     * @return Number of records replayed
+     */
+    public long replay(Consumer<byte[]> consumer) {
+        return replay(0, consumer);
+    }
+
+    /**
+     * Reads every record from the segments with the given index or later,
+     * oldest first, as {@link #replay(Consumer)} does
+     *
+     * @param fromSegment Index of the first segment to read, as returned by {@link #roll()}
+     * @param consumer Receives each record payload
+     * @return Number of records replayed
+     */
+    public long replay(long fromSegment, Consumer<byte[]> consumer) {
+        List<Path> existing = segments().stream().filter(segment -> indexOf(segment) >= fromSegment).toList();
+        long records = 0;
+        for (int i = 0; i < existing.size(); i++) {
+            records += replaySegment(existing.get(i), i == existing.size() - 1, consumer);
+        }
+        return records;
+    }
+
+    /**
+     * Buffers a record for the next flush. The record is not durable until
+     * {@link #sync(long)} returns for the returned sequence number.
+     *
+     * @param payload The record bytes
+     * @return Sequence number of the record
+     */
+    public long append(byte[] payload) {
+        if (payload.length > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds maximum size");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        lock.lock();
+        try {
+            checkWritable();
+            ensureCapacity(RECORD_HEADER_SIZE + payload.length);
+            pending.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            return ++appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the record with the given sequence number is on disk
+     *
+     * @param sequence Sequence number returned by {@link #append(byte[])}
+     */
+    public void sync(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Write-ahead log is no longer writable", failure);
+                }
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                flushGroup();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes out everything appended so far and makes the next record start a
+     * new segment. Records appended before the call are in earlier segments,
+     * so a snapshot taken afterwards plus the segments from the returned index
+     * on cover the whole log.
+     *
+     * @return Index of the segment the next record goes to
+     */
+    public long roll() {
+        lock.lock();
+        try {
+            checkWritable();
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            if (pending.position() > 0) {
+                flushGroup();
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log is no longer writable", failure);
+            }
+            // No flush can run while the lock is held and none is in progress
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+            return segmentIndex + 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close write-ahead log segment", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments before the given index, once a snapshot covers them
+     *
+     * @param segment Index of the first segment to keep
+     * @return Number of segments deleted
+     */
+    public int deleteSegmentsBefore(long segment) {
+        int deleted = 0;
+        for (Path existing : segments()) {
+            if (indexOf(existing) >= segment) {
+                break;
+            }
+            try {
+                Files.delete(existing);
+                deleted++;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot delete write-ahead log segment " + existing, e);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Gets the directory holding the segment files
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Gets the segment files currently on disk, oldest first
+     *
+     * @return Segment paths
+     */
+    public List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(WriteAheadLog::isSegment)
+                    .sorted((a, b) -> Long.compare(indexOf(a), indexOf(b)))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list write-ahead log directory " + directory, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            if (pending.position() > 0 && failure == null) {
+                flushGroup();
+            }
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close write-ahead log segment", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes out everything buffered so far as one group. Called with the lock
+     * held; the lock is released during disk I/O so appends can continue.
+     */
+    private void flushGroup() {
+        flushing = true;
+        ByteBuffer batch = pending;
+        pending = spare;
+        spare = null;
+        long batchSequence = appendedSequence;
+        IOException error = null;
+        lock.unlock();
+        try {
+            batch.flip();
+            writeBatch(batch);
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+            batch.clear();
+            spare = batch;
+            flushing = false;
+            if (error != null) {
+                logger.error("Write-ahead log flush failed, rejecting further writes", error);
+                failure = error;
+            } else {
+                durableSequence = batchSequence;
+            }
+            flushed.signalAll();
+        }
+    }
+
+    private void writeBatch(ByteBuffer batch) throws IOException {
+        if (!batch.hasRemaining()) {
+            return;
+        }
+        if (channel == null || segmentPosition + batch.remaining() > segmentSize) {
+            rollSegment();
+        }
+        while (batch.hasRemaining()) {
+            segmentPosition += channel.write(batch);
+        }
+        channel.force(false);
+    }
+
+    private void rollSegment() throws IOException {
+        if (channel != null) {
+            if (segmentPosition <= SEGMENT_HEADER_SIZE) {
+                return; // Oversized batch on a fresh segment, keep writing here
+            }
+            channel.close();
+        }
+        segmentIndex++;
+        Path segment = directory.resolve(segmentName(segmentIndex));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE).putInt(SEGMENT_MAGIC).putInt(FORMAT_VERSION);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        segmentPosition = SEGMENT_HEADER_SIZE;
+        logger.debug("Started write-ahead log segment {}", segment);
+    }
+
+    private long replaySegment(Path segment, boolean last, Consumer<byte[]> consumer) {
+        long records = 0;
+        long position = 0;
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(segment));
+                DataInputStream in = new DataInputStream(stream)) {
+            if (in.readInt() != SEGMENT_MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IllegalStateException("Not a write-ahead log segment: " + segment);
+            }
+            position = SEGMENT_HEADER_SIZE;
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException endOfSegment) {
+                    return records;
+                }
+                int checksum = in.readInt();
+                if (length < 0 || length > MAX_RECORD_SIZE) {
+                    throw new CorruptRecordException("invalid record length " + length);
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    throw new CorruptRecordException("checksum mismatch");
+                }
+                consumer.accept(payload);
+                position += RECORD_HEADER_SIZE + length;
+                records++;
+            }
+        } catch (EOFException | CorruptRecordException e) {
+            if (!last) {
+                throw new IllegalStateException("Corrupt write-ahead log segment " + segment + " at offset " + position, e);
+            }
+            logger.warn("Truncating torn record at offset {} of {} ({})", position, segment, e.getMessage());
+            truncate(segment, position);
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read write-ahead log segment " + segment, e);
+        }
+    }
+
+    private void truncate(Path segment, long position) {
+        if (position < SEGMENT_HEADER_SIZE) {
+            try {
+                Files.delete(segment); // Crashed before the header was written
+                return;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot delete write-ahead log segment " + segment, e);
+            }
+        }
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            file.truncate(position);
+            file.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot truncate write-ahead log segment " + segment, e);
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (pending.remaining() >= bytes) {
+            return;
+        }
+        int capacity = pending.capacity();
+        while (capacity - pending.position() < bytes) {
+            capacity *= 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        pending.flip();
+        grown.put(pending);
+        pending = grown;
+    }
+
+    private void checkWritable() {
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log is no longer writable", failure);
+        }
+    }
+
+    private static String segmentName(long index) {
+        return String.format("%s%016d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static class CorruptRecordException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        CorruptRecordException(String message) {
+            super(message);
+        }
+    }
+}
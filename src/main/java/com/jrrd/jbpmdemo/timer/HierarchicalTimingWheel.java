@@ -0,0 +1,270 @@
+package com.jrrd.jbpmdemo.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed hierarchical timing wheel for large numbers of long-running timers.
+ *
+ * Time advances in ticks. Level 0 has one bucket per tick for the next
+ * {@code wheelSize} ticks; each higher level covers {@code wheelSize} times
+ * the span of the level below with the same number of buckets. A timer is
+ * put into the lowest level whose span reaches its deadline, and when time
+ * reaches a higher-level bucket its timers are cascaded down, ending in the
+ * level 0 bucket of their deadline tick. Buckets are intrusive doubly linked
+ * lists, so scheduling and cancelling are O(1); advancing by one tick is O(1)
+ * plus the timers that expire or move down.
+ *
+ * Timers are precise to one tick. Deadlines beyond the span of the top level
+ * are parked in its last bucket and placed again when that bucket cascades.
+ * The wheel does not run a thread: {@link #advanceTo(long)} is called
+ * periodically by the owner and runs expired tasks on the calling thread,
+ * outside the wheel's lock.
+ */
+public final class HierarchicalTimingWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(HierarchicalTimingWheel.class);
+
+    /**
+     * Handle of a scheduled task
+     */
+    public interface Timeout {
+
+        /**
+         * Cancels the task if it has not expired yet
+         *
+         * @return true if this call cancelled the task
+         */
+        boolean cancel();
+
+        /**
+         * Gets the deadline the task was scheduled for, in clock milliseconds
+         */
+        long deadline();
+    }
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final Bucket[][] wheels;
+    private final long startMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick;
+    private int size;
+
+    /**
+     * Creates a wheel starting at the current time of the clock
+     *
+     * @param tickMillis Duration of one tick
+     * @param wheelSize Buckets per level, a power of two
+     * @param levels Number of levels
+     * @param clock Time source in milliseconds
+     */
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, LongSupplier clock) {
+        if (tickMillis <= 0 || Integer.bitCount(wheelSize) != 1 || wheelSize < 2 || levels < 1
+                || (long) Integer.numberOfTrailingZeros(wheelSize) * levels >= 62) {
+            throw new IllegalArgumentException("Invalid timing wheel: tick " + tickMillis + " ms, "
+                    + wheelSize + " buckets, " + levels + " levels");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.wheels = new Bucket[levels][wheelSize];
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < wheelSize; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+        this.startMillis = clock.getAsLong();
+    }
+
+    /**
+     * Schedules a task. Deadlines that have passed expire on the next tick.
+     *
+     * @param deadlineMillis When to run the task, in clock milliseconds
+     * @param task The task to run
+     * @return Handle to cancel the task
+     */
+    public Timeout schedule(long deadlineMillis, Runnable task) {
+        // Round up, so tasks never run before their deadline
+        long deadlineTick = Math.max(0, Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis));
+        Node node = new Node(deadlineMillis, deadlineTick, task);
+        lock.lock();
+        try {
+            if (node.tick <= currentTick) {
+                node.tick = currentTick + 1;
+            }
+            place(node, currentTick);
+            size++;
+        } finally {
+            lock.unlock();
+        }
+        return node;
+    }
+
+    /**
+     * Advances the wheel to the given time and runs every task that expired
+     *
+     * @param nowMillis The current time in clock milliseconds
+     * @return Number of tasks run
+     */
+    public int advanceTo(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        List<Node> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            while (currentTick < targetTick) {
+                long tick = ++currentTick;
+                // Higher levels first, so cascaded timers can move down more than one level
+                for (int level = wheels.length - 1; level > 0; level--) {
+                    if ((tick & ((1L << (bits * level)) - 1)) == 0) {
+                        Bucket bucket = wheels[level][(int) (tick >>> (bits * level)) & mask];
+                        for (Node node = bucket.clear(); node != null; ) {
+                            Node next = node.next;
+                            node.next = null;
+                            place(node, tick);
+                            node = next;
+                        }
+                    }
+                }
+                int before = expired.size();
+                for (Node node = wheels[0][(int) tick & mask].clear(); node != null; ) {
+                    Node next = node.next;
+                    node.next = null;
+                    expired.add(node);
+                    node = next;
+                }
+                size -= expired.size() - before;
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Node node : expired) {
+            try {
+                node.task.run();
+            } catch (RuntimeException e) {
+                logger.error("Timer task failed", e);
+            }
+        }
+        return expired.size();
+    }
+
+    /**
+     * Gets the number of pending tasks
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long tickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Puts a node into the lowest level that reaches its deadline, seen from the given tick
+     */
+    private void place(Node node, long fromTick) {
+        for (int level = 0; level < wheels.length; level++) {
+            long shift = (long) bits * level;
+            if ((node.tick >>> shift) - (fromTick >>> shift) <= mask) {
+                wheels[level][(int) (node.tick >>> shift) & mask].add(node);
+                return;
+            }
+        }
+        // Beyond the top level: park in its farthest bucket and place again on cascade
+        int top = wheels.length - 1;
+        wheels[top][(int) ((fromTick >>> (bits * top)) + mask) & mask].add(node);
+    }
+
+    /**
+     * Scheduled task, linked into exactly one bucket until it expires or is cancelled
+     */
+    private final class Node implements Timeout {
+        final long deadline;
+        final Runnable task;
+        long tick;
+        Bucket bucket;
+        Node prev;
+        Node next;
+
+        Node(long deadline, long tick, Runnable task) {
+            this.deadline = deadline;
+            this.tick = tick;
+            this.task = task;
+        }
+
+        @Override
+        public boolean cancel() {
+            lock.lock();
+            try {
+                if (bucket == null) {
+                    return false;
+                }
+                bucket.remove(this);
+                size--;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public long deadline() {
+            return deadline;
+        }
+    }
+
+    /**
+     * Doubly linked list of nodes, guarded by the wheel's lock
+     */
+    private static final class Bucket {
+        private Node head;
+
+        void add(Node node) {
+            node.bucket = this;
+            node.prev = null;
+            node.next = head;
+            if (head != null) {
+                head.prev = node;
+            }
+            head = node;
+        }
+
+        void remove(Node node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            }
+            node.bucket = null;
+            node.prev = null;
+            node.next = null;
+        }
+
+        /**
+         * Empties the bucket and returns its nodes, still linked through {@code next}
+         */
+        Node clear() {
+            Node first = head;
+            for (Node node = first; node != null; node = node.next) {
+                node.bucket = null;
+                node.prev = null;
+            }
+            head = null;
+            return first;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.jrrd.jbpmdemo;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.jrrd.jbpmdemo.controller.LeaveRequestController;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+@DisplayName("Reactive Profile Application Tests")
+class ReactiveApplicationTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private WebTestClient client;
+
+	@Test
+	@DisplayName("Reactive profile should serve the API from the WebFlux controller")
+	void servesApiReactively() {
+		// Assert
+		assertThrows(NoSuchBeanDefinitionException.class, () -> context.getBean(LeaveRequestController.class));
+		client.get().uri("/api/leave?limit=1")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.items").isArray();
+	}
+
+}
@@ -0,0 +1,175 @@
+package com.jrrd.jbpmdemo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jrrd.jbpmdemo.cluster.Cluster;
+
+@DisplayName("Sharded Cluster Tests")
+class ShardedClusterTests {
+
+	private static final HttpClient http = HttpClient.newHttpClient();
+	private static ConfigurableApplicationContext node0;
+	private static ConfigurableApplicationContext node1;
+	private static int[] ports;
+
+	@BeforeAll
+	static void startNodes() throws IOException {
+		ports = new int[] { freePort(), freePort() };
+		String nodes = "0=http://localhost:" + ports[0] + ",1=http://localhost:" + ports[1];
+		node0 = start(0, nodes);
+		node1 = start(1, nodes);
+	}
+
+	@AfterAll
+	static void stopNodes() {
+		node1.close();
+		node0.close();
+	}
+
+	@Test
+	@DisplayName("Any node should create, read and list the requests of every shard")
+	void routesCallsToOwners() throws Exception {
+		// Arrange
+		Cluster cluster = node0.getBean(Cluster.class);
+		String ownedBy0 = employeeOwnedBy(cluster, 0);
+		String ownedBy1 = employeeOwnedBy(cluster, 1);
+
+		// Act
+		String id0 = create(ports[1], ownedBy0);
+		String id1 = create(ports[0], ownedBy1);
+
+		// Assert
+		assertEquals(0, cluster.ownerOfRequest(id0).id());
+		assertEquals(1, cluster.ownerOfRequest(id1).id());
+		for (int port : ports) {
+			assertTrue(get(port, "/api/leave/" + id0).body().contains(ownedBy0));
+			assertTrue(get(port, "/api/leave/employee/" + ownedBy1).body().contains(id1));
+			String all = get(port, "/api/leave").body();
+			assertTrue(all.contains(id0) && all.contains(id1), all);
+			String streamed = get(port, "/api/leave", "application/x-ndjson").body();
+			assertTrue(streamed.indexOf(id0) >= 0 && streamed.indexOf(id0) < streamed.indexOf(id1), streamed);
+			assertTrue(streamed.startsWith("{") && streamed.endsWith("}\n"), streamed);
+			String approved = get(port, "/api/leave/status/APPROVED").body();
+			assertTrue(approved.contains(id0) && approved.contains(id1), approved);
+		}
+		String firstPage = get(ports[0], "/api/leave?limit=1").body();
+		String secondPage = get(ports[1], "/api/leave?limit=1&cursor="
+				+ firstPage.replaceAll(".*\"nextCursor\":\"([^\"]+)\".*", "$1")).body();
+		assertTrue(firstPage.contains(id0) != secondPage.contains(id0), firstPage + secondPage);
+		assertTrue(firstPage.contains(id1) != secondPage.contains(id1), firstPage + secondPage);
+		for (int port : ports) {
+			assertTrue(get(port, "/api/leave/stats/employees/" + ownedBy1).body().contains("\"approvedRequests\":1"));
+		}
+	}
+
+	@Test
+	@DisplayName("Should check the coverage of a team on one node whichever node is called")
+	void checksTeamCoverageOnOneNode() throws Exception {
+		// Arrange
+		Cluster cluster = node0.getBean(Cluster.class);
+		assertEquals(cluster.ownerOfEmployee("Dev Jane").id(), cluster.ownerOfEmployee("Dev Bob").id());
+		create(ports[0], "Dev Jane", ",\"startDate\":\"2024-08-05\"");
+
+		// Act
+		String overlapping = create(ports[1], "Dev Bob", ",\"startDate\":\"2024-08-06\"");
+
+		// Assert
+		assertTrue(get(ports[0], "/api/leave/" + overlapping).body().contains("PENDING"));
+	}
+
+	@Test
+	@DisplayName("Should keep the items of reachable nodes when a node of a batch is down")
+	void reportsUnreachableBatchItems() throws Exception {
+		// Arrange
+		int port = freePort();
+		String nodes = "0=http://localhost:" + port + ",1=http://localhost:" + freePort();
+		try (ConfigurableApplicationContext alone = start(0, port, nodes)) {
+			Cluster cluster = alone.getBean(Cluster.class);
+			String ownedBy0 = employeeOwnedBy(cluster, 0);
+			String ownedBy1 = employeeOwnedBy(cluster, 1);
+
+			// Act
+			HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/leave/batch"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString("[{\"employeeName\":\"" + ownedBy1 + "\",\"daysRequested\":2},"
+							+ "{\"employeeName\":\"" + ownedBy0 + "\",\"daysRequested\":2}]"))
+					.build(), HttpResponse.BodyHandlers.ofString());
+
+			// Assert
+			assertEquals(200, response.statusCode(), response.body());
+			String[] results = response.body().split("\\},\\{");
+			assertTrue(results[0].contains("\"outcome\":\"UNAVAILABLE\""), response.body());
+			assertTrue(results[1].contains("\"outcome\":\"OK\""), response.body());
+			assertTrue(get(port, "/api/leave/employee/" + ownedBy0).body().contains(ownedBy0));
+		}
+	}
+
+	private static ConfigurableApplicationContext start(int nodeId, String nodes) {
+		return start(nodeId, ports[nodeId], nodes);
+	}
+
+	private static ConfigurableApplicationContext start(int nodeId, int port, String nodes) {
+		return SpringApplication.run(JbpmdemoApplication.class,
+				"--server.port=" + port,
+				"--leave.id.node-id=" + nodeId,
+				"--leave.cluster.enabled=true",
+				"--leave.cluster.nodes=" + nodes,
+				"--leave.teams.members=Dev Jane:dev,Dev Bob:dev",
+				"--leave.teams.max-absent=1");
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static String employeeOwnedBy(Cluster cluster, int nodeId) {
+		for (int i = 0; ; i++) {
+			if (cluster.ownerOfEmployee("employee-" + i).id() == nodeId) {
+				return "employee-" + i;
+			}
+		}
+	}
+
+	private static String create(int port, String employeeName) throws Exception {
+		return create(port, employeeName, "");
+	}
+
+	private static String create(int port, String employeeName, String fields) throws Exception {
+		HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/leave"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"employeeName\":\"" + employeeName + "\",\"daysRequested\":2"
+						+ fields + "}"))
+				.build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, response.statusCode(), response.body());
+		return response.body().substring(response.body().lastIndexOf(' ') + 1);
+	}
+
+	private static HttpResponse<String> get(int port, String pathAndQuery) throws Exception {
+		return get(port, pathAndQuery, "application/json");
+	}
+
+	private static HttpResponse<String> get(int port, String pathAndQuery, String accept) throws Exception {
+		HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + pathAndQuery))
+				.header("Accept", accept)
+				.build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, response.statusCode(), pathAndQuery + ": " + response.body());
+		return response;
+	}
+}
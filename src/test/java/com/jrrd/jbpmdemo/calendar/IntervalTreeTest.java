@@ -0,0 +1,96 @@
+package com.jrrd.jbpmdemo.calendar;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("IntervalTree Tests")
+class IntervalTreeTest {
+
+    private final IntervalTree<Integer> tree = new IntervalTree<>(Comparator.naturalOrder());
+
+    private List<Integer> values(int from, int to) {
+        return tree.overlapping(from, to).stream().map(IntervalTree.Interval::value).toList();
+    }
+
+    @Test
+    @DisplayName("Should find intervals overlapping a range, including touching ones")
+    void shouldFindOverlappingIntervals() {
+        // Arrange
+        tree.add(1, 3, 1);
+        tree.add(5, 9, 2);
+        tree.add(5, 5, 3);
+        tree.add(10, 20, 4);
+
+        // Act & Assert
+        assertEquals(List.of(1), values(3, 4));
+        assertEquals(List.of(2, 3), values(4, 5));
+        assertEquals(List.of(2, 4), values(9, 10));
+        assertEquals(List.of(), values(21, 30));
+        assertEquals(4, tree.size());
+    }
+
+    @Test
+    @DisplayName("Should remove an interval by start and value")
+    void shouldRemoveInterval() {
+        // Arrange
+        tree.add(5, 9, 2);
+        tree.add(5, 6, 3);
+
+        // Act
+        boolean removed = tree.remove(5, 2);
+
+        // Assert
+        assertTrue(removed);
+        assertFalse(tree.remove(5, 2));
+        assertEquals(List.of(3), values(0, 100));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    @DisplayName("Should reject intervals that end before they start")
+    void shouldRejectReversedInterval() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> tree.add(5, 4, 1));
+    }
+
+    @Test
+    @DisplayName("Should match a linear scan under random adds and removes")
+    void shouldMatchLinearScan() {
+        // Arrange
+        Random random = new Random(42);
+        List<int[]> intervals = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            int start = random.nextInt(1_000);
+            int[] interval = { start, start + random.nextInt(30), i };
+            intervals.add(interval);
+            tree.add(interval[0], interval[1], i);
+        }
+        for (int i = 0; i < 500; i++) {
+            int[] interval = intervals.remove(random.nextInt(intervals.size()));
+            assertTrue(tree.remove(interval[0], interval[2]));
+        }
+
+        // Act & Assert
+        for (int q = 0; q < 200; q++) {
+            int from = random.nextInt(1_050);
+            int to = from + random.nextInt(20);
+            List<Integer> expected = intervals.stream()
+                    .filter(interval -> interval[0] <= to && interval[1] >= from)
+                    .sorted(Comparator.<int[]>comparingInt(interval -> interval[0])
+                            .thenComparingInt(interval -> interval[2]))
+                    .map(interval -> interval[2])
+                    .toList();
+            assertEquals(expected, values(from, to));
+        }
+        assertEquals(1_500, tree.size());
+    }
+}
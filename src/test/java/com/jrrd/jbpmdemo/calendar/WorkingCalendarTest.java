@@ -0,0 +1,107 @@
+package com.jrrd.jbpmdemo.calendar;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("WorkingCalendar Tests")
+class WorkingCalendarTest {
+
+    private static final Set<DayOfWeek> WEEKEND = Set.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+    private static final LocalDate NEW_YEAR = LocalDate.of(2025, 1, 1);
+    private static final LocalDate CHRISTMAS = LocalDate.of(2025, 12, 25);
+
+    private final WorkingCalendar calendar = new WorkingCalendar(WEEKEND, List.of(NEW_YEAR, CHRISTMAS), 2025, 2026);
+
+    @Test
+    @DisplayName("Should count weekdays that are not holidays, both ends included")
+    void shouldCountWorkingDays() {
+        // Act & Assert
+        // Monday 2025-12-22 to Friday 2026-01-02, with Christmas in between
+        assertEquals(9, calendar.countWorkingDays(LocalDate.of(2025, 12, 22), LocalDate.of(2026, 1, 2)));
+        assertEquals(0, calendar.countWorkingDays(LocalDate.of(2025, 12, 27), LocalDate.of(2025, 12, 28)));
+        assertEquals(1, calendar.countWorkingDays(LocalDate.of(2025, 12, 26), LocalDate.of(2025, 12, 26)));
+        assertEquals(0, calendar.countWorkingDays(LocalDate.of(2025, 12, 26), LocalDate.of(2025, 12, 25)));
+        assertFalse(calendar.isWorkingDay(NEW_YEAR));
+        assertTrue(calendar.isWorkingDay(NEW_YEAR.plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("Should find the day a number of working days ends, skipping weekends and holidays")
+    void shouldFindEndOfWorkingDays() {
+        // Act & Assert
+        // Starting on a Saturday, the first working day is the Monday after
+        assertEquals(LocalDate.of(2025, 12, 22), calendar.endOfWorkingDays(LocalDate.of(2025, 12, 20), 1));
+        assertEquals(LocalDate.of(2026, 1, 2), calendar.endOfWorkingDays(LocalDate.of(2025, 12, 22), 9));
+        assertEquals(LocalDate.of(2025, 12, 22), calendar.endOfWorkingDays(LocalDate.of(2025, 12, 22), 0));
+    }
+
+    @Test
+    @DisplayName("Should agree with a day-by-day count inside and outside the precomputed years")
+    void shouldMatchDayByDayCount() {
+        // Arrange
+        Random random = new Random(42);
+        LocalDate origin = LocalDate.of(2023, 6, 1);
+
+        for (int i = 0; i < 2_000; i++) {
+            LocalDate from = origin.plusDays(random.nextInt(1500));
+            LocalDate to = from.plusDays(random.nextInt(400));
+
+            // Act
+            int count = calendar.countWorkingDays(from, to);
+
+            // Assert
+            int expected = 0;
+            LocalDate last = null;
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                if (!WEEKEND.contains(day.getDayOfWeek()) && !day.equals(NEW_YEAR) && !day.equals(CHRISTMAS)) {
+                    expected++;
+                    last = day;
+                }
+            }
+            assertEquals(expected, count, from + ".." + to);
+            if (last != null) {
+                assertEquals(last, calendar.endOfWorkingDays(from, expected), from + " + " + expected);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should load calendars per region from a holiday file")
+    void shouldLoadCalendarsFromFile() throws IOException {
+        // Arrange
+        String file = """
+                # region,date,name
+                north,2025-01-01,New Year's Day
+
+                north,2030-12-25
+                south,2025-06-02,Founders' Day
+                """;
+        Map<String, String> regions = Map.of("Ann", "north", "Bo", "south");
+
+        // Act
+        WorkingCalendars calendars = WorkingCalendars.load(new StringReader(file), WEEKEND, regions::get);
+
+        // Assert
+        assertEquals(Set.of("north", "south"), calendars.regions());
+        assertFalse(calendars.forEmployee("Ann").isWorkingDay(NEW_YEAR));
+        assertFalse(calendars.forEmployee("Ann").isWorkingDay(LocalDate.of(2030, 12, 25)));
+        assertTrue(calendars.forEmployee("Bo").isWorkingDay(NEW_YEAR));
+        assertFalse(calendars.forEmployee("Bo").isWorkingDay(LocalDate.of(2025, 6, 2)));
+        assertTrue(calendars.forEmployee("Cy").isWorkingDay(NEW_YEAR));
+        assertThrows(IllegalArgumentException.class,
+                () -> WorkingCalendars.load(new StringReader("north,01/01/2025"), WEEKEND, regions::get));
+    }
+}
@@ -0,0 +1,68 @@
+package com.jrrd.jbpmdemo.cluster;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("HashRing Tests")
+class HashRingTest {
+
+    private static final int KEYS = 30_000;
+
+    @Test
+    @DisplayName("Should spread keys evenly over the nodes")
+    void shouldSpreadKeysEvenly() {
+        // Arrange
+        HashRing ring = new HashRing(List.of(0, 1, 2), 128);
+        int[] owned = new int[3];
+
+        // Act
+        for (int i = 0; i < KEYS; i++) {
+            owned[ring.ownerOf("employee-" + i)]++;
+        }
+
+        // Assert
+        for (int count : owned) {
+            assertTrue(Math.abs(count - KEYS / 3) < KEYS / 3 / 5, "Uneven shares: " + Arrays.toString(owned));
+        }
+    }
+
+    @Test
+    @DisplayName("Should only move keys to a node that joins")
+    void shouldOnlyMoveKeysToJoiningNode() {
+        // Arrange
+        HashRing before = new HashRing(List.of(0, 1, 2), 128);
+        HashRing after = new HashRing(List.of(0, 1, 2, 3), 128);
+        int moved = 0;
+
+        // Act & Assert
+        for (int i = 0; i < KEYS; i++) {
+            String key = "employee-" + i;
+            int owner = after.ownerOf(key);
+            if (owner != before.ownerOf(key)) {
+                assertEquals(3, owner);
+                moved++;
+            }
+        }
+        // About a quarter of the keys, and no more
+        assertTrue(moved > KEYS / 5 && moved < KEYS * 3 / 10, "Moved " + moved);
+    }
+
+    @Test
+    @DisplayName("Should assign keys alike whatever the order of the nodes")
+    void shouldAssignKeysDeterministically() {
+        // Arrange
+        HashRing ring = new HashRing(List.of(0, 1, 2), 16);
+        HashRing reordered = new HashRing(List.of(2, 0, 1), 16);
+
+        // Act & Assert
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(ring.ownerOf("employee-" + i), reordered.ownerOf("employee-" + i));
+        }
+        assertEquals(0, new HashRing(List.of(0), 1).ownerOf("anyone"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.jrrd.jbpmdemo.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.AbstractApplicationContextRunner;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+
+import com.jrrd.jbpmdemo.cluster.Cluster;
+import com.jrrd.jbpmdemo.service.TeamCoverage;
+
+@DisplayName("ClusterConfiguration Tests")
+class ClusterConfigurationTest {
+
+    private static <R extends AbstractApplicationContextRunner<R, ?, ?>> R cluster(R runner) {
+        return runner
+                // Binds durations such as 5s, as in the application
+                .withInitializer(context -> context.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withUserConfiguration(ClusterConfiguration.class)
+                .withBean(TeamCoverage.class, TeamCoverage::disabled)
+                .withPropertyValues("leave.cluster.enabled=true",
+                        "leave.cluster.nodes=0=http://localhost:8080,1=http://localhost:8081");
+    }
+
+    @Test
+    @DisplayName("Should start a sharded node on the servlet stack")
+    void shouldStartOnServletStack() {
+        // Act & Assert
+        cluster(new WebApplicationContextRunner()).run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context).hasSingleBean(Cluster.class);
+        });
+    }
+
+    @Test
+    @DisplayName("Should refuse to start a sharded node on the reactive stack, which does not route calls")
+    void shouldRefuseReactiveStack() {
+        // Act & Assert
+        cluster(new ReactiveWebApplicationContextRunner()).run(context -> {
+            assertThat(context).hasFailed();
+            assertThat(context.getStartupFailure()).rootCause().hasMessageContaining("reactive profile");
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import com.jrrd.jbpmdemo.store.LeaveRequestStore;
+import com.jrrd.jbpmdemo.store.LegacyLeaveRequestLog;
+
+@DisplayName("LeaveStoreConfiguration Tests")
+class LeaveStoreConfigurationTest {
+
+    @TempDir
+    Path directory;
+
+    private ApplicationContextRunner walContext(Path requestLog) {
+        return new ApplicationContextRunner()
+                // Binds sizes such as 64MB, as in the application
+                .withInitializer(context -> context.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withUserConfiguration(LeaveStoreConfiguration.class)
+                .withPropertyValues("leave.store.type=wal",
+                        "leave.store.wal.directory=" + requestLog,
+                        "leave.history.directory=" + directory.resolve("history"));
+    }
+
+    @Test
+    @DisplayName("Should mark a legacy request log as imported once the context has started")
+    void shouldMarkLegacyLogImported() throws Exception {
+        // Arrange
+        Path requestLog = Files.createDirectories(directory.resolve("wal"));
+
+        // Act & Assert
+        walContext(requestLog).run(context -> {
+            assertThat(context).hasSingleBean(LeaveRequestStore.class);
+            assertThat(LegacyLeaveRequestLog.isImported(requestLog)).isTrue();
+        });
+    }
+
+    @Test
+    @DisplayName("Should not create a legacy request log directory that does not exist")
+    void shouldIgnoreMissingLegacyLog() {
+        // Arrange
+        Path requestLog = directory.resolve("wal");
+
+        // Act & Assert
+        walContext(requestLog).run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(requestLog).doesNotExist();
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.jrrd.jbpmdemo.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+
+@DisplayName("VirtualThreadConfiguration Tests")
+class VirtualThreadConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfiguration.class);
+
+    @Test
+    @DisplayName("Should stay on platform threads unless enabled")
+    void shouldBeDisabledByDefault() {
+        // Act & Assert
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(TomcatProtocolHandlerCustomizer.class));
+    }
+
+    @Test
+    @DisplayName("Should run tasks on virtual threads when enabled on Java 21+")
+    void shouldUseVirtualThreads() {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads need Java 21");
+
+        // Act & Assert
+        contextRunner.withPropertyValues("leave.threads.virtual=true").run(context -> {
+            assertThat(context).hasSingleBean(TomcatProtocolHandlerCustomizer.class);
+            Future<String> thread = context.getBean(ExecutorService.class).submit(() -> Thread.currentThread().toString());
+            assertThat(thread.get()).startsWith("VirtualThread");
+        });
+    }
+
+    @Test
+    @DisplayName("Should fail at startup when enabled before Java 21")
+    void shouldFailBeforeJava21() {
+        assumeTrue(Runtime.version().feature() < 21, "Runtime supports virtual threads");
+
+        // Act & Assert
+        contextRunner.withPropertyValues("leave.threads.virtual=true").run(context -> {
+            assertThat(context).hasFailed();
+            assertThat(context.getStartupFailure()).rootCause().hasMessageContaining("requires Java 21");
+        });
+    }
+}
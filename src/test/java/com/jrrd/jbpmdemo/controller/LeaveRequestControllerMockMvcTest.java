@@ -0,0 +1,352 @@
+package com.jrrd.jbpmdemo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jrrd.jbpmdemo.dto.LeaveRequestDTO;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+import com.jrrd.jbpmdemo.service.AdaptiveConcurrencyLimiter;
+import com.jrrd.jbpmdemo.service.AdmissionControl;
+import com.jrrd.jbpmdemo.service.SimpleLeaveRequestService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for LeaveRequestController through the servlet stack against an
+ * in-memory service
+ */
+@DisplayName("LeaveRequestController MockMvc Tests")
+class LeaveRequestControllerMockMvcTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private SimpleLeaveRequestService service;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        service = new SimpleLeaveRequestService();
+        mockMvc = MockMvcBuilders.standaloneSetup(new LeaveRequestController(service, objectMapper)).build();
+    }
+
+    private static LeaveRequestDTO dto(String employeeName, int days) {
+        LeaveRequestDTO dto = new LeaveRequestDTO();
+        dto.setEmployeeName(employeeName);
+        dto.setDaysRequested(days);
+        return dto;
+    }
+
+    @Nested
+    @DisplayName("Admission Control")
+    class AdmissionControlTests {
+
+        @Test
+        @DisplayName("Should shed writes over their budget with 503 and Retry-After, still serving reads")
+        void shouldShedWritesOverBudget() throws Exception {
+            // Arrange
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            AdaptiveConcurrencyLimiter writes = new AdaptiveConcurrencyLimiter("write", 1, 1, 1, 2.0, registry);
+            AdmissionControl admissionControl = new AdmissionControl(
+                    new AdaptiveConcurrencyLimiter("read", 1, 1, 1, 2.0, registry), writes, Duration.ofSeconds(2));
+            MockMvc limited = MockMvcBuilders.standaloneSetup(new LeaveRequestController(service, objectMapper))
+                    .addFilters(new AdmissionControlFilter(admissionControl))
+                    .build();
+            // A write already in flight uses the whole budget
+            writes.tryAcquire();
+
+            // Act & Assert
+            limited.perform(post("/api/leave")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(dto("John Doe", 3))))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "2"));
+            limited.perform(get("/api/leave/employee/{name}", "John Doe"))
+                    .andExpect(status().isOk());
+            assertEquals(1, writes.rejected());
+            assertEquals(0, admissionControl.limiterFor("GET").inFlight());
+            assertEquals(0, service.getAllLeaveRequests().size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Idempotency")
+    class IdempotencyTests {
+
+        private String create(String key, LeaveRequestDTO dto) throws Exception {
+            return mockMvc.perform(post("/api/leave")
+                    .header("Idempotency-Key", key)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+        }
+
+        @Test
+        @DisplayName("Should replay the response of a retry with the same key")
+        void shouldReplayRetry() throws Exception {
+            // Arrange
+            String first = create("retry-1", dto("Jane Smith", 10));
+
+            // Act
+            String retried = create("retry-1", dto("Jane Smith", 10));
+
+            // Assert
+            assertEquals(first, retried);
+            assertEquals(1, service.getAllLeaveRequests().size());
+        }
+
+        @Test
+        @DisplayName("Should return 400 for a blank or too long key")
+        void shouldReturn400ForInvalidKey() throws Exception {
+            // Arrange
+            String body = objectMapper.writeValueAsString(dto("Jane Smith", 10));
+
+            // Act & Assert
+            mockMvc.perform(post("/api/leave").header("Idempotency-Key", " ")
+                    .contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("Idempotency-Key must be 1 to 255 characters"));
+            mockMvc.perform(post("/api/leave").header("Idempotency-Key", "k".repeat(256))
+                    .contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isBadRequest());
+            assertEquals(0, service.getAllLeaveRequests().size());
+        }
+
+        @Test
+        @DisplayName("Should return 422 when a key is reused for another request")
+        void shouldReturn422ForReusedKey() throws Exception {
+            // Arrange
+            create("reused", dto("Jane Smith", 10));
+
+            // Act & Assert
+            mockMvc.perform(post("/api/leave").header("Idempotency-Key", "reused")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(dto("Jane Smith", 8))))
+                    .andExpect(status().isUnprocessableEntity());
+            assertEquals(1, service.getAllLeaveRequests().size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Listing")
+    class ListingTests {
+
+        @Test
+        @DisplayName("Should page through requests with the returned cursor")
+        void shouldPageWithCursor() throws Exception {
+            // Arrange
+            for (int i = 0; i < 3; i++) {
+                service.createLeaveRequest("Employee " + i, 2);
+            }
+
+            // Act
+            String first = mockMvc.perform(get("/api/leave").param("limit", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(2))
+                    .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                    .andReturn().getResponse().getContentAsString();
+            String cursor = objectMapper.readTree(first).get("nextCursor").asText();
+
+            // Assert
+            mockMvc.perform(get("/api/leave").param("limit", "2").param("cursor", cursor))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(1))
+                    .andExpect(jsonPath("$.items[0].employeeName").value("Employee 2"))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should return 400 for an invalid cursor")
+        void shouldReturn400ForInvalidCursor() throws Exception {
+            // Act & Assert
+            mockMvc.perform(get("/api/leave").param("cursor", "bad"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("Invalid cursor"));
+        }
+
+        @Test
+        @DisplayName("Should return 400 for a non-positive limit")
+        void shouldReturn400ForNonPositiveLimit() throws Exception {
+            // Act & Assert
+            mockMvc.perform(get("/api/leave").param("limit", "0"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Should stream every request as newline-delimited JSON")
+        void shouldStreamNdjson() throws Exception {
+            // Arrange
+            for (int i = 0; i < 3; i++) {
+                service.createLeaveRequest("Employee " + i, 2);
+            }
+
+            // Act
+            MvcResult started = mockMvc.perform(get("/api/leave").accept("application/x-ndjson"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String body = mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/x-ndjson"))
+                    .andReturn().getResponse().getContentAsString();
+
+            // Assert
+            String[] lines = body.split("\n");
+            assertEquals(3, lines.length);
+            assertEquals("Employee 0", objectMapper.readTree(lines[0]).get("employeeName").asText());
+            assertEquals("Employee 2", objectMapper.readTree(lines[2]).get("employeeName").asText());
+        }
+    }
+
+    @Nested
+    @DisplayName("Decisions")
+    class DecisionTests {
+
+        @Test
+        @DisplayName("Should approve a pending request")
+        void shouldApprovePendingRequest() throws Exception {
+            // Arrange
+            String id = service.createLeaveRequest("Jane Smith", 10);
+
+            // Act
+            mockMvc.perform(put("/api/leave/{id}/approve", id).param("actor", "alice"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("Leave request approved"));
+
+            // Assert
+            assertEquals(LeaveStatus.APPROVED, service.getLeaveRequest(id).getStatus());
+        }
+
+        @Test
+        @DisplayName("Should return 409 when rejecting an approved request")
+        void shouldReturn409ForConflictingDecision() throws Exception {
+            // Arrange
+            String id = service.createLeaveRequest("Jane Smith", 10);
+            service.approveLeaveRequest(id);
+
+            // Act
+            mockMvc.perform(put("/api/leave/{id}/reject", id))
+                    .andExpect(status().isConflict());
+
+            // Assert
+            assertEquals(LeaveStatus.APPROVED, service.getLeaveRequest(id).getStatus());
+        }
+
+        @Test
+        @DisplayName("Should return 404 when deciding an unknown request")
+        void shouldReturn404ForUnknownRequest() throws Exception {
+            // Act & Assert
+            mockMvc.perform(put("/api/leave/{id}/approve", "033VBTYC30001G001895663F1B"))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Nested
+    @DisplayName("Batches")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Should create every item of a batch and report each result")
+        void shouldCreateBatch() throws Exception {
+            // Arrange
+            List<LeaveRequestDTO> items = List.of(dto("Jane Smith", 10), dto("John Doe", 2), dto("", 3));
+
+            // Act
+            mockMvc.perform(post("/api/leave/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(items)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(3))
+                    .andExpect(jsonPath("$[0].outcome").value("OK"))
+                    .andExpect(jsonPath("$[0].status").value("PENDING"))
+                    .andExpect(jsonPath("$[1].status").value("APPROVED"))
+                    .andExpect(jsonPath("$[2].outcome").value("INVALID"));
+
+            // Assert
+            assertEquals(2, service.getAllLeaveRequests().size());
+        }
+
+        @Test
+        @DisplayName("Should report unknown and conflicting items of a batch approval")
+        void shouldApproveBatchPerItem() throws Exception {
+            // Arrange
+            String pending = service.createLeaveRequest("Jane Smith", 10);
+            String rejected = service.createLeaveRequest("John Doe", 10);
+            service.rejectLeaveRequest(rejected);
+            List<String> ids = List.of(pending, "033VBTYC30001G001895663F1B", rejected);
+
+            // Act
+            mockMvc.perform(put("/api/leave/batch/approve")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(ids)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].outcome").value("OK"))
+                    .andExpect(jsonPath("$[1].outcome").value("NOT_FOUND"))
+                    .andExpect(jsonPath("$[2].outcome").value("CONFLICT"))
+                    .andExpect(jsonPath("$[2].status").value("REJECTED"));
+
+            // Assert
+            assertEquals(LeaveStatus.APPROVED, service.getLeaveRequest(pending).getStatus());
+        }
+
+        @Test
+        @DisplayName("Should reject every pending item of a batch")
+        void shouldRejectBatch() throws Exception {
+            // Arrange
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                ids.add(service.createLeaveRequest("Employee " + i, 10));
+            }
+
+            // Act
+            mockMvc.perform(put("/api/leave/batch/reject")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(ids)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].status").value("REJECTED"))
+                    .andExpect(jsonPath("$[2].status").value("REJECTED"));
+
+            // Assert
+            assertEquals(3, service.getLeaveRequestsByStatus(LeaveStatus.REJECTED).size());
+        }
+
+        @Test
+        @DisplayName("Should return 400 for batches over the size limit")
+        void shouldReturn400ForOversizedBatch() throws Exception {
+            // Arrange
+            String ids = objectMapper.writeValueAsString(Collections.nCopies(10_001, "id"));
+            String items = objectMapper.writeValueAsString(Collections.nCopies(10_001, dto("Jane Smith", 1)));
+
+            // Act & Assert
+            mockMvc.perform(put("/api/leave/batch/approve").contentType(MediaType.APPLICATION_JSON).content(ids))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(put("/api/leave/batch/reject").contentType(MediaType.APPLICATION_JSON).content(ids))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(post("/api/leave/batch").contentType(MediaType.APPLICATION_JSON).content(items))
+                    .andExpect(status().isBadRequest());
+            assertEquals(0, service.getAllLeaveRequests().size());
+        }
+    }
+}
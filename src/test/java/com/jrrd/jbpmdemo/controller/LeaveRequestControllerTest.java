@@ -14,6 +14,7 @@ import static org.mockito.Mockito.when;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -24,6 +25,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jrrd.jbpmdemo.config.IdempotencyConfiguration;
 import com.jrrd.jbpmdemo.dto.LeaveRequestDTO;
 import com.jrrd.jbpmdemo.model.LeaveRequest;
 import com.jrrd.jbpmdemo.service.SimpleLeaveRequestService;
@@ -40,6 +42,7 @@ import com.jrrd.jbpmdemo.service.SimpleLeaveRequestService;
  */
 @Disabled("Mockito compatibility issues with Java 23 - Byte Buddy limitation")
 @WebMvcTest(LeaveRequestController.class)
+@Import(IdempotencyConfiguration.class)
 @DisplayName("LeaveRequestController Integration Tests")
 class LeaveRequestControllerTest {
 
@@ -143,14 +146,14 @@ class LeaveRequestControllerTest {
     void shouldApproveLeaveRequestSuccessfully() throws Exception {
         // Arrange
         String requestId = "request-to-approve";
-        when(leaveRequestService.approveLeaveRequest(requestId)).thenReturn(true);
+        when(leaveRequestService.approveLeaveRequest(requestId, null)).thenReturn(true);
 
         // Act & Assert
         mockMvc.perform(put("/api/leave/{id}/approve", requestId))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Leave request approved"));
 
-        verify(leaveRequestService).approveLeaveRequest(requestId);
+        verify(leaveRequestService).approveLeaveRequest(requestId, null);
     }
 
     @Test
@@ -158,7 +161,7 @@ class LeaveRequestControllerTest {
     void shouldReturn404ForNonExistentIdOnApprove() throws Exception {
         // Arrange
         String nonExistentId = "non-existent-id";
-        when(leaveRequestService.approveLeaveRequest(nonExistentId)).thenReturn(false);
+        when(leaveRequestService.approveLeaveRequest(nonExistentId, null)).thenReturn(false);
 
         // Act & Assert
         mockMvc.perform(put("/api/leave/{id}/approve", nonExistentId))
@@ -171,14 +174,14 @@ class LeaveRequestControllerTest {
     void shouldRejectLeaveRequestSuccessfully() throws Exception {
         // Arrange
         String requestId = "request-to-reject";
-        when(leaveRequestService.rejectLeaveRequest(requestId)).thenReturn(true);
+        when(leaveRequestService.rejectLeaveRequest(requestId, null)).thenReturn(true);
 
         // Act & Assert
         mockMvc.perform(put("/api/leave/{id}/reject", requestId))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Leave request rejected"));
 
-        verify(leaveRequestService).rejectLeaveRequest(requestId);
+        verify(leaveRequestService).rejectLeaveRequest(requestId, null);
     }
 
     @Test
@@ -186,7 +189,7 @@ class LeaveRequestControllerTest {
     void shouldReturn404ForNonExistentIdOnReject() throws Exception {
         // Arrange
         String nonExistentId = "non-existent-id";
-        when(leaveRequestService.rejectLeaveRequest(nonExistentId)).thenReturn(false);
+        when(leaveRequestService.rejectLeaveRequest(nonExistentId, null)).thenReturn(false);
 
         // Act & Assert
         mockMvc.perform(put("/api/leave/{id}/reject", nonExistentId))
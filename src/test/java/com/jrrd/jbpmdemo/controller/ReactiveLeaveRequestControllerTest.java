@@ -0,0 +1,314 @@
+package com.jrrd.jbpmdemo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.jrrd.jbpmdemo.dto.LeaveRequestDTO;
+import com.jrrd.jbpmdemo.model.LeaveRequest;
+import com.jrrd.jbpmdemo.service.AdaptiveConcurrencyLimiter;
+import com.jrrd.jbpmdemo.service.AdmissionControl;
+import com.jrrd.jbpmdemo.service.SimpleLeaveRequestService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.test.StepVerifier;
+
+/**
+ * Tests for ReactiveLeaveRequestController against an in-memory service
+ */
+@DisplayName("ReactiveLeaveRequestController Tests")
+class ReactiveLeaveRequestControllerTest {
+
+    private SimpleLeaveRequestService service;
+    private ReactiveLeaveRequestController controller;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        service = new SimpleLeaveRequestService();
+        controller = new ReactiveLeaveRequestController(service);
+        client = WebTestClient.bindToController(controller).build();
+    }
+
+    private static LeaveRequestDTO dto(String employeeName, int days) {
+        LeaveRequestDTO dto = new LeaveRequestDTO();
+        dto.setEmployeeName(employeeName);
+        dto.setDaysRequested(days);
+        return dto;
+    }
+
+    @Nested
+    @DisplayName("Requests")
+    class RequestTests {
+
+        @Test
+        @DisplayName("Should create leave request and read it back")
+        void shouldCreateAndGetLeaveRequest() {
+            // Act
+            String body = client.post().uri("/api/leave")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(dto("John Doe", 3))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(String.class).returnResult().getResponseBody();
+
+            // Assert
+            String id = body.substring("Leave request created with ID: ".length());
+            client.get().uri("/api/leave/{id}", id)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.id").isEqualTo(id)
+                    .jsonPath("$.employeeName").isEqualTo("John Doe")
+                    .jsonPath("$.status").isEqualTo("APPROVED");
+        }
+
+        @Test
+        @DisplayName("Should answer retries with the same Idempotency-Key without creating another request")
+        void shouldReplayIdempotentRequest() {
+            // Arrange
+            String first = client.post().uri("/api/leave")
+                    .header("Idempotency-Key", "retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(dto("John Doe", 3))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(String.class).returnResult().getResponseBody();
+
+            // Act & Assert
+            client.post().uri("/api/leave")
+                    .header("Idempotency-Key", "retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(dto("John Doe", 3))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(String.class).isEqualTo(first);
+            client.post().uri("/api/leave")
+                    .header("Idempotency-Key", "retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(dto("John Doe", 4))
+                    .exchange()
+                    .expectStatus().isEqualTo(422);
+            assertEquals(1, service.getLeaveRequestsByEmployee("John Doe").size());
+        }
+
+        @Test
+        @DisplayName("Should return 404 for unknown leave request")
+        void shouldReturnNotFoundForUnknownRequest() {
+            // Act & Assert
+            client.get().uri("/api/leave/{id}", "missing")
+                    .exchange()
+                    .expectStatus().isNotFound();
+        }
+
+        @Test
+        @DisplayName("Should return 400 for invalid status")
+        void shouldRejectInvalidStatus() {
+            // Act & Assert
+            client.get().uri("/api/leave/status/{status}", "UNKNOWN")
+                    .exchange()
+                    .expectStatus().isBadRequest();
+        }
+
+        @Test
+        @DisplayName("Should filter by employee and status")
+        void shouldFilterByEmployeeAndStatus() {
+            // Arrange
+            service.createLeaveRequest("John Doe", 3);
+            service.createLeaveRequest("John Doe", 8);
+            service.createLeaveRequest("Jane Smith", 8);
+
+            // Act & Assert
+            client.get().uri("/api/leave/employee/{name}", "John Doe")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(LeaveRequest.class).hasSize(2);
+            client.get().uri("/api/leave/status/{status}", "pending")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(LeaveRequest.class).hasSize(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Admission Control")
+    class AdmissionControlTests {
+
+        @Test
+        @DisplayName("Should shed writes over their budget with 503 and Retry-After, still serving reads")
+        void shouldShedWritesOverBudget() {
+            // Arrange
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            AdaptiveConcurrencyLimiter writes = new AdaptiveConcurrencyLimiter("write", 1, 1, 1, 2.0, registry);
+            AdmissionControl admissionControl = new AdmissionControl(
+                    new AdaptiveConcurrencyLimiter("read", 1, 1, 1, 2.0, registry), writes, Duration.ofSeconds(2));
+            WebTestClient limited = WebTestClient.bindToController(controller)
+                    .webFilter(new ReactiveAdmissionControlFilter(admissionControl))
+                    .build();
+            // A write already in flight uses the whole budget
+            writes.tryAcquire();
+
+            // Act & Assert
+            limited.post().uri("/api/leave")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(dto("John Doe", 3))
+                    .exchange()
+                    .expectStatus().isEqualTo(503)
+                    .expectHeader().valueEquals("Retry-After", "2");
+            limited.get().uri("/api/leave/employee/{name}", "John Doe")
+                    .exchange()
+                    .expectStatus().isOk();
+            assertEquals(1, writes.rejected());
+            assertEquals(0, admissionControl.limiterFor("GET").inFlight());
+        }
+    }
+
+    @Nested
+    @DisplayName("Decisions")
+    class DecisionTests {
+
+        @Test
+        @DisplayName("Should approve pending request")
+        void shouldApprovePendingRequest() {
+            // Arrange
+            String id = service.createLeaveRequest("John Doe", 8);
+
+            // Act & Assert
+            client.put().uri("/api/leave/{id}/approve", id)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(String.class).isEqualTo("Leave request approved");
+        }
+
+        @Test
+        @DisplayName("Should return 409 when rejecting an approved request")
+        void shouldReturnConflictForInvalidTransition() {
+            // Arrange
+            String id = service.createLeaveRequest("John Doe", 3);
+
+            // Act & Assert
+            client.put().uri("/api/leave/{id}/reject", id)
+                    .exchange()
+                    .expectStatus().isEqualTo(409);
+        }
+
+        @Test
+        @DisplayName("Should return 404 when approving unknown request")
+        void shouldReturnNotFoundForUnknownDecision() {
+            // Act & Assert
+            client.put().uri("/api/leave/{id}/approve", "missing")
+                    .exchange()
+                    .expectStatus().isNotFound();
+        }
+
+        @Test
+        @DisplayName("Should decide batches and report each item")
+        void shouldDecideBatch() {
+            // Arrange
+            String pending = service.createLeaveRequest("John Doe", 8);
+
+            // Act & Assert
+            client.put().uri("/api/leave/batch/reject")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(List.of(pending, "missing"))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$[0].outcome").isEqualTo("OK")
+                    .jsonPath("$[0].status").isEqualTo("REJECTED")
+                    .jsonPath("$[1].outcome").isEqualTo("NOT_FOUND");
+        }
+    }
+
+    @Nested
+    @DisplayName("Listings")
+    class ListingTests {
+
+        @Test
+        @DisplayName("Should list all requests as a JSON array")
+        void shouldListAllRequests() {
+            // Arrange
+            for (int i = 0; i < 5; i++) {
+                service.createLeaveRequest("Employee " + i, 3);
+            }
+
+            // Act & Assert
+            client.get().uri("/api/leave")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(LeaveRequest.class).hasSize(5);
+        }
+
+        @Test
+        @DisplayName("Should return a page when limit is given")
+        void shouldReturnPage() {
+            // Arrange
+            for (int i = 0; i < 5; i++) {
+                service.createLeaveRequest("Employee " + i, 3);
+            }
+
+            // Act & Assert
+            client.get().uri("/api/leave?limit=2")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.items.length()").isEqualTo(2)
+                    .jsonPath("$.nextCursor").exists();
+            client.get().uri("/api/leave?limit=0")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus().isBadRequest();
+        }
+
+        @Test
+        @DisplayName("Should stream requests as NDJSON")
+        void shouldStreamNdjson() {
+            // Arrange
+            for (int i = 0; i < 3; i++) {
+                service.createLeaveRequest("Employee " + i, 3);
+            }
+
+            // Act
+            List<LeaveRequest> streamed = client.get().uri("/api/leave")
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                    .returnResult(LeaveRequest.class)
+                    .getResponseBody()
+                    .collectList()
+                    .block();
+
+            // Assert
+            assertEquals(3, streamed.size());
+        }
+
+        @Test
+        @DisplayName("Should emit no more requests than demanded")
+        void shouldHonourBackpressure() {
+            // Arrange
+            for (int i = 0; i < 10; i++) {
+                service.createLeaveRequest("Employee " + i, 3);
+            }
+
+            // Act & Assert
+            StepVerifier.create(controller.streamLeaveRequests(), 2)
+                    .expectNextCount(2)
+                    .expectNoEvent(Duration.ofMillis(50))
+                    .thenRequest(3)
+                    .expectNextCount(3)
+                    .thenCancel()
+                    .verify();
+        }
+    }
+}
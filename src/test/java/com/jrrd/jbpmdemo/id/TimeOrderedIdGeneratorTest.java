@@ -0,0 +1,143 @@
+package com.jrrd.jbpmdemo.id;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+
+@DisplayName("TimeOrderedIdGenerator Tests")
+class TimeOrderedIdGeneratorTest {
+
+    @Nested
+    @DisplayName("Generation Tests")
+    class GenerationTests {
+
+        @Test
+        @DisplayName("Should generate strictly increasing IDs even when the clock goes back")
+        void shouldGenerateIncreasingIds() {
+            // Arrange
+            AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+            TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(7, clock::get);
+
+            // Act
+            LeaveRequestId first = generator.next();
+            LeaveRequestId second = generator.next();
+            clock.addAndGet(-5_000);
+            LeaveRequestId third = generator.next();
+            clock.addAndGet(10_000);
+            LeaveRequestId fourth = generator.next();
+
+            // Assert
+            assertTrue(first.compareTo(second) < 0);
+            assertTrue(second.compareTo(third) < 0);
+            assertTrue(third.compareTo(fourth) < 0);
+            assertEquals(1_700_000_000_000L, TimeOrderedIdGenerator.timestampOf(first));
+            assertEquals(1_700_000_005_000L, TimeOrderedIdGenerator.timestampOf(fourth));
+            assertEquals(7, TimeOrderedIdGenerator.nodeIdOf(fourth));
+        }
+
+        @Test
+        @DisplayName("Should generate unique IDs from concurrent threads")
+        void shouldGenerateUniqueIdsConcurrently() throws Exception {
+            // Arrange
+            TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1);
+            int threads = 8;
+            int perThread = 20_000;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+            // Act
+            List<Future<List<LeaveRequestId>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    List<LeaveRequestId> ids = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(generator.next());
+                    }
+                    return ids;
+                }));
+            }
+            Set<LeaveRequestId> all = new HashSet<>();
+            for (Future<List<LeaveRequestId>> future : futures) {
+                List<LeaveRequestId> ids = future.get();
+                for (int i = 1; i < ids.size(); i++) {
+                    assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0, "IDs of one thread should increase");
+                }
+                all.addAll(ids);
+            }
+            executor.shutdown();
+
+            // Assert
+            assertEquals(threads * perThread, all.size());
+        }
+
+        @Test
+        @DisplayName("Should reject node IDs out of range")
+        void shouldRejectInvalidNodeId() {
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(-1));
+            assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(TimeOrderedIdGenerator.MAX_NODE_ID + 1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Rendering Tests")
+    class RenderingTests {
+
+        @Test
+        @DisplayName("Should render sortable strings that parse back to the same ID")
+        void shouldRoundTripStrings() {
+            // Arrange
+            TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(TimeOrderedIdGenerator.MAX_NODE_ID);
+            LeaveRequestId first = generator.next();
+            LeaveRequestId second = generator.next();
+            LeaveRequestId max = new LeaveRequestId(-1L, -1L);
+
+            // Act
+            String text = first.toString();
+
+            // Assert
+            assertEquals(26, text.length());
+            assertEquals(first, LeaveRequestId.parse(text));
+            assertEquals(first, LeaveRequestId.parse(text.toLowerCase()));
+            assertEquals(max, LeaveRequestId.parse(max.toString()));
+            assertTrue(first.toString().compareTo(second.toString()) < 0);
+        }
+
+        @Test
+        @DisplayName("Should parse legacy UUID IDs")
+        void shouldParseUuids() {
+            // Arrange
+            UUID uuid = UUID.randomUUID();
+
+            // Act
+            LeaveRequestId id = LeaveRequestId.parse(uuid.toString());
+
+            // Assert
+            assertEquals(uuid.getMostSignificantBits(), id.high());
+            assertEquals(uuid.getLeastSignificantBits(), id.low());
+        }
+
+        @Test
+        @DisplayName("Should reject malformed IDs")
+        void shouldRejectMalformedIds() {
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> LeaveRequestId.parse("non-existent-id"));
+            assertThrows(IllegalArgumentException.class, () -> LeaveRequestId.parse("8ZZZZZZZZZZZZZZZZZZZZZZZZZ"));
+            assertThrows(IllegalArgumentException.class, () -> LeaveRequestId.parse("0000000000000000000000000U"));
+        }
+    }
+}
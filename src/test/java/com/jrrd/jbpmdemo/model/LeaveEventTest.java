@@ -0,0 +1,62 @@
+package com.jrrd.jbpmdemo.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("LeaveEvent Tests")
+class LeaveEventTest {
+
+    private static final LeaveRequestId ID = new LeaveRequestId(1, 2);
+    private static final LocalDateTime REQUESTED = LocalDateTime.of(2024, 8, 20, 9, 15);
+
+    @Test
+    @DisplayName("Should record auto-approval after creation")
+    void shouldFoldAutoApprovedRequest() {
+        // Arrange
+        LeaveRecord request = new LeaveRecord(ID, "John Doe", 3, LeaveStatus.APPROVED, REQUESTED, REQUESTED);
+
+        // Act
+        List<LeaveEvent> events = LeaveEvent.forCreated(request, "John Doe");
+        LeaveRecord folded = LeaveEvent.fold(null, events);
+
+        // Assert
+        assertEquals(List.of(LeaveEvent.Type.CREATED, LeaveEvent.Type.AUTO_APPROVED),
+                events.stream().map(LeaveEvent::getType).toList());
+        assertEquals(request, folded);
+    }
+
+    @Test
+    @DisplayName("Should keep the time of a rejection in the history")
+    void shouldFoldRejection() {
+        // Arrange
+        LeaveRecord pending = new LeaveRecord(ID, "Jane Smith", 10, LeaveStatus.PENDING, REQUESTED, null);
+        long rejectedAt = LeaveRecord.toEpochMilli(REQUESTED.plusDays(1));
+        LeaveEvent rejected = LeaveEvent.forDecision(ID, LeaveStatus.REJECTED, rejectedAt, "alice");
+
+        // Act
+        LeaveRecord folded = LeaveEvent.fold(null, List.of(LeaveEvent.created(pending, "Jane Smith"),
+                LeaveEvent.of(ID, LeaveEvent.Type.ESCALATED, rejectedAt - 1, "approval-deadline"), rejected));
+
+        // Assert
+        assertEquals(LeaveStatus.REJECTED, folded.status());
+        assertNull(folded.approvalDate());
+        assertEquals(REQUESTED.plusDays(1), rejected.getAt());
+        assertEquals("alice", rejected.getActor());
+    }
+
+    @Test
+    @DisplayName("Should reject events before creation")
+    void shouldRejectEventsBeforeCreation() {
+        // Arrange
+        LeaveEvent approved = LeaveEvent.forDecision(ID, LeaveStatus.APPROVED, 0, null);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> approved.applyTo(null));
+    }
+}
@@ -0,0 +1,130 @@
+package com.jrrd.jbpmdemo.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("LeaveRecord Model Tests")
+class LeaveRecordTest {
+
+    private static final LeaveRequestId ID = new LeaveRequestId(1, 2);
+
+    @Nested
+    @DisplayName("Compact Representation Tests")
+    class CompactRepresentationTests {
+
+        @Test
+        @DisplayName("Should keep dates with millisecond precision")
+        void shouldKeepDatesWithMillisecondPrecision() {
+            // Arrange
+            LocalDateTime requested = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_789);
+
+            // Act
+            LeaveRecord record = new LeaveRecord(ID, "John Doe", 3, LeaveStatus.PENDING, requested, null);
+
+            // Assert
+            assertEquals(LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_000_000), record.requestDate());
+            assertEquals(LeaveRecord.toEpochMilli(requested), record.requestDateMillis());
+            assertNull(record.approvalDate());
+            assertEquals(LeaveRecord.NO_DATE, record.approvalDateMillis());
+        }
+
+        @Test
+        @DisplayName("Should share employee names between records")
+        void shouldShareEmployeeNames() {
+            // Arrange
+            LocalDateTime now = LocalDateTime.now();
+
+            // Act
+            LeaveRecord first = new LeaveRecord(ID, new String("Jane Smith"), 3, LeaveStatus.PENDING, now, null);
+            LeaveRecord second = new LeaveRecord(ID, new String("Jane Smith"), 4, LeaveStatus.PENDING, now, null);
+
+            // Assert
+            assertSame(first.employeeName(), second.employeeName());
+        }
+
+        @Test
+        @DisplayName("Should let a name take over the dictionary slot of another")
+        void shouldEvictNamesSharingASlot() {
+            // Arrange: "Aa" and "BB" have the same hash code
+            String first = EmployeeNames.canonical(new String("Aa"));
+
+            // Act
+            String other = EmployeeNames.canonical(new String("BB"));
+            String again = EmployeeNames.canonical(new String("Aa"));
+
+            // Assert
+            assertEquals("BB", other);
+            assertEquals(first, again);
+            assertNotSame(first, again);
+            assertSame(again, EmployeeNames.canonical(new String("Aa")));
+        }
+
+        @Test
+        @DisplayName("Should keep missing days, status and dates")
+        void shouldKeepMissingValues() {
+            // Act
+            LeaveRecord record = new LeaveRecord(ID, null, (Integer) null, null, null, null);
+
+            // Assert
+            assertNull(record.employeeName());
+            assertNull(record.daysRequested());
+            assertNull(record.status());
+            assertNull(record.requestDate());
+            assertFalse(record.approved());
+        }
+    }
+
+    @Nested
+    @DisplayName("Transition Tests")
+    class TransitionTests {
+
+        @Test
+        @DisplayName("Should set approval date only when approved")
+        void shouldSetApprovalDateOnlyWhenApproved() {
+            // Arrange
+            LocalDateTime requested = LocalDateTime.of(2024, 3, 1, 9, 0);
+            LocalDateTime decided = LocalDateTime.of(2024, 3, 2, 10, 0);
+            LeaveRecord pending = new LeaveRecord(ID, "John Doe", 8, LeaveStatus.PENDING, requested, null);
+
+            // Act
+            LeaveRecord approved = pending.withStatus(LeaveStatus.APPROVED, decided);
+            LeaveRecord rejected = pending.withStatus(LeaveStatus.REJECTED, decided);
+
+            // Assert
+            assertTrue(approved.approved());
+            assertEquals(decided, approved.approvalDate());
+            assertEquals(requested, approved.requestDate());
+            assertEquals(LeaveStatus.REJECTED, rejected.status());
+            assertNull(rejected.approvalDate());
+        }
+
+        @Test
+        @DisplayName("Should convert to the API representation")
+        void shouldConvertToLeaveRequest() {
+            // Arrange
+            LocalDateTime requested = LocalDateTime.of(2024, 3, 1, 9, 0);
+            LeaveRecord record = new LeaveRecord(ID, "John Doe", 3, LeaveStatus.APPROVED, requested, requested);
+
+            // Act
+            LeaveRequest request = record.toLeaveRequest();
+
+            // Assert
+            assertEquals(ID.toString(), request.getId());
+            assertEquals("John Doe", request.getEmployeeName());
+            assertEquals(3, request.getDaysRequested());
+            assertTrue(request.getApproved());
+            assertEquals(LeaveStatus.APPROVED, request.getStatus());
+            assertEquals(requested, request.getApprovalDate());
+        }
+    }
+}
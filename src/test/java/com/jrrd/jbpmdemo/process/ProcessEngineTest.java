@@ -0,0 +1,257 @@
+package com.jrrd.jbpmdemo.process;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+
+import com.sun.management.ThreadMXBean;
+
+@DisplayName("ProcessEngine Tests")
+class ProcessEngineTest {
+
+    private final ProcessEngine engine = new ProcessEngine();
+    private ProcessDefinition leave;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream bpmn = getClass().getClassLoader().getResourceAsStream("leave.bpmn")) {
+            leave = new BpmnProcessParser(BeanUtils::instantiateClass).parse(bpmn);
+        }
+    }
+
+    @Nested
+    @DisplayName("Leave Process Tests")
+    class LeaveProcessTests {
+
+        @Test
+        @DisplayName("Should wait in the submit task after start")
+        void shouldWaitInSubmitTask() {
+            // Act
+            ProcessInstance instance = engine.start(leave);
+
+            // Assert
+            assertEquals("leave", leave.getId());
+            assertEquals("submitLeaveRequestTask", instance.getCurrentNodeId());
+            assertFalse(instance.isCompleted());
+        }
+
+        @Test
+        @DisplayName("Should auto-approve through the service task for 5 days or less")
+        void shouldAutoApprove() {
+            // Arrange
+            ProcessInstance instance = engine.start(leave);
+
+            // Act
+            engine.completeTask(instance, "submitLeaveRequestTask", Map.of("employeeName", "John", "daysRequested", 5));
+
+            // Assert
+            assertTrue(instance.isCompleted());
+            assertEquals("autoApproveEnd", instance.getCurrentNodeId());
+            assertEquals(Boolean.TRUE, instance.getVariable(leave.variableSlot("approved")));
+        }
+
+        @Test
+        @DisplayName("Should wait for manager approval for more than 5 days")
+        void shouldWaitForManager() {
+            // Arrange
+            ProcessInstance instance = engine.start(leave);
+            engine.completeTask(instance, "submitLeaveRequestTask", Map.of("employeeName", "Jane", "daysRequested", 6));
+            assertEquals("managerApprovalTask", instance.getCurrentNodeId());
+
+            // Act
+            engine.completeTask(instance, "managerApprovalTask", Map.of("approved", false));
+
+            // Assert
+            assertTrue(instance.isCompleted());
+            assertEquals("managerApproveEnd", instance.getCurrentNodeId());
+            assertEquals(Boolean.FALSE, instance.getVariable(leave.variableSlot("approved")));
+        }
+
+        @Test
+        @DisplayName("Should wait for manager approval for short requests when the team is short")
+        void shouldWaitForManagerWhenCoverageExceeded() {
+            // Arrange
+            ProcessInstance covered = engine.start(leave);
+            ProcessInstance shortHanded = engine.start(leave);
+
+            // Act
+            engine.completeTask(covered, "submitLeaveRequestTask",
+                    Map.of("employeeName", "John", "daysRequested", 2, "coverageExceeded", false));
+            engine.completeTask(shortHanded, "submitLeaveRequestTask",
+                    Map.of("employeeName", "Jane", "daysRequested", 2, "coverageExceeded", true));
+
+            // Assert
+            assertEquals("autoApproveEnd", covered.getCurrentNodeId());
+            assertEquals("managerApprovalTask", shortHanded.getCurrentNodeId());
+        }
+
+        @Test
+        @DisplayName("Should resume an instance waiting in a user task")
+        void shouldResumeWaitingInstance() {
+            // Arrange
+            ProcessInstance instance = engine.resume(leave, "managerApprovalTask");
+
+            // Act
+            engine.completeTask(instance, "managerApprovalTask", Map.of("approved", true));
+
+            // Assert
+            assertEquals("managerApproveEnd", instance.getCurrentNodeId());
+        }
+
+        @Test
+        @DisplayName("Should refuse to complete a task the instance is not waiting in")
+        void shouldRefuseWrongTask() {
+            // Arrange
+            ProcessInstance instance = engine.start(leave);
+
+            // Act & Assert
+            assertThrows(IllegalStateException.class,
+                    () -> engine.completeTask(instance, "managerApprovalTask", Map.of("approved", true)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Condition Tests")
+    class ConditionTests {
+
+        private final Map<String, ConditionCompiler.ValueType> types = Map.of(
+                "employeeName", ConditionCompiler.ValueType.OBJECT,
+                "daysRequested", ConditionCompiler.ValueType.INT,
+                "approved", ConditionCompiler.ValueType.BOOLEAN);
+
+        private ConditionCompiler compiler() {
+            return new ConditionCompiler(leave.getId(),
+                    name -> new ConditionCompiler.Variable(name, leave.variableSlot(name), types.get(name)));
+        }
+
+        @Test
+        @DisplayName("Should evaluate compound conditions")
+        void shouldEvaluateCompoundConditions() {
+            // Arrange
+            Condition condition = compiler().compile(
+                    "return !(daysRequested > 10) && (approved == true || daysRequested <= -1);");
+            ProcessInstance instance = engine.resume(leave, "managerApprovalTask");
+            instance.setVariable(leave.variableSlot("daysRequested"), 7);
+
+            // Act & Assert
+            instance.setVariable(leave.variableSlot("approved"), true);
+            assertTrue(condition.test(instance));
+            instance.setVariable(leave.variableSlot("approved"), false);
+            assertFalse(condition.test(instance));
+        }
+
+        @Test
+        @DisplayName("Should reject unsupported expressions at compile time")
+        void shouldRejectUnsupportedExpressions() {
+            // Act & Assert
+            ConditionCompiler compiler = compiler();
+            assertThrows(IllegalArgumentException.class,
+                    () -> compiler.compile("return daysRequested.intValue() > 5;"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> compiler.compile("return unknownVariable > 5;"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> compiler.compile("return employeeName > 5;"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> compiler.compile("return daysRequested;"));
+        }
+
+        @Test
+        @DisplayName("Should compare reference variables with null and each other")
+        void shouldCompareReferences() {
+            // Arrange
+            ConditionCompiler compiler = compiler();
+            Condition named = compiler.compile("employeeName != null");
+            Condition unnamed = compiler.compile("return employeeName == null;");
+            ProcessInstance instance = engine.resume(leave, "managerApprovalTask");
+
+            // Act & Assert
+            assertFalse(named.test(instance));
+            assertTrue(unnamed.test(instance));
+            instance.setVariable(leave.variableSlot("employeeName"), "John");
+            assertTrue(named.test(instance));
+            assertFalse(unnamed.test(instance));
+        }
+
+        @Test
+        @DisplayName("Should fail with the variable name when a primitive variable is not set")
+        void shouldFailOnUnsetVariable() {
+            // Arrange
+            Condition condition = compiler().compile("return daysRequested <= 5;");
+            ProcessInstance instance = engine.resume(leave, "managerApprovalTask");
+
+            // Act
+            IllegalStateException error = assertThrows(IllegalStateException.class, () -> condition.test(instance));
+
+            // Assert
+            assertTrue(error.getMessage().contains("daysRequested"));
+        }
+
+        @Test
+        @DisplayName("Should reuse the compiled class for identical expressions")
+        void shouldCacheCompiledConditions() {
+            // Arrange
+            ConditionCompiler compiler = compiler();
+
+            // Act
+            Condition first = compiler.compile("return daysRequested <= 5;");
+            Condition second = compiler.compile("  return daysRequested <= 5;\n");
+
+            // Assert
+            assertSame(first, second);
+        }
+
+        @Test
+        @DisplayName("Should evaluate gateway conditions without allocating")
+        void shouldNotAllocateWhenEvaluating() {
+            // Arrange
+            Condition condition = compiler().compile("return daysRequested > 5 && approved != false;");
+            ProcessInstance instance = engine.resume(leave, "managerApprovalTask");
+            instance.setVariable(leave.variableSlot("daysRequested"), 7);
+            instance.setVariable(leave.variableSlot("approved"), true);
+            ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long thread = Thread.currentThread().getId();
+            boolean matched = false;
+            for (int i = 0; i < 100_000; i++) {
+                matched |= condition.test(instance);
+            }
+
+            // Act
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 1_000_000; i++) {
+                matched &= condition.test(instance);
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+            // Assert
+            assertTrue(matched);
+            assertTrue(allocated < 1024, "Evaluation allocated " + allocated + " bytes");
+        }
+
+        @Test
+        @DisplayName("Should reject processes with unsupported elements")
+        void shouldRejectUnsupportedElements() {
+            // Arrange
+            String bpmn = "<bpmn2:definitions xmlns:bpmn2=\"" + BpmnProcessParser.BPMN_NS + "\">"
+                    + "<bpmn2:process id=\"p\"><bpmn2:startEvent id=\"s\"/><bpmn2:scriptTask id=\"t\"/></bpmn2:process>"
+                    + "</bpmn2:definitions>";
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> new BpmnProcessParser(BeanUtils::instantiateClass)
+                    .parse(new ByteArrayInputStream(bpmn.getBytes(StandardCharsets.UTF_8))));
+        }
+    }
+}
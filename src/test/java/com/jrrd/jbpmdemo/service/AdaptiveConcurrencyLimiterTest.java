@@ -0,0 +1,137 @@
+package com.jrrd.jbpmdemo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("AdaptiveConcurrencyLimiter Tests")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private SimpleMeterRegistry registry;
+    private AdaptiveConcurrencyLimiter limiter;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter("write", 10, 2, 20, 2.0, registry);
+        now = 0;
+    }
+
+    @Test
+    @DisplayName("Should refuse calls beyond the limit and count them")
+    void shouldRefuseBeyondLimit() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        // Act
+        boolean admitted = limiter.tryAcquire();
+
+        // Assert
+        assertFalse(admitted);
+        assertEquals(1, limiter.rejected());
+        assertEquals(1.0, registry.get("leave.limiter.rejected").tag("budget", "write").functionCounter().count());
+        assertEquals(10.0, registry.get("leave.limiter.in.flight").tag("budget", "write").gauge().value());
+        limiter.completed(now, now + MILLIS);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Should grow the limit while latency holds and shrink it when latency degrades")
+    void shouldAdaptToLatency() {
+        // Arrange
+        grow();
+        int grown = limiter.limit();
+
+        // Act
+        call(10);
+        int shrunk = limiter.limit();
+        for (int i = 0; i < 30; i++) {
+            call(10);
+        }
+
+        // Assert
+        assertEquals(20, grown);
+        assertEquals(18, shrunk);
+        assertEquals(2, limiter.limit());
+        assertEquals(2.0, registry.get("leave.limiter.limit").tag("budget", "write").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should shrink the limit once for a burst of slow calls in flight together")
+    void shouldShrinkOncePerWindow() {
+        // Arrange
+        grow();
+        long start = now;
+        acquire(15);
+
+        // Act
+        for (int i = 0; i < 15; i++) {
+            now += MILLIS;
+            limiter.completed(start, now + 10 * MILLIS);
+        }
+
+        // Assert
+        assertEquals(18, limiter.limit());
+    }
+
+    @Test
+    @DisplayName("Should not learn degraded latency as the baseline")
+    void shouldKeepBaselineUnderDegradation() {
+        // Arrange
+        grow();
+
+        // Act
+        for (int i = 0; i < 500; i++) {
+            call(10);
+        }
+        int degraded = limiter.limit();
+        for (int i = 0; i < 10; i++) {
+            call(1);
+        }
+
+        // Assert
+        assertEquals(2, degraded);
+        // Fast calls count again once latency recovers
+        assertEquals(3, limiter.limit());
+    }
+
+    /**
+     * Grows the limit to its maximum with fast calls that keep it busy
+     */
+    private void grow() {
+        for (int i = 0; i < 15; i++) {
+            long start = now;
+            acquire(10);
+            now += MILLIS;
+            for (int j = 0; j < 10; j++) {
+                limiter.completed(start, now);
+            }
+        }
+    }
+
+    /**
+     * Makes one call on its own, admitted after every earlier call completed
+     */
+    private void call(long millis) {
+        acquire(1);
+        long start = now;
+        now += millis * MILLIS;
+        limiter.completed(start, now);
+    }
+
+    private void acquire(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("IdempotencyCache Tests")
+class IdempotencyCacheTest {
+
+    private static final Duration TTL = Duration.ofHours(1);
+
+    private AtomicLong clock;
+    private AtomicInteger calls;
+    private IdempotencyCache<String> cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_000_000L);
+        calls = new AtomicInteger();
+        cache = new IdempotencyCache<>(10, TTL, clock::get);
+    }
+
+    private String execute(String key, String request) {
+        return cache.execute(key, request, () -> request + "#" + calls.incrementAndGet());
+    }
+
+    @Test
+    @DisplayName("Should return the first result to retries and refuse the key for other requests")
+    void shouldReplayFirstResult() {
+        // Act
+        String first = execute("key-1", "create");
+        String retry = execute("key-1", "create");
+
+        // Assert
+        assertEquals("create#1", first);
+        assertEquals(first, retry);
+        assertEquals(1, calls.get());
+        assertThrows(IdempotencyKeyReusedException.class, () -> execute("key-1", "other"));
+    }
+
+    @Test
+    @DisplayName("Should run the call again once the key expires or after a failure")
+    void shouldForgetExpiredAndFailedCalls() {
+        // Arrange
+        execute("key-1", "create");
+        assertThrows(IllegalStateException.class, () -> cache.execute("key-2", "create", () -> {
+            throw new IllegalStateException("store unavailable");
+        }));
+
+        // Act
+        clock.addAndGet(TTL.toMillis());
+        String afterExpiry = execute("key-1", "create");
+        String afterFailure = execute("key-2", "create");
+
+        // Assert
+        assertEquals("create#2", afterExpiry);
+        assertEquals("create#3", afterFailure);
+    }
+
+    @Test
+    @DisplayName("Should stay within capacity, evicting one-off keys before retried ones")
+    void shouldEvictOneOffKeysFirst() {
+        // Arrange
+        execute("retried", "create");
+        execute("retried", "create");
+
+        // Act
+        // A storm of new keys, three times the capacity
+        for (int i = 0; i < 30; i++) {
+            execute("storm-" + i, "create");
+        }
+
+        // Assert
+        assertEquals(10, cache.size());
+        int before = calls.get();
+        execute("retried", "create");
+        assertEquals(before, calls.get());
+        execute("storm-0", "create");
+        assertEquals(before + 1, calls.get());
+    }
+}
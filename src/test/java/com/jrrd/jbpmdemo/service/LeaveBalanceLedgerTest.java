@@ -0,0 +1,96 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.jrrd.jbpmdemo.dto.LeaveBalance;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+@DisplayName("LeaveBalanceLedger Tests")
+class LeaveBalanceLedgerTest {
+
+    private static final int YEAR = 2026;
+    private static final long REQUESTED = LeaveRecord.toEpochMilli(LocalDate.of(YEAR - 1, 11, 2).atStartOfDay());
+
+    @Test
+    @DisplayName("Should keep the account unchanged when a reservation is refused")
+    void shouldKeepAccountOnRefusal() {
+        // Arrange
+        LeaveBalanceLedger ledger = new LeaveBalanceLedger(name -> name.equals("Jane Smith") ? 30 : 10);
+        ledger.reserve("Jane Smith", YEAR, 20);
+        ledger.reserve("Bob Brown", YEAR, 10);
+
+        // Act & Assert
+        InsufficientLeaveBalanceException e = assertThrows(InsufficientLeaveBalanceException.class,
+                () -> ledger.reserve("Jane Smith", YEAR, 11));
+        assertEquals(10, e.getDaysAvailable());
+        assertEquals(20, ledger.balance("Jane Smith", YEAR).getReserved());
+        assertThrows(InsufficientLeaveBalanceException.class, () -> ledger.reserve("Bob Brown", YEAR, 1));
+    }
+
+    @Test
+    @DisplayName("Should track but not limit balances when unlimited")
+    void shouldTrackUnlimitedBalances() {
+        // Arrange
+        LeaveBalanceLedger ledger = LeaveBalanceLedger.unlimited();
+
+        // Act
+        ledger.reserve("Jane Smith", YEAR, 1_000);
+        ledger.reserve("Jane Smith", YEAR, Integer.MAX_VALUE);
+        ledger.commit("Jane Smith", YEAR, 1_000);
+        ledger.release("Unknown", YEAR, 5);
+
+        // Assert
+        LeaveBalance balance = ledger.balance("Jane Smith", YEAR);
+        assertNull(balance.getAllowance());
+        assertNull(balance.getAvailable());
+        assertEquals(1_000, balance.getUsed());
+        assertEquals(Integer.MAX_VALUE, balance.getReserved());
+        assertEquals(0, ledger.balance("Unknown", YEAR).getReserved());
+    }
+
+    @Test
+    @DisplayName("Should give every leave year its own allowance")
+    void shouldKeepAccountsPerYear() {
+        // Arrange
+        LeaveBalanceLedger ledger = new LeaveBalanceLedger(name -> 25);
+        LeaveRecord lastYear = new LeaveRecord(new LeaveRequestId(0, 1), "Jane Smith", 20, LeaveStatus.APPROVED,
+                REQUESTED, REQUESTED, LeaveRecord.toEpochDay(LocalDate.of(YEAR - 1, 12, 1)),
+                LeaveRecord.toEpochDay(LocalDate.of(YEAR - 1, 12, 28)));
+        ledger.restore(lastYear);
+
+        // Act
+        ledger.reserve("Jane Smith", YEAR, 25);
+
+        // Assert
+        assertEquals(YEAR - 1, LeaveBalanceLedger.leaveYear(lastYear));
+        assertEquals(20, ledger.balance("Jane Smith", YEAR - 1).getUsed());
+        assertEquals(0L, ledger.balance("Jane Smith", YEAR).getAvailable());
+        assertEquals(YEAR, ledger.balance("Jane Smith", YEAR).getYear());
+        assertThrows(InsufficientLeaveBalanceException.class, () -> ledger.reserve("Jane Smith", YEAR - 1, 6));
+    }
+
+    @Test
+    @DisplayName("Should count nothing for a restored request without days")
+    void shouldRestoreRequestWithoutDays() {
+        // Arrange
+        LeaveBalanceLedger ledger = new LeaveBalanceLedger(name -> 25);
+        LeaveRecord imported = new LeaveRecord(new LeaveRequestId(0, 1), "Jane Smith", (Integer) null,
+                LeaveStatus.APPROVED, LeaveRecord.toDateTime(REQUESTED), LeaveRecord.toDateTime(REQUESTED));
+
+        // Act
+        ledger.restore(imported);
+
+        // Assert
+        assertEquals(LeaveRecord.NO_DAYS, imported.daysRequestedValue());
+        assertEquals(0, ledger.balance("Jane Smith", YEAR - 1).getUsed());
+        assertEquals(25L, ledger.balance("Jane Smith", YEAR - 1).getAvailable());
+    }
+}
@@ -0,0 +1,169 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+import com.jrrd.jbpmdemo.store.InMemoryLeaveEventStore;
+import com.jrrd.jbpmdemo.store.InMemoryLeaveRequestStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("LeaveDeadlineScheduler Tests")
+class LeaveDeadlineSchedulerTest {
+
+    private static final Duration REMIND_AFTER = Duration.ofHours(24);
+    private static final Duration ESCALATE_AFTER = Duration.ofHours(72);
+    private static final Duration TICK = Duration.ofSeconds(1);
+
+    private SimpleMeterRegistry registry;
+    private SimpleLeaveRequestService service;
+    private AtomicLong clock;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        service = SimpleLeaveRequestService.builder().metrics(new LeaveMetrics(registry)).build();
+        clock = new AtomicLong(LeaveRecord.toEpochMilli(LocalDateTime.now()));
+    }
+
+    private LeaveDeadlineScheduler scheduler(LeaveDeadlineScheduler.Escalation escalation) {
+        return new LeaveDeadlineScheduler(service, new LeaveMetrics(registry), REMIND_AFTER, ESCALATE_AFTER,
+                escalation, TICK, clock::get, false);
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toMillis());
+    }
+
+    @Test
+    @DisplayName("Should remind and then reject a request left pending")
+    void shouldRemindThenReject() {
+        // Arrange
+        LeaveDeadlineScheduler scheduler = scheduler(LeaveDeadlineScheduler.Escalation.REJECT);
+        String id = service.createLeaveRequest("Jane Smith", 10);
+
+        // Act
+        advance(Duration.ofHours(25));
+        scheduler.tick();
+        LeaveStatus afterReminder = service.getLeaveRequest(id).getStatus();
+        advance(Duration.ofHours(48));
+        scheduler.tick();
+
+        // Assert
+        assertEquals(LeaveStatus.PENDING, afterReminder);
+        assertEquals(LeaveStatus.REJECTED, service.getLeaveRequest(id).getStatus());
+        assertEquals(1.0, registry.get("leave.deadline.reminders").counter().count());
+        assertEquals(1.0, registry.get("leave.deadline.escalations").tag("action", "reject").counter().count());
+        assertEquals(0, scheduler.pendingTimers());
+    }
+
+    @Test
+    @DisplayName("Should leave escalated request pending")
+    void shouldEscalateWithoutDeciding() {
+        // Arrange
+        LeaveDeadlineScheduler scheduler = scheduler(LeaveDeadlineScheduler.Escalation.ESCALATE);
+        String id = service.createLeaveRequest("Jane Smith", 10);
+
+        // Act
+        advance(Duration.ofHours(25));
+        scheduler.tick();
+        advance(Duration.ofHours(48));
+        scheduler.tick();
+
+        // Assert
+        assertEquals(LeaveStatus.PENDING, service.getLeaveRequest(id).getStatus());
+        assertEquals(1.0, registry.get("leave.deadline.escalations").tag("action", "escalate").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should cancel the deadline when the request is decided")
+    void shouldCancelOnDecision() {
+        // Arrange
+        LeaveDeadlineScheduler scheduler = scheduler(LeaveDeadlineScheduler.Escalation.REJECT);
+        String approved = service.createLeaveRequest("Jane Smith", 10);
+        service.createLeaveRequest("John Doe", 3);
+
+        // Act
+        service.approveLeaveRequest(approved);
+        advance(Duration.ofHours(100));
+        int fired = scheduler.tick();
+
+        // Assert
+        assertEquals(0, fired);
+        assertEquals(0, scheduler.pendingTimers());
+        assertEquals(LeaveStatus.APPROVED, service.getLeaveRequest(approved).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should rebuild deadlines of pending requests on startup")
+    void shouldRebuildFromPendingRequests() {
+        // Arrange
+        String pending = service.createLeaveRequest("Jane Smith", 10);
+        service.createLeaveRequest("John Doe", 3);
+        advance(Duration.ofHours(80));
+
+        // Act
+        LeaveDeadlineScheduler scheduler = scheduler(LeaveDeadlineScheduler.Escalation.REJECT);
+        int timers = scheduler.pendingTimers();
+        advance(TICK);
+        scheduler.tick();
+        advance(TICK);
+        scheduler.tick();
+
+        // Assert
+        assertEquals(1, timers);
+        assertEquals(LeaveStatus.REJECTED, service.getLeaveRequest(pending).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should not remind or escalate an escalated request again after restart")
+    void shouldNotEscalateAgainAfterRestart() {
+        // Arrange
+        InMemoryLeaveRequestStore requests = new InMemoryLeaveRequestStore();
+        InMemoryLeaveEventStore events = new InMemoryLeaveEventStore();
+        service = SimpleLeaveRequestService.builder().leaveRequests(requests).leaveEvents(events)
+                .metrics(new LeaveMetrics(registry)).build();
+        String id = service.createLeaveRequest("Jane Smith", 10);
+        LeaveDeadlineScheduler scheduler = scheduler(LeaveDeadlineScheduler.Escalation.ESCALATE);
+        advance(Duration.ofHours(25));
+        scheduler.tick();
+        advance(Duration.ofHours(48));
+        scheduler.tick();
+        scheduler.close();
+
+        // Act
+        service = SimpleLeaveRequestService.builder().leaveRequests(requests).leaveEvents(events)
+                .metrics(new LeaveMetrics(registry)).build();
+        LeaveDeadlineScheduler restarted = scheduler(LeaveDeadlineScheduler.Escalation.ESCALATE);
+        int timers = restarted.pendingTimers();
+        advance(TICK);
+        restarted.tick();
+
+        // Assert
+        assertEquals(0, timers);
+        assertFalse(service.escalateLeaveRequest(id, "bob"));
+        assertEquals(2, service.getLeaveRequestHistory(id).size());
+        assertEquals(LeaveStatus.PENDING, service.getLeaveRequest(id).getStatus());
+        assertEquals(1.0, registry.get("leave.deadline.reminders").counter().count());
+        assertEquals(1.0, registry.get("leave.deadline.escalations").tag("action", "escalate").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should reject reminder after escalation")
+    void shouldValidateDurations() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new LeaveDeadlineScheduler(service,
+                new LeaveMetrics(registry), ESCALATE_AFTER, REMIND_AFTER, LeaveDeadlineScheduler.Escalation.REJECT,
+                TICK, clock::get, false));
+    }
+}
@@ -0,0 +1,126 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.jrrd.jbpmdemo.dto.EmployeeLeaveStats;
+import com.jrrd.jbpmdemo.dto.LeaveStats;
+import com.jrrd.jbpmdemo.store.InMemoryLeaveRequestStore;
+
+@DisplayName("LeaveStatistics Tests")
+class LeaveStatisticsTest {
+
+    private InMemoryLeaveRequestStore store;
+    private SimpleLeaveRequestService service;
+    private LeaveStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryLeaveRequestStore();
+        service = SimpleLeaveRequestService.builder().leaveRequests(store).build();
+        statistics = new LeaveStatistics(service, store, name -> name.startsWith("HR ") ? "hr" : "engineering");
+    }
+
+    @Test
+    @DisplayName("Should count requests per status and pending per department")
+    void shouldCountByStatusAndDepartment() {
+        // Arrange
+        service.createLeaveRequest("John Doe", 3);
+        String rejected = service.createLeaveRequest("Jane Smith", 10);
+        service.createLeaveRequest("Bob Brown", 8);
+        service.createLeaveRequest("HR Alice", 7);
+
+        // Act
+        service.rejectLeaveRequest(rejected);
+        LeaveStats stats = statistics.getStats();
+
+        // Assert
+        assertEquals(2, stats.getPending());
+        assertEquals(1, stats.getApproved());
+        assertEquals(1, stats.getRejected());
+        assertEquals(4, stats.getTotal());
+        assertEquals(Map.of("engineering", 1L, "hr", 1L), statistics.getPendingCountByDepartment());
+        assertEquals(0, statistics.getPendingCount("sales"));
+    }
+
+    @Test
+    @DisplayName("Should sum approved days per employee and year")
+    void shouldSumApprovedDays() {
+        // Arrange
+        service.createLeaveRequest("Jane Smith", 3);
+        String manual = service.createLeaveRequest("Jane Smith", 10);
+        service.createLeaveRequest("Jane Smith", 12);
+
+        // Act
+        service.approveLeaveRequest(manual);
+        int year = LocalDateTime.now().getYear();
+        EmployeeLeaveStats jane = statistics.getApprovedLeave("Jane Smith", year);
+
+        // Assert
+        assertEquals(2, jane.getApprovedRequests());
+        assertEquals(13, jane.getApprovedDays());
+        assertEquals(0, statistics.getApprovedLeave("Jane Smith", year - 1).getApprovedDays());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the same projections from the store")
+    void shouldRebuildFromStore() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            String id = service.createLeaveRequest("Employee " + i % 3, 1 + i);
+            if (i % 4 == 0) {
+                service.approveLeaveRequest(id);
+            }
+        }
+        LeaveStats before = statistics.getStats();
+        Map<String, Long> pendingBefore = statistics.getPendingCountByDepartment();
+
+        // Act
+        long counted = statistics.rebuild();
+
+        // Assert
+        assertEquals(20, counted);
+        assertEquals(before.getPending(), statistics.getStats().getPending());
+        assertEquals(before.getApproved(), statistics.getStats().getApproved());
+        assertEquals(pendingBefore, statistics.getPendingCountByDepartment());
+    }
+
+    @Test
+    @DisplayName("Should stay exact under concurrent creates and decisions")
+    void shouldCountConcurrently() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 250; i++) {
+                    String id = service.createLeaveRequest("Employee " + i % 5, 10);
+                    if (i % 2 == 0) {
+                        service.approveLeaveRequest(id);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(500, statistics.getStats().getPending());
+        assertEquals(500, statistics.getStats().getApproved());
+        assertEquals(500, statistics.getPendingCount("engineering"));
+    }
+}
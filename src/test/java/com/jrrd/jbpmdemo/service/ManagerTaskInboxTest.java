@@ -0,0 +1,207 @@
+package com.jrrd.jbpmdemo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.jrrd.jbpmdemo.dto.ManagerTask;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+@DisplayName("ManagerTaskInbox Tests")
+class ManagerTaskInboxTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(15);
+
+    private SimpleLeaveRequestService service;
+    private AtomicLong clock;
+    private ManagerTaskInbox inbox;
+
+    @BeforeEach
+    void setUp() {
+        service = new SimpleLeaveRequestService();
+        clock = new AtomicLong(LeaveRecord.toEpochMilli(LocalDateTime.now()));
+        inbox = new ManagerTaskInbox(service,
+                request -> request.employeeName().startsWith("HR ") ? "hr" : "managers", LEASE, clock::get);
+    }
+
+    @Nested
+    @DisplayName("Queue Tests")
+    class QueueTests {
+
+        @Test
+        @DisplayName("Should queue only pending requests by group")
+        void shouldQueuePendingRequestsByGroup() {
+            // Arrange
+            String pending = service.createLeaveRequest("Jane Smith", 10);
+            service.createLeaveRequest("John Doe", 3);
+            String hr = service.createLeaveRequest("HR Alice", 8);
+
+            // Act
+            List<ManagerTask> managers = inbox.next("managers", 10);
+            List<ManagerTask> hrTasks = inbox.next("hr", 10);
+
+            // Assert
+            assertEquals(List.of(pending), managers.stream().map(ManagerTask::getId).toList());
+            assertEquals(List.of(hr), hrTasks.stream().map(ManagerTask::getId).toList());
+            assertTrue(inbox.next("unknown", 10).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should order oldest request first, then most days")
+        void shouldOrderByAgeAndDays() {
+            // Arrange
+            long now = clock.get();
+            LeaveRecord newest = pending(1, 30, now);
+            LeaveRecord oldestShort = pending(2, 6, now - 60_000);
+            LeaveRecord oldestLong = pending(3, 12, now - 60_000);
+            inbox.created(newest);
+            inbox.created(oldestShort);
+            inbox.created(oldestLong);
+
+            // Act
+            List<ManagerTask> first = inbox.next("managers", 1);
+            List<ManagerTask> all = inbox.next("managers", 5);
+
+            // Assert
+            assertEquals(List.of(oldestLong.id().toString()), first.stream().map(ManagerTask::getId).toList());
+            assertEquals(List.of(oldestLong.id().toString(), oldestShort.id().toString(), newest.id().toString()),
+                    all.stream().map(ManagerTask::getId).toList());
+        }
+
+        @Test
+        @DisplayName("Should remove decided requests and rebuild pending ones")
+        void shouldFollowLifecycle() {
+            // Arrange
+            String approved = service.createLeaveRequest("Jane Smith", 10);
+            String pending = service.createLeaveRequest("Bob Brown", 10);
+
+            // Act
+            service.approveLeaveRequest(approved);
+            ManagerTaskInbox rebuilt = new ManagerTaskInbox(service, request -> "managers", LEASE, clock::get);
+
+            // Assert
+            assertEquals(1, inbox.size());
+            assertEquals(List.of(pending), rebuilt.next("managers", 10).stream().map(ManagerTask::getId).toList());
+        }
+
+        @Test
+        @DisplayName("Should handle a decision racing the creation of a new group's first task")
+        void shouldHandleDecisionRacingCreation() throws Exception {
+            // Arrange
+            ManagerTaskInbox perEmployee = new ManagerTaskInbox(service, LeaveRecord::employeeName, LEASE, clock::get);
+            CyclicBarrier start = new CyclicBarrier(2);
+            int races = 2_000;
+
+            // Act
+            for (int i = 0; i < races; i++) {
+                LeaveRecord request = new LeaveRecord(new LeaveRequestId(1, i), "Employee " + i, 10,
+                        LeaveStatus.PENDING, clock.get(), LeaveRecord.NO_DATE);
+                CompletableFuture<Void> created = CompletableFuture.runAsync(() -> {
+                    await(start);
+                    perEmployee.created(request);
+                });
+                await(start);
+                perEmployee.decided(request);
+                created.get();
+                perEmployee.decided(request);
+            }
+
+            // Assert
+            assertEquals(0, perEmployee.size());
+            for (int i = 0; i < races; i++) {
+                assertTrue(perEmployee.next("Employee " + i, 10).isEmpty());
+            }
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Nested
+    @DisplayName("Lease Tests")
+    class LeaseTests {
+
+        @Test
+        @DisplayName("Should hide claimed tasks until the lease expires")
+        void shouldReclaimExpiredLease() {
+            // Arrange
+            String id = service.createLeaveRequest("Jane Smith", 10);
+
+            // Act
+            List<ManagerTask> claimed = inbox.claim("managers", "alice", 5);
+            List<ManagerTask> whileClaimed = inbox.next("managers", 5);
+            clock.addAndGet(LEASE.toMillis());
+            List<ManagerTask> afterExpiry = inbox.next("managers", 5);
+
+            // Assert
+            assertEquals(1, claimed.size());
+            assertEquals("alice", claimed.get(0).getClaimedBy());
+            assertTrue(whileClaimed.isEmpty());
+            assertEquals(id, afterExpiry.get(0).getId());
+            assertNull(afterExpiry.get(0).getClaimedBy());
+        }
+
+        @Test
+        @DisplayName("Should renew and release only the holder's lease")
+        void shouldRenewAndRelease() {
+            // Arrange
+            String id = service.createLeaveRequest("Jane Smith", 10);
+            inbox.claim("managers", "alice", 1);
+
+            // Act
+            clock.addAndGet(LEASE.toMillis() - 1);
+            ManagerTask renewed = inbox.renew(id, "alice");
+            clock.addAndGet(LEASE.toMillis() - 1);
+            List<ManagerTask> stillClaimed = inbox.next("managers", 5);
+
+            // Assert
+            assertEquals(LeaveRecord.toDateTime(clock.get() + 1), renewed.getLeaseExpires());
+            assertTrue(stillClaimed.isEmpty());
+            assertThrows(TaskLeaseConflictException.class, () -> inbox.release(id, "bob"));
+            assertNull(inbox.release(id, "alice").getClaimedBy());
+            assertEquals(1, inbox.claim("managers", "bob", 1).size());
+            assertNull(inbox.renew("01J5VQ3M8E0000000001K9ZC4T", "bob"));
+        }
+
+        @Test
+        @DisplayName("Should drop claimed tasks when decided")
+        void shouldDropDecidedClaimedTask() {
+            // Arrange
+            String id = service.createLeaveRequest("Jane Smith", 10);
+            inbox.claim("managers", "alice", 1);
+
+            // Act
+            service.rejectLeaveRequest(id);
+            clock.addAndGet(LEASE.toMillis());
+
+            // Assert
+            assertEquals(0, inbox.size());
+            assertTrue(inbox.next("managers", 5).isEmpty());
+            assertNull(inbox.renew(id, "alice"));
+        }
+    }
+
+    private static LeaveRecord pending(long id, int days, long requestDate) {
+        return new LeaveRecord(new LeaveRequestId(0, id), "Jane Smith", days, LeaveStatus.PENDING, requestDate,
+                LeaveRecord.NO_DATE);
+    }
+}
@@ -1,19 +1,48 @@
 package com.jrrd.jbpmdemo.service;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import com.jrrd.jbpmdemo.calendar.WorkingCalendar;
+import com.jrrd.jbpmdemo.calendar.WorkingCalendars;
+import com.jrrd.jbpmdemo.dto.BatchItemResult;
+import com.jrrd.jbpmdemo.dto.LeaveBalance;
+import com.jrrd.jbpmdemo.dto.LeaveRequestDTO;
+import com.jrrd.jbpmdemo.dto.LeaveRequestPage;
+import com.jrrd.jbpmdemo.model.LeaveEvent;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
 import com.jrrd.jbpmdemo.model.LeaveRequest;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+import com.jrrd.jbpmdemo.process.ProcessEngine;
+import com.jrrd.jbpmdemo.store.InMemoryLeaveEventStore;
+import com.jrrd.jbpmdemo.store.InMemoryLeaveRequestStore;
+import com.jrrd.jbpmdemo.store.LeaveMutation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @DisplayName("SimpleLeaveRequestService Tests")
 class SimpleLeaveRequestServiceTest {
@@ -336,22 +365,313 @@ class SimpleLeaveRequestServiceTest {
         }
 
         @Test
-        @DisplayName("Should be able to reject auto-approved request")
-        void shouldRejectAutoApprovedRequest() {
+        @DisplayName("Should refuse to reject auto-approved request")
+        void shouldRefuseToRejectAutoApprovedRequest() {
             // Arrange
             String requestId = service.createLeaveRequest("Auto Approved", 3);
             LeaveRequest initialRequest = service.getLeaveRequest(requestId);
             assertTrue(initialRequest.getApproved(), "Should be auto-approved initially");
 
             // Act
-            boolean result = service.rejectLeaveRequest(requestId);
+            LeaveTransitionConflictException conflict = assertThrows(LeaveTransitionConflictException.class,
+                    () -> service.rejectLeaveRequest(requestId));
 
             // Assert
-            assertTrue(result, "Should be able to reject even auto-approved request");
-            
-            // Verify the request is now rejected
-            LeaveRequest rejectedRequest = service.getLeaveRequest(requestId);
-            assertFalse(rejectedRequest.getApproved());
+            assertEquals(LeaveStatus.APPROVED, conflict.getCurrentStatus());
+            LeaveRequest unchanged = service.getLeaveRequest(requestId);
+            assertTrue(unchanged.getApproved(), "Approval is final");
+            assertEquals(LeaveStatus.APPROVED, unchanged.getStatus());
+            assertNotNull(unchanged.getApprovalDate());
+        }
+
+        @Test
+        @DisplayName("Should refuse to approve rejected request but allow rejecting it again")
+        void shouldKeepRejectionFinal() {
+            // Arrange
+            String requestId = service.createLeaveRequest("Rejected", 8);
+            service.rejectLeaveRequest(requestId);
+
+            // Act & Assert
+            assertThrows(LeaveTransitionConflictException.class, () -> service.approveLeaveRequest(requestId));
+            assertTrue(service.rejectLeaveRequest(requestId), "Repeating the decision is allowed");
+            assertEquals(LeaveStatus.REJECTED, service.getLeaveRequest(requestId).getStatus());
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Tests")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Should create valid items and report invalid ones in place")
+        void shouldCreateBatch() {
+            // Arrange
+            List<LeaveRequestDTO> items = new ArrayList<>();
+            items.add(new LeaveRequestDTO("Short", 2));
+            items.add(new LeaveRequestDTO(" ", 2));
+            items.add(null);
+            items.add(new LeaveRequestDTO("Long", 9));
+
+            // Act
+            List<BatchItemResult> results = service.createLeaveRequests(items);
+
+            // Assert
+            assertEquals(4, results.size());
+            assertEquals(BatchItemResult.Outcome.OK, results.get(0).getOutcome());
+            assertEquals(LeaveStatus.APPROVED, results.get(0).getStatus());
+            assertEquals(BatchItemResult.Outcome.INVALID, results.get(1).getOutcome());
+            assertEquals(BatchItemResult.Outcome.INVALID, results.get(2).getOutcome());
+            assertEquals(LeaveStatus.PENDING, results.get(3).getStatus());
+            assertEquals("Long", service.getLeaveRequest(results.get(3).getId()).getEmployeeName());
+            assertEquals(2, service.getAllLeaveRequests().size());
+            assertEquals(1, service.getLeaveRequestsByStatus(LeaveStatus.PENDING).size());
+        }
+
+        @Test
+        @DisplayName("Should approve a batch and report unknown and conflicting items")
+        void shouldApproveBatch() {
+            // Arrange
+            String pending = service.createLeaveRequest("Pending", 8);
+            String autoApproved = service.createLeaveRequest("Auto", 2);
+            String rejected = service.createLeaveRequest("Rejected", 8);
+            service.rejectLeaveRequest(rejected);
+
+            // Act
+            List<BatchItemResult> results = service.approveLeaveRequests(
+                    List.of(pending, autoApproved, rejected, "non-existent-id"));
+
+            // Assert
+            assertEquals(BatchItemResult.Outcome.OK, results.get(0).getOutcome());
+            assertEquals(BatchItemResult.Outcome.OK, results.get(1).getOutcome());
+            assertEquals(BatchItemResult.Outcome.CONFLICT, results.get(2).getOutcome());
+            assertEquals(LeaveStatus.REJECTED, results.get(2).getStatus());
+            assertEquals(BatchItemResult.Outcome.NOT_FOUND, results.get(3).getOutcome());
+            assertEquals(LeaveStatus.APPROVED, service.getLeaveRequest(pending).getStatus());
+            assertNotNull(service.getLeaveRequest(pending).getApprovalDate());
+            assertEquals(2, service.getLeaveRequestsByStatus(LeaveStatus.APPROVED).size());
+        }
+
+        @Test
+        @DisplayName("Should reject a batch of pending requests")
+        void shouldRejectBatch() {
+            // Arrange
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                ids.add(service.createLeaveRequest("Employee " + i, 6));
+            }
+
+            // Act
+            List<BatchItemResult> results = service.rejectLeaveRequests(ids);
+
+            // Assert
+            assertTrue(results.stream().allMatch(result -> result.getOutcome() == BatchItemResult.Outcome.OK));
+            assertEquals(50, service.getLeaveRequestsByStatus(LeaveStatus.REJECTED).size());
+            assertTrue(service.getLeaveRequestsByStatus(LeaveStatus.PENDING).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrent Decision Tests")
+    class ConcurrentDecisionTests {
+
+        @Test
+        @DisplayName("Should apply exactly one decision when approve and reject race")
+        void shouldApplyOneDecisionUnderRace() throws Exception {
+            // Arrange
+            int requests = 200;
+            int threads = 8;
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                ids.add(service.createLeaveRequest("Race " + i, 8));
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            AtomicInteger conflicts = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+
+            // Act
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                boolean approve = t % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (String id : ids) {
+                        try {
+                            if (approve) {
+                                service.approveLeaveRequest(id);
+                            } else {
+                                service.rejectLeaveRequest(id);
+                            }
+                        } catch (LeaveTransitionConflictException e) {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            // Assert
+            int approved = 0;
+            for (String id : ids) {
+                LeaveRequest request = service.getLeaveRequest(id);
+                if (request.getStatus() == LeaveStatus.APPROVED) {
+                    approved++;
+                    assertTrue(request.getApproved());
+                    assertNotNull(request.getApprovalDate());
+                } else {
+                    assertEquals(LeaveStatus.REJECTED, request.getStatus());
+                    assertFalse(request.getApproved());
+                    assertNull(request.getApprovalDate());
+                }
+            }
+            assertEquals(requests * threads / 2, conflicts.get(), "Every call of the losing side should conflict");
+            assertEquals(approved, service.getLeaveRequestsByStatus(LeaveStatus.APPROVED).size());
+            assertEquals(requests - approved, service.getLeaveRequestsByStatus(LeaveStatus.REJECTED).size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Query Tests")
+    class QueryTests {
+
+        @Test
+        @DisplayName("Should find requests by employee name")
+        void shouldFindRequestsByEmployee() {
+            // Arrange
+            String id1 = service.createLeaveRequest("Alice", 2);
+            String id2 = service.createLeaveRequest("Alice", 8);
+            service.createLeaveRequest("Bob", 3);
+
+            // Act
+            List<LeaveRequest> result = service.getLeaveRequestsByEmployee("Alice");
+
+            // Assert
+            assertEquals(2, result.size());
+            List<String> ids = result.stream().map(LeaveRequest::getId).toList();
+            assertTrue(ids.contains(id1));
+            assertTrue(ids.contains(id2));
+            assertTrue(service.getLeaveRequestsByEmployee("Nobody").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should track status changes in the status index")
+        void shouldFindRequestsByStatus() {
+            // Arrange
+            String autoApproved = service.createLeaveRequest("Auto", 2);
+            String toApprove = service.createLeaveRequest("Manual", 8);
+            String toReject = service.createLeaveRequest("Rejected", 9);
+            String pending = service.createLeaveRequest("Pending", 10);
+
+            // Act
+            service.approveLeaveRequest(toApprove);
+            service.rejectLeaveRequest(toReject);
+
+            // Assert
+            List<String> approved = service.getLeaveRequestsByStatus(LeaveStatus.APPROVED).stream()
+                    .map(LeaveRequest::getId)
+                    .toList();
+            assertEquals(2, approved.size());
+            assertTrue(approved.contains(autoApproved));
+            assertTrue(approved.contains(toApprove));
+
+            List<LeaveRequest> rejected = service.getLeaveRequestsByStatus(LeaveStatus.REJECTED);
+            assertEquals(1, rejected.size());
+            assertEquals(toReject, rejected.get(0).getId());
+
+            List<LeaveRequest> pendingRequests = service.getLeaveRequestsByStatus(LeaveStatus.PENDING);
+            assertEquals(1, pendingRequests.size());
+            assertEquals(pending, pendingRequests.get(0).getId());
+        }
+
+        @Test
+        @DisplayName("Should find requests by request date range in date order")
+        void shouldFindRequestsByRequestDate() {
+            // Arrange
+            LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+            service.createLeaveRequest("First", 2);
+            service.createLeaveRequest("Second", 7);
+            service.createLeaveRequest("Third", 4);
+            LocalDateTime after = LocalDateTime.now().plusSeconds(1);
+
+            // Act
+            List<LeaveRequest> inRange = service.getLeaveRequestsByRequestDate(before, after);
+            List<LeaveRequest> future = service.getLeaveRequestsByRequestDate(after, after.plusDays(1));
+
+            // Assert
+            assertEquals(3, inRange.size());
+            for (int i = 1; i < inRange.size(); i++) {
+                assertFalse(inRange.get(i).getRequestDate().isBefore(inRange.get(i - 1).getRequestDate()),
+                        "Results should be ordered by request date");
+            }
+            assertTrue(future.isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Pagination Tests")
+    class PaginationTests {
+
+        @Test
+        @DisplayName("Should visit every request exactly once when following cursors")
+        void shouldVisitEveryRequestOnce() {
+            // Arrange
+            Set<String> created = new HashSet<>();
+            for (int i = 0; i < 25; i++) {
+                created.add(service.createLeaveRequest("Employee " + i, i % 10));
+            }
+
+            // Act
+            List<String> visited = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                LeaveRequestPage page = service.getLeaveRequestPage(cursor, 10);
+                page.getItems().forEach(request -> visited.add(request.getId()));
+                cursor = page.getNextCursor();
+                pages++;
+            } while (cursor != null);
+
+            // Assert
+            assertEquals(3, pages);
+            assertEquals(25, visited.size());
+            assertEquals(created, new HashSet<>(visited));
+        }
+
+        @Test
+        @DisplayName("Should return an empty last page without cursor")
+        void shouldReturnEmptyPageWhenNoRequests() {
+            // Act
+            LeaveRequestPage page = service.getLeaveRequestPage(null, 10);
+
+            // Assert
+            assertTrue(page.getItems().isEmpty());
+            assertNull(page.getNextCursor());
+        }
+
+        @Test
+        @DisplayName("Should reject malformed cursors")
+        void shouldRejectMalformedCursor() {
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> service.getLeaveRequestPage("not a cursor!", 10));
+        }
+
+        @Test
+        @DisplayName("Should stream requests in request date order")
+        void shouldStreamRequestsInOrder() {
+            // Arrange
+            service.createLeaveRequest("First", 2);
+            service.createLeaveRequest("Second", 8);
+
+            // Act
+            List<LeaveRequest> streamed = service.streamLeaveRequests().toList();
+
+            // Assert
+            assertEquals(2, streamed.size());
+            assertFalse(streamed.get(1).getRequestDate().isBefore(streamed.get(0).getRequestDate()));
         }
     }
 
@@ -379,4 +699,524 @@ class SimpleLeaveRequestServiceTest {
             assertEquals(3, allRequests.size());
         }
     }
+
+    @Nested
+    @DisplayName("Metrics Tests")
+    class MetricsTests {
+
+        private SimpleMeterRegistry registry;
+        private SimpleLeaveRequestService metered;
+
+        @BeforeEach
+        void setUp() {
+            registry = new SimpleMeterRegistry();
+            metered = SimpleLeaveRequestService.builder().metrics(new LeaveMetrics(registry)).build();
+        }
+
+        private double decisions(String outcome) {
+            return registry.get("leave.decisions").tag("outcome", outcome).counter().count();
+        }
+
+        @Test
+        @DisplayName("Should count auto-approved, approved and rejected requests")
+        void shouldCountDecisions() {
+            // Arrange
+            metered.createLeaveRequest("Auto Approved", 3);
+            String approved = metered.createLeaveRequest("Manually Approved", 8);
+            String rejected = metered.createLeaveRequest("Rejected", 8);
+
+            // Act
+            metered.approveLeaveRequest(approved);
+            metered.approveLeaveRequest(approved);
+            metered.rejectLeaveRequests(List.of(rejected, rejected));
+
+            // Assert
+            assertEquals(1, decisions("auto_approved"));
+            assertEquals(1, decisions("approved"));
+            assertEquals(1, decisions("rejected"));
+            assertEquals(2, registry.get("leave.time.to.decision").timer().count());
+        }
+
+        @Test
+        @DisplayName("Should not count auto-approvals of a batch that fails to save")
+        void shouldNotCountUnsavedBatch() {
+            // Arrange
+            SimpleLeaveRequestService failing = SimpleLeaveRequestService.builder()
+                    .leaveRequests(new InMemoryLeaveRequestStore() {
+                        @Override
+                        public void saveAll(List<LeaveRecord> requests, LeaveMutation mutation) {
+                            throw new IllegalStateException("disk full");
+                        }
+                    })
+                    .metrics(new LeaveMetrics(registry))
+                    .build();
+            List<LeaveRequestDTO> items = List.of(new LeaveRequestDTO("John Doe", 2), new LeaveRequestDTO("Jane Smith", 3));
+
+            // Act
+            assertThrows(IllegalStateException.class, () -> failing.createLeaveRequests(items));
+            metered.createLeaveRequests(items);
+
+            // Assert
+            assertEquals(2, decisions("auto_approved"));
+        }
+
+        @Test
+        @DisplayName("Should report pending requests")
+        void shouldReportPendingRequests() {
+            // Arrange
+            String first = metered.createLeaveRequest("John Doe", 8);
+            metered.createLeaveRequest("Jane Smith", 8);
+            metered.createLeaveRequest("Alice Johnson", 2);
+
+            // Act
+            metered.rejectLeaveRequest(first);
+
+            // Assert
+            assertEquals(1, registry.get("leave.pending").gauge().value());
+        }
+
+        @Test
+        @DisplayName("Should time each operation")
+        void shouldTimeOperations() {
+            // Arrange
+            String id = metered.createLeaveRequest("John Doe", 8);
+
+            // Act
+            metered.getLeaveRequest(id);
+            metered.getLeaveRequest(id);
+            assertThrows(LeaveTransitionConflictException.class, () -> {
+                metered.approveLeaveRequest(id);
+                metered.rejectLeaveRequest(id);
+            });
+
+            // Assert
+            assertEquals(1, registry.get("leave.operation").tag("operation", "create").timer().count());
+            assertEquals(2, registry.get("leave.operation").tag("operation", "get").timer().count());
+            assertEquals(1, registry.get("leave.operation").tag("operation", "reject").timer().count());
+        }
+    }
+
+    @Nested
+    @DisplayName("History Tests")
+    class HistoryTests {
+
+        @Test
+        @DisplayName("Should record every transition with its actor")
+        void shouldRecordTransitions() {
+            // Arrange
+            String pending = service.createLeaveRequest("Jane Smith", 10);
+            String auto = service.createLeaveRequest("John Doe", 3);
+
+            // Act
+            service.escalateLeaveRequest(pending, "approval-deadline");
+            service.rejectLeaveRequest(pending, "alice");
+            service.rejectLeaveRequest(pending, "bob");
+            List<LeaveEvent> history = service.getLeaveRequestHistory(pending);
+
+            // Assert
+            assertEquals(List.of(LeaveEvent.Type.CREATED, LeaveEvent.Type.ESCALATED, LeaveEvent.Type.REJECTED),
+                    history.stream().map(LeaveEvent::getType).toList());
+            assertEquals("alice", history.get(2).getActor());
+            assertNotNull(history.get(2).getAt());
+            assertEquals(List.of(LeaveEvent.Type.CREATED, LeaveEvent.Type.AUTO_APPROVED),
+                    service.getLeaveRequestHistory(auto).stream().map(LeaveEvent::getType).toList());
+            assertFalse(service.escalateLeaveRequest(pending, "approval-deadline"));
+        }
+
+        @Test
+        @DisplayName("Should record batch decisions")
+        void shouldRecordBatchDecisions() {
+            // Arrange
+            String first = service.createLeaveRequest("Jane Smith", 10);
+            String second = service.createLeaveRequest("Bob Brown", 8);
+
+            // Act
+            service.approveLeaveRequests(List.of(first, second), "carol");
+
+            // Assert
+            for (String id : List.of(first, second)) {
+                List<LeaveEvent> history = service.getLeaveRequestHistory(id);
+                assertEquals(LeaveEvent.Type.APPROVED, history.get(history.size() - 1).getType());
+                assertEquals("carol", history.get(history.size() - 1).getActor());
+            }
+        }
+
+        @Test
+        @DisplayName("Should return null for unknown requests")
+        void shouldReturnNullForUnknownRequest() {
+            // Act & Assert
+            assertNull(service.getLeaveRequestHistory("non-existent-id"));
+        }
+
+        @Test
+        @DisplayName("Should derive the stored requests from the histories on startup")
+        void shouldRestoreStatesFromHistories() {
+            // Arrange
+            InMemoryLeaveEventStore events = new InMemoryLeaveEventStore();
+            InMemoryLeaveRequestStore requests = new InMemoryLeaveRequestStore();
+            SimpleLeaveRequestService before = SimpleLeaveRequestService.builder()
+                    .leaveRequests(requests).leaveEvents(events).build();
+            String approved = before.createLeaveRequest("Jane Smith", 10);
+            String pending = before.createLeaveRequest("John Doe", 8);
+            before.approveLeaveRequest(approved);
+            // The request store missed the decision, as after a crash between the two writes
+            InMemoryLeaveRequestStore lagging = new InMemoryLeaveRequestStore();
+            lagging.save(requests.findById(LeaveRequestId.parse(approved))
+                    .withStatus(LeaveStatus.PENDING, LeaveRecord.NO_DATE), LeaveMutation.CREATE);
+
+            // Act
+            SimpleLeaveRequestService after = SimpleLeaveRequestService.builder()
+                    .leaveRequests(lagging).leaveEvents(events).build();
+
+            // Assert
+            assertEquals(LeaveStatus.APPROVED, after.getLeaveRequest(approved).getStatus());
+            assertEquals(LeaveStatus.PENDING, after.getLeaveRequest(pending).getStatus());
+            assertEquals(1, after.getLeaveRequestsByStatus(LeaveStatus.APPROVED).size());
+        }
+
+        @Test
+        @DisplayName("Should give stored requests without a history one on startup")
+        void shouldCreateMissingHistories() {
+            // Arrange
+            InMemoryLeaveRequestStore requests = new InMemoryLeaveRequestStore();
+            SimpleLeaveRequestService before = SimpleLeaveRequestService.builder().leaveRequests(requests).build();
+            String id = before.createLeaveRequest("Jane Smith", 10);
+            before.rejectLeaveRequest(id);
+
+            // Act
+            SimpleLeaveRequestService after = SimpleLeaveRequestService.builder().leaveRequests(requests).build();
+
+            // Assert
+            assertEquals(List.of(LeaveEvent.Type.CREATED, LeaveEvent.Type.REJECTED),
+                    after.getLeaveRequestHistory(id).stream().map(LeaveEvent::getType).toList());
+            assertEquals(LeaveStatus.REJECTED, after.getLeaveRequest(id).getStatus());
+        }
+    }
+
+    @Nested
+    @DisplayName("Balance Tests")
+    class BalanceTests {
+
+        private InMemoryLeaveRequestStore store;
+        private SimpleLeaveRequestService limited;
+
+        @BeforeEach
+        void setUp() {
+            store = new InMemoryLeaveRequestStore();
+            limited = limitedService(store);
+        }
+
+        private SimpleLeaveRequestService limitedService(InMemoryLeaveRequestStore backing) {
+            return SimpleLeaveRequestService.builder()
+                    .leaveRequests(backing)
+                    .balances(new LeaveBalanceLedger(name -> 20))
+                    .build();
+        }
+
+        @Test
+        @DisplayName("Should reserve days on create and refuse requests beyond the allowance")
+        void shouldRefuseRequestsBeyondAllowance() {
+            // Arrange
+            limited.createLeaveRequest("Jane Smith", 4);
+            limited.createLeaveRequest("Jane Smith", 10);
+
+            // Act & Assert
+            assertThrows(InsufficientLeaveBalanceException.class, () -> limited.createLeaveRequest("Jane Smith", 7));
+            LeaveBalance balance = limited.getLeaveBalance("Jane Smith");
+            assertEquals(4, balance.getUsed());
+            assertEquals(10, balance.getReserved());
+            assertEquals(6L, balance.getAvailable());
+            assertEquals(2, limited.getLeaveRequestsByEmployee("Jane Smith").size());
+        }
+
+        @Test
+        @DisplayName("Should commit days on approval and release them on rejection")
+        void shouldSettleReservationsOnDecision() {
+            // Arrange
+            String approved = limited.createLeaveRequest("Jane Smith", 8);
+            String rejected = limited.createLeaveRequest("Jane Smith", 10);
+
+            // Act
+            limited.approveLeaveRequest(approved);
+            limited.rejectLeaveRequests(List.of(rejected));
+
+            // Assert
+            LeaveBalance balance = limited.getLeaveBalance("Jane Smith");
+            assertEquals(8, balance.getUsed());
+            assertEquals(0, balance.getReserved());
+            assertEquals(12L, balance.getAvailable());
+        }
+
+        @Test
+        @DisplayName("Should report batch items beyond the allowance")
+        void shouldReportInsufficientBalanceInBatch() {
+            // Act
+            List<BatchItemResult> results = limited.createLeaveRequests(List.of(
+                    new LeaveRequestDTO("Jane Smith", 15), new LeaveRequestDTO("Jane Smith", 6),
+                    new LeaveRequestDTO("Bob Brown", 6)));
+
+            // Assert
+            assertEquals(BatchItemResult.Outcome.OK, results.get(0).getOutcome());
+            assertEquals(BatchItemResult.Outcome.INSUFFICIENT_BALANCE, results.get(1).getOutcome());
+            assertEquals(BatchItemResult.Outcome.OK, results.get(2).getOutcome());
+        }
+
+        @Test
+        @DisplayName("Should restore balances from the store")
+        void shouldRestoreBalances() {
+            // Arrange
+            String approved = limited.createLeaveRequest("Jane Smith", 8);
+            limited.createLeaveRequest("Jane Smith", 9);
+            limited.approveLeaveRequest(approved);
+
+            // Act
+            SimpleLeaveRequestService restarted = limitedService(store);
+
+            // Assert
+            LeaveBalance balance = restarted.getLeaveBalance("Jane Smith");
+            assertEquals(8, balance.getUsed());
+            assertEquals(9, balance.getReserved());
+            assertThrows(InsufficientLeaveBalanceException.class, () -> restarted.createLeaveRequest("Jane Smith", 4));
+        }
+
+        @Test
+        @DisplayName("Should draw leave on the allowance of the year it starts in")
+        void shouldDrawOnAllowanceOfLeaveYear() {
+            // Arrange
+            int nextYear = LocalDate.now().getYear() + 1;
+            limited.createLeaveRequest("Jane Smith", 15);
+
+            // Act
+            limited.createLeaveRequest("Jane Smith", 15, LocalDate.of(nextYear, 3, 2), null);
+
+            // Assert
+            assertEquals(15, limited.getLeaveBalance("Jane Smith").getReserved());
+            LeaveBalance next = limited.getLeaveBalance("Jane Smith", nextYear);
+            assertEquals(nextYear, next.getYear());
+            assertEquals(15, next.getReserved());
+            assertEquals(5L, next.getAvailable());
+        }
+
+        @Test
+        @DisplayName("Should not overdraw the allowance under concurrent requests")
+        void shouldNotOverdrawConcurrently() throws Exception {
+            // Arrange
+            int threads = 8;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch startLatch = new CountDownLatch(1);
+            AtomicInteger accepted = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+
+            // Act
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    for (int i = 0; i < 10; i++) {
+                        try {
+                            limited.createLeaveRequest("Jane Smith", 3);
+                            accepted.incrementAndGet();
+                        } catch (InsufficientLeaveBalanceException e) {
+                            // Expected once the allowance is used up
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            // Assert
+            assertEquals(6, accepted.get());
+            assertEquals(6, limited.getLeaveRequestsByEmployee("Jane Smith").size());
+            assertEquals(2L, limited.getLeaveBalance("Jane Smith").getAvailable());
+        }
+    }
+
+    @Nested
+    @DisplayName("Team Coverage Tests")
+    class TeamCoverageTests {
+
+        private static final LocalDate MONDAY = LocalDate.of(2024, 8, 5);
+
+        private SimpleLeaveRequestService covered;
+
+        @BeforeEach
+        void setUp() {
+            // One member of the team may be off at a time
+            covered = SimpleLeaveRequestService.builder()
+                    .teamCoverage(new TeamCoverage(name -> name.startsWith("Dev ") ? "dev" : null, 1))
+                    .build();
+        }
+
+        @Test
+        @DisplayName("Should store the period, ending after the requested days by default")
+        void shouldStorePeriod() {
+            // Act
+            String id = covered.createLeaveRequest("Dev Jane", 3, MONDAY, null);
+
+            // Assert
+            LeaveRequest request = covered.getLeaveRequest(id);
+            assertEquals(MONDAY, request.getStartDate());
+            assertEquals(MONDAY.plusDays(2), request.getEndDate());
+            assertEquals(LeaveStatus.APPROVED, request.getStatus());
+        }
+
+        @Test
+        @DisplayName("Should send short overlapping requests of a team to a manager")
+        void shouldRequireManagerWhenTeamIsShort() {
+            // Arrange
+            covered.createLeaveRequest("Dev Jane", 3, MONDAY, null);
+
+            // Act
+            String overlapping = covered.createLeaveRequest("Dev Bob", 2, MONDAY.plusDays(2), null);
+            String later = covered.createLeaveRequest("Dev Carol", 2, MONDAY.plusDays(3), null);
+            String otherTeam = covered.createLeaveRequest("Ops Dan", 2, MONDAY, null);
+
+            // Assert
+            assertEquals(LeaveStatus.PENDING, covered.getLeaveRequest(overlapping).getStatus());
+            // Overlaps the pending request, which counts until it is decided
+            assertEquals(LeaveStatus.PENDING, covered.getLeaveRequest(later).getStatus());
+            assertEquals(LeaveStatus.APPROVED, covered.getLeaveRequest(otherTeam).getStatus());
+        }
+
+        @Test
+        @DisplayName("Should count a colleague with overlapping requests once")
+        void shouldCountColleagueOnce() {
+            // Arrange
+            SimpleLeaveRequestService pairs = SimpleLeaveRequestService.builder()
+                    .teamCoverage(new TeamCoverage(name -> name.startsWith("Dev ") ? "dev" : null, 2))
+                    .build();
+            pairs.createLeaveRequest("Dev Jane", 3, MONDAY, null);
+            pairs.createLeaveRequest("Dev Jane", 2, MONDAY.plusDays(1), null);
+
+            // Act
+            String overlapping = pairs.createLeaveRequest("Dev Bob", 2, MONDAY.plusDays(1), null);
+            String third = pairs.createLeaveRequest("Dev Carol", 1, MONDAY.plusDays(2), null);
+
+            // Assert
+            assertEquals(LeaveStatus.APPROVED, pairs.getLeaveRequest(overlapping).getStatus());
+            assertEquals(LeaveStatus.PENDING, pairs.getLeaveRequest(third).getStatus());
+        }
+
+        @Test
+        @DisplayName("Should free the team's days when a request is rejected")
+        void shouldFreeDaysOnRejection() {
+            // Arrange
+            String first = covered.createLeaveRequest("Dev Jane", 8, MONDAY, MONDAY.plusDays(7));
+            covered.rejectLeaveRequest(first);
+
+            // Act
+            String second = covered.createLeaveRequest("Dev Bob", 2, MONDAY.plusDays(1), null);
+
+            // Assert
+            assertEquals(LeaveStatus.APPROVED, covered.getLeaveRequest(second).getStatus());
+        }
+
+        @Test
+        @DisplayName("Should give back a failed batch's team days and reservations")
+        void shouldReleaseFailedBatch() {
+            // Arrange
+            LeaveProcess process = LeaveProcess.createDefault();
+            LeaveProcess failing = new LeaveProcess(new ProcessEngine(), process.getDefinition()) {
+                @Override
+                public LeaveStatus submit(String employeeName, int daysRequested, boolean coverageExceeded) {
+                    if (employeeName.equals("Dev Broken")) {
+                        throw new IllegalStateException("Process engine unavailable");
+                    }
+                    return super.submit(employeeName, daysRequested, coverageExceeded);
+                }
+            };
+            TeamCoverage coverage = new TeamCoverage(name -> name.startsWith("Dev ") ? "dev" : null, 1);
+            SimpleLeaveRequestService batched = SimpleLeaveRequestService.builder()
+                    .leaveProcess(failing)
+                    .teamCoverage(coverage)
+                    .balances(new LeaveBalanceLedger(name -> 20))
+                    .build();
+
+            // Act & Assert
+            assertThrows(IllegalStateException.class, () -> batched.createLeaveRequests(List.of(
+                    fromMonday("Dev Jane", 3), fromMonday("Dev Broken", 2))));
+            assertTrue(batched.getAllLeaveRequests().isEmpty());
+            assertEquals(0, batched.getLeaveBalance("Dev Jane").getReserved());
+            int monday = LeaveRecord.toEpochDay(MONDAY);
+            assertEquals(0, coverage.peakAbsent("Dev Bob", monday, monday + 4));
+        }
+
+        private LeaveRequestDTO fromMonday(String employeeName, int days) {
+            LeaveRequestDTO dto = new LeaveRequestDTO(employeeName, days);
+            dto.setStartDate(MONDAY);
+            return dto;
+        }
+
+        @Test
+        @DisplayName("Should reject periods that end before they start")
+        void shouldRejectInvalidPeriod() {
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class,
+                    () -> covered.createLeaveRequest("Dev Jane", 2, MONDAY, MONDAY.minusDays(1)));
+            List<BatchItemResult> results = covered.createLeaveRequests(List.of(invalidPeriod()));
+            assertEquals(BatchItemResult.Outcome.INVALID, results.get(0).getOutcome());
+        }
+
+        private LeaveRequestDTO invalidPeriod() {
+            LeaveRequestDTO dto = new LeaveRequestDTO("Dev Jane", 2);
+            dto.setEndDate(MONDAY);
+            return dto;
+        }
+    }
+
+    @Nested
+    @DisplayName("Working Calendar Tests")
+    class WorkingCalendarTests {
+
+        private static final LocalDate FRIDAY = LocalDate.of(2024, 8, 9);
+
+        private SimpleLeaveRequestService calendared;
+
+        @BeforeEach
+        void setUp() {
+            // The following Monday is a holiday
+            WorkingCalendar calendar = new WorkingCalendar(Set.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY),
+                    List.of(FRIDAY.plusDays(3)), 2024, 2024);
+            calendared = SimpleLeaveRequestService.builder()
+                    .calendars(new WorkingCalendars(Map.of("local", calendar), calendar, name -> "local"))
+                    .build();
+        }
+
+        @Test
+        @DisplayName("Should count a period in working days, so weekends and holidays do not need a manager")
+        void shouldCountWorkingDays() {
+            // Act
+            // Friday to the Friday after: 5 working days over 8 calendar days
+            String id = calendared.createLeaveRequest("Jane Doe", 8, FRIDAY, FRIDAY.plusDays(7));
+
+            // Assert
+            LeaveRequest request = calendared.getLeaveRequest(id);
+            assertEquals(5, request.getDaysRequested());
+            assertEquals(LeaveStatus.APPROVED, request.getStatus());
+        }
+
+        @Test
+        @DisplayName("Should end a period after the requested working days")
+        void shouldEndAfterWorkingDays() {
+            // Act
+            String id = calendared.createLeaveRequest("Jane Doe", 2, FRIDAY, null);
+            List<BatchItemResult> results = calendared.createLeaveRequests(List.of(fromFriday(6)));
+
+            // Assert
+            assertEquals(FRIDAY.plusDays(4), calendared.getLeaveRequest(id).getEndDate());
+            LeaveRequest batched = calendared.getLeaveRequest(results.get(0).getId());
+            assertEquals(FRIDAY.plusDays(10), batched.getEndDate());
+            assertEquals(LeaveStatus.PENDING, batched.getStatus());
+        }
+
+        private LeaveRequestDTO fromFriday(int days) {
+            LeaveRequestDTO dto = new LeaveRequestDTO("John Doe", days);
+            dto.setStartDate(FRIDAY);
+            return dto;
+        }
+    }
 }
@@ -0,0 +1,225 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.jrrd.jbpmdemo.model.LeaveEvent;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+@DisplayName("DurableLeaveEventStore Tests")
+class DurableLeaveEventStoreTest {
+
+    private static final long SEGMENT_SIZE = 4 * 1024;
+    private static final long NOW = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private DurableLeaveEventStore open(long snapshotEvery) {
+        return new DurableLeaveEventStore(directory, SEGMENT_SIZE, snapshotEvery);
+    }
+
+    private DurableLeaveEventStore openArchiving() {
+        return new DurableLeaveEventStore(directory, SEGMENT_SIZE, Long.MAX_VALUE, true);
+    }
+
+    private static LeaveRecord pending(long id) {
+        return new LeaveRecord(new LeaveRequestId(0, id), "Employee " + id, 10, LeaveStatus.PENDING, NOW + id,
+                LeaveRecord.NO_DATE, 19_800, 19_809);
+    }
+
+    private static List<LeaveEvent> lifecycle(long id) {
+        LeaveRequestId requestId = new LeaveRequestId(0, id);
+        return List.of(LeaveEvent.created(pending(id), "Employee " + id),
+                LeaveEvent.of(requestId, LeaveEvent.Type.ESCALATED, NOW + id + 1, "approval-deadline"),
+                LeaveEvent.forDecision(requestId, id % 2 == 0 ? LeaveStatus.APPROVED : LeaveStatus.REJECTED,
+                        NOW + id + 2, "alice"));
+    }
+
+    @Nested
+    @DisplayName("Replay Tests")
+    class ReplayTests {
+
+        @Test
+        @DisplayName("Should restore histories after restart")
+        void shouldRestoreHistories() {
+            // Arrange
+            try (DurableLeaveEventStore store = open(Long.MAX_VALUE)) {
+                store.appendAll(lifecycle(1));
+                store.appendAll(lifecycle(2));
+            }
+
+            // Act
+            try (DurableLeaveEventStore store = open(Long.MAX_VALUE)) {
+                List<LeaveEvent> history = store.history(new LeaveRequestId(0, 1));
+
+                // Assert
+                assertEquals(2, store.size());
+                assertEquals(List.of(0, 1, 2), history.stream().map(LeaveEvent::getSequence).toList());
+                assertEquals("alice", history.get(2).getActor());
+                assertEquals(LeaveStatus.REJECTED, store.replay(new LeaveRequestId(0, 1)).status());
+                assertEquals(LeaveStatus.APPROVED, store.replay(new LeaveRequestId(0, 2)).status());
+                assertEquals(NOW + 4, store.replay(new LeaveRequestId(0, 2)).approvalDateMillis());
+                assertEquals(19_809, store.replay(new LeaveRequestId(0, 2)).endDay());
+                assertNull(store.replay(new LeaveRequestId(0, 3)));
+            }
+        }
+
+        @Test
+        @DisplayName("Should append a transition only if it accepts the current state")
+        void shouldAppendTransitions() {
+            // Arrange
+            LeaveRequestId id = new LeaveRequestId(0, 1);
+            try (DurableLeaveEventStore store = open(Long.MAX_VALUE)) {
+                store.appendAll(List.of(LeaveEvent.created(pending(1), "Employee 1")));
+
+                // Act
+                LeaveEvent approved = store.appendTransition(id, current -> current.status().isFinal() ? null
+                        : LeaveEvent.forDecision(id, LeaveStatus.APPROVED, NOW + 5, "alice"));
+                LeaveEvent repeated = store.appendTransition(id, current -> current.status().isFinal() ? null
+                        : LeaveEvent.forDecision(id, LeaveStatus.REJECTED, NOW + 6, "bob"));
+                LeaveEvent unknown = store.appendTransition(new LeaveRequestId(0, 2), current -> current == null ? null
+                        : LeaveEvent.forDecision(current.id(), LeaveStatus.APPROVED, NOW + 7, "carol"));
+
+                // Assert
+                assertEquals(LeaveEvent.Type.APPROVED, approved.getType());
+                assertNull(repeated);
+                assertNull(unknown);
+            }
+            try (DurableLeaveEventStore store = open(Long.MAX_VALUE)) {
+                assertEquals(2, store.history(id).size());
+                assertEquals(LeaveStatus.APPROVED, store.replay(id).status());
+                assertEquals(1, store.size());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Snapshot Tests")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("Should delete covered log segments and restore from the snapshot")
+        void shouldRestoreFromSnapshot() {
+            // Arrange
+            try (DurableLeaveEventStore store = open(Long.MAX_VALUE)) {
+                for (long id = 0; id < 200; id++) {
+                    store.appendAll(lifecycle(id));
+                }
+                // Act
+                assertEquals(600, store.snapshot());
+                store.append(LeaveEvent.of(new LeaveRequestId(0, 7), LeaveEvent.Type.ESCALATED, NOW, "bob"));
+            }
+            List<byte[]> tail = new ArrayList<>();
+            try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+                log.replay(tail::add);
+            }
+
+            // Assert
+            assertEquals(1, tail.size());
+            try (DurableLeaveEventStore store = open(Long.MAX_VALUE)) {
+                assertEquals(200, store.size());
+                List<LeaveEvent> history = store.history(new LeaveRequestId(0, 7));
+                assertEquals(4, history.size());
+                assertEquals("bob", history.get(3).getActor());
+                assertEquals(LeaveStatus.REJECTED, store.replay(new LeaveRequestId(0, 7)).status());
+            }
+        }
+
+        @Test
+        @DisplayName("Should take snapshots in the background after the configured number of events")
+        void shouldSnapshotPeriodically() throws Exception {
+            // Arrange
+            try (DurableLeaveEventStore store = open(100)) {
+                // Act
+                for (long id = 0; id < 100; id++) {
+                    store.appendAll(lifecycle(id));
+                }
+            }
+
+            // Assert
+            try (Stream<Path> files = Files.list(directory)) {
+                assertTrue(files.anyMatch(path -> path.getFileName().toString().endsWith(".snap")));
+            }
+            try (DurableLeaveEventStore store = open(100)) {
+                assertEquals(100, store.size());
+                for (long id = 0; id < 100; id++) {
+                    assertEquals(3, store.history(new LeaveRequestId(0, id)).size());
+                }
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Archive Tests")
+    class ArchiveTests {
+
+        @Test
+        @DisplayName("Should move decided histories off the heap and keep them readable")
+        void shouldArchiveDecidedHistories() {
+            // Arrange
+            LeaveRequestId open = new LeaveRequestId(0, 1_000);
+            LeaveRequestId decided = new LeaveRequestId(0, 7);
+            try (DurableLeaveEventStore store = openArchiving()) {
+                for (long id = 0; id < 100; id++) {
+                    store.appendAll(lifecycle(id));
+                }
+                store.append(LeaveEvent.created(pending(1_000), "Employee 1000"));
+
+                // Act
+                int held = store.heldCount();
+                LeaveEvent escalated = store.append(LeaveEvent.of(decided, LeaveEvent.Type.ESCALATED, NOW, "bob"));
+                List<LeaveRecord> states = new ArrayList<>();
+                store.forEachState(states::add);
+
+                // Assert
+                assertEquals(1, held);
+                assertEquals(1, store.heldCount());
+                assertEquals(101, store.size());
+                assertEquals(101, states.size());
+                assertEquals(3, escalated.getSequence());
+                assertEquals(4, store.history(decided).size());
+                assertEquals("alice", store.history(decided).get(2).getActor());
+                assertEquals(LeaveStatus.REJECTED, store.replay(decided).status());
+                assertTrue(store.hasHistory(decided));
+                assertEquals(LeaveStatus.PENDING, store.replay(open).status());
+                // Archived histories are part of the snapshot
+                assertEquals(302, store.snapshot());
+            }
+        }
+
+        @Test
+        @DisplayName("Should rebuild the archive from the log after restart")
+        void shouldRestoreArchivedHistories() {
+            // Arrange
+            try (DurableLeaveEventStore store = openArchiving()) {
+                for (long id = 0; id < 100; id++) {
+                    store.appendAll(lifecycle(id));
+                }
+            }
+
+            // Act
+            try (DurableLeaveEventStore store = openArchiving()) {
+                // Assert
+                assertEquals(0, store.heldCount());
+                assertEquals(100, store.size());
+                for (long id = 0; id < 100; id++) {
+                    assertEquals(3, store.history(new LeaveRequestId(0, id)).size());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.jrrd.jbpmdemo.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+
+@DisplayName("LegacyLeaveRequestLog Tests")
+class LegacyLeaveRequestLogTest {
+
+    private static final long SEGMENT_SIZE = 64 * 1024;
+    private static final long NOW = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private static LeaveRecord pending(long id, int days) {
+        return new LeaveRecord(new LeaveRequestId(0, id), "Employee " + id, days, LeaveStatus.PENDING, NOW + id,
+                LeaveRecord.NO_DATE, LeaveRecord.NO_DAY, LeaveRecord.NO_DAY);
+    }
+
+    private static byte[] created(LeaveRecord request) {
+        return LeaveRequestCodec.encode(LeaveMutation.CREATE, request);
+    }
+
+    private static byte[] decided(LeaveRecord request, LeaveStatus status) {
+        long approvalDate = status == LeaveStatus.APPROVED ? NOW + 100 : LeaveRecord.NO_DATE;
+        return LeaveRequestCodec.encode(LeaveMutation.forStatus(status), request.withStatus(status, approvalDate));
+    }
+
+    private void write(List<byte[]> entries) {
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+            long sequence = -1;
+            for (byte[] entry : entries) {
+                sequence = log.append(entry);
+            }
+            log.sync(sequence);
+        }
+    }
+
+    private InMemoryLeaveRequestStore read() {
+        InMemoryLeaveRequestStore store = new InMemoryLeaveRequestStore();
+        LegacyLeaveRequestLog.read(directory, SEGMENT_SIZE, store);
+        return store;
+    }
+
+    @Nested
+    @DisplayName("Replay Tests")
+    class ReplayTests {
+
+        @Test
+        @DisplayName("Should read requests and their decisions")
+        void shouldReadRequestsAndDecisions() {
+            // Arrange
+            LeaveRecord approved = pending(1, 10);
+            LeaveRecord rejected = pending(2, 7);
+            LeaveRecord open = pending(3, 8);
+            write(List.of(created(approved), created(rejected), created(open),
+                    decided(approved, LeaveStatus.APPROVED), decided(rejected, LeaveStatus.REJECTED)));
+
+            // Act
+            InMemoryLeaveRequestStore store = read();
+
+            // Assert
+            assertEquals(3, store.size());
+            LeaveRecord approvedRecord = store.findById(approved.id());
+            assertEquals("Employee 1", approvedRecord.employeeName());
+            assertEquals(10, approvedRecord.daysRequested());
+            assertTrue(approvedRecord.approved());
+            assertNotNull(approvedRecord.approvalDate());
+            assertEquals(LeaveStatus.REJECTED, store.findById(rejected.id()).status());
+            assertNull(store.findById(rejected.id()).approvalDate());
+            assertEquals(LeaveStatus.PENDING, store.findById(open.id()).status());
+        }
+
+        @Test
+        @DisplayName("Should read leave periods")
+        void shouldReadPeriods() {
+            // Arrange
+            LeaveRecord request = new LeaveRecord(new LeaveRequestId(0, 1), "Jane Smith", 3, LeaveStatus.APPROVED,
+                    NOW, NOW, LeaveRecord.toEpochDay(LocalDate.of(2024, 8, 5)),
+                    LeaveRecord.toEpochDay(LocalDate.of(2024, 8, 7)));
+            write(List.of(created(request)));
+
+            // Act
+            LeaveRecord restored = read().findById(request.id());
+
+            // Assert
+            assertEquals(LocalDate.of(2024, 8, 5), restored.startDate());
+            assertEquals(LocalDate.of(2024, 8, 7), restored.endDate());
+        }
+
+        @Test
+        @DisplayName("Should read across every segment of the log")
+        void shouldReadAcrossSegments() {
+            // Arrange
+            try (WriteAheadLog log = new WriteAheadLog(directory, 4 * 1024)) {
+                // The log rolls between flushes
+                for (long id = 0; id < 2_000; id++) {
+                    log.sync(log.append(created(pending(id, (int) (id % 10)))));
+                }
+                assertTrue(log.segments().size() > 1, "Log should have rolled to several segments");
+            }
+
+            // Act
+            InMemoryLeaveRequestStore store = new InMemoryLeaveRequestStore();
+            int read = LegacyLeaveRequestLog.read(directory, 4 * 1024, store);
+
+            // Assert
+            assertEquals(2_000, read);
+        }
+
+        @Test
+        @DisplayName("Should skip a torn record at the end of the log")
+        void shouldSkipTornRecord() throws IOException {
+            // Arrange
+            write(List.of(created(pending(1, 2)), created(pending(2, 2))));
+            Path segment;
+            try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+                segment = log.segments().get(0);
+            }
+            try (FileChannel file = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                file.truncate(file.size() - 3);
+            }
+
+            // Act
+            InMemoryLeaveRequestStore store = read();
+
+            // Assert
+            assertEquals(1, store.size());
+            assertNotNull(store.findById(new LeaveRequestId(0, 1)));
+        }
+
+        @Test
+        @DisplayName("Should read entries written with UUID string IDs")
+        void shouldReadUuidEntries() throws IOException {
+            // Arrange
+            String uuid = "2f1c7a1e-4b7d-4a57-9a0e-0d3a3c0e5b1f";
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeByte(LeaveMutation.CREATE.getCode());
+                out.writeUTF(uuid);
+                out.writeBoolean(true);
+                out.writeUTF("Legacy Employee");
+                out.writeBoolean(true);
+                out.writeInt(8);
+                out.writeByte(1); // not approved
+                out.writeBoolean(true);
+                out.writeLong(1_700_000_000L);
+                out.writeInt(0);
+                out.writeBoolean(false);
+            }
+            write(List.of(bytes.toByteArray()));
+
+            // Act
+            LeaveRecord request = read().findById(LeaveRequestId.parse(uuid));
+
+            // Assert
+            assertNotNull(request);
+            assertEquals("Legacy Employee", request.employeeName());
+            assertFalse(request.approved());
+        }
+    }
+
+    @Nested
+    @DisplayName("Import Tests")
+    class ImportTests {
+
+        @Test
+        @DisplayName("Should report the log as imported once marked")
+        void shouldMarkImported() {
+            // Arrange
+            write(List.of(created(pending(1, 2))));
+            boolean before = LegacyLeaveRequestLog.isImported(directory);
+
+            // Act
+            LegacyLeaveRequestLog.markImported(directory);
+
+            // Assert
+            assertFalse(before);
+            assertTrue(LegacyLeaveRequestLog.isImported(directory));
+            // The marker is not taken for a log segment
+            assertEquals(1, read().size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Snapshot Tests")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("Should read the snapshot and the log written after it")
+        void shouldReadSnapshotAndTail() {
+            // Arrange
+            LeaveRecord approved = pending(1, 10);
+            LeaveRecord open = pending(2, 8);
+            LeaveRecord late = pending(3, 6);
+            try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+                log.sync(log.append(created(approved)));
+                long fromSegment = log.roll();
+                // A decision made while the log rolled is in the snapshot, older entries follow it in the log
+                LegacyLeaveRequestLog.snapshotFiles(directory).write(fromSegment, records -> {
+                    records.accept(decided(approved, LeaveStatus.APPROVED));
+                    records.accept(created(open));
+                });
+                log.deleteSegmentsBefore(fromSegment);
+                log.append(created(approved));
+                log.append(created(late));
+                log.sync(log.append(decided(open, LeaveStatus.REJECTED)));
+            }
+
+            // Act
+            InMemoryLeaveRequestStore store = read();
+
+            // Assert
+            assertEquals(3, store.size());
+            assertEquals(LeaveStatus.APPROVED, store.findById(approved.id()).status());
+            assertEquals(LeaveStatus.REJECTED, store.findById(open.id()).status());
+            assertEquals("Employee 3", store.findById(late.id()).employeeName());
+        }
+    }
+}
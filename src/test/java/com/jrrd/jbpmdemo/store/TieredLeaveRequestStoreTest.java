@@ -0,0 +1,347 @@
+package com.jrrd.jbpmdemo.store;
+
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.jrrd.jbpmdemo.dto.LeaveRequestPage;
+import com.jrrd.jbpmdemo.id.TimeOrderedIdGenerator;
+import com.jrrd.jbpmdemo.model.LeaveRecord;
+import com.jrrd.jbpmdemo.model.LeaveRequest;
+import com.jrrd.jbpmdemo.model.LeaveRequestId;
+import com.jrrd.jbpmdemo.model.LeaveStatus;
+import com.jrrd.jbpmdemo.service.SimpleLeaveRequestService;
+
+@DisplayName("TieredLeaveRequestStore Tests")
+class TieredLeaveRequestStoreTest {
+
+    private final TimeOrderedIdGenerator ids = new TimeOrderedIdGenerator(0);
+
+    // Small stripes and segments so that tests cross segment and table boundaries
+    private static TieredLeaveRequestStore newStore() {
+        return new TieredLeaveRequestStore(new OffHeapLeaveArchive(4, 8));
+    }
+
+    private LeaveRecord record(String employeeName, int days, LeaveStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        return new LeaveRecord(ids.next(), employeeName, days, status, now,
+                status == LeaveStatus.APPROVED ? now : null);
+    }
+
+    @Nested
+    @DisplayName("Tiering Tests")
+    class TieringTests {
+
+        @Test
+        @DisplayName("Should keep pending requests on the heap and archive decided ones")
+        void shouldArchiveDecidedRequests() {
+            // Arrange
+            TieredLeaveRequestStore store = newStore();
+            LeaveRecord pending = record("Pending Employee", 8, LeaveStatus.PENDING);
+            LeaveRecord approved = record("Approved Employee", 3, LeaveStatus.APPROVED);
+
+            // Act
+            store.save(pending, LeaveMutation.CREATE);
+            store.save(approved, LeaveMutation.CREATE);
+
+            // Assert
+            assertEquals(1, store.openCount());
+            assertEquals(2, store.size());
+            assertEquals(pending, store.findById(pending.id()));
+            assertEquals(approved, store.findById(approved.id()));
+        }
+
+        @Test
+        @DisplayName("Should keep the leave period of archived requests")
+        void shouldKeepPeriodOfArchivedRequest() {
+            // Arrange
+            TieredLeaveRequestStore store = newStore();
+            LeaveRecord approved = new LeaveRecord(ids.next(), "Approved Employee", 3, LeaveStatus.APPROVED,
+                    1_700_000_000_000L, 1_700_000_000_000L, 19_800, 19_802);
+
+            // Act
+            store.save(approved, LeaveMutation.CREATE);
+
+            // Assert
+            LeaveRecord archived = store.findById(approved.id());
+            assertEquals(approved, archived);
+            assertEquals(19_800, archived.startDay());
+            assertEquals(19_802, archived.endDay());
+        }
+
+        @Test
+        @DisplayName("Should move a request to the archive when it is decided")
+        void shouldMoveDecidedRequestToArchive() {
+            // Arrange
+            TieredLeaveRequestStore store = newStore();
+            LeaveRecord pending = record("John Doe", 8, LeaveStatus.PENDING);
+            store.save(pending, LeaveMutation.CREATE);
+            LocalDateTime decidedAt = LocalDateTime.now();
+
+            // Act
+            LeaveRecord rejected = store.update(pending.id(), LeaveMutation.REJECT,
+                    current -> current.withStatus(LeaveStatus.REJECTED, decidedAt));
+
+            // Assert
+            assertEquals(LeaveStatus.REJECTED, rejected.status());
+            assertEquals(0, store.openCount());
+            assertEquals(rejected, store.findById(pending.id()));
+        }
+
+        @Test
+        @DisplayName("Should apply transitions to archived requests")
+        void shouldUpdateArchivedRequest() {
+            // Arrange
+            TieredLeaveRequestStore store = newStore();
+            LeaveRecord approved = record("John Doe", 3, LeaveStatus.APPROVED);
+            store.save(approved, LeaveMutation.CREATE);
+
+            // Act
+            LeaveRecord unchanged = store.update(approved.id(), LeaveMutation.APPROVE, current -> current);
+            LeaveRecord missing = store.update(new LeaveRequestId(1, 1), LeaveMutation.APPROVE, current -> current);
+
+            // Assert
+            assertEquals(approved, unchanged);
+            assertNull(missing);
+        }
+
+        @Test
+        @DisplayName("Should not reopen an archived request")
+        void shouldNotReopenArchivedRequest() {
+            // Arrange
+            TieredLeaveRequestStore store = newStore();
+            LeaveRecord approved = record("John Doe", 3, LeaveStatus.APPROVED);
+            store.save(approved, LeaveMutation.CREATE);
+
+            // Act & Assert
+            assertThrows(IllegalStateException.class, () -> store.save(
+                    approved.withStatus(LeaveStatus.PENDING, null), LeaveMutation.CREATE));
+        }
+    }
+
+    @Nested
+    @DisplayName("Archive Tests")
+    class ArchiveTests {
+
+        @Test
+        @DisplayName("Should find every archived request across segments")
+        void shouldFindRequestsAcrossSegments() {
+            // Arrange
+            TieredLeaveRequestStore store = newStore();
+            List<LeaveRecord> saved = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                LeaveRecord request = record("Employee " + (i % 37), i % 20, LeaveStatus.REJECTED);
+                store.save(request, LeaveMutation.CREATE);
+                saved.add(request);
+            }
+
+            // Act
+            Set<LeaveRecord> all = new HashSet<>(store.findAll());
+
+            // Assert
+            assertEquals(5000, store.size());
+            assertEquals(new HashSet<>(saved), all);
+            for (LeaveRecord request : saved) {
+                assertEquals(request, store.findById(request.id()));
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep each request exactly once under concurrent decisions")
+        void shouldDecideConcurrently() throws Exception {
+            // Arrange
+            TieredLeaveRequestStore store = newStore();
+            List<LeaveRequestId> pending = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                LeaveRecord request = record("Employee " + i, 8, LeaveStatus.PENDING);
+                store.save(request, LeaveMutation.CREATE);
+                pending.add(request.id());
+            }
+            LocalDateTime decidedAt = LocalDateTime.now();
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+
+            // Act
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (LeaveRequestId id : pending) {
+                        store.update(id, LeaveMutation.APPROVE, current -> current.status() == LeaveStatus.APPROVED
+                                ? current : current.withStatus(LeaveStatus.APPROVED, decidedAt));
+                        assertNotNull(store.findById(id));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            // Assert
+            assertEquals(0, store.openCount());
+            assertEquals(2000, store.size());
+            for (LeaveRequestId id : pending) {
+                assertEquals(LeaveStatus.APPROVED, store.findById(id).status());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Index Tests")
+    class IndexTests {
+
+        private static final Comparator<LeaveRecord> BY_REQUEST_DATE =
+                Comparator.comparingLong(LeaveRecord::requestDateMillis).thenComparing(LeaveRecord::id);
+
+        private static List<LeaveRecord> toList(Iterator<LeaveRecord> iterator) {
+            List<LeaveRecord> list = new ArrayList<>();
+            iterator.forEachRemaining(list::add);
+            return list;
+        }
+
+        @Test
+        @DisplayName("Should find archived requests by employee, status and request date")
+        void shouldIndexArchivedRequests() {
+            // Arrange
+            TieredLeaveRequestStore store = newStore();
+            Random random = new Random(42);
+            List<LeaveRecord> archived = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                LeaveStatus status = i % 3 == 0 ? LeaveStatus.PENDING : i % 3 == 1 ? LeaveStatus.APPROVED
+                        : LeaveStatus.REJECTED;
+                // Dates out of order and often shared, so that the ID breaks ties
+                long requestDate = 1_700_000_000_000L + random.nextInt(500);
+                LeaveRecord request = new LeaveRecord(ids.next(), "Employee " + (i % 37), 3, status, requestDate,
+                        status == LeaveStatus.APPROVED ? requestDate : LeaveRecord.NO_DATE,
+                        LeaveRecord.NO_DAY, LeaveRecord.NO_DAY);
+                store.save(request, LeaveMutation.CREATE);
+                if (store.isIndexed(request)) {
+                    archived.add(request);
+                }
+            }
+            archived.sort(BY_REQUEST_DATE);
+            LeaveRecord from = archived.get(1000);
+
+            // Act
+            List<LeaveRecord> all = toList(store.findIndexedByRequestDate(Long.MIN_VALUE, new LeaveRequestId(0, 0),
+                    true, Long.MAX_VALUE));
+            List<LeaveRecord> after = toList(store.findIndexedByRequestDate(from.requestDateMillis(), from.id(),
+                    false, 1_700_000_000_400L));
+            List<LeaveRecord> approved = toList(store.findIndexedByStatus(LeaveStatus.APPROVED));
+            List<LeaveRecord> ofEmployee = toList(store.findIndexedByEmployee("Employee 5"));
+
+            // Assert
+            assertEquals(archived, all);
+            assertEquals(archived.stream().skip(1001).filter(r -> r.requestDateMillis() < 1_700_000_000_400L)
+                    .toList(), after);
+            assertEquals(archived.stream().filter(r -> r.status() == LeaveStatus.APPROVED).collect(toSet()),
+                    new HashSet<>(approved));
+            assertEquals(archived.stream().filter(r -> r.employeeName().equals("Employee 5")).collect(toSet()),
+                    new HashSet<>(ofEmployee));
+            assertEquals(ofEmployee.size(), new HashSet<>(ofEmployee).size());
+            assertEquals(List.of(), toList(store.findIndexedByEmployee("Nobody")));
+        }
+
+        @Test
+        @DisplayName("Should page through open and archived requests in order, each once")
+        void shouldPageThroughOpenAndArchivedRequests() {
+            // Arrange
+            TieredLeaveRequestStore store = newStore();
+            SimpleLeaveRequestService service = SimpleLeaveRequestService.builder().leaveRequests(store).build();
+            List<String> created = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                created.add(service.createLeaveRequest("Employee " + (i % 7), 10));
+            }
+            for (int i = 0; i < created.size(); i += 3) {
+                service.approveLeaveRequest(created.get(i));
+            }
+            for (int i = 1; i < created.size(); i += 5) {
+                if (i % 3 != 0) {
+                    service.rejectLeaveRequest(created.get(i));
+                }
+            }
+
+            // Act
+            List<LeaveRequest> paged = new ArrayList<>();
+            String cursor = null;
+            do {
+                LeaveRequestPage page = service.getLeaveRequestPage(cursor, 7);
+                paged.addAll(page.getItems());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            // Assert
+            List<LeaveRequest> streamed = service.streamLeaveRequests().toList();
+            assertEquals(300, paged.size());
+            assertEquals(created.size(), paged.stream().map(LeaveRequest::getId).distinct().count());
+            assertEquals(streamed.stream().map(LeaveRequest::getId).toList(),
+                    paged.stream().map(LeaveRequest::getId).toList());
+            for (int i = 1; i < paged.size(); i++) {
+                LeaveRequest previous = paged.get(i - 1);
+                LeaveRequest current = paged.get(i);
+                int order = previous.getRequestDate().compareTo(current.getRequestDate());
+                assertTrue(order < 0 || (order == 0 && previous.getRequestId().compareTo(current.getRequestId()) < 0));
+            }
+            int approved = service.getLeaveRequestsByStatus(LeaveStatus.APPROVED).size();
+            int rejected = service.getLeaveRequestsByStatus(LeaveStatus.REJECTED).size();
+            int pending = service.getLeaveRequestsByStatus(LeaveStatus.PENDING).size();
+            assertEquals(100, approved);
+            assertEquals(300, approved + rejected + pending);
+            assertEquals(300, service.getLeaveRequestsByRequestDate(LocalDateTime.now().minusDays(1),
+                    LocalDateTime.now().plusDays(1)).size());
+            int byEmployee = 0;
+            for (int e = 0; e < 7; e++) {
+                byEmployee += service.getLeaveRequestsByEmployee("Employee " + e).size();
+            }
+            assertEquals(300, byEmployee);
+            assertEquals(pending, store.openCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Should archive the decided requests of a legacy request log")
+    void shouldReadLegacyLogIntoArchive(@TempDir Path directory) {
+        // Arrange
+        LeaveRecord pending = record("Pending Employee", 8, LeaveStatus.PENDING);
+        LeaveRecord approved = record("Approved Employee", 10, LeaveStatus.PENDING);
+        try (WriteAheadLog log = new WriteAheadLog(directory, 64 * 1024)) {
+            log.append(LeaveRequestCodec.encode(LeaveMutation.CREATE, approved));
+            log.append(LeaveRequestCodec.encode(LeaveMutation.CREATE, pending));
+            log.sync(log.append(LeaveRequestCodec.encode(LeaveMutation.APPROVE,
+                    approved.withStatus(LeaveStatus.APPROVED, System.currentTimeMillis()))));
+        }
+        TieredLeaveRequestStore store = newStore();
+
+        // Act
+        LegacyLeaveRequestLog.read(directory, 64 * 1024, store);
+        SimpleLeaveRequestService service = SimpleLeaveRequestService.builder().leaveRequests(store).build();
+
+        // Assert
+        LeaveRequest approvedRequest = service.getLeaveRequest(approved.id().toString());
+        assertEquals(LeaveStatus.APPROVED, approvedRequest.getStatus());
+        assertNotNull(approvedRequest.getApprovalDate());
+        assertEquals(LeaveStatus.PENDING, service.getLeaveRequest(pending.id().toString()).getStatus());
+        assertEquals(1, service.getLeaveRequestsByStatus(LeaveStatus.APPROVED).size());
+        assertEquals(1, store.openCount());
+    }
+}
@@ -0,0 +1,188 @@
+package com.jrrd.jbpmdemo.timer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("HierarchicalTimingWheel Tests")
+class HierarchicalTimingWheelTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    // 10 ms ticks, 8 buckets and 3 levels: spans of 80 ms, 640 ms and 5.12 s
+    private HierarchicalTimingWheel newWheel() {
+        return new HierarchicalTimingWheel(10, 8, 3, clock::get);
+    }
+
+    /**
+     * Advances the clock one tick at a time and records when each task ran
+     */
+    private static void runUntil(HierarchicalTimingWheel wheel, AtomicLong clock, long until) {
+        while (clock.get() < until) {
+            wheel.advanceTo(clock.addAndGet(wheel.tickMillis()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Expiry Tests")
+    class ExpiryTests {
+
+        @Test
+        @DisplayName("Should run tasks on their deadline tick on every level")
+        void shouldRunTasksOnDeadline() {
+            // Arrange
+            HierarchicalTimingWheel wheel = newWheel();
+            long start = clock.get();
+            long[] delays = { 10, 70, 80, 90, 630, 650, 5_000, 5_130 };
+            long[] firedAt = new long[delays.length];
+            for (int i = 0; i < delays.length; i++) {
+                int task = i;
+                wheel.schedule(start + delays[i], () -> firedAt[task] = clock.get());
+            }
+
+            // Act
+            runUntil(wheel, clock, start + 6_000);
+
+            // Assert
+            for (int i = 0; i < delays.length; i++) {
+                assertEquals(start + delays[i], firedAt[i], "Task with delay " + delays[i]);
+            }
+            assertEquals(0, wheel.size());
+        }
+
+        @Test
+        @DisplayName("Should round deadlines up to the next tick")
+        void shouldRoundDeadlinesUp() {
+            // Arrange
+            HierarchicalTimingWheel wheel = newWheel();
+            long start = clock.get();
+            long[] firedAt = { 0 };
+            wheel.schedule(start + 25, () -> firedAt[0] = clock.get());
+
+            // Act
+            runUntil(wheel, clock, start + 100);
+
+            // Assert
+            assertEquals(start + 30, firedAt[0]);
+        }
+
+        @Test
+        @DisplayName("Should run overdue tasks on the next tick")
+        void shouldRunOverdueTasksOnNextTick() {
+            // Arrange
+            HierarchicalTimingWheel wheel = newWheel();
+            runUntil(wheel, clock, clock.get() + 200);
+            List<String> fired = new ArrayList<>();
+            wheel.schedule(clock.get() - 10_000, () -> fired.add("overdue"));
+
+            // Act
+            int ran = wheel.advanceTo(clock.addAndGet(10));
+
+            // Assert
+            assertEquals(1, ran);
+            assertEquals(List.of("overdue"), fired);
+        }
+
+        @Test
+        @DisplayName("Should keep deadlines beyond the top level")
+        void shouldKeepDeadlinesBeyondTopLevel() {
+            // Arrange
+            HierarchicalTimingWheel wheel = newWheel();
+            long start = clock.get();
+            long[] firedAt = { 0 };
+            wheel.schedule(start + 20_000, () -> firedAt[0] = clock.get());
+
+            // Act
+            runUntil(wheel, clock, start + 19_990);
+            long before = firedAt[0];
+            runUntil(wheel, clock, start + 21_000);
+
+            // Assert
+            assertEquals(0, before);
+            assertEquals(start + 20_000, firedAt[0]);
+        }
+
+        @Test
+        @DisplayName("Should catch up when advanced by many ticks at once")
+        void shouldCatchUpLargeAdvances() {
+            // Arrange
+            HierarchicalTimingWheel wheel = newWheel();
+            long start = clock.get();
+            Random random = new Random(42);
+            int[] fired = { 0 };
+            for (int i = 0; i < 10_000; i++) {
+                wheel.schedule(start + 1 + random.nextInt(30_000), () -> fired[0]++);
+            }
+
+            // Act
+            int ran = wheel.advanceTo(start + 30_000);
+
+            // Assert
+            assertEquals(10_000, ran);
+            assertEquals(10_000, fired[0]);
+            assertEquals(0, wheel.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Cancellation Tests")
+    class CancellationTests {
+
+        @Test
+        @DisplayName("Should not run cancelled tasks")
+        void shouldNotRunCancelledTasks() {
+            // Arrange
+            HierarchicalTimingWheel wheel = newWheel();
+            long start = clock.get();
+            List<String> fired = new ArrayList<>();
+            HierarchicalTimingWheel.Timeout near = wheel.schedule(start + 50, () -> fired.add("near"));
+            HierarchicalTimingWheel.Timeout far = wheel.schedule(start + 3_000, () -> fired.add("far"));
+            wheel.schedule(start + 60, () -> fired.add("kept"));
+
+            // Act
+            boolean nearCancelled = near.cancel();
+            runUntil(wheel, clock, start + 1_000);
+            boolean farCancelled = far.cancel();
+            runUntil(wheel, clock, start + 4_000);
+
+            // Assert
+            assertTrue(nearCancelled);
+            assertTrue(farCancelled);
+            assertFalse(near.cancel());
+            assertEquals(List.of("kept"), fired);
+            assertEquals(0, wheel.size());
+        }
+
+        @Test
+        @DisplayName("Should not cancel tasks that already ran")
+        void shouldNotCancelExpiredTasks() {
+            // Arrange
+            HierarchicalTimingWheel wheel = newWheel();
+            HierarchicalTimingWheel.Timeout timeout = wheel.schedule(clock.get() + 10, () -> { });
+
+            // Act
+            runUntil(wheel, clock, clock.get() + 20);
+
+            // Assert
+            assertFalse(timeout.cancel());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject invalid wheel sizes")
+    void shouldRejectInvalidWheelSizes() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel(10, 6, 3, clock::get));
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel(0, 8, 3, clock::get));
+    }
+}